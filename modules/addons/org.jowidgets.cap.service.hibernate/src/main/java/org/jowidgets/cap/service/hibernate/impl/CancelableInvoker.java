@@ -59,6 +59,10 @@ final class CancelableInvoker {
 
 	private static final ILogger LOGGER = LoggerProvider.get(CancelableInvoker.class);
 
+	//random prefix created once, the identifier of each invocation only increments the sequence
+	private static final String CLIENT_IDENTIFIER_PREFIX = UUID.randomUUID().toString() + "-";
+	private static final AtomicLong CLIENT_IDENTIFIER_SEQUENCE = new AtomicLong();
+
 	private final ISystemTimeProvider systemTimeProvider;
 	private final IThreadInterruptObservable threadInterruptObservable;
 
@@ -138,7 +142,7 @@ final class CancelableInvoker {
 		this.queryStartedTimestamp = new AtomicLong(0);
 		this.terminateInvokedByCancelTimestamp = new AtomicReference<Long>();
 
-		this.clientIdentifier = UUID.randomUUID().toString();
+		this.clientIdentifier = CLIENT_IDENTIFIER_PREFIX + CLIENT_IDENTIFIER_SEQUENCE.incrementAndGet();
 		this.killSessionSupport = killSessionSupport;
 
 		final EntityManager entityManager = EntityManagerHolder.get();
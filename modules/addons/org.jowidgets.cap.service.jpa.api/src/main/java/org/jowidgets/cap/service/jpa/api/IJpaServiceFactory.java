@@ -32,15 +32,48 @@ import java.util.Collection;
 
 import org.jowidgets.cap.common.api.bean.IBean;
 import org.jowidgets.cap.common.api.service.IReaderService;
+import org.jowidgets.cap.service.api.bean.IBeanAccess;
 import org.jowidgets.cap.service.api.bean.IBeanDtoFactory;
 import org.jowidgets.cap.service.api.bean.IBeanReader;
 import org.jowidgets.cap.service.api.factory.IBeanServiceFactory;
+import org.jowidgets.cap.service.jpa.api.query.IKeysetQueryCreator;
 import org.jowidgets.cap.service.jpa.api.query.IQueryCreator;
 
 public interface IJpaServiceFactory extends IBeanServiceFactory {
 
+	/**
+	 * Creates a bean access that gets the beans for many keys in chunks, so the IN list of a query
+	 * never has more than the given number of elements (e.g. Oracle allows at most 1000 elements).
+	 * 
+	 * The bean access created with {@link #beanAccess(Class, Object)} uses a max chunk size of 1000.
+	 * 
+	 * @param beanType The type of the bean, must not be null
+	 * @param beanTypeId The bean type id, must not be null
+	 * @param maxChunkSize The max number of ids per query, must be greater than zero
+	 * 
+	 * @return A new bean access, never null
+	 */
+	<BEAN_TYPE extends IBean> IBeanAccess<BEAN_TYPE> beanAccess(
+		Class<? extends BEAN_TYPE> beanType,
+		Object beanTypeId,
+		int maxChunkSize);
+
 	<BEAN_TYPE extends IBean, PARAM_TYPE> IBeanReader<BEAN_TYPE, PARAM_TYPE> beanReader(IQueryCreator<PARAM_TYPE> queryCreator);
 
+	/**
+	 * Creates a bean reader that reads sequential pages with continuations. The offset reads of the reader
+	 * are the same as the reads of {@link #beanReader(IQueryCreator)}.
+	 * 
+	 * The page reads can only be invoked on the server, the reader services do not carry the continuations.
+	 * 
+	 * @param queryCreator The query creator, must not be null. Use a {@link IKeysetQueryCreator}
+	 *            to seek to the next page instead of skipping the preceding rows.
+	 * 
+	 * @return A new bean reader, never null
+	 */
+	<BEAN_TYPE extends IBean, PARAM_TYPE> IKeysetBeanReader<BEAN_TYPE, PARAM_TYPE> keysetBeanReader(
+		IQueryCreator<PARAM_TYPE> queryCreator);
+
 	<BEAN_TYPE extends IBean, PARAM_TYPE> IReaderService<PARAM_TYPE> readerService(
 		IQueryCreator<PARAM_TYPE> queryCreator,
 		IBeanDtoFactory<BEAN_TYPE> beanDtoFactory);
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.jowidgets.cap.service.jpa.api;
+
+import java.util.List;
+
+import org.jowidgets.cap.common.api.bean.IBeanKey;
+import org.jowidgets.cap.common.api.execution.IExecutionCallback;
+import org.jowidgets.cap.common.api.filter.IFilter;
+import org.jowidgets.cap.common.api.service.IReaderService;
+import org.jowidgets.cap.common.api.sort.ISort;
+import org.jowidgets.cap.service.api.bean.IBeanReader;
+import org.jowidgets.cap.service.jpa.api.query.IKeysetQueryCreator;
+
+/**
+ * A bean reader that reads sequential pages with continuations.
+ * 
+ * Each page yields an opaque continuation that must be given to the read of the next page. If the query creator
+ * is a {@link IKeysetQueryCreator} and supports keyset pagination for the sorting, the next page seeks to the rows after
+ * the last row of the previous page, otherwise the preceding rows will be skipped with an offset.
+ * 
+ * The continuation is held by the invoker and not by the reader, so the pages are always read with the
+ * invokers filter and predicates. When seeking, rows inserted or deleted before the last row of the previous page
+ * will not shift the next page.
+ * 
+ * Remark: The continuations are a server side api only, they will not be carried through the {@link IReaderService}
+ * and so they are not available to clients. Reader services created from this reader (or the same query creator)
+ * read their pages with the offset of the first row.
+ */
+public interface IKeysetBeanReader<BEAN_TYPE, PARAM_TYPE> extends IBeanReader<BEAN_TYPE, PARAM_TYPE> {
+
+	/**
+	 * Reads a page
+	 * 
+	 * @param parentBeanKeys The parent bean keys of the read
+	 * @param filter The filter of the read
+	 * @param sorting The sorting of the read
+	 * @param continuation The continuation of the previous page or null to read the first page. The continuation
+	 *            must only be used with the parent bean keys, filter, sorting and parameter of the previous page.
+	 * @param maxRows The max number of rows of the page
+	 * @param parameter The parameter of the read
+	 * @param executionCallback The execution callback
+	 * 
+	 * @return The page, never null
+	 */
+	IBeanPage<BEAN_TYPE> readPage(
+		List<? extends IBeanKey> parentBeanKeys,
+		IFilter filter,
+		List<? extends ISort> sorting,
+		Object continuation,
+		int maxRows,
+		PARAM_TYPE parameter,
+		IExecutionCallback executionCallback);
+
+}
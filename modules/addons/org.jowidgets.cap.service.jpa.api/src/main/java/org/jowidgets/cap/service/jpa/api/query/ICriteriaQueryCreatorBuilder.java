@@ -59,6 +59,18 @@ public interface ICriteriaQueryCreatorBuilder<PARAMETER_TYPE> {
 
 	ICriteriaQueryCreatorBuilder<PARAMETER_TYPE> setCaseSensitve(boolean caseSensitve);
 
+	/**
+	 * Sets the keyset pagination mode. If set, the read queries will be ordered by the bean id after the given sorting,
+	 * and page reads of a {@link org.jowidgets.cap.service.jpa.api.IKeysetBeanReader} seek to the rows after the previous
+	 * page (see {@link IKeysetQueryCreator}) instead of skipping the preceding rows.
+	 * 
+	 * Keyset pagination will only be used for sortings of not optional basic attributes of the bean.
+	 * 
+	 * @param keysetPagination If true, keyset pagination will be used, default is false
+	 * @return This builder
+	 */
+	ICriteriaQueryCreatorBuilder<PARAMETER_TYPE> setKeysetPagination(boolean keysetPagination);
+
 	ICriteriaQueryCreatorBuilder<PARAMETER_TYPE> addPredicateCreator(IPredicateCreator<PARAMETER_TYPE> predicateCreator);
 
 	ICriteriaQueryCreatorBuilder<PARAMETER_TYPE> addFilter(IFilter filter);
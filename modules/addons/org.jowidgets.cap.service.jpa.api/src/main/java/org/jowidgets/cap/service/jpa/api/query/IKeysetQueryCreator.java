@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.cap.service.jpa.api.query;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.jowidgets.cap.common.api.bean.IBeanKey;
+import org.jowidgets.cap.common.api.filter.IFilter;
+import org.jowidgets.cap.common.api.sort.ISort;
+
+/**
+ * A query creator that supports keyset (seek) pagination.
+ * 
+ * Instead of skipping all rows before a page, the query of the next page seeks to the rows after the last row
+ * of the previous page, given by the keyset of that row. The keyset contains the values of the sorted properties
+ * and the id of the bean, the id will be used as tiebreaker.
+ */
+public interface IKeysetQueryCreator<PARAMETER_TYPE> extends IQueryCreator<PARAMETER_TYPE> {
+
+	/**
+	 * Gets the keyset of a bean for a sorting
+	 * 
+	 * @param entityManager The entity manager to use
+	 * @param bean The bean to get the keyset for
+	 * @param sorting The sorting of the read
+	 * 
+	 * @return The keyset or null, if keyset pagination is not possible for the sorting or the bean
+	 */
+	List<Object> getKeyset(EntityManager entityManager, Object bean, List<? extends ISort> sorting);
+
+	/**
+	 * Creates a read query that reads the rows after the row with the given keyset
+	 * 
+	 * @param entityManager The entity manager to use
+	 * @param parentBeanKeys The parent bean keys of the read
+	 * @param filter The filter of the read
+	 * @param sorting The sorting of the read
+	 * @param keyset The keyset of the last row of the previous page, created with {@link #getKeyset(EntityManager, Object, List)}
+	 * @param parameter The parameter of the read
+	 * 
+	 * @return The query or null, if keyset pagination is not possible for the sorting
+	 */
+	Query createSeekReadQuery(
+		EntityManager entityManager,
+		List<? extends IBeanKey> parentBeanKeys,
+		IFilter filter,
+		List<? extends ISort> sorting,
+		List<Object> keyset,
+		PARAMETER_TYPE parameter);
+
+}
@@ -25,15 +25,22 @@
  * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
  * DAMAGE.
  */
+
 package org.jowidgets.cap.service.jpa.impl;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 
 import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.ParameterExpression;
+import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Root;
 
 import org.jowidgets.cap.common.api.bean.IBean;
@@ -46,36 +53,117 @@ import org.jowidgets.util.EmptyCheck;
 
 final class JpaBeanAccessImpl<BEAN_TYPE extends IBean> implements IBeanAccess<BEAN_TYPE> {
 
+	static final int DEFAULT_MAX_CHUNK_SIZE = 1000;
+
 	private final Class<? extends BEAN_TYPE> beanType;
 	private final Object beanTypeId;
+	private final int maxChunkSize;
 
 	JpaBeanAccessImpl(final Class<? extends BEAN_TYPE> beanType, final Object beanTypeId) {
+		this(beanType, beanTypeId, DEFAULT_MAX_CHUNK_SIZE);
+	}
+
+	JpaBeanAccessImpl(final Class<? extends BEAN_TYPE> beanType, final Object beanTypeId, final int maxChunkSize) {
 		Assert.paramNotNull(beanType, "beanType");
 		Assert.paramNotNull(beanTypeId, "beanTypeId");
+		if (maxChunkSize <= 0) {
+			throw new IllegalArgumentException("The parameter 'maxChunkSize' must be greater than zero");
+		}
 		this.beanType = beanType;
 		this.beanTypeId = beanTypeId;
+		this.maxChunkSize = maxChunkSize;
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
 	public List<BEAN_TYPE> getBeans(final Collection<? extends IBeanKey> keys, final IExecutionCallback executionCallback) {
 		if (EmptyCheck.isEmpty(keys)) {
 			return Collections.emptyList();
 		}
 		else {
-			final Collection<Object> ids = new HashSet<Object>(keys.size());
+			final Collection<Object> distinctIds = new LinkedHashSet<Object>(keys.size());
 			for (final IBeanKey beanKey : keys) {
-				ids.add(beanKey.getId());
+				distinctIds.add(beanKey.getId());
 			}
+			final List<Object> ids = new ArrayList<Object>(distinctIds);
 			final EntityManager entityManager = EntityManagerProvider.get();
-			final CriteriaQuery<? extends BEAN_TYPE> query = entityManager.getCriteriaBuilder().createQuery(beanType);
-			final Root<? extends BEAN_TYPE> bean = query.from(beanType);
-			query.where(bean.get(IBean.ID_PROPERTY).in(ids));
-			CapServiceToolkit.checkCanceled(executionCallback);
-			final List<? extends BEAN_TYPE> result = entityManager.createQuery(query).getResultList();
+
+			if (ids.size() == 1 && isValidId(entityManager, ids.get(0))) {
+				//find uses the persistence context first, so managed beans will not be queried again
+				CapServiceToolkit.checkCanceled(executionCallback);
+				final BEAN_TYPE bean = entityManager.find(beanType, ids.get(0));
+				CapServiceToolkit.checkCanceled(executionCallback);
+				if (bean != null) {
+					return Collections.singletonList(bean);
+				}
+				else {
+					return Collections.emptyList();
+				}
+			}
+
+			final List<BEAN_TYPE> result = new ArrayList<BEAN_TYPE>(ids.size());
+			for (int chunkStart = 0; chunkStart < ids.size(); chunkStart = chunkStart + maxChunkSize) {
+				CapServiceToolkit.checkCanceled(executionCallback);
+				final int chunkEnd = Math.min(chunkStart + maxChunkSize, ids.size());
+				result.addAll(getBeans(entityManager, ids.subList(chunkStart, chunkEnd)));
+			}
 			CapServiceToolkit.checkCanceled(executionCallback);
-			return (List<BEAN_TYPE>) result;
+			return result;
+		}
+	}
+
+	/**
+	 * Checks if the id can be used with {@link EntityManager#find(Class, Object)}, which throws an
+	 * IllegalArgumentException for null ids and ids of the wrong type, where the query yields no bean.
+	 * Primitive id types will not be checked and will be queried.
+	 */
+	private boolean isValidId(final EntityManager entityManager, final Object id) {
+		if (id == null) {
+			return false;
+		}
+		try {
+			final Class<?> idType = entityManager.getMetamodel().entity(beanType).getIdType().getJavaType();
+			return !idType.isPrimitive() && idType.isInstance(id);
+		}
+		catch (final IllegalArgumentException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Gets the beans of a chunk of ids with one query.
+	 * 
+	 * The number of parameters of the query will be rounded up to the next power of two (or to the max chunk size),
+	 * and the missing parameters will be filled with the last id. So only a few different statements will be created,
+	 * that can be reused by the statement cache of the database or the driver.
+	 */
+	@SuppressWarnings("unchecked")
+	private List<BEAN_TYPE> getBeans(final EntityManager entityManager, final List<Object> ids) {
+		final int parameterCount = getParameterCount(ids.size());
+
+		final CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+		final CriteriaQuery<? extends BEAN_TYPE> query = criteriaBuilder.createQuery(beanType);
+		final Root<? extends BEAN_TYPE> bean = query.from(beanType);
+		final Path<Object> idPath = bean.get(IBean.ID_PROPERTY);
+
+		final List<ParameterExpression<Object>> parameters = new ArrayList<ParameterExpression<Object>>(parameterCount);
+		for (int i = 0; i < parameterCount; i++) {
+			parameters.add((ParameterExpression<Object>) criteriaBuilder.parameter(idPath.getJavaType()));
+		}
+		query.where(idPath.in(parameters.toArray(new Expression<?>[parameterCount])));
+
+		final TypedQuery<? extends BEAN_TYPE> typedQuery = entityManager.createQuery(query);
+		for (int i = 0; i < parameterCount; i++) {
+			typedQuery.setParameter(parameters.get(i), ids.get(Math.min(i, ids.size() - 1)));
+		}
+		return (List<BEAN_TYPE>) typedQuery.getResultList();
+	}
+
+	private int getParameterCount(final int idCount) {
+		int result = 1;
+		while (result < idCount) {
+			result = result * 2;
 		}
+		return Math.min(result, maxChunkSize);
 	}
 
 	@Override
@@ -28,9 +28,12 @@
 
 package org.jowidgets.cap.service.jpa.impl;
 
+import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import javax.persistence.EntityManager;
 import javax.persistence.Query;
 
 import org.jowidgets.cap.common.api.bean.IBeanKey;
@@ -38,17 +41,27 @@ import org.jowidgets.cap.common.api.execution.IExecutionCallback;
 import org.jowidgets.cap.common.api.filter.IFilter;
 import org.jowidgets.cap.common.api.sort.ISort;
 import org.jowidgets.cap.service.api.CapServiceToolkit;
-import org.jowidgets.cap.service.api.bean.IBeanReader;
+import org.jowidgets.cap.service.jpa.api.IBeanPage;
+import org.jowidgets.cap.service.jpa.api.IKeysetBeanReader;
+import org.jowidgets.cap.service.jpa.api.query.IKeysetQueryCreator;
 import org.jowidgets.cap.service.jpa.api.query.IQueryCreator;
 import org.jowidgets.util.Assert;
+import org.jowidgets.util.NullCompatibleEquivalence;
 
-final class JpaBeanReader<BEAN_TYPE, PARAM_TYPE> implements IBeanReader<BEAN_TYPE, PARAM_TYPE> {
+final class JpaBeanReader<BEAN_TYPE, PARAM_TYPE> implements IKeysetBeanReader<BEAN_TYPE, PARAM_TYPE> {
 
 	private final IQueryCreator<PARAM_TYPE> queryCreator;
+	private final IKeysetQueryCreator<PARAM_TYPE> keysetQueryCreator;
 
 	JpaBeanReader(final IQueryCreator<PARAM_TYPE> queryCreator) {
 		Assert.paramNotNull(queryCreator, "queryCreator");
 		this.queryCreator = queryCreator;
+		if (queryCreator instanceof IKeysetQueryCreator) {
+			this.keysetQueryCreator = (IKeysetQueryCreator<PARAM_TYPE>) queryCreator;
+		}
+		else {
+			this.keysetQueryCreator = null;
+		}
 	}
 
 	@Override
@@ -64,15 +77,49 @@ final class JpaBeanReader<BEAN_TYPE, PARAM_TYPE> implements IBeanReader<BEAN_TYP
 		final Query query = queryCreator.createReadQuery(EntityManagerProvider.get(), parentBeanKeys, filter, sorting, parameter);
 		query.setFirstResult(firstRow);
 		query.setMaxResults(maxRows);
+		return getResultList(query, executionCallback);
+	}
 
-		CapServiceToolkit.checkCanceled(executionCallback);
-		@SuppressWarnings("unchecked")
-		final List<BEAN_TYPE> result = query.getResultList();
-		CapServiceToolkit.checkCanceled(executionCallback);
-		if (result != null) {
-			return result;
+	@Override
+	public IBeanPage<BEAN_TYPE> readPage(
+		final List<? extends IBeanKey> parentBeanKeys,
+		final IFilter filter,
+		final List<? extends ISort> sorting,
+		final Object continuation,
+		final int maxRows,
+		final PARAM_TYPE parameter,
+		final IExecutionCallback executionCallback) {
+
+		final EntityManager entityManager = EntityManagerProvider.get();
+		final Continuation previous = getContinuation(continuation, sorting);
+
+		Query query = null;
+		if (previous != null && previous.keyset != null) {
+			query = keysetQueryCreator.createSeekReadQuery(
+					entityManager,
+					parentBeanKeys,
+					filter,
+					sorting,
+					previous.keyset,
+					parameter);
 		}
-		return Collections.emptyList();
+		if (query == null) {
+			query = queryCreator.createReadQuery(entityManager, parentBeanKeys, filter, sorting, parameter);
+			query.setFirstResult(previous != null ? previous.nextRow : 0);
+		}
+		query.setMaxResults(maxRows);
+
+		final List<BEAN_TYPE> result = getResultList(query, executionCallback);
+		if (result.isEmpty() || result.size() < maxRows) {
+			return new BeanPage<BEAN_TYPE>(result, null);
+		}
+
+		final int nextRow = (previous != null ? previous.nextRow : 0) + result.size();
+		List<Object> keyset = null;
+		if (keysetQueryCreator != null) {
+			keyset = keysetQueryCreator.getKeyset(entityManager, result.get(result.size() - 1), sorting);
+		}
+		return new BeanPage<BEAN_TYPE>(result, new Continuation(nextRow, keyset, sorting));
 	}
 
 	@Override
@@ -94,4 +141,76 @@ final class JpaBeanReader<BEAN_TYPE, PARAM_TYPE> implements IBeanReader<BEAN_TYP
 		}
 	}
 
+	private List<BEAN_TYPE> getResultList(final Query query, final IExecutionCallback executionCallback) {
+		CapServiceToolkit.checkCanceled(executionCallback);
+		@SuppressWarnings("unchecked")
+		final List<BEAN_TYPE> result = query.getResultList();
+		CapServiceToolkit.checkCanceled(executionCallback);
+		if (result != null) {
+			return result;
+		}
+		return Collections.emptyList();
+	}
+
+	private static Continuation getContinuation(final Object continuation, final List<? extends ISort> sorting) {
+		if (continuation == null) {
+			return null;
+		}
+		if (!(continuation instanceof Continuation)) {
+			throw new IllegalArgumentException("The continuation was not created by this reader: " + continuation);
+		}
+		final Continuation result = (Continuation) continuation;
+		if (!NullCompatibleEquivalence.equals(result.sorting, sorting)) {
+			throw new IllegalArgumentException("The continuation was created for another sorting: " + result.sorting);
+		}
+		return result;
+	}
+
+	private static final class BeanPage<BEAN_TYPE> implements IBeanPage<BEAN_TYPE> {
+
+		private final List<BEAN_TYPE> beans;
+		private final Object continuation;
+
+		BeanPage(final List<BEAN_TYPE> beans, final Object continuation) {
+			this.beans = beans;
+			this.continuation = continuation;
+		}
+
+		@Override
+		public List<BEAN_TYPE> getBeans() {
+			return beans;
+		}
+
+		@Override
+		public Object getContinuation() {
+			return continuation;
+		}
+
+	}
+
+	/**
+	 * The continuation of a page. The keyset is null, if keyset pagination is not possible for the read,
+	 * the next page will be read with the offset then.
+	 */
+	private static final class Continuation implements Serializable {
+
+		private static final long serialVersionUID = -2741905562316471389L;
+
+		private final int nextRow;
+		private final ArrayList<Object> keyset;
+		private final ArrayList<ISort> sorting;
+
+		Continuation(final int nextRow, final List<Object> keyset, final List<? extends ISort> sorting) {
+			this.nextRow = nextRow;
+			this.keyset = keyset != null ? new ArrayList<Object>(keyset) : null;
+			this.sorting = sorting != null ? new ArrayList<ISort>(sorting) : null;
+		}
+
+		@Override
+		public String toString() {
+			return "Continuation [nextRow=" + nextRow + ", keyset=" + keyset + ", sorting=" + sorting + "]";
+		}
+
+	}
+
 }
@@ -40,6 +40,7 @@ import org.jowidgets.cap.service.api.bean.IBeanReader;
 import org.jowidgets.cap.service.api.creator.ICreatorServiceBuilder;
 import org.jowidgets.cap.service.api.deleter.IDeleterServiceBuilder;
 import org.jowidgets.cap.service.jpa.api.IJpaServiceFactory;
+import org.jowidgets.cap.service.jpa.api.IKeysetBeanReader;
 import org.jowidgets.cap.service.jpa.api.query.ICriteriaQueryCreatorBuilder;
 import org.jowidgets.cap.service.jpa.api.query.IQueryCreator;
 import org.jowidgets.cap.service.jpa.api.query.JpaQueryToolkit;
@@ -55,6 +56,14 @@ public class JpaServiceFactoryImpl extends AbstractBeanServiceFactory implements
 		return new JpaBeanAccessImpl<BEAN_TYPE>(beanType, beanTypeId);
 	}
 
+	@Override
+	public <BEAN_TYPE extends IBean> IBeanAccess<BEAN_TYPE> beanAccess(
+		final Class<? extends BEAN_TYPE> beanType,
+		final Object beanTypeId,
+		final int maxChunkSize) {
+		return new JpaBeanAccessImpl<BEAN_TYPE>(beanType, beanTypeId, maxChunkSize);
+	}
+
 	@Override
 	public <BEAN_TYPE extends IBean, PARAM_TYPE> IBeanReader<BEAN_TYPE, PARAM_TYPE> beanReader(
 		final Class<? extends BEAN_TYPE> beanType,
@@ -71,6 +80,12 @@ public class JpaServiceFactoryImpl extends AbstractBeanServiceFactory implements
 		return new JpaBeanReader<BEAN_TYPE, PARAM_TYPE>(queryCreator);
 	}
 
+	@Override
+	public <BEAN_TYPE extends IBean, PARAM_TYPE> IKeysetBeanReader<BEAN_TYPE, PARAM_TYPE> keysetBeanReader(
+		final IQueryCreator<PARAM_TYPE> queryCreator) {
+		return new JpaBeanReader<BEAN_TYPE, PARAM_TYPE>(queryCreator);
+	}
+
 	@Override
 	public <BEAN_TYPE extends IBean> ICreatorServiceBuilder<BEAN_TYPE> creatorServiceBuilder(
 		final Class<? extends BEAN_TYPE> beanType,
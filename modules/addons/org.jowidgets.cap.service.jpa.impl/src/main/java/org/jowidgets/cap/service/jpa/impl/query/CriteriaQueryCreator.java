@@ -28,17 +28,15 @@
 
 package org.jowidgets.cap.service.jpa.impl.query;
 
-import java.beans.PropertyDescriptor;
-import java.lang.annotation.Annotation;
-import java.lang.reflect.Method;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.persistence.EntityManager;
 import javax.persistence.Query;
@@ -72,53 +70,102 @@ import org.jowidgets.cap.common.api.filter.IFilter;
 import org.jowidgets.cap.common.api.filter.IPropertyFilter;
 import org.jowidgets.cap.common.api.sort.ISort;
 import org.jowidgets.cap.common.api.sort.SortOrder;
+import org.jowidgets.cap.service.api.CapServiceToolkit;
+import org.jowidgets.cap.service.api.bean.IBeanPropertyAccessor;
 import org.jowidgets.cap.service.jpa.api.plugin.ICustomFilterPredicateCreatorPlugin;
 import org.jowidgets.cap.service.jpa.api.query.FilterParameterConverter;
 import org.jowidgets.cap.service.jpa.api.query.ICustomFilterPredicateCreator;
+import org.jowidgets.cap.service.jpa.api.query.IKeysetQueryCreator;
 import org.jowidgets.cap.service.jpa.api.query.IPredicateCreator;
 import org.jowidgets.cap.service.jpa.api.query.IPropertyFilterPredicateCreator;
-import org.jowidgets.cap.service.jpa.api.query.IQueryCreator;
 import org.jowidgets.cap.service.jpa.api.query.PropertyMapQueryPath;
 import org.jowidgets.cap.service.jpa.api.query.QueryPath;
+import org.jowidgets.cap.service.jpa.impl.query.QueryParameters.ValueFormat;
+import org.jowidgets.cap.service.jpa.impl.query.QueryParameters.ValueSource;
 import org.jowidgets.plugin.api.IPluginPropertiesBuilder;
 import org.jowidgets.plugin.api.PluginProperties;
 import org.jowidgets.plugin.api.PluginProvider;
 import org.jowidgets.util.Assert;
 import org.jowidgets.util.IConverter;
 
-final class CriteriaQueryCreator<PARAM_TYPE> implements IQueryCreator<PARAM_TYPE> {
+final class CriteriaQueryCreator<PARAM_TYPE> implements IKeysetQueryCreator<PARAM_TYPE> {
 
 	private static final String PROPERTY_MAP_JOIN_ALIAS = "propertyMap";
 
+	/**
+	 * The maximum number of query shapes, the criteria queries will be cached for
+	 */
+	private static final int MAX_QUERY_TEMPLATES = 100;
+
+	enum QueryKind {
+		READ,
+		SEEK_READ,
+		COUNT
+	}
+
 	private final Class<? extends IBean> beanType;
 	private final boolean caseInsensitive;
+	private final boolean keysetPagination;
+	private final IBeanPropertyAccessor<IBean> propertyAccessor;
 	private final List<IPredicateCreator<PARAM_TYPE>> predicateCreators;
+	private final List<ParentLinkPredicateCreator<PARAM_TYPE>> parentLinkPredicateCreators;
+	private final List<ParentLinkPredicateCreator<PARAM_TYPE>> parentUnlinkPredicateCreators;
 	private final List<IFilter> filters;
 	private final Map<String, ? extends ICustomFilterPredicateCreator<PARAM_TYPE>> customFilterPredicateCreators;
 	private final Map<String, ? extends IPropertyFilterPredicateCreator<PARAM_TYPE>> propertyFilterPredicateCreators;
+	private final Map<String, Boolean> joinQueryPathProperties;
+	private final Map<String, Boolean> noAttributeProperties;
+	private final PropertyAnnotationCache annotationCache;
+	private final Map<String, QueryTemplate> queryTemplates;
 
 	CriteriaQueryCreator(
 		final Class<? extends IBean> beanType,
 		final boolean caseSensitive,
+		final boolean keysetPagination,
 		final Collection<? extends IPredicateCreator<PARAM_TYPE>> predicateCreators,
+		final Collection<ParentLinkPredicateCreator<PARAM_TYPE>> parentLinkPredicateCreators,
+		final Collection<ParentLinkPredicateCreator<PARAM_TYPE>> parentUnlinkPredicateCreators,
 		final Collection<? extends IFilter> filters,
 		final Map<String, ? extends ICustomFilterPredicateCreator<PARAM_TYPE>> customFilterPredicateCreators,
 		final Map<String, ? extends IPropertyFilterPredicateCreator<PARAM_TYPE>> propertyFilterPredicateCreators) {
 
 		Assert.paramNotNull(beanType, "beanType");
 		Assert.paramNotNull(predicateCreators, "predicateCreators");
+		Assert.paramNotNull(parentLinkPredicateCreators, "parentLinkPredicateCreators");
+		Assert.paramNotNull(parentUnlinkPredicateCreators, "parentUnlinkPredicateCreators");
 		Assert.paramNotNull(filters, "filters");
 		Assert.paramNotNull(customFilterPredicateCreators, "customFilterPredicateCreators");
 		Assert.paramNotNull(propertyFilterPredicateCreators, "propertyFilterPredicateCreators");
 
 		this.beanType = beanType;
 		this.caseInsensitive = !caseSensitive;
+		this.keysetPagination = keysetPagination;
+		if (keysetPagination) {
+			this.propertyAccessor = CapServiceToolkit.beanPropertyAccessor(beanType);
+		}
+		else {
+			this.propertyAccessor = null;
+		}
 		this.predicateCreators = new LinkedList<IPredicateCreator<PARAM_TYPE>>(predicateCreators);
+		this.parentLinkPredicateCreators = new LinkedList<ParentLinkPredicateCreator<PARAM_TYPE>>(parentLinkPredicateCreators);
+		this.parentUnlinkPredicateCreators = new LinkedList<ParentLinkPredicateCreator<PARAM_TYPE>>(
+			parentUnlinkPredicateCreators);
 		this.filters = new LinkedList<IFilter>(filters);
 		this.customFilterPredicateCreators = new HashMap<String, ICustomFilterPredicateCreator<PARAM_TYPE>>(
 			customFilterPredicateCreators);
 		this.propertyFilterPredicateCreators = new HashMap<String, IPropertyFilterPredicateCreator<PARAM_TYPE>>(
 			propertyFilterPredicateCreators);
+		this.joinQueryPathProperties = new ConcurrentHashMap<String, Boolean>();
+		this.noAttributeProperties = new ConcurrentHashMap<String, Boolean>();
+		this.annotationCache = PropertyAnnotationCache.get(beanType);
+		this.queryTemplates = Collections.synchronizedMap(new LinkedHashMap<String, QueryTemplate>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<String, QueryTemplate> eldest) {
+				return size() > MAX_QUERY_TEMPLATES;
+			}
+		});
 	}
 
 	@Override
@@ -128,12 +175,289 @@ final class CriteriaQueryCreator<PARAM_TYPE> implements IQueryCreator<PARAM_TYPE
 		final IFilter filter,
 		final List<? extends ISort> sorting,
 		final PARAM_TYPE parameter) {
+		return createQuery(entityManager, QueryKind.READ, parentBeanKeys, filter, sorting, null, parameter);
+	}
+
+	@Override
+	public List<Object> getKeyset(final EntityManager entityManager, final Object bean, final List<? extends ISort> sorting) {
+		Assert.paramNotNull(entityManager, "entityManager");
+		Assert.paramNotNull(bean, "bean");
+		if (!isKeysetSorting(entityManager, sorting)) {
+			return null;
+		}
+
+		final List<Object> result = new ArrayList<Object>(sorting.size() + 1);
+		for (final ISort sort : sorting) {
+			final Object value = propertyAccessor.getValue((IBean) bean, sort.getPropertyName());
+			if (!(value instanceof Comparable)) {
+				return null;
+			}
+			result.add(value);
+		}
+
+		final Object id = ((IBean) bean).getId();
+		if (!(id instanceof Comparable)) {
+			return null;
+		}
+		result.add(id);
+		return result;
+	}
+
+	@Override
+	public Query createSeekReadQuery(
+		final EntityManager entityManager,
+		final List<? extends IBeanKey> parentBeanKeys,
+		final IFilter filter,
+		final List<? extends ISort> sorting,
+		final List<Object> keyset,
+		final PARAM_TYPE parameter) {
+
+		Assert.paramNotNull(keyset, "keyset");
+		if (!isKeysetSorting(entityManager, sorting) || keyset.size() != sorting.size() + 1) {
+			return null;
+		}
+		return createQuery(entityManager, QueryKind.SEEK_READ, parentBeanKeys, filter, sorting, keyset, parameter);
+	}
+
+	@Override
+	public Query createCountQuery(
+		final EntityManager entityManager,
+		final List<? extends IBeanKey> parentBeanKeys,
+		final IFilter filter,
+		final PARAM_TYPE parameter) {
+		return createQuery(entityManager, QueryKind.COUNT, parentBeanKeys, filter, null, null, parameter);
+	}
+
+	/**
+	 * Creates a query for a request. The parent ids, filter parameters and keys of the request will be bound as parameters,
+	 * so all requests with the same shape (the structure of the filters, the sorting and the number of parents, if the
+	 * parents will be linked) result in the same statement, and the query plan of the statement can be reused by the
+	 * persistence provider.
+	 * 
+	 * The criteria query of a shape will be cached as a template, if the query does not depend on predicate creators
+	 * that create the predicates for each request. For the following requests with this shape, only the values
+	 * of the request will be bound to a query created from the template.
+	 */
+	private Query createQuery(
+		final EntityManager entityManager,
+		final QueryKind kind,
+		final List<? extends IBeanKey> parentBeanKeys,
+		final IFilter filter,
+		final List<? extends ISort> sorting,
+		final List<Object> keyset,
+		final PARAM_TYPE parameter) {
+
+		final List<Object> parentIds = new LinkedList<Object>();
+		if (parentBeanKeys != null) {
+			for (final IBeanKey parentBeanKey : parentBeanKeys) {
+				parentIds.add(parentBeanKey.getId());
+			}
+		}
 
 		final CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+		final List<Object> requestValues = new ArrayList<Object>();
+		final String shape = getShape(kind, parentIds, filter, sorting, keyset, requestValues);
+		if (shape != null) {
+			final QueryTemplate template = queryTemplates.get(shape);
+			if (template != null && template.isCompatible(entityManager)) {
+				return template.createQuery(entityManager, requestValues);
+			}
+		}
+
+		final QueryParameters queryParameters = new QueryParameters();
+		final CriteriaQuery<?> query = createCriteriaQuery(
+				criteriaBuilder,
+				kind,
+				parentBeanKeys,
+				parentIds,
+				filter,
+				sorting,
+				keyset,
+				parameter,
+				queryParameters);
+
+		final Query result = entityManager.createQuery(query);
+		queryParameters.bind(result);
+		if (shape != null) {
+			//the template will be added after the query was created, so the criteria query will not be compiled concurrently
+			queryTemplates.put(shape, new QueryTemplate(entityManager.getEntityManagerFactory(), query, queryParameters));
+		}
+		return result;
+	}
+
+	private CriteriaQuery<?> createCriteriaQuery(
+		final CriteriaBuilder criteriaBuilder,
+		final QueryKind kind,
+		final List<? extends IBeanKey> parentBeanKeys,
+		final List<Object> parentIds,
+		final IFilter filter,
+		final List<? extends ISort> sorting,
+		final List<Object> keyset,
+		final PARAM_TYPE parameter,
+		final QueryParameters queryParameters) {
+
+		if (kind == QueryKind.COUNT) {
+			final CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+			final Root<?> bean = fillQuery(
+					query,
+					criteriaBuilder,
+					beanType,
+					parentBeanKeys,
+					parentIds,
+					filter,
+					parameter,
+					queryParameters);
+			return query.select(criteriaBuilder.countDistinct(bean));
+		}
+
 		final CriteriaQuery<?> query = criteriaBuilder.createQuery(beanType);
 		query.distinct(true);
-		final Root<?> bean = fillQuery(query, criteriaBuilder, beanType, parentBeanKeys, filter, parameter);
+		final Root<?> bean = fillQuery(
+				query,
+				criteriaBuilder,
+				beanType,
+				parentBeanKeys,
+				parentIds,
+				filter,
+				parameter,
+				queryParameters);
+
+		if (kind == QueryKind.SEEK_READ) {
+			final Predicate seekPredicate = createSeekPredicate(criteriaBuilder, bean, sorting, keyset, queryParameters);
+			final Predicate restriction = query.getRestriction();
+			if (restriction != null) {
+				query.where(restriction, seekPredicate);
+			}
+			else {
+				query.where(seekPredicate);
+			}
+		}
+
+		setOrder(query, criteriaBuilder, bean, sorting);
+		return query;
+	}
 
+	/**
+	 * Gets the shape of a request and adds the values of the request in the order they will be bound to the query.
+	 * 
+	 * The shape contains everything the created criteria query depends on beside the values, i.e. the structure of the
+	 * filters, the null values, the value types and the string values with placeholders.
+	 * 
+	 * The parent ids will only be added, if parent link predicates use them, otherwise they are not part of the query.
+	 * 
+	 * @return The shape or null, if the criteria query can not be reused for other requests
+	 */
+	String getShape(
+		final QueryKind kind,
+		final List<Object> parentIds,
+		final IFilter filter,
+		final List<? extends ISort> sorting,
+		final List<Object> keyset,
+		final List<Object> requestValues) {
+
+		if (!predicateCreators.isEmpty()) {
+			return null;
+		}
+
+		final StringBuilder result = new StringBuilder(kind.name());
+		if (hasParentLinkPredicates()) {
+			requestValues.addAll(parentIds);
+			result.append(";parents(");
+			for (final Object parentId : parentIds) {
+				appendValueShape(result, parentId);
+			}
+			result.append(')');
+		}
+
+		for (final IFilter customFilter : filters) {
+			if (!appendFilterShape(result, customFilter, requestValues)) {
+				return null;
+			}
+		}
+		result.append(";filter");
+		if (filter != null && !appendFilterShape(result, filter, requestValues)) {
+			return null;
+		}
+
+		if (kind != QueryKind.COUNT && sorting != null) {
+			result.append(";sorting(");
+			for (final ISort sort : sorting) {
+				result.append(sort.getPropertyName()).append(' ').append(sort.getSortOrder()).append(',');
+			}
+			result.append(')');
+		}
+
+		if (keyset != null) {
+			result.append(";keyset(");
+			for (final Object key : keyset) {
+				requestValues.add(key);
+				appendValueShape(result, key);
+			}
+			result.append(')');
+		}
+		return result.toString();
+	}
+
+	private boolean appendFilterShape(final StringBuilder shape, final IFilter filter, final List<Object> requestValues) {
+		if (filter instanceof IPropertyFilter
+			&& propertyFilterPredicateCreators.containsKey(((IPropertyFilter) filter).getPropertyName())) {
+			return false;
+		}
+		else if (filter instanceof IArithmeticFilter) {
+			final IArithmeticFilter arithmeticFilter = (IArithmeticFilter) filter;
+			shape.append(";(").append(arithmeticFilter.getPropertyName());
+			shape.append(' ').append(arithmeticFilter.getOperator());
+			shape.append(' ').append(arithmeticFilter.isInverted());
+			final FilterParameters parameters = new FilterParameters(
+				arithmeticFilter,
+				requestValues.size(),
+				getFilterParameterConverterType(annotationCache, arithmeticFilter.getPropertyName()));
+			for (int i = 0; i < parameters.size(); i++) {
+				final FilterParameter unconverted = parameters.getUnconverted(i);
+				requestValues.add(unconverted.value);
+				appendValueShape(shape, unconverted.value);
+				if (parameters.converterType != null && arithmeticFilter.getOperator() != ArithmeticOperator.EMPTY) {
+					shape.append("->");
+					appendValueShape(shape, parameters.get(i).value);
+				}
+			}
+			shape.append(')');
+			return true;
+		}
+		else if (filter instanceof IBooleanFilter) {
+			final IBooleanFilter booleanFilter = (IBooleanFilter) filter;
+			shape.append(";").append(booleanFilter.getOperator()).append(' ').append(booleanFilter.isInverted()).append('(');
+			for (final IFilter subFilter : booleanFilter.getFilters()) {
+				if (!appendFilterShape(shape, subFilter, requestValues)) {
+					return false;
+				}
+			}
+			shape.append(')');
+			return true;
+		}
+		else {
+			//custom filters may create the predicates for each request
+			return false;
+		}
+	}
+
+	private void appendValueShape(final StringBuilder shape, final Object value) {
+		if (value == null) {
+			shape.append(" null");
+		}
+		else {
+			shape.append(' ').append(value.getClass().getName());
+			if (value instanceof String && isPattern((String) value)) {
+				shape.append('*');
+			}
+		}
+	}
+
+	private void setOrder(
+		final CriteriaQuery<?> query,
+		final CriteriaBuilder criteriaBuilder,
+		final Root<?> bean,
+		final List<? extends ISort> sorting) {
 		if (sorting != null) {
 			final List<Order> order = new LinkedList<Order>();
 			for (final ISort sort : sorting) {
@@ -146,24 +470,98 @@ final class CriteriaQueryCreator<PARAM_TYPE> implements IQueryCreator<PARAM_TYPE
 					order.add(criteriaBuilder.desc(path));
 				}
 			}
+			//the id is the tiebreaker of the keyset, so the order must be the same for offset and seek reads
+			if (keysetPagination && !sorting.isEmpty()) {
+				order.add(criteriaBuilder.asc(bean.get(IBean.ID_PROPERTY)));
+			}
 			query.orderBy(order);
 		}
+	}
+
+	/**
+	 * Checks if keyset pagination can be used for a sorting. This is the case, if all sorted properties are
+	 * not optional basic attributes of the bean, so the rows can not have null values for the sorted properties.
+	 * Null values can not be used for keysets, because the database defines if null values come first or last.
+	 */
+	private boolean isKeysetSorting(final EntityManager entityManager, final List<? extends ISort> sorting) {
+		if (!keysetPagination || sorting == null || sorting.isEmpty()) {
+			return false;
+		}
+
+		final ManagedType<?> managedType;
+		try {
+			managedType = entityManager.getMetamodel().managedType(beanType);
+		}
+		catch (final IllegalArgumentException e) {
+			return false;
+		}
 
-		return entityManager.createQuery(query);
+		for (final ISort sort : sorting) {
+			final Attribute<?, ?> attribute;
+			try {
+				attribute = managedType.getAttribute(sort.getPropertyName());
+			}
+			catch (final IllegalArgumentException e) {
+				return false;
+			}
+			if (!(attribute instanceof SingularAttribute)
+				|| attribute.getPersistentAttributeType() != Attribute.PersistentAttributeType.BASIC
+				|| ((SingularAttribute<?, ?>) attribute).isOptional()) {
+				return false;
+			}
+		}
+		return true;
 	}
 
-	@Override
-	public Query createCountQuery(
-		final EntityManager entityManager,
-		final List<? extends IBeanKey> parentBeanKeys,
-		final IFilter filter,
-		final PARAM_TYPE parameter) {
+	/**
+	 * Creates the predicate for the rows after the keyset, e.g. for the sorting (a ASC, b DESC) and the keyset (x, y, i):
+	 * (a > x) OR (a = x AND b < y) OR (a = x AND b = y AND id > i)
+	 * 
+	 * The keys will be bound as parameters, so the statement is the same for all pages of a read.
+	 */
+	@SuppressWarnings("unchecked")
+	private Predicate createSeekPredicate(
+		final CriteriaBuilder criteriaBuilder,
+		final Root<?> bean,
+		final List<? extends ISort> sorting,
+		final List<Object> keyset,
+		final QueryParameters queryParameters) {
 
-		final CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-		final CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
-		final Root<?> bean = fillQuery(query, criteriaBuilder, beanType, parentBeanKeys, filter, parameter);
+		final int keyCount = keyset.size();
+		final Path<?>[] paths = new Path<?>[keyCount];
+		final boolean[] ascending = new boolean[keyCount];
+		int index = 0;
+		for (final ISort sort : sorting) {
+			paths[index] = bean.get(sort.getPropertyName());
+			ascending[index] = sort.getSortOrder() == SortOrder.ASC;
+			index++;
+		}
+		paths[index] = bean.get(IBean.ID_PROPERTY);
+		ascending[index] = true;
+
+		final List<Expression<Comparable<Object>>> keys = new ArrayList<Expression<Comparable<Object>>>(keyCount);
+		int keyIndex = queryParameters.addRequestValues(keyCount);
+		for (final Object key : keyset) {
+			keys.add(queryParameters.add(criteriaBuilder, (Comparable<Object>) key, keyIndex++));
+		}
 
-		return entityManager.createQuery(query.select(criteriaBuilder.countDistinct(bean)));
+		final Predicate[] alternatives = new Predicate[keyCount];
+		for (int i = 0; i < keyCount; i++) {
+			final Predicate[] conjunction = new Predicate[i + 1];
+			for (int j = 0; j < i; j++) {
+				conjunction[j] = criteriaBuilder.equal(paths[j], keys.get(j));
+			}
+			final Expression<Comparable<Object>> path = (Expression<Comparable<Object>>) paths[i];
+			final Expression<Comparable<Object>> key = keys.get(i);
+			if (ascending[i]) {
+				conjunction[i] = criteriaBuilder.greaterThan(path, key);
+			}
+			else {
+				conjunction[i] = criteriaBuilder.lessThan(path, key);
+			}
+			alternatives[i] = criteriaBuilder.and(conjunction);
+		}
+		return criteriaBuilder.or(alternatives);
 	}
 
 	@SuppressWarnings("unchecked")
@@ -172,20 +570,15 @@ final class CriteriaQueryCreator<PARAM_TYPE> implements IQueryCreator<PARAM_TYPE
 		final CriteriaBuilder criteriaBuilder,
 		final Class<?> persistenceClass,
 		final List<? extends IBeanKey> parentBeanKeys,
+		final List<Object> parentIds,
 		final IFilter filter,
-		final PARAM_TYPE parameter) {
+		final PARAM_TYPE parameter,
+		final QueryParameters queryParameters) {
 
 		final Root<?> bean = query.from(persistenceClass);
 
 		final List<Predicate> predicates = new LinkedList<Predicate>();
 
-		final List<Object> parentIds = new LinkedList<Object>();
-		if (parentBeanKeys != null) {
-			for (final IBeanKey parentBeanKey : parentBeanKeys) {
-				parentIds.add(parentBeanKey.getId());
-			}
-		}
-
 		for (final IPredicateCreator<PARAM_TYPE> predicateCreator : predicateCreators) {
 			final Predicate predicate = predicateCreator.createPredicate(
 					criteriaBuilder,
@@ -199,24 +592,90 @@ final class CriteriaQueryCreator<PARAM_TYPE> implements IQueryCreator<PARAM_TYPE
 			}
 		}
 
+		if (hasParentLinkPredicates()) {
+			final List<Expression<?>> parentIdParameters = new ArrayList<Expression<?>>(parentIds.size());
+			int parentIdIndex = queryParameters.addRequestValues(parentIds.size());
+			for (final Object parentId : parentIds) {
+				parentIdParameters.add(queryParameters.add(criteriaBuilder, parentId, parentIdIndex++));
+			}
+			if (!parentLinkPredicateCreators.isEmpty()) {
+				predicates.add(createParentLinkPredicate(criteriaBuilder, bean, query, parentIdParameters, true));
+			}
+			if (!parentUnlinkPredicateCreators.isEmpty()) {
+				predicates.add(createParentLinkPredicate(criteriaBuilder, bean, query, parentIdParameters, false));
+			}
+		}
+
 		for (final IFilter customFilter : filters) {
-			predicates.add(createFilterPredicate(criteriaBuilder, bean, query, customFilter, parameter));
+			predicates.add(createFilterPredicate(criteriaBuilder, bean, query, customFilter, parameter, queryParameters));
 		}
 
 		if (filter != null) {
-			predicates.add(createFilterPredicate(criteriaBuilder, bean, query, filter, parameter));
+			predicates.add(createFilterPredicate(criteriaBuilder, bean, query, filter, parameter, queryParameters));
 		}
 
 		query.where(predicates.toArray(new Predicate[predicates.size()]));
 		return bean;
 	}
 
+	private boolean hasParentLinkPredicates() {
+		return !parentLinkPredicateCreators.isEmpty() || !parentUnlinkPredicateCreators.isEmpty();
+	}
+
+	@SuppressWarnings("unchecked")
+	private Predicate createParentLinkPredicate(
+		final CriteriaBuilder criteriaBuilder,
+		final Root<?> bean,
+		final CriteriaQuery<?> query,
+		final List<Expression<?>> parentIds,
+		final boolean linked) {
+
+		final List<ParentLinkPredicateCreator<PARAM_TYPE>> predicateCreators;
+		if (linked) {
+			predicateCreators = parentLinkPredicateCreators;
+		}
+		else {
+			predicateCreators = parentUnlinkPredicateCreators;
+		}
+
+		final Predicate[] predicates = new Predicate[predicateCreators.size()];
+		int i = 0;
+		for (final ParentLinkPredicateCreator<PARAM_TYPE> parentLinkPredicateCreator : predicateCreators) {
+			final Class<Object> javaType = (Class<Object>) bean.getJavaType();
+			final Subquery<Object> subquery = query.subquery(javaType);
+			final Root<Object> subqueryRoot = subquery.from(javaType);
+			final Path<Object> selectPath = subqueryRoot.get(IBean.ID_PROPERTY);
+			subquery.select(selectPath);
+			subquery.where(parentLinkPredicateCreator.createPredicate(subqueryRoot, parentIds));
+
+			final Predicate predicate = bean.get(IBean.ID_PROPERTY).in(subquery);
+			if (linked) {
+				predicates[i] = predicate;
+			}
+			else {
+				predicates[i] = criteriaBuilder.not(predicate);
+			}
+
+			i++;
+		}
+		if (predicates.length == 1) {
+			return predicates[0];
+		}
+		else if (!linked) {
+			return criteriaBuilder.and(predicates);
+		}
+		else {
+			return criteriaBuilder.or(predicates);
+		}
+	}
+
 	private Predicate createFilterPredicate(
 		final CriteriaBuilder criteriaBuilder,
 		final Root<?> bean,
 		final CriteriaQuery<?> query,
 		final IFilter filter,
-		final PARAM_TYPE parameter) {
+		final PARAM_TYPE parameter,
+		final QueryParameters queryParameters) {
 
 		if (filter instanceof IPropertyFilter) {
 			final IPropertyFilter propertyFilter = (IPropertyFilter) filter;
@@ -229,7 +688,7 @@ final class CriteriaQueryCreator<PARAM_TYPE> implements IQueryCreator<PARAM_TYPE
 		}
 
 		if (filter instanceof IArithmeticFilter) {
-			return createArithmeticFilterPredicate(criteriaBuilder, bean, query, (IArithmeticFilter) filter);
+			return createArithmeticFilterPredicate(criteriaBuilder, bean, query, (IArithmeticFilter) filter, queryParameters);
 		}
 		else if (filter instanceof IArithmeticPropertyFilter) {
 			// TODO MG support IArithmeticPropertyFilter
@@ -237,7 +696,13 @@ final class CriteriaQueryCreator<PARAM_TYPE> implements IQueryCreator<PARAM_TYPE
 		}
 		else if (filter instanceof IBooleanFilter) {
 			final Predicate predicate;
-			predicate = createBooleanFilterPredicate(criteriaBuilder, bean, query, (IBooleanFilter) filter, parameter);
+			predicate = createBooleanFilterPredicate(
+					criteriaBuilder,
+					bean,
+					query,
+					(IBooleanFilter) filter,
+					parameter,
+					queryParameters);
 			return invertPredicateIfNeeded(criteriaBuilder, predicate, filter, true);
 		}
 		else if (filter instanceof ICustomFilter) {
@@ -283,10 +748,12 @@ final class CriteriaQueryCreator<PARAM_TYPE> implements IQueryCreator<PARAM_TYPE
 		final Root<?> bean,
 		final CriteriaQuery<?> query,
 		final IBooleanFilter filter,
-		final PARAM_TYPE parameter) {
+		final PARAM_TYPE parameter,
+		final QueryParameters queryParameters) {
 		final List<Predicate> predicates = new LinkedList<Predicate>();
 		for (final IFilter subFilter : filter.getFilters()) {
-			final Predicate predicate = createFilterPredicate(criteriaBuilder, bean, query, subFilter, parameter);
+			final Predicate predicate;
+			predicate = createFilterPredicate(criteriaBuilder, bean, query, subFilter, parameter, queryParameters);
 			predicates.add(predicate);
 		}
 		if (filter.getOperator() == BooleanOperator.AND) {
@@ -299,17 +766,24 @@ final class CriteriaQueryCreator<PARAM_TYPE> implements IQueryCreator<PARAM_TYPE
 		final CriteriaBuilder criteriaBuilder,
 		final Root<?> bean,
 		final CriteriaQuery<?> query,
-		final IArithmeticFilter filter) {
+		final IArithmeticFilter filter,
+		final QueryParameters queryParameters) {
+
+		final FilterParameters parameters = new FilterParameters(
+			filter,
+			queryParameters.addRequestValues(getParameterCount(filter)),
+			getFilterParameterConverterType(getAnnotationCache(bean), filter.getPropertyName()));
 
 		if (isJoinQueryPath(bean, filter.getPropertyName())) {
-			return createQueryPathArithmeticFilterPredicate(criteriaBuilder, bean, query, filter);
+			return createQueryPathArithmeticFilterPredicate(criteriaBuilder, queryParameters, bean, query, filter, parameters);
 		}
 		else {
 			return createArithmeticFilterPredicate(
 					criteriaBuilder,
-					bean,
+					queryParameters,
 					query,
 					filter,
+					parameters,
 					getPath(bean, filter.getPropertyName()),
 					true);
 		}
@@ -317,24 +791,34 @@ final class CriteriaQueryCreator<PARAM_TYPE> implements IQueryCreator<PARAM_TYPE
 
 	private Predicate createQueryPathArithmeticFilterPredicate(
 		final CriteriaBuilder criteriaBuilder,
+		final QueryParameters queryParameters,
 		final Root<?> bean,
 		final CriteriaQuery<?> query,
-		final IArithmeticFilter filter) {
+		final IArithmeticFilter filter,
+		final FilterParameters parameters) {
 
 		if (ArithmeticOperator.CONTAINS_ALL == filter.getOperator()) {
-			return createQueryPathContainsAllFilterPredicate(criteriaBuilder, bean, query, filter);
+			return createQueryPathContainsAllFilterPredicate(criteriaBuilder, queryParameters, bean, query, filter, parameters);
 		}
 		else {
-			return createQueryPathGenericArithmeticFilterPredicate(criteriaBuilder, bean, query, filter);
+			return createQueryPathGenericArithmeticFilterPredicate(
+					criteriaBuilder,
+					queryParameters,
+					bean,
+					query,
+					filter,
+					parameters);
 		}
 	}
 
 	@SuppressWarnings("unchecked")
 	private Predicate createQueryPathGenericArithmeticFilterPredicate(
 		final CriteriaBuilder criteriaBuilder,
+		final QueryParameters queryParameters,
 		final Root<?> bean,
 		final CriteriaQuery<?> query,
-		final IArithmeticFilter filter) {
+		final IArithmeticFilter filter,
+		final FilterParameters parameters) {
 		final Class<Object> javaType = (Class<Object>) bean.getJavaType();
 		final Subquery<Object> subquery = query.subquery(javaType);
 		final Root<Object> subqueryRoot = subquery.from(javaType);
@@ -346,9 +830,10 @@ final class CriteriaQueryCreator<PARAM_TYPE> implements IQueryCreator<PARAM_TYPE
 
 		final Predicate predicate = createArithmeticFilterPredicate(
 				criteriaBuilder,
-				subqueryRoot,
+				queryParameters,
 				subquery,
 				filter,
+				parameters,
 				joinQueryPath,
 				existanceFilter);
 
@@ -378,12 +863,13 @@ final class CriteriaQueryCreator<PARAM_TYPE> implements IQueryCreator<PARAM_TYPE
 	@SuppressWarnings("unchecked")
 	private Predicate createQueryPathContainsAllFilterPredicate(
 		final CriteriaBuilder criteriaBuilder,
+		final QueryParameters queryParameters,
 		final Root<?> bean,
 		final CriteriaQuery<?> query,
-		final IArithmeticFilter filter) {
-		final Predicate[] predicates = new Predicate[filter.getParameters().length];
-		int index = 0;
-		for (final Object parameter : filter.getParameters()) {
+		final IArithmeticFilter filter,
+		final FilterParameters parameters) {
+		final Predicate[] predicates = new Predicate[parameters.size()];
+		for (int index = 0; index < parameters.size(); index++) {
 			final Class<Object> javaType = (Class<Object>) bean.getJavaType();
 			final Subquery<Object> subquery = query.subquery(javaType);
 			final Root<Object> subqueryRoot = subquery.from(javaType);
@@ -391,10 +877,11 @@ final class CriteriaQueryCreator<PARAM_TYPE> implements IQueryCreator<PARAM_TYPE
 
 			final Predicate predicate = createEqualPredicate(
 					criteriaBuilder,
+					queryParameters,
 					filter,
 					getJoinQueryPath(subqueryRoot, filter.getPropertyName()),
 					false,
-					parameter);
+					parameters.getUnconverted(index));
 
 			subquery.where(predicate);
 
@@ -404,77 +891,49 @@ final class CriteriaQueryCreator<PARAM_TYPE> implements IQueryCreator<PARAM_TYPE
 			else {
 				predicates[index] = bean.get(IBean.ID_PROPERTY).in(subquery);
 			}
-			index++;
 		}
 		return criteriaBuilder.and(predicates);
 	}
 
 	private Predicate createArithmeticFilterPredicate(
 		final CriteriaBuilder criteriaBuilder,
-		final Root<?> root,
+		final QueryParameters queryParameters,
 		final AbstractQuery<?> query,
 		final IArithmeticFilter filter,
+		final FilterParameters parameters,
 		final Path<?> path,
 		final boolean doFilterInversion) {
 
 		switch (filter.getOperator()) {
 			case BETWEEN:
-				return createBetweenPredicate(
-						criteriaBuilder,
-						getFilterParameterConverter(root, filter.getPropertyName()),
-						filter,
-						path,
-						doFilterInversion);
+				return createBetweenPredicate(criteriaBuilder, queryParameters, filter, parameters, path, doFilterInversion);
 			case GREATER:
-				return createGreaterPredicate(
-						criteriaBuilder,
-						getFilterParameterConverter(root, filter.getPropertyName()),
-						filter,
-						path,
-						doFilterInversion);
+				return createGreaterPredicate(criteriaBuilder, queryParameters, filter, parameters, path, doFilterInversion);
 			case GREATER_EQUAL:
-				return createGreaterEqualPredicate(
-						criteriaBuilder,
-						getFilterParameterConverter(root, filter.getPropertyName()),
-						filter,
-						path,
-						doFilterInversion);
+				return createGreaterEqualPredicate(criteriaBuilder, queryParameters, filter, parameters, path, doFilterInversion);
 			case LESS:
-				return createLessPredicate(
-						criteriaBuilder,
-						getFilterParameterConverter(root, filter.getPropertyName()),
-						filter,
-						path,
-						doFilterInversion);
+				return createLessPredicate(criteriaBuilder, queryParameters, filter, parameters, path, doFilterInversion);
 			case LESS_EQUAL:
-				return createLessEqualPredicate(
-						criteriaBuilder,
-						getFilterParameterConverter(root, filter.getPropertyName()),
-						filter,
-						path,
-						doFilterInversion);
+				return createLessEqualPredicate(criteriaBuilder, queryParameters, filter, parameters, path, doFilterInversion);
 			case EQUAL:
 				return createEqualPredicate(
 						criteriaBuilder,
-						getFilterParameterConverter(root, filter.getPropertyName()),
+						queryParameters,
 						filter,
 						path,
-						doFilterInversion);
+						doFilterInversion,
+						parameters.get(0));
 			case EMPTY:
 				return createEmptyPredicate(criteriaBuilder, filter, path, doFilterInversion);
 			case CONTAINS_ANY:
-				return createContainsAnyPredicate(
-						criteriaBuilder,
-						getFilterParameterConverter(root, filter.getPropertyName()),
-						filter,
-						path,
-						doFilterInversion);
+				return createContainsAnyPredicate(criteriaBuilder, queryParameters, filter, parameters, path, doFilterInversion);
 			case CONTAINS_ALL:
 				return createContainsAllPredicate(
 						criteriaBuilder,
-						getFilterParameterConverter(root, filter.getPropertyName()),
+						queryParameters,
 						query,
 						filter,
+						parameters,
 						path,
 						doFilterInversion);
 			default:
@@ -485,66 +944,66 @@ final class CriteriaQueryCreator<PARAM_TYPE> implements IQueryCreator<PARAM_TYPE
 	@SuppressWarnings("unchecked")
 	private Predicate createBetweenPredicate(
 		final CriteriaBuilder criteriaBuilder,
-		final IConverter<Object, Object> converter,
+		final QueryParameters queryParameters,
 		final IArithmeticFilter filter,
+		final FilterParameters parameters,
 		final Path<?> path,
 		final boolean doFilterInversion) {
-		final Predicate result = criteriaBuilder.between(
-				(Expression<Comparable<Object>>) path,
-				criteriaBuilder.literal((Comparable<Object>) getParameter(filter, 0, converter)),
-				criteriaBuilder.literal((Comparable<Object>) getParameter(filter, 1, converter)));
+		final Expression<Comparable<Object>> lower = toParameter(criteriaBuilder, queryParameters, parameters.get(0));
+		final Expression<Comparable<Object>> upper = toParameter(criteriaBuilder, queryParameters, parameters.get(1));
+		final Predicate result = criteriaBuilder.between((Expression<Comparable<Object>>) path, lower, upper);
 		return invertPredicateIfNeeded(criteriaBuilder, result, filter, doFilterInversion);
 	}
 
 	@SuppressWarnings("unchecked")
 	private Predicate createGreaterPredicate(
 		final CriteriaBuilder criteriaBuilder,
-		final IConverter<Object, Object> converter,
+		final QueryParameters queryParameters,
 		final IArithmeticFilter filter,
+		final FilterParameters parameters,
 		final Path<?> path,
 		final boolean doFilterInversion) {
-		final Predicate result = criteriaBuilder.greaterThan(
-				(Expression<Comparable<Object>>) path,
-				criteriaBuilder.literal((Comparable<Object>) getParameter(filter, 0, converter)));
+		final Expression<Comparable<Object>> value = toParameter(criteriaBuilder, queryParameters, parameters.get(0));
+		final Predicate result = criteriaBuilder.greaterThan((Expression<Comparable<Object>>) path, value);
 		return invertPredicateIfNeeded(criteriaBuilder, result, filter, doFilterInversion);
 	}
 
 	@SuppressWarnings("unchecked")
 	private Predicate createGreaterEqualPredicate(
 		final CriteriaBuilder criteriaBuilder,
-		final IConverter<Object, Object> converter,
+		final QueryParameters queryParameters,
 		final IArithmeticFilter filter,
+		final FilterParameters parameters,
 		final Path<?> path,
 		final boolean doFilterInversion) {
-		final Predicate result = criteriaBuilder.greaterThanOrEqualTo(
-				(Expression<Comparable<Object>>) path,
-				criteriaBuilder.literal((Comparable<Object>) getParameter(filter, 0, converter)));
+		final Expression<Comparable<Object>> value = toParameter(criteriaBuilder, queryParameters, parameters.get(0));
+		final Predicate result = criteriaBuilder.greaterThanOrEqualTo((Expression<Comparable<Object>>) path, value);
 		return invertPredicateIfNeeded(criteriaBuilder, result, filter, doFilterInversion);
 	}
 
 	@SuppressWarnings("unchecked")
 	private Predicate createLessPredicate(
 		final CriteriaBuilder criteriaBuilder,
-		final IConverter<Object, Object> converter,
+		final QueryParameters queryParameters,
 		final IArithmeticFilter filter,
+		final FilterParameters parameters,
 		final Path<?> path,
 		final boolean doFilterInversion) {
-		final Predicate result = criteriaBuilder.lessThan(
-				(Expression<Comparable<Object>>) path,
-				criteriaBuilder.literal((Comparable<Object>) getParameter(filter, 0, converter)));
+		final Expression<Comparable<Object>> value = toParameter(criteriaBuilder, queryParameters, parameters.get(0));
+		final Predicate result = criteriaBuilder.lessThan((Expression<Comparable<Object>>) path, value);
 		return invertPredicateIfNeeded(criteriaBuilder, result, filter, doFilterInversion);
 	}
 
 	@SuppressWarnings("unchecked")
 	private Predicate createLessEqualPredicate(
 		final CriteriaBuilder criteriaBuilder,
-		final IConverter<Object, Object> converter,
+		final QueryParameters queryParameters,
 		final IArithmeticFilter filter,
+		final FilterParameters parameters,
 		final Path<?> path,
 		final boolean doFilterInversion) {
-		final Predicate result = criteriaBuilder.lessThanOrEqualTo(
-				(Expression<Comparable<Object>>) path,
-				criteriaBuilder.literal((Comparable<Object>) getParameter(filter, 0, converter)));
+		final Expression<Comparable<Object>> value = toParameter(criteriaBuilder, queryParameters, parameters.get(0));
+		final Predicate result = criteriaBuilder.lessThanOrEqualTo((Expression<Comparable<Object>>) path, value);
 		return invertPredicateIfNeeded(criteriaBuilder, result, filter, doFilterInversion);
 	}
 
@@ -580,102 +1039,137 @@ final class CriteriaQueryCreator<PARAM_TYPE> implements IQueryCreator<PARAM_TYPE
 		}
 	}
 
-	private Predicate createEqualPredicate(
-		final CriteriaBuilder criteriaBuilder,
-		final IConverter<Object, Object> converter,
-		final IArithmeticFilter filter,
-		final Path<?> path,
-		final boolean doFilterInversion) {
-		return createEqualPredicate(criteriaBuilder, filter, path, doFilterInversion, getParameter(filter, 0, converter));
-	}
-
 	@SuppressWarnings("unchecked")
 	private Predicate createEqualPredicate(
 		final CriteriaBuilder criteriaBuilder,
+		final QueryParameters queryParameters,
 		final IArithmeticFilter filter,
 		final Path<?> path,
 		final boolean doFilterInversion,
-		final Object parameter) {
+		final FilterParameter parameter) {
 
-		if (parameter instanceof String && path.getJavaType() == String.class) {
+		if (parameter.value instanceof String && path.getJavaType() == String.class) {
 			Expression<?> expr = path;
-			String paramString = (String) parameter;
+			final String paramString = (String) parameter.value;
 			if (caseInsensitive) {
 				expr = criteriaBuilder.upper((Expression<String>) expr);
 			}
-			if (paramString.contains("*") || paramString.contains("%")) {
-				paramString = paramString.replace('*', '%');
+			if (isPattern(paramString)) {
+				final Expression<String> pattern = toExpression(
+						criteriaBuilder,
+						queryParameters,
+						QueryParameters.toLikePattern(paramString),
+						parameter,
+						ValueFormat.LIKE_PATTERN);
 				if (filter.isInverted() && doFilterInversion) {
 					return criteriaBuilder.or(
 							expr.isNull(),
 							criteriaBuilder.equal(path, ""),
-							criteriaBuilder.notLike((Expression<String>) expr, toExpression(paramString, criteriaBuilder)));
+							criteriaBuilder.notLike((Expression<String>) expr, pattern));
 				}
 				else {
-					return criteriaBuilder.like((Expression<String>) expr, toExpression(paramString, criteriaBuilder));
+					return criteriaBuilder.like((Expression<String>) expr, pattern);
 				}
 			}
 			else {
+				final Expression<String> value = toExpression(
+						criteriaBuilder,
+						queryParameters,
+						paramString,
+						parameter,
+						ValueFormat.VALUE);
 				if (filter.isInverted() && doFilterInversion) {
 					return criteriaBuilder.or(
 							expr.isNull(),
 							criteriaBuilder.equal(path, ""),
-							criteriaBuilder.notEqual(expr, toExpression(paramString, criteriaBuilder)));
+							criteriaBuilder.notEqual(expr, value));
 				}
 				else {
-					return criteriaBuilder.equal(expr, toExpression(paramString, criteriaBuilder));
+					return criteriaBuilder.equal(expr, value);
 				}
 			}
 		}
 		else if (filter.isInverted() && doFilterInversion) {
-			return criteriaBuilder.or(path.isNull(), criteriaBuilder.notEqual(path, parameter));
+			final Expression<Object> value = toParameter(criteriaBuilder, queryParameters, parameter);
+			return criteriaBuilder.or(path.isNull(), criteriaBuilder.notEqual(path, value));
 		}
 		else {
-			return criteriaBuilder.equal(path, parameter);
+			final Expression<Object> value = toParameter(criteriaBuilder, queryParameters, parameter);
+			return criteriaBuilder.equal(path, value);
 		}
 	}
 
-	private Expression<String> toExpression(final String tanga, final CriteriaBuilder criteriaBuilder) {
+	private boolean isPattern(final String value) {
+		return value.contains("*") || value.contains("%");
+	}
+
+	private <VALUE_TYPE> Expression<VALUE_TYPE> toParameter(
+		final CriteriaBuilder criteriaBuilder,
+		final QueryParameters queryParameters,
+		final FilterParameter parameter) {
+		@SuppressWarnings("unchecked")
+		final VALUE_TYPE value = (VALUE_TYPE) parameter.value;
+		return queryParameters.add(criteriaBuilder, value, parameter.source, ValueFormat.VALUE);
+	}
+
+	private Expression<String> toExpression(
+		final CriteriaBuilder criteriaBuilder,
+		final QueryParameters queryParameters,
+		final String value,
+		final FilterParameter parameter,
+		final ValueFormat format) {
+		final Expression<String> result = queryParameters.add(criteriaBuilder, value, parameter.source, format);
 		if (caseInsensitive) {
-			return criteriaBuilder.upper(criteriaBuilder.literal(tanga));
+			return criteriaBuilder.upper(result);
 		}
 		else {
-			return (criteriaBuilder.literal(tanga));
+			return result;
 		}
 	}
 
 	@SuppressWarnings("unchecked")
 	private Predicate createContainsAnyPredicate(
 		final CriteriaBuilder criteriaBuilder,
-		final IConverter<Object, Object> converter,
+		final QueryParameters queryParameters,
 		final IArithmeticFilter filter,
+		final FilterParameters parameters,
 		final Path<?> path,
 		final boolean doFilterInversion) {
 
+		final List<FilterParameter> params = new ArrayList<FilterParameter>(parameters.size());
+		for (int i = 0; i < parameters.size(); i++) {
+			params.add(parameters.get(i));
+		}
+
 		if (path.getJavaType() == String.class) {
 			boolean havePlaceholder = false;
-			final Predicate[] predicates = new Predicate[filter.getParameters().length];
-			final Collection<Expression<String>> newParams = new HashSet<Expression<String>>();
-			int index = 0;
-			for (Object param : filter.getParameters()) {
-				param = getConvertedParameter(param, converter);
-				if (param != null) {
-					final String paramString = (String) param;
-					if (paramString.contains("*") || paramString.contains("%")) {
-						havePlaceholder = true;
-					}
-					newParams.add(toExpression(paramString, criteriaBuilder));
-					predicates[index] = createEqualPredicate(criteriaBuilder, filter, path, false, param);
+			for (final FilterParameter param : params) {
+				if (param.value != null && isPattern((String) param.value)) {
+					havePlaceholder = true;
 				}
-				else {
-					predicates[index] = createEmptyPredicate(criteriaBuilder, filter, path, false);
-				}
-				index++;
 			}
 			if (havePlaceholder) {//if the string have placeholders, use disjunction instead
+				final Predicate[] predicates = new Predicate[params.size()];
+				int index = 0;
+				for (final FilterParameter param : params) {
+					if (param.value != null) {
+						predicates[index] = createEqualPredicate(criteriaBuilder, queryParameters, filter, path, false, param);
+					}
+					else {
+						predicates[index] = createEmptyPredicate(criteriaBuilder, filter, path, false);
+					}
+					index++;
+				}
 				return invertPredicateIfNeeded(criteriaBuilder, criteriaBuilder.or(predicates), filter, doFilterInversion);
 			}
-			else if (caseInsensitive) {
+
+			final List<Expression<String>> newParams = new ArrayList<Expression<String>>(params.size());
+			for (final FilterParameter param : params) {
+				if (param.value != null) {
+					newParams.add(toExpression(criteriaBuilder, queryParameters, (String) param.value, param, ValueFormat.VALUE));
+				}
+			}
+			if (caseInsensitive) {
 				final Predicate predicate = criteriaBuilder.upper((Expression<String>) path).in(
 						newParams.toArray(new Expression[newParams.size()]));
 				return invertPredicateIfNeeded(criteriaBuilder, predicate, filter, doFilterInversion);
@@ -689,25 +1183,35 @@ final class CriteriaQueryCreator<PARAM_TYPE> implements IQueryCreator<PARAM_TYPE
 			}
 		}
 		else {
-			return invertPredicateIfNeeded(criteriaBuilder, path.in(getParameters(filter, converter)), filter, doFilterInversion);
+			final List<Expression<Object>> newParams = new ArrayList<Expression<Object>>(params.size());
+			for (final FilterParameter param : params) {
+				final Expression<Object> expression = toParameter(criteriaBuilder, queryParameters, param);
+				newParams.add(expression);
+			}
+			return invertPredicateIfNeeded(
+					criteriaBuilder,
+					path.in(newParams.toArray(new Expression[newParams.size()])),
+					filter,
+					doFilterInversion);
 		}
 	}
 
 	@SuppressWarnings("unchecked")
 	private Predicate createContainsAllPredicate(
 		final CriteriaBuilder criteriaBuilder,
-		final IConverter<Object, Object> converter,
+		final QueryParameters queryParameters,
 		final AbstractQuery<?> query,
 		final IArithmeticFilter filter,
+		final FilterParameters parameters,
 		final Path<?> path,
 		final boolean doFilterInversion) {
 
-		final Collection<?> params = Arrays.asList(getParameters(filter, converter));
-		final Collection<Expression<String>> newParams = new HashSet<Expression<String>>();
+		final Collection<Expression<String>> newParams = new ArrayList<Expression<String>>(parameters.size());
 		final boolean toUpper = caseInsensitive && path.getJavaType() == String.class;
-		for (final Object p : params) {
-			if (p != null) {
-				newParams.add(toExpression(p.toString(), criteriaBuilder));
+		for (int i = 0; i < parameters.size(); i++) {
+			final FilterParameter p = parameters.get(i);
+			if (p.value != null) {
+				newParams.add(toExpression(criteriaBuilder, queryParameters, p.value.toString(), p, ValueFormat.STRING));
 			}
 		}
 		final Subquery<Long> subquery = query.subquery(Long.class);
@@ -733,40 +1237,26 @@ final class CriteriaQueryCreator<PARAM_TYPE> implements IQueryCreator<PARAM_TYPE
 		}
 	}
 
-	private Object[] getParameters(final IArithmeticFilter filter, final IConverter<Object, Object> converter) {
-		final Object[] source = filter.getParameters();
-		if (source != null && converter != null) {
-			final Object[] result = new Object[source.length];
-			for (int i = 0; i < source.length; i++) {
-				result[i] = getConvertedParameter(source[i], converter);
-			}
-			return result;
-		}
-		else {
-			return source;
-		}
-	}
-
-	private Object getParameter(final IArithmeticFilter filter, final int index, final IConverter<Object, Object> converter) {
-		return getConvertedParameter(filter.getParameters()[index], converter);
-	}
-
-	private Object getConvertedParameter(final Object parameter, final IConverter<Object, Object> converter) {
-		if (converter != null) {
-			return converter.convert(parameter);
-		}
-		else {
-			return parameter;
-		}
+	private static int getParameterCount(final IArithmeticFilter filter) {
+		final Object[] parameters = filter.getParameters();
+		return parameters != null ? parameters.length : 0;
 	}
 
 	private Path<?> getPath(final Root<?> bean, final String propertyName) {
+		//avoid the exception of the attribute lookup for properties that are known to be no attributes
+		if (noAttributeProperties.containsKey(propertyName)) {
+			final Path<?> joinQueryPath = getJoinQueryPath(bean, propertyName);
+			if (joinQueryPath != null) {
+				return joinQueryPath;
+			}
+		}
 		try {
 			return bean.get(propertyName);
 		}
 		catch (final IllegalArgumentException illegalArgumentException) {
 			final Path<?> joinQueryPath = getJoinQueryPath(bean, propertyName);
 			if (joinQueryPath != null) {
+				noAttributeProperties.put(propertyName, Boolean.TRUE);
 				return joinQueryPath;
 			}
 			else {
@@ -830,6 +1320,15 @@ final class CriteriaQueryCreator<PARAM_TYPE> implements IQueryCreator<PARAM_TYPE
 	}
 
 	private boolean isJoinQueryPath(final Root<?> bean, final String propertyName) {
+		Boolean result = joinQueryPathProperties.get(propertyName);
+		if (result == null) {
+			result = Boolean.valueOf(isJoinQueryPathUncached(bean, propertyName));
+			joinQueryPathProperties.put(propertyName, result);
+		}
+		return result.booleanValue();
+	}
+
+	private boolean isJoinQueryPathUncached(final Root<?> bean, final String propertyName) {
 		final QueryPath queryPath = getQueryPathAnno(bean, propertyName);
 		if (queryPath != null) {
 			for (final String pathSegment : queryPath.path()) {
@@ -891,45 +1390,73 @@ final class CriteriaQueryCreator<PARAM_TYPE> implements IQueryCreator<PARAM_TYPE
 	}
 
 	private QueryPath getQueryPathAnno(final Root<?> root, final String propertyName) {
-		return getAnnotation(root, propertyName, QueryPath.class);
+		return getAnnotationCache(root).getAnnotation(propertyName, QueryPath.class);
 	}
 
-	@SuppressWarnings("unchecked")
-	private IConverter<Object, Object> getFilterParameterConverter(final Root<?> root, final String propertyName) {
-		final FilterParameterConverter converterAnno = getFilterParameterConverterAnno(root, propertyName);
+	private Class<?> getFilterParameterConverterType(final PropertyAnnotationCache cache, final String propertyName) {
+		final FilterParameterConverter converterAnno = cache.getAnnotation(propertyName, FilterParameterConverter.class);
 		if (converterAnno != null) {
-			try {
-				return converterAnno.value().newInstance();
-			}
-			catch (final Exception e) {
-				throw new RuntimeException("Can not create converter defined in FilterParameterConverter annotation", e);
-			}
+			return converterAnno.value();
 		}
 		else {
 			return null;
 		}
 	}
 
-	private FilterParameterConverter getFilterParameterConverterAnno(final Root<?> root, final String propertyName) {
-		return getAnnotation(root, propertyName, FilterParameterConverter.class);
+	private PropertyAnnotationCache getAnnotationCache(final Root<?> root) {
+		if (root.getJavaType() == annotationCache.getBeanClass()) {
+			return annotationCache;
+		}
+		else {
+			return PropertyAnnotationCache.get(root.getJavaType());
+		}
 	}
 
-	private <ANNOTATION_TYPE extends Annotation> ANNOTATION_TYPE getAnnotation(
-		final Root<?> root,
-		final String propertyName,
-		final Class<ANNOTATION_TYPE> annotation) {
-		final Class<?> beanClass = root.getJavaType();
-		try {
-			final PropertyDescriptor descriptor = new PropertyDescriptor(
-				propertyName,
-				beanClass,
-				"is" + propertyName.substring(0, 1).toUpperCase(Locale.ENGLISH) + propertyName.substring(1),
-				null);
-			final Method readMethod = descriptor.getReadMethod();
-			return readMethod.getAnnotation(annotation);
-		}
-		catch (final Exception e) {
-			return null;
+	/**
+	 * The parameters of an arithmetic filter, the converter will be created when the first parameter will be converted
+	 */
+	private static final class FilterParameters {
+
+		private final Object[] values;
+		private final int requestValueIndex;
+		private final Class<?> converterType;
+		private IConverter<Object, Object> converter;
+
+		FilterParameters(final IArithmeticFilter filter, final int requestValueIndex, final Class<?> converterType) {
+			this.values = filter.getParameters();
+			this.requestValueIndex = requestValueIndex;
+			this.converterType = converterType;
+		}
+
+		int size() {
+			return values != null ? values.length : 0;
+		}
+
+		FilterParameter get(final int index) {
+			if (converterType == null) {
+				return getUnconverted(index);
+			}
+			if (converter == null) {
+				converter = QueryParameters.createConverter(converterType);
+			}
+			return new FilterParameter(
+				converter.convert(values[index]),
+				new ValueSource(requestValueIndex + index, converterType));
+		}
+
+		FilterParameter getUnconverted(final int index) {
+			return new FilterParameter(values[index], new ValueSource(requestValueIndex + index, null));
+		}
+	}
+
+	private static final class FilterParameter {
+
+		private final Object value;
+		private final ValueSource source;
+
+		FilterParameter(final Object value, final ValueSource source) {
+			this.value = value;
+			this.source = source;
 		}
 	}
 
@@ -34,15 +34,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
-import javax.persistence.criteria.CriteriaBuilder;
-import javax.persistence.criteria.CriteriaQuery;
-import javax.persistence.criteria.Path;
-import javax.persistence.criteria.Predicate;
-import javax.persistence.criteria.Root;
-import javax.persistence.criteria.Subquery;
-
 import org.jowidgets.cap.common.api.bean.IBean;
-import org.jowidgets.cap.common.api.bean.IBeanKey;
 import org.jowidgets.cap.common.api.filter.IFilter;
 import org.jowidgets.cap.service.jpa.api.query.ICriteriaQueryCreatorBuilder;
 import org.jowidgets.cap.service.jpa.api.query.ICustomFilterPredicateCreator;
@@ -63,11 +55,13 @@ final class CriteriaQueryCreatorBuilderImpl<PARAMETER_TYPE> implements ICriteria
 	private final List<ParentLinkPredicateCreator<PARAMETER_TYPE>> parentUnlinkPredicateCreators;
 
 	private boolean caseSensitive;
+	private boolean keysetPagination;
 
 	CriteriaQueryCreatorBuilderImpl(final Class<? extends IBean> beanType) {
 		Assert.paramNotNull(beanType, "beanType");
 		this.beanType = beanType;
 		this.caseSensitive = false;
+		this.keysetPagination = false;
 		this.predicateCreators = new LinkedList<IPredicateCreator<PARAMETER_TYPE>>();
 		this.parentLinkPredicateCreators = new LinkedList<ParentLinkPredicateCreator<PARAMETER_TYPE>>();
 		this.parentUnlinkPredicateCreators = new LinkedList<ParentLinkPredicateCreator<PARAMETER_TYPE>>();
@@ -131,6 +125,12 @@ final class CriteriaQueryCreatorBuilderImpl<PARAMETER_TYPE> implements ICriteria
 		return this;
 	}
 
+	@Override
+	public ICriteriaQueryCreatorBuilder<PARAMETER_TYPE> setKeysetPagination(final boolean keysetPagination) {
+		this.keysetPagination = keysetPagination;
+		return this;
+	}
+
 	@Override
 	public ICriteriaQueryCreatorBuilder<PARAMETER_TYPE> addPredicateCreator(
 		final IPredicateCreator<PARAMETER_TYPE> predicateCreator) {
@@ -168,75 +168,15 @@ final class CriteriaQueryCreatorBuilderImpl<PARAMETER_TYPE> implements ICriteria
 
 	@Override
 	public IQueryCreator<PARAMETER_TYPE> build() {
-		final List<IPredicateCreator<PARAMETER_TYPE>> predicateCreatorsComposite;
-		predicateCreatorsComposite = new LinkedList<IPredicateCreator<PARAMETER_TYPE>>(predicateCreators);
-
-		predicateCreatorsComposite.addAll(getParentPathPredicateCreators(parentLinkPredicateCreators, true));
-		predicateCreatorsComposite.addAll(getParentPathPredicateCreators(parentUnlinkPredicateCreators, false));
-
 		return new CriteriaQueryCreator<PARAMETER_TYPE>(
 			beanType,
 			caseSensitive,
-			predicateCreatorsComposite,
+			keysetPagination,
+			predicateCreators,
+			parentLinkPredicateCreators,
+			parentUnlinkPredicateCreators,
 			filters,
 			customFilterPredicateCreators,
 			propertyFilterPredicateCreators);
 	}
-
-	@SuppressWarnings("unchecked")
-	private List<IPredicateCreator<PARAMETER_TYPE>> getParentPathPredicateCreators(
-		final List<ParentLinkPredicateCreator<PARAMETER_TYPE>> predicateCreators,
-		final boolean linked) {
-		final List<IPredicateCreator<PARAMETER_TYPE>> result = new LinkedList<IPredicateCreator<PARAMETER_TYPE>>();
-
-		//copy the predicate creators to allow the builder to be a multi use builder
-		final List<ParentLinkPredicateCreator<PARAMETER_TYPE>> predicateCreatorsCopy;
-		predicateCreatorsCopy = new LinkedList<ParentLinkPredicateCreator<PARAMETER_TYPE>>(predicateCreators);
-
-		if (predicateCreatorsCopy.size() > 0) {
-			result.add(new IPredicateCreator<PARAMETER_TYPE>() {
-				@Override
-				public Predicate createPredicate(
-					final CriteriaBuilder criteriaBuilder,
-					final Root<?> bean,
-					final CriteriaQuery<?> query,
-					final List<IBeanKey> parentBeanKeys,
-					final List<Object> parentBeanIds,
-					final PARAMETER_TYPE parameter) {
-
-					final Predicate[] predicates = new Predicate[predicateCreators.size()];
-					int i = 0;
-					for (final ParentLinkPredicateCreator<PARAMETER_TYPE> parentLinkPredicateCreator : predicateCreatorsCopy) {
-						final Class<Object> javaType = (Class<Object>) bean.getJavaType();
-						final Subquery<Object> subquery = query.subquery(javaType);
-						final Root<Object> subqueryRoot = subquery.from(javaType);
-						final Path<Object> selectPath = subqueryRoot.get(IBean.ID_PROPERTY);
-						subquery.select(selectPath);
-						subquery.where(parentLinkPredicateCreator.createPredicate(subqueryRoot, parentBeanIds));
-
-						final Predicate predicate = bean.get(IBean.ID_PROPERTY).in(subquery);
-						if (linked) {
-							predicates[i] = predicate;
-						}
-						else {
-							predicates[i] = criteriaBuilder.not(predicate);
-						}
-
-						i++;
-					}
-					if (predicates.length == 1) {
-						return predicates[0];
-					}
-					else if (!linked) {
-						return criteriaBuilder.and(predicates);
-					}
-					else {
-						return criteriaBuilder.or(predicates);
-					}
-				}
-			});
-
-		}
-		return result;
-	}
 }
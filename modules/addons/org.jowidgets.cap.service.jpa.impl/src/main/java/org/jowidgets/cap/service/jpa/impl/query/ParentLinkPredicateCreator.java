@@ -30,6 +30,7 @@ package org.jowidgets.cap.service.jpa.impl.query;
 
 import java.util.List;
 
+import javax.persistence.criteria.Expression;
 import javax.persistence.criteria.From;
 import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
@@ -53,12 +54,12 @@ final class ParentLinkPredicateCreator<PARAMETER_TYPE> {
 		this.propertyPath = propertyPath;
 	}
 
-	Predicate createPredicate(final Root<?> bean, final List<Object> parentBeanIds) {
+	Predicate createPredicate(final Root<?> bean, final List<Expression<?>> parentBeanIds) {
 		if (EmptyCheck.isEmpty(parentBeanIds)) {
 			return bean.get(IBean.ID_PROPERTY).isNull();
 		}
 		else {
-			return getParentPath(bean).get(IBean.ID_PROPERTY).in(parentBeanIds);
+			return getParentPath(bean).get(IBean.ID_PROPERTY).in(parentBeanIds.toArray(new Expression<?>[parentBeanIds.size()]));
 		}
 	}
 
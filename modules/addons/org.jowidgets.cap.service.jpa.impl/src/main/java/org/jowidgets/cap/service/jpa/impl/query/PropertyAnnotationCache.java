@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2011, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.cap.service.jpa.impl.query;
+
+import java.beans.PropertyDescriptor;
+import java.lang.annotation.Annotation;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jowidgets.util.Assert;
+
+/**
+ * Caches the read methods of the properties of a bean class to lookup the property annotations.
+ * 
+ * There is one cache for each bean class, that will be shared while the class is in use.
+ */
+final class PropertyAnnotationCache {
+
+	/**
+	 * Holds the bean classes and the caches weakly, because the methods of a cache reference its bean class.
+	 * Otherwise the caches would prevent the class loaders of the bean classes (e.g. of OSGi bundles) from being unloaded.
+	 */
+	private static final Map<Class<?>, WeakReference<PropertyAnnotationCache>> CACHES =
+		new WeakHashMap<Class<?>, WeakReference<PropertyAnnotationCache>>();
+
+	private final Class<?> beanClass;
+	private final Map<String, ReadMethod> readMethods;
+
+	private PropertyAnnotationCache(final Class<?> beanClass) {
+		this.beanClass = beanClass;
+		this.readMethods = new ConcurrentHashMap<String, ReadMethod>();
+	}
+
+	/**
+	 * Gets the cache of a bean class. The cache must be held by the caller while the class is in use.
+	 * 
+	 * @param beanClass The bean class, must not be null
+	 * 
+	 * @return The cache, never null
+	 */
+	static PropertyAnnotationCache get(final Class<?> beanClass) {
+		Assert.paramNotNull(beanClass, "beanClass");
+		synchronized (CACHES) {
+			final WeakReference<PropertyAnnotationCache> reference = CACHES.get(beanClass);
+			PropertyAnnotationCache result = reference != null ? reference.get() : null;
+			if (result == null) {
+				result = new PropertyAnnotationCache(beanClass);
+				CACHES.put(beanClass, new WeakReference<PropertyAnnotationCache>(result));
+			}
+			return result;
+		}
+	}
+
+	Class<?> getBeanClass() {
+		return beanClass;
+	}
+
+	<ANNOTATION_TYPE extends Annotation> ANNOTATION_TYPE getAnnotation(
+		final String propertyName,
+		final Class<ANNOTATION_TYPE> annotation) {
+		Assert.paramNotNull(propertyName, "propertyName");
+		Assert.paramNotNull(annotation, "annotation");
+		final Method readMethod = getReadMethod(propertyName);
+		if (readMethod != null) {
+			return readMethod.getAnnotation(annotation);
+		}
+		return null;
+	}
+
+	private Method getReadMethod(final String propertyName) {
+		ReadMethod result = readMethods.get(propertyName);
+		if (result == null) {
+			result = new ReadMethod(findReadMethod(propertyName));
+			readMethods.put(propertyName, result);
+		}
+		return result.method;
+	}
+
+	private Method findReadMethod(final String propertyName) {
+		try {
+			final PropertyDescriptor descriptor = new PropertyDescriptor(
+				propertyName,
+				beanClass,
+				"is" + propertyName.substring(0, 1).toUpperCase(Locale.ENGLISH) + propertyName.substring(1),
+				null);
+			return descriptor.getReadMethod();
+		}
+		catch (final Exception e) {
+			return null;
+		}
+	}
+
+	private static final class ReadMethod {
+
+		private final Method method;
+
+		ReadMethod(final Method method) {
+			this.method = method;
+		}
+
+	}
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.cap.service.jpa.impl.query;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.Parameter;
+import javax.persistence.Query;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.ParameterExpression;
+
+import org.jowidgets.util.Assert;
+import org.jowidgets.util.IConverter;
+
+/**
+ * Collects the parameters of a criteria query while the query is created, so the values can be bound
+ * to the query afterwards instead of being inlined as literals.
+ * 
+ * The values of a request (parent ids, filter parameters and keys) have an index in the order they will be
+ * added with {@link #addRequestValues(int)}. Each parameter remembers the index of its request value, so the
+ * parameters of a cached criteria query can be bound to the values of another request with the same shape.
+ */
+final class QueryParameters {
+
+	/**
+	 * Defines how the (converted) request value will be formatted for a parameter
+	 */
+	enum ValueFormat {
+
+		VALUE,
+
+		LIKE_PATTERN,
+
+		STRING;
+
+		Object format(final Object value) {
+			if (this == LIKE_PATTERN) {
+				return toLikePattern((String) value);
+			}
+			else if (this == STRING) {
+				return value.toString();
+			}
+			else {
+				return value;
+			}
+		}
+	}
+
+	private final List<QueryParameter> parameters;
+	private int requestValueCount;
+
+	QueryParameters() {
+		this.parameters = new ArrayList<QueryParameter>();
+	}
+
+	/**
+	 * Reserves the indices for the next values of the request
+	 * 
+	 * @param count The number of values
+	 * 
+	 * @return The index of the first value
+	 */
+	int addRequestValues(final int count) {
+		final int result = requestValueCount;
+		requestValueCount = requestValueCount + count;
+		return result;
+	}
+
+	/**
+	 * Adds a parameter for an unconverted request value
+	 * 
+	 * @param criteriaBuilder The criteria builder to create the parameter with
+	 * @param value The value to bind, may be null
+	 * @param requestValueIndex The index of the value in the request values
+	 * 
+	 * @return The parameter expression to use in the query or a null literal, if the value is null
+	 */
+	<VALUE_TYPE> Expression<VALUE_TYPE> add(
+		final CriteriaBuilder criteriaBuilder,
+		final VALUE_TYPE value,
+		final int requestValueIndex) {
+		return add(criteriaBuilder, value, new ValueSource(requestValueIndex, null), ValueFormat.VALUE);
+	}
+
+	/**
+	 * Adds a parameter for a request value
+	 * 
+	 * @param criteriaBuilder The criteria builder to create the parameter with
+	 * @param value The converted and formatted value to bind, may be null
+	 * @param source The source of the value in the request values, must not be null
+	 * @param format The format of the converted request value, must not be null
+	 * 
+	 * @return The parameter expression to use in the query or a null literal, if the value is null
+	 */
+	@SuppressWarnings("unchecked")
+	<VALUE_TYPE> Expression<VALUE_TYPE> add(
+		final CriteriaBuilder criteriaBuilder,
+		final VALUE_TYPE value,
+		final ValueSource source,
+		final ValueFormat format) {
+		Assert.paramNotNull(criteriaBuilder, "criteriaBuilder");
+		Assert.paramNotNull(source, "source");
+		Assert.paramNotNull(format, "format");
+
+		if (value == null) {
+			//null values are part of the query shape, so they will not be bound
+			return (Expression<VALUE_TYPE>) criteriaBuilder.nullLiteral(Object.class);
+		}
+
+		final ParameterExpression<VALUE_TYPE> result = criteriaBuilder.parameter((Class<VALUE_TYPE>) getType(value));
+		parameters.add(new QueryParameter(result, value, source, format));
+		return result;
+	}
+
+	/**
+	 * Binds the values to the query created from the criteria query
+	 * 
+	 * @param query The query to bind the values to
+	 */
+	@SuppressWarnings("unchecked")
+	void bind(final Query query) {
+		for (final QueryParameter parameter : parameters) {
+			query.setParameter((Parameter<Object>) parameter.expression, parameter.value);
+		}
+	}
+
+	/**
+	 * Binds the values of another request with the same shape to a query created from the criteria query
+	 * 
+	 * @param query The query to bind the values to
+	 * @param requestValues The unconverted values of the request
+	 */
+	@SuppressWarnings("unchecked")
+	void bind(final Query query, final List<Object> requestValues) {
+		final Map<Class<?>, IConverter<Object, Object>> converters = new HashMap<Class<?>, IConverter<Object, Object>>();
+		for (final QueryParameter parameter : parameters) {
+			Object value = requestValues.get(parameter.source.index);
+			final Class<?> converterType = parameter.source.converterType;
+			if (converterType != null) {
+				IConverter<Object, Object> converter = converters.get(converterType);
+				if (converter == null) {
+					converter = createConverter(converterType);
+					converters.put(converterType, converter);
+				}
+				value = converter.convert(value);
+			}
+			query.setParameter((Parameter<Object>) parameter.expression, parameter.format.format(value));
+		}
+	}
+
+	static String toLikePattern(final String value) {
+		return value.replace('*', '%');
+	}
+
+	@SuppressWarnings("unchecked")
+	static IConverter<Object, Object> createConverter(final Class<?> converterType) {
+		try {
+			return (IConverter<Object, Object>) converterType.newInstance();
+		}
+		catch (final Exception e) {
+			throw new RuntimeException("Can not create converter defined in FilterParameterConverter annotation", e);
+		}
+	}
+
+	private static Class<?> getType(final Object value) {
+		if (value instanceof Enum<?>) {
+			//constants with a body are subclasses of the enum
+			return ((Enum<?>) value).getDeclaringClass();
+		}
+		return value.getClass();
+	}
+
+	/**
+	 * The source of a parameter value in the values of a request
+	 */
+	static final class ValueSource {
+
+		private final int index;
+		private final Class<?> converterType;
+
+		/**
+		 * Creates a new source
+		 * 
+		 * @param index The index of the value in the request values
+		 * @param converterType The type of the converter of the value, may be null
+		 */
+		ValueSource(final int index, final Class<?> converterType) {
+			this.index = index;
+			this.converterType = converterType;
+		}
+
+	}
+
+	private static final class QueryParameter {
+
+		private final ParameterExpression<?> expression;
+		private final Object value;
+		private final ValueSource source;
+		private final ValueFormat format;
+
+		QueryParameter(
+			final ParameterExpression<?> expression,
+			final Object value,
+			final ValueSource source,
+			final ValueFormat format) {
+			this.expression = expression;
+			this.value = value;
+			this.source = source;
+			this.format = format;
+		}
+
+	}
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.cap.service.jpa.impl.query;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Query;
+import javax.persistence.criteria.CriteriaQuery;
+
+import org.jowidgets.util.Assert;
+
+/**
+ * A criteria query that was created for a query shape, the values of each request will be bound as parameters
+ */
+final class QueryTemplate {
+
+	private final EntityManagerFactory entityManagerFactory;
+	private final CriteriaQuery<?> query;
+	private final QueryParameters parameters;
+
+	QueryTemplate(
+		final EntityManagerFactory entityManagerFactory,
+		final CriteriaQuery<?> query,
+		final QueryParameters parameters) {
+		Assert.paramNotNull(entityManagerFactory, "entityManagerFactory");
+		Assert.paramNotNull(query, "query");
+		Assert.paramNotNull(parameters, "parameters");
+		this.entityManagerFactory = entityManagerFactory;
+		this.query = query;
+		this.parameters = parameters;
+	}
+
+	/**
+	 * Checks if the template can be used with an entity manager, this is the case, if the entity manager
+	 * was created by the same factory than the entity manager the template was created with
+	 * 
+	 * @param entityManager The entity manager to check
+	 * 
+	 * @return True if the template can be used, false otherwise
+	 */
+	boolean isCompatible(final EntityManager entityManager) {
+		return entityManager.getEntityManagerFactory() == entityManagerFactory;
+	}
+
+	/**
+	 * Creates a query and binds the values of a request
+	 * 
+	 * @param entityManager The entity manager to create the query with
+	 * @param requestValues The unconverted values of the request
+	 * 
+	 * @return The query
+	 */
+	Query createQuery(final EntityManager entityManager, final List<Object> requestValues) {
+		final Query result;
+		//the criteria query is not thread safe, so it will be compiled by one thread at a time
+		synchronized (query) {
+			result = entityManager.createQuery(query);
+		}
+		parameters.bind(result, requestValues);
+		return result;
+	}
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.cap.service.jpa.impl.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.jowidgets.cap.common.api.bean.IBean;
+import org.jowidgets.cap.common.api.filter.ArithmeticFilter;
+import org.jowidgets.cap.common.api.filter.ArithmeticOperator;
+import org.jowidgets.cap.common.api.filter.IFilter;
+import org.jowidgets.cap.service.jpa.api.query.ICustomFilterPredicateCreator;
+import org.jowidgets.cap.service.jpa.api.query.IPredicateCreator;
+import org.jowidgets.cap.service.jpa.api.query.IPropertyFilterPredicateCreator;
+import org.jowidgets.cap.service.jpa.impl.query.CriteriaQueryCreator.QueryKind;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CriteriaQueryCreatorTest {
+
+	private static final IFilter NAME_FILTER = ArithmeticFilter.create("name", ArithmeticOperator.EQUAL, "value");
+
+	@Test
+	public void testParentCountWithoutParentLinks() {
+		final CriteriaQueryCreator<Void> creator = createCreator(false);
+
+		final List<Object> requestValues1 = new ArrayList<Object>();
+		final String shape1 = getShape(creator, Collections.<Object> emptyList(), requestValues1);
+		final List<Object> requestValues2 = new ArrayList<Object>();
+		final String shape2 = getShape(creator, Arrays.<Object> asList(1L, 2L), requestValues2);
+
+		//the parents are not part of the query, so the shape and the bound values must not depend on them
+		Assert.assertEquals(shape1, shape2);
+		Assert.assertEquals(Arrays.<Object> asList("value"), requestValues1);
+		Assert.assertEquals(Arrays.<Object> asList("value"), requestValues2);
+	}
+
+	@Test
+	public void testParentCountWithParentLinks() {
+		final CriteriaQueryCreator<Void> creator = createCreator(true);
+
+		final List<Object> requestValues1 = new ArrayList<Object>();
+		final String shape1 = getShape(creator, Arrays.<Object> asList(1L), requestValues1);
+		final List<Object> requestValues2 = new ArrayList<Object>();
+		final String shape2 = getShape(creator, Arrays.<Object> asList(1L, 2L), requestValues2);
+
+		Assert.assertFalse(shape1.equals(shape2));
+		Assert.assertEquals(Arrays.<Object> asList(1L, "value"), requestValues1);
+		Assert.assertEquals(Arrays.<Object> asList(1L, 2L, "value"), requestValues2);
+	}
+
+	private static String getShape(
+		final CriteriaQueryCreator<Void> creator,
+		final List<Object> parentIds,
+		final List<Object> requestValues) {
+		return creator.getShape(QueryKind.READ, parentIds, NAME_FILTER, null, null, requestValues);
+	}
+
+	private static CriteriaQueryCreator<Void> createCreator(final boolean parentLinks) {
+		final List<ParentLinkPredicateCreator<Void>> parentLinkPredicateCreators;
+		parentLinkPredicateCreators = new ArrayList<ParentLinkPredicateCreator<Void>>();
+		if (parentLinks) {
+			parentLinkPredicateCreators.add(new ParentLinkPredicateCreator<Void>(Arrays.asList("parent", IBean.ID_PROPERTY)));
+		}
+		final List<ParentLinkPredicateCreator<Void>> parentUnlinkPredicateCreators = Collections.emptyList();
+		final List<IPredicateCreator<Void>> predicateCreators = Collections.emptyList();
+		final List<IFilter> filters = Collections.emptyList();
+		final Map<String, ICustomFilterPredicateCreator<Void>> customFilterPredicateCreators = Collections.emptyMap();
+		final Map<String, IPropertyFilterPredicateCreator<Void>> propertyFilterPredicateCreators = Collections.emptyMap();
+		return new CriteriaQueryCreator<Void>(
+			TestBean.class,
+			false,
+			false,
+			predicateCreators,
+			parentLinkPredicateCreators,
+			parentUnlinkPredicateCreators,
+			filters,
+			customFilterPredicateCreators,
+			propertyFilterPredicateCreators);
+	}
+
+	private static final class TestBean implements IBean {
+
+		@Override
+		public Object getId() {
+			return null;
+		}
+
+		@Override
+		public long getVersion() {
+			return 0;
+		}
+
+		@SuppressWarnings("unused")
+		public String getName() {
+			return null;
+		}
+	}
+
+}
@@ -38,6 +38,20 @@ public interface IBeanRepositoryServiceFactoryBuilder<BEAN_TYPE> {
 
 	IBeanRepositoryServiceFactoryBuilder<BEAN_TYPE> setProperties(Collection<String> properties);
 
+	/**
+	 * Sets an in memory snapshot reader for the reader service.
+	 * 
+	 * The reader holds all beans of the repository as dtos and answers filters with equality conditions on the
+	 * indexed properties with hash indexes. The snapshot will be updated by the creator, updater and deleter services
+	 * of the factory, so the repository must not be modified otherwise. Changes made without these services can not
+	 * be detected and will not be visible for the reader service.
+	 * 
+	 * @param indexedProperties The properties to create hash indexes for, may be empty but never null
+	 * 
+	 * @return This builder
+	 */
+	IBeanRepositoryServiceFactoryBuilder<BEAN_TYPE> setIndexedReader(Collection<String> indexedProperties);
+
 	IBeanRepositoryServiceFactoryBuilder<BEAN_TYPE> setDecorator(IServicesDecoratorProvider decorator);
 
 	IBeanRepositoryServiceFactoryBuilder<BEAN_TYPE> setAsyncDecorator();
@@ -47,6 +47,7 @@ final class BeanRepositoryServiceFactoryBuilderImpl<BEAN_TYPE> implements IBeanR
 
 	private IBeanRepository<BEAN_TYPE> repositiory;
 	private Collection<String> properties;
+	private Collection<String> indexedProperties;
 	private IServicesDecoratorProvider serviceDecoratorProvider;
 
 	BeanRepositoryServiceFactoryBuilderImpl() {
@@ -67,6 +68,13 @@ final class BeanRepositoryServiceFactoryBuilderImpl<BEAN_TYPE> implements IBeanR
 		return this;
 	}
 
+	@Override
+	public IBeanRepositoryServiceFactoryBuilder<BEAN_TYPE> setIndexedReader(final Collection<String> indexedProperties) {
+		Assert.paramNotNull(indexedProperties, "indexedProperties");
+		this.indexedProperties = indexedProperties;
+		return this;
+	}
+
 	@Override
 	public IBeanRepositoryServiceFactoryBuilder<BEAN_TYPE> setDecorator(final IServicesDecoratorProvider serviceDecoratorProvider) {
 		Assert.paramNotNull(serviceDecoratorProvider, "serviceDecoratorProvider");
@@ -83,10 +91,14 @@ final class BeanRepositoryServiceFactoryBuilderImpl<BEAN_TYPE> implements IBeanR
 	@Override
 	public IBeanRepositoryServiceFactory<BEAN_TYPE> build() {
 		if (properties != null) {
-			return new BeanRepositoryServiceFactoryImpl<BEAN_TYPE>(repositiory, properties, serviceDecoratorProvider);
+			return new BeanRepositoryServiceFactoryImpl<BEAN_TYPE>(
+				repositiory,
+				properties,
+				indexedProperties,
+				serviceDecoratorProvider);
 		}
 		else {
-			return new BeanRepositoryServiceFactoryImpl<BEAN_TYPE>(repositiory, serviceDecoratorProvider);
+			return new BeanRepositoryServiceFactoryImpl<BEAN_TYPE>(repositiory, indexedProperties, serviceDecoratorProvider);
 		}
 	}
 
@@ -29,9 +29,12 @@
 package org.jowidgets.cap.service.repository.impl;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 
+import org.jowidgets.cap.common.api.bean.IBeanKey;
+import org.jowidgets.cap.common.api.execution.IExecutionCallback;
 import org.jowidgets.cap.common.api.service.IBeanServicesProvider;
 import org.jowidgets.cap.common.api.service.ICreatorService;
 import org.jowidgets.cap.common.api.service.IDeleterService;
@@ -40,6 +43,7 @@ import org.jowidgets.cap.common.api.service.IRefreshService;
 import org.jowidgets.cap.common.api.service.IUpdaterService;
 import org.jowidgets.cap.service.api.CapServiceToolkit;
 import org.jowidgets.cap.service.api.adapter.ISyncReaderService;
+import org.jowidgets.cap.service.api.creator.IBeanDataMapper;
 import org.jowidgets.cap.service.api.creator.ICreatorServiceBuilder;
 import org.jowidgets.cap.service.api.deleter.IDeleterServiceBuilder;
 import org.jowidgets.cap.service.api.refresh.IRefreshServiceBuilder;
@@ -49,6 +53,9 @@ import org.jowidgets.cap.service.repository.api.IBeanRepositoryServiceFactory;
 import org.jowidgets.cap.service.repository.api.ICreateSupportBeanRepository;
 import org.jowidgets.cap.service.repository.api.IDeleteSupportBeanRepository;
 import org.jowidgets.cap.service.repository.api.IUpdateSupportBeanRepository;
+import org.jowidgets.cap.service.tools.bean.BeanUpdateInterceptorAdapter;
+import org.jowidgets.cap.service.tools.creator.CreatorServiceInterceptorAdapter;
+import org.jowidgets.cap.service.tools.deleter.DeleterServiceInterceptorAdapter;
 import org.jowidgets.service.api.IServiceId;
 import org.jowidgets.service.api.IServicesDecoratorProvider;
 import org.jowidgets.service.tools.ServiceId;
@@ -92,27 +99,33 @@ final class BeanRepositoryServiceFactoryImpl<BEAN_TYPE> implements IBeanReposito
 	private final IDecorator<IRefreshService> refreshDecorator;
 	private final IDecorator<IDeleterService> deleterDecorator;
 
+	private final IndexedBeanRepositoryReaderService<BEAN_TYPE> indexedReader;
+
 	BeanRepositoryServiceFactoryImpl(
 		final IBeanRepository<BEAN_TYPE> repositiory,
+		final Collection<String> indexedProperties,
 		final IServicesDecoratorProvider serviceDecoratorProvider) {
 		this(
 			repositiory,
 			BeanUtils.getReadableProperties(repositiory.getBeanType()),
 			BeanUtils.getProperties(repositiory.getBeanType()),
+			indexedProperties,
 			serviceDecoratorProvider);
 	}
 
 	BeanRepositoryServiceFactoryImpl(
 		final IBeanRepository<BEAN_TYPE> repositiory,
 		final Collection<String> properties,
+		final Collection<String> indexedProperties,
 		final IServicesDecoratorProvider serviceDecoratorProvider) {
-		this(repositiory, properties, properties, serviceDecoratorProvider);
+		this(repositiory, properties, properties, indexedProperties, serviceDecoratorProvider);
 	}
 
 	BeanRepositoryServiceFactoryImpl(
 		final IBeanRepository<BEAN_TYPE> repositiory,
 		final Collection<String> readableProperties,
 		final Collection<String> allProperties,
+		final Collection<String> indexedProperties,
 		final IServicesDecoratorProvider serviceDecoratorProvider) {
 		Assert.paramNotNull(repositiory, "repositiory");
 		Assert.paramNotNull(readableProperties, "readableProperties");
@@ -129,6 +142,17 @@ final class BeanRepositoryServiceFactoryImpl<BEAN_TYPE> implements IBeanReposito
 		this.updaterDecorator = serviceDecoratorProvider.getDecorator(UPDATER_SERVICE_ID);
 		this.refreshDecorator = serviceDecoratorProvider.getDecorator(REFRESH_SERVICE_ID);
 		this.deleterDecorator = serviceDecoratorProvider.getDecorator(DELETER_SERVICE_ID);
+
+		if (indexedProperties != null) {
+			this.indexedReader = new IndexedBeanRepositoryReaderService<BEAN_TYPE>(
+				beanAccess.getBeanType(),
+				repository,
+				this.readableProperties,
+				indexedProperties);
+		}
+		else {
+			this.indexedReader = null;
+		}
 	}
 
 	@Override
@@ -139,10 +163,14 @@ final class BeanRepositoryServiceFactoryImpl<BEAN_TYPE> implements IBeanReposito
 	@Override
 	public ICreatorServiceBuilder<BEAN_TYPE> creatorServiceBuilder() {
 		if (repository instanceof ICreateSupportBeanRepository) {
-			return new BeanRepositoryCreatorServiceBuilderImpl<BEAN_TYPE>(
+			final ICreatorServiceBuilder<BEAN_TYPE> result = new BeanRepositoryCreatorServiceBuilderImpl<BEAN_TYPE>(
 				(ICreateSupportBeanRepository<BEAN_TYPE>) repository,
 				creatorDecorator,
 				allProperties);
+			if (indexedReader != null) {
+				result.addCreatorServiceInterceptor(new IndexedReaderCreatorInterceptor());
+			}
+			return result;
 		}
 		else {
 			return null;
@@ -162,6 +190,9 @@ final class BeanRepositoryServiceFactoryImpl<BEAN_TYPE> implements IBeanReposito
 
 	@Override
 	public IReaderService<Void> readerService() {
+		if (indexedReader != null) {
+			return readerDecorator.decorate(READER_ADAPTER_FACTORY.createAdapter(indexedReader));
+		}
 		return readerDecorator.decorate(READER_ADAPTER_FACTORY.createAdapter(new SyncBeanRepositoryReaderService<BEAN_TYPE>(
 			beanAccess.getBeanType(),
 			repository,
@@ -181,10 +212,14 @@ final class BeanRepositoryServiceFactoryImpl<BEAN_TYPE> implements IBeanReposito
 	@Override
 	public IDeleterServiceBuilder<BEAN_TYPE> deleterServiceBuilder() {
 		if (repository instanceof IDeleteSupportBeanRepository) {
-			return new BeanRepositoryDeleterServiceBuilderImpl<BEAN_TYPE>(
+			final IDeleterServiceBuilder<BEAN_TYPE> result = new BeanRepositoryDeleterServiceBuilderImpl<BEAN_TYPE>(
 				beanAccess,
 				(IDeleteSupportBeanRepository<BEAN_TYPE>) repository,
 				deleterDecorator);
+			if (indexedReader != null) {
+				result.addDeleterServiceInterceptor(new IndexedReaderDeleterInterceptor());
+			}
+			return result;
 		}
 		else {
 			return null;
@@ -205,11 +240,15 @@ final class BeanRepositoryServiceFactoryImpl<BEAN_TYPE> implements IBeanReposito
 	@Override
 	public IUpdaterServiceBuilder<BEAN_TYPE> updaterServiceBuilder() {
 		if (repository instanceof IUpdateSupportBeanRepository) {
-			return new BeanRepositoryUpdaterServiceBuilderImpl<BEAN_TYPE>(
+			final IUpdaterServiceBuilder<BEAN_TYPE> result = new BeanRepositoryUpdaterServiceBuilderImpl<BEAN_TYPE>(
 				(IUpdateSupportBeanRepository<BEAN_TYPE>) repository,
 				beanAccess,
 				allProperties,
 				updaterDecorator);
+			if (indexedReader != null) {
+				result.addUpdaterInterceptor(new IndexedReaderUpdateInterceptor());
+			}
+			return result;
 		}
 		else {
 			return null;
@@ -227,4 +266,29 @@ final class BeanRepositoryServiceFactoryImpl<BEAN_TYPE> implements IBeanReposito
 		}
 	}
 
+	private final class IndexedReaderCreatorInterceptor extends CreatorServiceInterceptorAdapter<BEAN_TYPE> {
+		@Override
+		public void afterCreation(
+			final List<IBeanKey> parentBeanKeys,
+			final Collection<BEAN_TYPE> beans,
+			final IBeanDataMapper<BEAN_TYPE> beanDataMapper,
+			final IExecutionCallback executionCallback) {
+			indexedReader.beansCreated(beans);
+		}
+	}
+
+	private final class IndexedReaderUpdateInterceptor extends BeanUpdateInterceptorAdapter<BEAN_TYPE> {
+		@Override
+		public void afterUpdate(final BEAN_TYPE bean) {
+			indexedReader.beansUpdated(Collections.singleton(bean));
+		}
+	}
+
+	private final class IndexedReaderDeleterInterceptor extends DeleterServiceInterceptorAdapter<BEAN_TYPE> {
+		@Override
+		public void afterDelete(final Collection<BEAN_TYPE> beans, final IExecutionCallback executionCallback) {
+			indexedReader.beansDeleted(beans);
+		}
+	}
+
 }
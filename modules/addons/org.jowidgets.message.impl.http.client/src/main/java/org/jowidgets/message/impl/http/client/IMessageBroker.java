@@ -41,6 +41,20 @@ public interface IMessageBroker extends IMessageChannelBroker, IMessageReceiverB
 	 */
 	HttpClient getHttpClient();
 
+	/**
+	 * Gets the size of all payloads before they were compressed by this broker
+	 * 
+	 * @return The number of bytes
+	 */
+	long getUncompressedBytes();
+
+	/**
+	 * Gets the size of all payloads after they were compressed by this broker
+	 * 
+	 * @return The number of bytes
+	 */
+	long getCompressedBytes();
+
 	/**
 	 * Shutdown the message broker which interrupts the sender and receiver thread.
 	 * 
@@ -29,16 +29,24 @@
 package org.jowidgets.message.impl.http.client;
 
 import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.net.ConnectException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpHost;
 import org.apache.http.HttpRequest;
@@ -55,8 +63,10 @@ import org.jowidgets.logging.api.ILogger;
 import org.jowidgets.logging.api.LoggerProvider;
 import org.jowidgets.message.api.IExceptionCallback;
 import org.jowidgets.message.api.IMessageChannel;
+import org.jowidgets.message.api.IMessageCodec;
 import org.jowidgets.message.api.IMessageReceiver;
 import org.jowidgets.message.api.MessageToolkit;
+import org.jowidgets.message.impl.codec.DeflateCompression;
 import org.jowidgets.util.Assert;
 import org.jowidgets.util.io.IoUtils;
 
@@ -64,16 +74,24 @@ final class MessageBroker implements IMessageBroker, IMessageChannel {
 
 	private static final ILogger LOGGER = LoggerProvider.get(MessageBroker.class);
 
+	private static final String MESSAGE_BATCH_HEADER = "X-Message-Batch";
+
 	private final Object brokerId;
 	private final String url;
 	private final IHttpRequestInitializer httpRequestInitializer;
 	private final HttpClient httpClient;
 	private final ExecutorService incommingMessageExecutor;
 	private final long sleepDurationAfterIoException;
+	private final IMessageCodec codec;
+	private final int maxBatchSize;
+	private final long batchLingerMillis;
+	private final int compressionThreshold;
+	private final AtomicLong uncompressedBytes;
+	private final AtomicLong compressedBytes;
 
 	private final BlockingQueue<DeferredMessage> messageQueue;
 	private final CountDownLatch sessionInitialized;
-	private final Thread senderThread;
+	private final List<Thread> senderThreads;
 	private final Thread receiverThread;
 
 	private volatile IMessageReceiver receiver;
@@ -84,12 +102,23 @@ final class MessageBroker implements IMessageBroker, IMessageChannel {
 		final HttpClient httpClient,
 		final ExecutorService incommingMessageExecutor,
 		final IHttpRequestInitializer httpRequestInitializer,
-		final long sleepDurationAfterIoException) {
+		final long sleepDurationAfterIoException,
+		final IMessageCodec codec,
+		final int maxBatchSize,
+		final long batchLingerMillis,
+		final int senderThreadCount,
+		final int compressionThreshold) {
 
 		Assert.paramNotNull(brokerId, "brokerId");
 		Assert.paramNotNull(url, "url");
 		Assert.paramNotNull(httpClient, "httpClient");
 		Assert.paramNotNull(incommingMessageExecutor, "incommingMessageExecutor");
+		if (maxBatchSize < 1) {
+			throw new IllegalArgumentException("The parameter 'maxBatchSize' must be greater than zero");
+		}
+		if (senderThreadCount < 1) {
+			throw new IllegalArgumentException("The parameter 'senderThreadCount' must be greater than zero");
+		}
 
 		this.brokerId = brokerId;
 		this.url = url;
@@ -97,18 +126,34 @@ final class MessageBroker implements IMessageBroker, IMessageChannel {
 		this.incommingMessageExecutor = incommingMessageExecutor;
 		this.httpRequestInitializer = httpRequestInitializer;
 		this.sleepDurationAfterIoException = sleepDurationAfterIoException;
+		this.codec = codec;
+		this.maxBatchSize = maxBatchSize;
+		this.batchLingerMillis = batchLingerMillis;
+		this.compressionThreshold = compressionThreshold;
+		this.uncompressedBytes = new AtomicLong();
+		this.compressedBytes = new AtomicLong();
 
 		this.messageQueue = new LinkedBlockingQueue<DeferredMessage>();
 		this.sessionInitialized = new CountDownLatch(1);
-		this.senderThread = createSenderThread();
+		this.senderThreads = createSenderThreads(senderThreadCount);
 		this.receiverThread = createReceiverThread();
 
-		senderThread.start();
+		for (final Thread senderThread : senderThreads) {
+			senderThread.start();
+		}
 		receiverThread.start();
 	}
 
-	private Thread createSenderThread() {
-		final Thread result = new Thread(new MessageSenderLoop(), MessageBroker.class.getName() + ".MessageSender");
+	private List<Thread> createSenderThreads(final int senderThreadCount) {
+		final List<Thread> result = new ArrayList<Thread>(senderThreadCount);
+		for (int i = 0; i < senderThreadCount; i++) {
+			result.add(createSenderThread(senderThreadCount > 1 ? "-" + i : ""));
+		}
+		return Collections.unmodifiableList(result);
+	}
+
+	private Thread createSenderThread(final String nameSuffix) {
+		final Thread result = new Thread(new MessageSenderLoop(), MessageBroker.class.getName() + ".MessageSender" + nameSuffix);
 		result.setDaemon(true);
 		return result;
 	}
@@ -123,30 +168,46 @@ final class MessageBroker implements IMessageBroker, IMessageChannel {
 	public boolean shutdown(final long timeout) throws InterruptedException {
 		final long startTime = System.currentTimeMillis();
 
-		if (senderThread.isAlive()) {
-			senderThread.interrupt();
+		for (final Thread senderThread : senderThreads) {
+			if (senderThread.isAlive()) {
+				senderThread.interrupt();
+			}
 		}
 
 		if (receiverThread.isAlive()) {
 			receiverThread.interrupt();
 		}
 
-		senderThread.join(timeout);
+		for (final Thread senderThread : senderThreads) {
+			join(senderThread, startTime, timeout);
+		}
+		join(receiverThread, startTime, timeout);
+
+		httpClient.getConnectionManager().shutdown();
 
+		return !isAnySenderAlive() && !receiverThread.isAlive();
+	}
+
+	private static void join(final Thread thread, final long startTime, final long timeout) throws InterruptedException {
 		if (timeout == 0) {
-			receiverThread.join(timeout);
+			thread.join(timeout);
 		}
 		else {
 			final long elapsedTime = System.currentTimeMillis() - startTime;
 			final long residualTimeout = timeout - elapsedTime;
 			if (residualTimeout > 0) {
-				receiverThread.join(residualTimeout);
+				thread.join(residualTimeout);
 			}
 		}
+	}
 
-		httpClient.getConnectionManager().shutdown();
-
-		return !senderThread.isAlive() && !receiverThread.isAlive();
+	private boolean isAnySenderAlive() {
+		for (final Thread senderThread : senderThreads) {
+			if (senderThread.isAlive()) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	@Override
@@ -164,6 +225,16 @@ final class MessageBroker implements IMessageBroker, IMessageChannel {
 		return httpClient;
 	}
 
+	@Override
+	public long getUncompressedBytes() {
+		return uncompressedBytes.get();
+	}
+
+	@Override
+	public long getCompressedBytes() {
+		return compressedBytes.get();
+	}
+
 	@Override
 	public void setReceiver(final IMessageReceiver receiver) {
 		this.receiver = receiver;
@@ -175,6 +246,9 @@ final class MessageBroker implements IMessageBroker, IMessageChannel {
 	}
 
 	private void initializeHttpRequest(final HttpRequest request) {
+		if (compressionThreshold >= 0) {
+			request.setHeader(DeflateCompression.ACCEPT_ENCODING_HEADER, DeflateCompression.DEFLATE_ENCODING);
+		}
 		if (httpRequestInitializer != null) {
 			httpRequestInitializer.initialize(request);
 		}
@@ -221,7 +295,12 @@ final class MessageBroker implements IMessageBroker, IMessageChannel {
 				sessionInitialized.await();
 				LOGGER.debug("...session is initialized");
 				while (!Thread.interrupted()) {
-					trySendMessage();
+					if (maxBatchSize > 1) {
+						trySendMessages();
+					}
+					else {
+						trySendMessage();
+					}
 				}
 			}
 			catch (final InterruptedException e) {
@@ -243,11 +322,105 @@ final class MessageBroker implements IMessageBroker, IMessageChannel {
 			}
 		}
 
+		private void trySendMessages() throws InterruptedException {
+			final List<DeferredMessage> messages = new ArrayList<DeferredMessage>();
+			final List<byte[]> messagesData = new ArrayList<byte[]>();
+			for (final DeferredMessage message : takeMessages()) {
+				//encode each message on its own, so a message that can not be encoded does not fail the whole batch
+				try {
+					messagesData.add(createMessageData(message.getMessage()));
+					messages.add(message);
+				}
+				catch (final Throwable t) {
+					handleException(t, message.getExceptionCallback());
+				}
+			}
+			if (messages.isEmpty()) {
+				return;
+			}
+			try {
+				sendMessages(messages, messagesData);
+			}
+			catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedException("Send messages was interrupted.");
+			}
+			catch (final Throwable t) {
+				for (final DeferredMessage message : messages) {
+					handleException(t, message.getExceptionCallback());
+				}
+			}
+		}
+
+		/**
+		 * Takes at least one message from the queue and drains further messages until either the
+		 * max batch size is reached or the linger time elapsed without getting new messages
+		 * 
+		 * @return The messages to send, never empty
+		 * 
+		 * @throws InterruptedException
+		 */
+		private List<DeferredMessage> takeMessages() throws InterruptedException {
+			final List<DeferredMessage> result = new ArrayList<DeferredMessage>();
+			result.add(messageQueue.take());
+			messageQueue.drainTo(result, maxBatchSize - result.size());
+			if (batchLingerMillis > 0) {
+				final long lingerEnd = System.currentTimeMillis() + batchLingerMillis;
+				long remaining = batchLingerMillis;
+				while (result.size() < maxBatchSize && remaining > 0) {
+					final DeferredMessage message = messageQueue.poll(remaining, TimeUnit.MILLISECONDS);
+					if (message == null) {
+						break;
+					}
+					result.add(message);
+					messageQueue.drainTo(result, maxBatchSize - result.size());
+					remaining = lingerEnd - System.currentTimeMillis();
+				}
+			}
+			return result;
+		}
+
+		private void sendMessages(final List<DeferredMessage> messages, final List<byte[]> messagesData)
+				throws IOException, InterruptedException {
+			if (messages.size() == 1) {
+				sendMessage(messages.get(0), messagesData.get(0));
+				return;
+			}
+			HttpPost request = null;
+			HttpResponse response = null;
+			try {
+				request = createHttpRequest(messagesData);
+				LOGGER.debug("Before send " + messages.size() + " messages to server");
+				response = httpClient.execute(request);
+				LOGGER.debug("After send " + messages.size() + " messages to server");
+				checkStatusLine(response);
+			}
+			catch (final ConnectException e) {
+				throw new MessageServerConnectException(tryExtractHost(request), e);
+			}
+			catch (final RuntimeException e) {
+				if (request != null) {
+					request.abort();
+				}
+				throw e;
+			}
+			finally {
+				if (response != null) {
+					EntityUtils.consume(response.getEntity());
+				}
+			}
+		}
+
 		private void sendMessage(final DeferredMessage message) throws IOException, InterruptedException {
+			sendMessage(message, createMessageData(message.getMessage()));
+		}
+
+		private void sendMessage(final DeferredMessage message, final byte[] messageData)
+				throws IOException, InterruptedException {
 			HttpPost request = null;
 			HttpResponse response = null;
 			try {
-				request = createHttpRequest(message);
+				request = createHttpRequest(messageData);
 				LOGGER.debug("Before send message to server: " + message);
 				response = httpClient.execute(request);
 				LOGGER.debug("After send message to server: " + message);
@@ -281,17 +454,66 @@ final class MessageBroker implements IMessageBroker, IMessageChannel {
 			return null;
 		}
 
-		private HttpPost createHttpRequest(final DeferredMessage message) throws IOException {
+		private HttpPost createHttpRequest(final byte[] messageData) throws IOException {
+			final HttpPost result = new HttpPost(url);
+			initializeHttpRequest(result);
+			setEntity(result, messageData);
+			return result;
+		}
+
+		private HttpPost createHttpRequest(final List<byte[]> messagesData) throws IOException {
 			final HttpPost result = new HttpPost(url);
 			initializeHttpRequest(result);
-			result.setEntity(createMessageEntity(message.getMessage()));
+			result.setHeader(MESSAGE_BATCH_HEADER, String.valueOf(messagesData.size()));
+			setEntity(result, createMessagesData(messagesData));
 			return result;
 		}
 
-		private ByteArrayEntity createMessageEntity(final Object message) throws IOException {
+		/**
+		 * Creates the body of a batch, the message count followed by the length and the data of each message
+		 * 
+		 * @param messagesData The already encoded messages
+		 * 
+		 * @return The batch data
+		 * 
+		 * @throws IOException
+		 */
+		private byte[] createMessagesData(final List<byte[]> messagesData) throws IOException {
 			final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-			new ObjectOutputStream(byteArrayOutputStream).writeObject(message);
-			return new ByteArrayEntity(byteArrayOutputStream.toByteArray());
+			final DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
+			dataOutputStream.writeInt(messagesData.size());
+			for (final byte[] messageData : messagesData) {
+				dataOutputStream.writeInt(messageData.length);
+				dataOutputStream.write(messageData);
+			}
+			dataOutputStream.flush();
+			return byteArrayOutputStream.toByteArray();
+		}
+
+		private void setEntity(final HttpPost request, final byte[] data) throws IOException {
+			if (compressionThreshold >= 0 && data.length >= compressionThreshold) {
+				final byte[] compressedData = DeflateCompression.compress(data);
+				uncompressedBytes.addAndGet(data.length);
+				compressedBytes.addAndGet(compressedData.length);
+				request.setHeader(DeflateCompression.CONTENT_ENCODING_HEADER, DeflateCompression.DEFLATE_ENCODING);
+				request.setEntity(new ByteArrayEntity(compressedData));
+			}
+			else {
+				request.setEntity(new ByteArrayEntity(data));
+			}
+		}
+
+		private byte[] createMessageData(final Object message) throws IOException {
+			final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+			if (codec != null) {
+				final DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
+				codec.encode(message, dataOutputStream);
+				dataOutputStream.flush();
+			}
+			else {
+				new ObjectOutputStream(byteArrayOutputStream).writeObject(message);
+			}
+			return byteArrayOutputStream.toByteArray();
 		}
 
 		private void handleException(final Throwable throwable, final IExceptionCallback exceptionCallback) {
@@ -348,7 +570,7 @@ final class MessageBroker implements IMessageBroker, IMessageChannel {
 
 				final HttpEntity entity = response.getEntity();
 				if (entity != null && entity.isStreaming()) {
-					executeMessagesFromStream(entity.getContent());
+					executeMessagesFromStream(getContent(response, entity));
 				}
 			}
 			catch (final RuntimeException e) {
@@ -364,6 +586,16 @@ final class MessageBroker implements IMessageBroker, IMessageChannel {
 			}
 		}
 
+		private InputStream getContent(final HttpResponse response, final HttpEntity entity) throws IOException {
+			final Header contentEncoding = response.getFirstHeader(DeflateCompression.CONTENT_ENCODING_HEADER);
+			if (contentEncoding != null && DeflateCompression.isDeflateEncoded(contentEncoding.getValue())) {
+				return DeflateCompression.decompress(entity.getContent());
+			}
+			else {
+				return entity.getContent();
+			}
+		}
+
 		private HttpGet createHttpRequest() {
 			final HttpGet result = new HttpGet(url);
 			initializeHttpRequest(result);
@@ -371,6 +603,10 @@ final class MessageBroker implements IMessageBroker, IMessageChannel {
 		}
 
 		private void executeMessagesFromStream(final InputStream inputStream) throws IOException {
+			if (codec != null) {
+				executeMessagesFromStream(inputStream, codec);
+				return;
+			}
 			final ObjectInputStream objectInputStream = new SharedClassLoadingObjectInputStream(inputStream);
 			try {
 				final int objectCount = objectInputStream.readInt();
@@ -389,6 +625,26 @@ final class MessageBroker implements IMessageBroker, IMessageChannel {
 			}
 		}
 
+		private void executeMessagesFromStream(final InputStream inputStream, final IMessageCodec messageCodec)
+				throws IOException {
+			final DataInputStream dataInputStream = new DataInputStream(inputStream);
+			try {
+				final int objectCount = dataInputStream.readInt();
+				LOGGER.debug("Received " + objectCount + " messages from server");
+				for (int i = 0; i < objectCount; i++) {
+					try {
+						executeMessage(messageCodec.decode(dataInputStream));
+					}
+					catch (final ClassNotFoundException e) {
+						MessageToolkit.handleExceptions(brokerId, e);
+					}
+				}
+			}
+			finally {
+				IoUtils.tryCloseSilent(dataInputStream);
+			}
+		}
+
 		private void executeMessage(final Object message) {
 			LOGGER.debug("Message received from server: " + message);
 			incommingMessageExecutor.execute(new Runnable() {
@@ -33,6 +33,7 @@ import java.util.concurrent.Executors;
 import org.apache.http.client.HttpClient;
 import org.apache.http.impl.client.DefaultHttpClient;
 import org.apache.http.impl.conn.tsccm.ThreadSafeClientConnManager;
+import org.jowidgets.message.api.IMessageCodec;
 import org.jowidgets.util.Assert;
 import org.jowidgets.util.concurrent.DaemonThreadFactory;
 
@@ -47,11 +48,20 @@ public final class MessageBrokerBuilder {
 	private IHttpRequestInitializer httpRequestInitializer;
 	private ExecutorService executorService;
 	private long sleepDurationAfterIoException;
+	private IMessageCodec codec;
+	private int maxBatchSize;
+	private long batchLingerMillis;
+	private int senderThreadCount;
+	private int compressionThreshold;
 
 	public MessageBrokerBuilder(final Object brokerId) {
 		Assert.paramNotNull(brokerId, "brokerId");
 		this.brokerId = brokerId;
 		this.sleepDurationAfterIoException = DEFAULT_SLEEP_DURATION_AFTER_IO_EXCEPTION;
+		this.maxBatchSize = 1;
+		this.batchLingerMillis = 0;
+		this.senderThreadCount = 1;
+		this.compressionThreshold = -1;
 	}
 
 	public MessageBrokerBuilder setUrl(final String url) {
@@ -90,12 +100,100 @@ public final class MessageBrokerBuilder {
 		return this;
 	}
 
+	/**
+	 * Sets the codec that will be used to encode and decode the messages, e.g.
+	 * org.jowidgets.message.impl.codec.MessageCodec.getBinaryCodec().
+	 * 
+	 * Remark: The message servlet must be configured with the same codec
+	 * 
+	 * @param codec The codec to use, may be null. If null (default), java serialization will be used
+	 * 
+	 * @return This builder
+	 */
+	public MessageBrokerBuilder setCodec(final IMessageCodec codec) {
+		this.codec = codec;
+		return this;
+	}
+
+	/**
+	 * Sets the maximal number of queued messages that will be sent with one single post request.
+	 * 
+	 * Remark: Batching requires a message servlet that supports batches
+	 * 
+	 * @param maxBatchSize The max batch size, must be greater than zero. If 1 (default), batching is disabled
+	 * 
+	 * @return This builder
+	 */
+	public MessageBrokerBuilder setMaxBatchSize(final int maxBatchSize) {
+		if (maxBatchSize < 1) {
+			throw new IllegalArgumentException("The parameter 'maxBatchSize' must be greater than zero");
+		}
+		this.maxBatchSize = maxBatchSize;
+		return this;
+	}
+
+	/**
+	 * Sets the time a sender waits for further messages before the batch will be sent.
+	 * Has only an effect if the max batch size is greater than 1.
+	 * 
+	 * @param batchLingerMillis The linger time, if 0 (default) only the already queued messages will be batched
+	 * 
+	 * @return This builder
+	 */
+	public MessageBrokerBuilder setBatchLingerMillis(final long batchLingerMillis) {
+		this.batchLingerMillis = batchLingerMillis;
+		return this;
+	}
+
+	/**
+	 * Sets the number of threads (and connections) that send messages in parallel.
+	 * 
+	 * Remark: If more than one sender thread is used, the messages may arrive at the server
+	 * in a different order than they were sent
+	 * 
+	 * @param senderThreadCount The number of sender threads, must be greater than zero, default is 1
+	 * 
+	 * @return This builder
+	 */
+	public MessageBrokerBuilder setSenderThreadCount(final int senderThreadCount) {
+		if (senderThreadCount < 1) {
+			throw new IllegalArgumentException("The parameter 'senderThreadCount' must be greater than zero");
+		}
+		this.senderThreadCount = senderThreadCount;
+		return this;
+	}
+
+	/**
+	 * Enables the deflate compression of the transferred messages.
+	 * 
+	 * If enabled, the broker accepts compressed responses and compresses posted messages if they have at least
+	 * the given size, so small messages (e.g. cancel or interim messages) will not be penalized.
+	 * 
+	 * Remark: The message servlet must support compression
+	 * 
+	 * @param compressionThreshold The minimal size in bytes a payload must have to be compressed,
+	 *            a negative value (default) disables compression
+	 * 
+	 * @return This builder
+	 */
+	public MessageBrokerBuilder setCompressionThreshold(final int compressionThreshold) {
+		this.compressionThreshold = compressionThreshold;
+		return this;
+	}
+
 	private HttpClient getOrCreateHttpClient() {
 		if (httpClient != null) {
 			return httpClient;
 		}
 		else {
-			return new DefaultHttpClient(new ThreadSafeClientConnManager());
+			final ThreadSafeClientConnManager connectionManager = new ThreadSafeClientConnManager();
+			//sender threads and the receiver thread need a connection each
+			final int connectionCount = senderThreadCount + 1;
+			if (connectionCount > connectionManager.getDefaultMaxPerRoute()) {
+				connectionManager.setDefaultMaxPerRoute(connectionCount);
+				connectionManager.setMaxTotal(Math.max(connectionManager.getMaxTotal(), connectionCount));
+			}
+			return new DefaultHttpClient(connectionManager);
 		}
 	}
 
@@ -120,7 +218,12 @@ public final class MessageBrokerBuilder {
 			getOrCreateHttpClient(),
 			getOrCreateExecutorService(),
 			httpRequestInitializer,
-			sleepDurationAfterIoException);
+			sleepDurationAfterIoException,
+			codec,
+			maxBatchSize,
+			batchLingerMillis,
+			senderThreadCount,
+			compressionThreshold);
 	}
 
 }
@@ -28,13 +28,18 @@
 
 package org.jowidgets.message.impl.http.client;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
@@ -42,6 +47,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
+import org.apache.http.Header;
 import org.apache.http.HttpHost;
 import org.apache.http.HttpRequest;
 import org.apache.http.HttpResponse;
@@ -58,6 +64,7 @@ import org.apache.http.message.BasicHttpResponse;
 import org.apache.http.message.BasicStatusLine;
 import org.apache.http.params.HttpParams;
 import org.apache.http.protocol.HttpContext;
+import org.jowidgets.message.impl.codec.DeflateCompression;
 import org.mockito.Mockito;
 
 final class HttpClientStub implements HttpClient {
@@ -69,6 +76,7 @@ final class HttpClientStub implements HttpClient {
 		"Internal server error");
 
 	private static final int POLL_INTERVAL = 10000;
+	private static final String MESSAGE_BATCH_HEADER = "X-Message-Batch";
 
 	private final int messagesToConsume;
 	private final int getErrorsToConsume;
@@ -78,7 +86,9 @@ final class HttpClientStub implements HttpClient {
 	private final AtomicInteger createdMessages;
 	private final AtomicInteger createdGetErrors;
 	private final AtomicInteger postInvocations;
+	private final AtomicInteger compressedPostInvocations;
 	private final AtomicInteger getInvocations;
+	private final List<Integer> batchSizes;
 
 	private final ClientConnectionManager connectionManager;
 	private final BlockingQueue<MessageStub> queue;
@@ -98,7 +108,9 @@ final class HttpClientStub implements HttpClient {
 		this.createdMessages = new AtomicInteger(0);
 		this.createdGetErrors = new AtomicInteger(0);
 		this.postInvocations = new AtomicInteger(0);
+		this.compressedPostInvocations = new AtomicInteger(0);
 		this.getInvocations = new AtomicInteger(0);
+		this.batchSizes = new CopyOnWriteArrayList<Integer>();
 		this.messagesConsumedLatch = new CountDownLatch(messagesToConsume);
 		this.errorsConsumedLatch = new CountDownLatch(getErrorsToConsume);
 
@@ -143,6 +155,17 @@ final class HttpClientStub implements HttpClient {
 		return postInvocations.get();
 	}
 
+	int getCompressedPostInvocationCount() {
+		return compressedPostInvocations.get();
+	}
+
+	/**
+	 * @return The message count of each received batch post in the order of receive
+	 */
+	List<Integer> getBatchSizes() {
+		return new ArrayList<Integer>(batchSizes);
+	}
+
 	void setPostStatus(final StatusLine status) {
 		this.postStatus.set(status);
 	}
@@ -296,7 +319,12 @@ final class HttpClientStub implements HttpClient {
 		final StatusLine status = postStatus.get();
 		if (status.getStatusCode() == 200) {
 			try {
-				queue.put((MessageStub) new ObjectInputStream(request.getEntity().getContent()).readObject());
+				if (request.getFirstHeader(MESSAGE_BATCH_HEADER) != null) {
+					postBatch(getContent(request));
+				}
+				else {
+					queue.put((MessageStub) new ObjectInputStream(getContent(request)).readObject());
+				}
 			}
 			catch (final Exception e) {
 				throw new RuntimeException(e);
@@ -305,6 +333,28 @@ final class HttpClientStub implements HttpClient {
 		return new BasicHttpResponse(status);
 	}
 
+	private void postBatch(final InputStream inputStream) throws IOException, ClassNotFoundException, InterruptedException {
+		final DataInputStream input = new DataInputStream(inputStream);
+		final int messageCount = input.readInt();
+		batchSizes.add(Integer.valueOf(messageCount));
+		for (int i = 0; i < messageCount; i++) {
+			final byte[] messageData = new byte[input.readInt()];
+			input.readFully(messageData);
+			queue.put((MessageStub) new ObjectInputStream(new ByteArrayInputStream(messageData)).readObject());
+		}
+	}
+
+	private InputStream getContent(final HttpPost request) throws IOException {
+		final Header contentEncoding = request.getFirstHeader(DeflateCompression.CONTENT_ENCODING_HEADER);
+		if (contentEncoding != null && DeflateCompression.isDeflateEncoded(contentEncoding.getValue())) {
+			compressedPostInvocations.incrementAndGet();
+			return DeflateCompression.decompress(request.getEntity().getContent());
+		}
+		else {
+			return request.getEntity().getContent();
+		}
+	}
+
 	@Override
 	public HttpResponse execute(final HttpUriRequest request, final HttpContext context)
 			throws IOException, ClientProtocolException {
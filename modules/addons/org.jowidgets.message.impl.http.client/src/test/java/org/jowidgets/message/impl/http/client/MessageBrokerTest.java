@@ -29,6 +29,8 @@
 package org.jowidgets.message.impl.http.client;
 
 import java.io.IOException;
+import java.io.NotSerializableException;
+import java.util.Collections;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
@@ -107,6 +109,154 @@ public class MessageBrokerTest {
 
 	}
 
+	@Test
+	public void testSendBatchedMessages() throws ClientProtocolException, IOException, InterruptedException {
+		final String expectedResultMessage = "RESULT_MESSAGE";
+		final MessageStub requestMessage = new MessageStub(expectedResultMessage);
+
+		final int messageCount = 10;
+
+		final HttpClientStub httpClient = new HttpClientStub(messageCount, 0);
+		final ScheduledExecutorServiceMock executor = new ScheduledExecutorServiceMock();
+
+		final MessageBrokerBuilder builder = new MessageBrokerBuilder(BROKER_ID);
+		builder.setUrl(DEFAULT_URL);
+		builder.setHttpClient(httpClient);
+		builder.setIncommingMessageExecutor(executor);
+		builder.setMaxBatchSize(messageCount);
+		//linger long enough to get all messages into one batch
+		builder.setBatchLingerMillis(SYNC_TIMEOUT);
+		builder.setCompressionThreshold(0);
+
+		final IMessageBroker messageBroker = builder.build();
+
+		final IMessageReceiver receiver = Mockito.mock(IMessageReceiver.class);
+		messageBroker.setReceiver(receiver);
+
+		final IExceptionCallback exceptionCallback = Mockito.mock(IExceptionCallback.class);
+		for (int i = 0; i < messageCount; i++) {
+			messageBroker.getChannel().send(requestMessage, exceptionCallback);
+		}
+
+		Assert.assertTrue(httpClient.awaitMessagesConsumed(SYNC_TIMEOUT, TimeUnit.MILLISECONDS));
+
+		executor.executeEvents();
+
+		Mockito.verify(receiver, Mockito.times(messageCount)).onMessage(expectedResultMessage, messageBroker.getChannel());
+		Mockito.verify(exceptionCallback, Mockito.never()).exception(Mockito.any(Throwable.class));
+
+		Assert.assertTrue(messageBroker.shutdown(SYNC_TIMEOUT));
+
+		Assert.assertEquals(1, httpClient.getPostInvocationCount());
+		Assert.assertEquals(Collections.singletonList(Integer.valueOf(messageCount)), httpClient.getBatchSizes());
+		Assert.assertTrue(messageBroker.getCompressedBytes() > 0);
+	}
+
+	@Test
+	public void testSendBatchWithMessageThatCanNotBeEncoded() throws ClientProtocolException, IOException, InterruptedException {
+		final String expectedResultMessage = "RESULT_MESSAGE";
+		final MessageStub requestMessage = new MessageStub(expectedResultMessage);
+
+		final HttpClientStub httpClient = new HttpClientStub(2, 0);
+		final ScheduledExecutorServiceMock executor = new ScheduledExecutorServiceMock();
+
+		final MessageBrokerBuilder builder = new MessageBrokerBuilder(BROKER_ID);
+		builder.setUrl(DEFAULT_URL);
+		builder.setHttpClient(httpClient);
+		builder.setIncommingMessageExecutor(executor);
+		builder.setMaxBatchSize(3);
+		builder.setBatchLingerMillis(SYNC_TIMEOUT);
+
+		final IMessageBroker messageBroker = builder.build();
+
+		final IMessageReceiver receiver = Mockito.mock(IMessageReceiver.class);
+		messageBroker.setReceiver(receiver);
+
+		final IExceptionCallback exceptionCallback = Mockito.mock(IExceptionCallback.class);
+		final IExceptionCallback notSerializableExceptionCallback = Mockito.mock(IExceptionCallback.class);
+		messageBroker.getChannel().send(requestMessage, exceptionCallback);
+		//a plain object is not serializable
+		messageBroker.getChannel().send(new Object(), notSerializableExceptionCallback);
+		messageBroker.getChannel().send(requestMessage, exceptionCallback);
+
+		Assert.assertTrue(httpClient.awaitMessagesConsumed(SYNC_TIMEOUT, TimeUnit.MILLISECONDS));
+
+		executor.executeEvents();
+
+		//the encodable messages of the batch must be sent anyway
+		Mockito.verify(receiver, Mockito.times(2)).onMessage(expectedResultMessage, messageBroker.getChannel());
+		Mockito.verify(exceptionCallback, Mockito.never()).exception(Mockito.any(Throwable.class));
+		Mockito.verify(notSerializableExceptionCallback, Mockito.times(1)).exception(
+				Mockito.any(NotSerializableException.class));
+
+		Assert.assertTrue(messageBroker.shutdown(SYNC_TIMEOUT));
+
+		Assert.assertEquals(1, httpClient.getPostInvocationCount());
+		Assert.assertEquals(Collections.singletonList(Integer.valueOf(2)), httpClient.getBatchSizes());
+	}
+
+	@Test
+	public void testCompressionThreshold() throws ClientProtocolException, IOException, InterruptedException {
+		final int messageCount = 5;
+
+		//messages smaller than the threshold will not be compressed
+		HttpClientStub httpClient = sendMessagesWithCompressionThreshold(messageCount, Integer.MAX_VALUE);
+		Assert.assertEquals(messageCount, httpClient.getPostInvocationCount());
+		Assert.assertEquals(0, httpClient.getCompressedPostInvocationCount());
+
+		//messages that reach the threshold will be compressed
+		httpClient = sendMessagesWithCompressionThreshold(messageCount, 0);
+		Assert.assertEquals(messageCount, httpClient.getPostInvocationCount());
+		Assert.assertEquals(messageCount, httpClient.getCompressedPostInvocationCount());
+
+		//a negative threshold disables compression
+		httpClient = sendMessagesWithCompressionThreshold(messageCount, -1);
+		Assert.assertEquals(messageCount, httpClient.getPostInvocationCount());
+		Assert.assertEquals(0, httpClient.getCompressedPostInvocationCount());
+	}
+
+	private HttpClientStub sendMessagesWithCompressionThreshold(final int messageCount, final int compressionThreshold)
+			throws InterruptedException {
+		final String expectedResultMessage = "RESULT_MESSAGE";
+		final MessageStub requestMessage = new MessageStub(expectedResultMessage);
+
+		final HttpClientStub httpClient = new HttpClientStub(messageCount, 0);
+		final ScheduledExecutorServiceMock executor = new ScheduledExecutorServiceMock();
+
+		final MessageBrokerBuilder builder = new MessageBrokerBuilder(BROKER_ID);
+		builder.setUrl(DEFAULT_URL);
+		builder.setHttpClient(httpClient);
+		builder.setIncommingMessageExecutor(executor);
+		builder.setCompressionThreshold(compressionThreshold);
+
+		final IMessageBroker messageBroker = builder.build();
+
+		final IMessageReceiver receiver = Mockito.mock(IMessageReceiver.class);
+		messageBroker.setReceiver(receiver);
+
+		for (int i = 0; i < messageCount; i++) {
+			messageBroker.getChannel().send(requestMessage, null);
+		}
+
+		Assert.assertTrue(httpClient.awaitMessagesConsumed(SYNC_TIMEOUT, TimeUnit.MILLISECONDS));
+
+		executor.executeEvents();
+
+		Mockito.verify(receiver, Mockito.times(messageCount)).onMessage(expectedResultMessage, messageBroker.getChannel());
+
+		Assert.assertTrue(messageBroker.shutdown(SYNC_TIMEOUT));
+
+		if (httpClient.getCompressedPostInvocationCount() > 0) {
+			Assert.assertTrue(messageBroker.getUncompressedBytes() > 0);
+			Assert.assertTrue(messageBroker.getCompressedBytes() > 0);
+		}
+		else {
+			Assert.assertEquals(0, messageBroker.getUncompressedBytes());
+			Assert.assertEquals(0, messageBroker.getCompressedBytes());
+		}
+		return httpClient;
+	}
+
 	@Test
 	public void testGetWithServerError() throws ClientProtocolException, IOException, InterruptedException {
 
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.message.impl.http.server;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.jowidgets.logging.api.ILogger;
+import org.jowidgets.logging.api.LoggerProvider;
+import org.jowidgets.util.Assert;
+
+/**
+ * A poll request that was suspended with help of the servlet 3 async support.
+ * 
+ * The request will be resumed if a message was sent on the {@link MessageChannel} or
+ * if the poll interval timed out, so no container thread will be blocked while waiting for messages.
+ * 
+ * Remark: This class must only be loaded if the servlet container supports servlet 3
+ */
+final class AsyncMessagePoll implements AsyncListener {
+
+	private static final ILogger LOGGER = LoggerProvider.get(AsyncMessagePoll.class);
+
+	private final AsyncContext asyncContext;
+	private final MessageChannel channel;
+	private final MessageServlet servlet;
+
+	private boolean completed;
+
+	private AsyncMessagePoll(final AsyncContext asyncContext, final MessageChannel channel, final MessageServlet servlet) {
+		this.asyncContext = asyncContext;
+		this.channel = channel;
+		this.servlet = servlet;
+		this.completed = false;
+	}
+
+	/**
+	 * Suspends the request and waits until messages are available on the channel
+	 * 
+	 * @param request The request to suspend, must support async operation
+	 * @param channel The channel to get the messages from
+	 * @param servlet The servlet that writes the messages to the response
+	 * @param pollIntervalMillis The time to wait for messages
+	 * 
+	 * @return True if the request could be suspended, false if the request does not support async operation
+	 */
+	static boolean poll(
+		final HttpServletRequest request,
+		final MessageChannel channel,
+		final MessageServlet servlet,
+		final long pollIntervalMillis) {
+
+		Assert.paramNotNull(request, "request");
+		Assert.paramNotNull(channel, "channel");
+		Assert.paramNotNull(servlet, "servlet");
+
+		if (!request.isAsyncSupported()) {
+			return false;
+		}
+
+		final AsyncContext asyncContext = request.startAsync();
+		asyncContext.setTimeout(pollIntervalMillis);
+		final AsyncMessagePoll result = new AsyncMessagePoll(asyncContext, channel, servlet);
+		asyncContext.addListener(result);
+		channel.pollMessagesAsync(result);
+		return true;
+	}
+
+	/**
+	 * Takes all queued messages from the channel, writes them to the response and resumes the request.
+	 * 
+	 * Has no effect if the poll was already completed. The messages will be taken while holding the lock
+	 * of this poll, so messages remain on the channel for the next poll if this poll was already completed
+	 * by a timeout or an error. Because this method is synchronized, the timeout handling waits until a
+	 * concurrent write has been finished.
+	 */
+	synchronized void complete() {
+		if (completed) {
+			return;
+		}
+		final List<Object> messages = new LinkedList<Object>();
+		channel.drainMessages(messages);
+		write(messages);
+	}
+
+	/**
+	 * Resumes the request without messages, the queued messages remain on the channel.
+	 * 
+	 * Has no effect if the poll was already completed.
+	 */
+	synchronized void completeWithoutMessages() {
+		if (completed) {
+			return;
+		}
+		write(Collections.<Object> emptyList());
+	}
+
+	private void write(final List<Object> messages) {
+		completed = true;
+		try {
+			servlet.writeMessages(
+					messages,
+					(HttpServletRequest) asyncContext.getRequest(),
+					(HttpServletResponse) asyncContext.getResponse());
+		}
+		catch (final IOException e) {
+			LOGGER.warn("Messages could not be written to the suspended poll request", e);
+		}
+		catch (final RuntimeException e) {
+			LOGGER.warn("Messages could not be written to the suspended poll request", e);
+		}
+		finally {
+			asyncContext.complete();
+		}
+	}
+
+	@Override
+	public void onTimeout(final AsyncEvent event) throws IOException {
+		channel.removeAsyncPoll(this);
+		complete();
+	}
+
+	@Override
+	public void onError(final AsyncEvent event) throws IOException {
+		channel.removeAsyncPoll(this);
+		synchronized (this) {
+			completed = true;
+		}
+	}
+
+	@Override
+	public void onComplete(final AsyncEvent event) throws IOException {
+		channel.removeAsyncPoll(this);
+	}
+
+	@Override
+	public void onStartAsync(final AsyncEvent event) throws IOException {}
+
+}
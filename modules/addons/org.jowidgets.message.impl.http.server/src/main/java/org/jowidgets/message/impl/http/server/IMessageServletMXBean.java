@@ -145,6 +145,34 @@ public interface IMessageServletMXBean {
 	 */
 	void setHaraKiriPendingThreshold(Long threshold);
 
+	/**
+	 * Gets the compression threshold.
+	 * 
+	 * Responses with at least this size will be deflate compressed, if the client accepts the deflate encoding.
+	 * 
+	 * @return The threshold in bytes, a negative value means that compression is disabled
+	 */
+	long getCompressionThreshold();
+
+	/**
+	 * Sets the compression threshold.
+	 * 
+	 * Responses with at least this size will be deflate compressed, if the client accepts the deflate encoding.
+	 * 
+	 * @param threshold The threshold in bytes, a negative value disables compression
+	 */
+	void setCompressionThreshold(long threshold);
+
+	/**
+	 * @return The size in bytes of all responses before they were compressed
+	 */
+	long getUncompressedBytes();
+
+	/**
+	 * @return The size in bytes of all responses after they were compressed
+	 */
+	long getCompressedBytes();
+
 	/**
 	 * Disables the hara-kiri feature by setting the timeout and threshold to null.
 	 */
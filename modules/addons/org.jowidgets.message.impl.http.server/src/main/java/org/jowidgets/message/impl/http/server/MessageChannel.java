@@ -58,6 +58,8 @@ final class MessageChannel implements IMessageChannel {
 	private final BlockingQueue<Object> queue;
 	private final ISystemTimeProvider systemTimeProvider;
 
+	private AsyncMessagePoll asyncPoll;
+
 	MessageChannel(
 		final IMessageReceiver receiver,
 		final ExecutorService executor,
@@ -101,10 +103,64 @@ final class MessageChannel implements IMessageChannel {
 		return msgs;
 	}
 
+	/**
+	 * Completes the poll immediately if messages are available, otherwise the poll
+	 * will be completed when the next message will be sent. A formerly waiting poll
+	 * will be completed without messages.
+	 * 
+	 * @param poll The poll to complete
+	 */
+	void pollMessagesAsync(final AsyncMessagePoll poll) {
+		final AsyncMessagePoll replacedPoll;
+		final boolean messagesAvailable;
+		synchronized (this) {
+			replacedPoll = asyncPoll;
+			messagesAvailable = !queue.isEmpty();
+			if (messagesAvailable) {
+				asyncPoll = null;
+			}
+			else {
+				asyncPoll = poll;
+			}
+		}
+		if (replacedPoll != null) {
+			replacedPoll.completeWithoutMessages();
+		}
+		if (messagesAvailable) {
+			poll.complete();
+		}
+	}
+
+	/**
+	 * Removes all queued messages and adds them to the given list
+	 * 
+	 * @param messages The list to add the messages to
+	 */
+	void drainMessages(final List<Object> messages) {
+		queue.drainTo(messages);
+	}
+
+	synchronized void removeAsyncPoll(final AsyncMessagePoll poll) {
+		if (asyncPoll == poll) {
+			asyncPoll = null;
+		}
+	}
+
 	@Override
 	public void send(final Object message, final IExceptionCallback exceptionCallback) {
 		LOGGER.debug("Response message will be enqued: " + message);
 		queue.add(message);
+
+		final AsyncMessagePoll poll;
+		synchronized (this) {
+			poll = asyncPoll;
+			if (poll == null) {
+				return;
+			}
+			asyncPoll = null;
+		}
+		//the poll takes the messages itself, so they remain queued if the poll was already completed
+		poll.complete();
 	}
 
 }
@@ -27,13 +27,21 @@
  */
 package org.jowidgets.message.impl.http.server;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.lang.management.ManagementFactory;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArraySet;
@@ -43,6 +51,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.management.ObjectName;
 import javax.servlet.ServletConfig;
@@ -54,9 +63,12 @@ import javax.servlet.http.HttpSession;
 
 import org.jowidgets.logging.api.ILogger;
 import org.jowidgets.logging.api.LoggerProvider;
+import org.jowidgets.message.api.IMessageCodec;
 import org.jowidgets.message.api.IMessageReceiver;
 import org.jowidgets.message.api.IMessageReceiverBroker;
 import org.jowidgets.message.api.MessageToolkit;
+import org.jowidgets.message.impl.codec.DeflateCompression;
+import org.jowidgets.message.impl.codec.MessageCodec;
 import org.jowidgets.util.Assert;
 import org.jowidgets.util.DefaultSystemTimeProvider;
 import org.jowidgets.util.EmptyCheck;
@@ -95,6 +107,21 @@ import org.jowidgets.util.concurrent.DaemonThreadFactory;
  * </init-param>
  * 
  * <init-param>
+ * <param-name>messageCodec</param-name>
+ * <param-value>binary</param-value>
+ * </init-param>
+ * 
+ * <init-param>
+ * <param-name>asyncPoll</param-name>
+ * <param-value>true</param-value>
+ * </init-param>
+ * 
+ * <init-param>
+ * <param-name>compressionThreshold</param-name>
+ * <param-value>1024</param-value>
+ * </init-param>
+ * 
+ * <init-param>
  * <param-name>pollIntervalMillis</param-name>
  * <param-value>10000</param-value>
  * </init-param>
@@ -124,7 +151,13 @@ import org.jowidgets.util.concurrent.DaemonThreadFactory;
  * <param-value>10000</param-value>
  * </init-param>
  * 
+ * <async-supported>true</async-supported>
+ * 
  * </servlet>
+ * 
+ * Remark: The asyncPoll parameter requires a servlet 3 container and the servlet must be declared with
+ * async-supported. If enabled, poll requests will be suspended while waiting for messages instead of
+ * blocking a container thread, so the number of connected clients is not limited by the container's thread pool.
  *
  */
 public final class MessageServlet extends HttpServlet implements IMessageReceiverBroker, IMessageServletMXBean {
@@ -139,6 +172,17 @@ public final class MessageServlet extends HttpServlet implements IMessageReceive
 	public static final String HARA_KIRI_PENDING_THRESHOLD_PARAMETER_NAME = "haraKiriPendingThreshold";
 	public static final String EXECUTOR_THREAD_COUNT_PARAMETER_NAME = "executorThreadCount";
 	public static final String MESSAGE_SERVLET_MBEAN_OBJECT_NAME_PARAMETER_NAME = "messageServletMBeanObjectName";
+	public static final String MESSAGE_CODEC_PARAMETER_NAME = "messageCodec";
+	public static final String ASYNC_POLL_PARAMETER_NAME = "asyncPoll";
+	public static final String COMPRESSION_THRESHOLD_PARAMETER_NAME = "compressionThreshold";
+	public static final String BINARY_MESSAGE_CODEC = "binary";
+	public static final String SERIALIZATION_MESSAGE_CODEC = "serialization";
+
+	/**
+	 * If a post request has this header, the body contains a batch of messages instead of a single message.
+	 * A batch starts with the message count followed by the length and the data of each message.
+	 */
+	public static final String MESSAGE_BATCH_HEADER = "X-Message-Batch";
 
 	static final String MESSAGE_CHANNEL_ATTRIBUTE_NAME = MessageServlet.class.getName() + "#channel";
 
@@ -148,6 +192,7 @@ public final class MessageServlet extends HttpServlet implements IMessageReceive
 	private static final long DEFAULT_DENY_REQUEST_PENDING_TIMEOUT_MILLIS = 20 * 1000; // deny new requests if system is 20 seconds inactive
 	private static final long DEFAULT_HARA_KIRI_TIMEOUT = 1000 * 60 * 30; //do not allow more than 30 minutes system inactivity
 	private static final long DEFAULT_HARA_KIRI_PENDING_THRESHHOLD = 10000; // do not allow more than 10000 pending messages
+	private static final long DEFAULT_COMPRESSION_THRESHOLD = 1024; // compress responses with at least 1 KB if client accepts
 	private static final long DEFAULT_THREAD_COUNT = Runtime.getRuntime().availableProcessors() * 10; // use up to 10 thread's for each core
 
 	private static final long serialVersionUID = 1L;
@@ -163,14 +208,19 @@ public final class MessageServlet extends HttpServlet implements IMessageReceive
 
 	private final AtomicBoolean initialize;
 	private final AtomicBoolean initialized;
+	private final AtomicLong uncompressedBytes;
+	private final AtomicLong compressedBytes;
 
 	private long pollIntervalMillis;
+	private boolean asyncPoll;
+	private volatile long compressionThreshold;
 	private long watchDogIntervalMillis;
 	private ScheduledFuture<?> watchDogExecution;
 	private long denyRequestPendingTimeoutMillis;
 	private long sessionInactivityTimeoutMillis;
 	private int threadCount;
 	private ExecutorService executor;
+	private IMessageCodec codec;
 	private volatile IMessageReceiver receiver;
 
 	public MessageServlet(final Object brokerId) {
@@ -188,6 +238,8 @@ public final class MessageServlet extends HttpServlet implements IMessageReceive
 
 		this.initialize = new AtomicBoolean(false);
 		this.initialized = new AtomicBoolean(false);
+		this.uncompressedBytes = new AtomicLong();
+		this.compressedBytes = new AtomicLong();
 
 		this.executor = (ExecutorService) Proxy.newProxyInstance(
 				Executors.class.getClassLoader(),
@@ -195,6 +247,7 @@ public final class MessageServlet extends HttpServlet implements IMessageReceive
 				new DummyExecutorServiceInvocationHandler());
 
 		this.pollIntervalMillis = DEFAULT_POLL_INTERVAL_MILLIS;
+		this.compressionThreshold = DEFAULT_COMPRESSION_THRESHOLD;
 	}
 
 	@Override
@@ -213,17 +266,35 @@ public final class MessageServlet extends HttpServlet implements IMessageReceive
 		this.pollIntervalMillis = getLongFromConfig(config, POLL_INTERVAL_MILLIS_PARAMETER_NAME, DEFAULT_POLL_INTERVAL_MILLIS);
 		LOGGER.info("Set poll interval to: " + pollIntervalMillis);
 
+		this.asyncPoll = Boolean.parseBoolean(config.getInitParameter(ASYNC_POLL_PARAMETER_NAME));
+		LOGGER.info("Set async poll to: " + asyncPoll);
+
+		this.compressionThreshold = getLongFromConfig(config, COMPRESSION_THRESHOLD_PARAMETER_NAME, DEFAULT_COMPRESSION_THRESHOLD);
+		LOGGER.info("Set compression threshold to: " + compressionThreshold);
+
 		this.denyRequestPendingTimeoutMillis = getLongFromConfig(
 				config,
 				DENY_REQUEST_PENDING_TIMEOUT_MILLIS_PARAMETER_NAME,
 				DEFAULT_DENY_REQUEST_PENDING_TIMEOUT_MILLIS);
 		LOGGER.info("Set deny request pending timeout millis to: " + denyRequestPendingTimeoutMillis);
 
+		initializeCodec(config);
 		initializeExecutor(config);
 		initializeWatchdog(config);
 		initializeMBean(config);
 	}
 
+	private void initializeCodec(final ServletConfig config) {
+		final String codecName = config.getInitParameter(MESSAGE_CODEC_PARAMETER_NAME);
+		if (BINARY_MESSAGE_CODEC.equals(codecName)) {
+			this.codec = MessageCodec.getBinaryCodec();
+		}
+		else if (!EmptyCheck.isEmpty(codecName) && !SERIALIZATION_MESSAGE_CODEC.equals(codecName)) {
+			LOGGER.error("Unknown message codec '" + codecName + "', java serialization will be used.");
+		}
+		LOGGER.info("Set message codec to: " + (codec != null ? BINARY_MESSAGE_CODEC : SERIALIZATION_MESSAGE_CODEC));
+	}
+
 	private void initializeExecutor(final ServletConfig config) {
 		this.threadCount = (int) getLongFromConfig(config, EXECUTOR_THREAD_COUNT_PARAMETER_NAME, DEFAULT_THREAD_COUNT);
 		watchdog.setThreadCount(threadCount);
@@ -417,6 +488,26 @@ public final class MessageServlet extends HttpServlet implements IMessageReceive
 		watchdog.setHaraKiriPendingThreshold(threshold);
 	}
 
+	@Override
+	public long getCompressionThreshold() {
+		return compressionThreshold;
+	}
+
+	@Override
+	public void setCompressionThreshold(final long threshold) {
+		this.compressionThreshold = threshold;
+	}
+
+	@Override
+	public long getUncompressedBytes() {
+		return uncompressedBytes.get();
+	}
+
+	@Override
+	public long getCompressedBytes() {
+		return compressedBytes.get();
+	}
+
 	@Override
 	public void disableHaraKiri() {
 		setHaraKiriPendingThreshold(null);
@@ -441,6 +532,16 @@ public final class MessageServlet extends HttpServlet implements IMessageReceive
 		return brokerId;
 	}
 
+	/**
+	 * Sets the codec that will be used to encode and decode the messages. Must be invoked before
+	 * the servlet gets requests and overrides the codec given by the init parameter
+	 * 
+	 * @param codec The codec to use, may be null. If null, java serialization will be used
+	 */
+	public void setCodec(final IMessageCodec codec) {
+		this.codec = codec;
+	}
+
 	@SuppressWarnings("unchecked")
 	public void addExecutionInterceptor(final IExecutionInterceptor<?> executionInterceptor) {
 		Assert.paramNotNull(executionInterceptor, "executionInterceptor");
@@ -470,39 +571,100 @@ public final class MessageServlet extends HttpServlet implements IMessageReceive
 			return;
 		}
 
-		final ObjectOutputStream oos = new ObjectOutputStream(response.getOutputStream());
-
 		final HttpSession session = request.getSession();
+		final List<Object> messages;
 		if (session.isNew()) {
 			LOGGER.debug("Intialial session created for: " + request.getRemoteAddr());
 			session.setMaxInactiveInterval((int) (sessionInactivityTimeoutMillis / 1000));
 			// return immediately to send new session id to client
-			oos.writeInt(0);
+			messages = Collections.emptyList();
 		}
 		else {
 			final MessageChannel channel = getOrCreateMessageChannel(session);
-			final List<Object> messages = channel.pollMessages(pollIntervalMillis);
-			oos.writeInt(messages.size());
-			for (final Object message : messages) {
-				try {
-					LOGGER.debug("Write message to response stream: " + message);
-					oos.flush();
-					oos.writeObject(message);
-				}
-				catch (final IOException e) {
-					MessageToolkit.handleExceptions(brokerId, e);
-					throw e;
-				}
-				catch (final RuntimeException e) {
-					MessageToolkit.handleExceptions(brokerId, e);
-					throw e;
-				}
+			if (asyncPoll && AsyncMessagePoll.poll(request, channel, this, pollIntervalMillis)) {
+				// response will be written when messages arrive or the poll times out
+				return;
 			}
+			messages = channel.pollMessages(pollIntervalMillis);
+		}
+
+		writeMessages(messages, request, response);
+	}
+
+	void writeMessages(final List<Object> messages, final HttpServletRequest request, final HttpServletResponse response)
+			throws IOException {
+		final long threshold = compressionThreshold;
+		if (threshold >= 0
+			&& DeflateCompression.isDeflateAccepted(request.getHeader(DeflateCompression.ACCEPT_ENCODING_HEADER))) {
+			final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+			writeMessages(messages, buffer);
+			final byte[] data = buffer.toByteArray();
+			if (data.length >= threshold) {
+				final byte[] compressedData = DeflateCompression.compress(data);
+				uncompressedBytes.addAndGet(data.length);
+				compressedBytes.addAndGet(compressedData.length);
+				response.setHeader(DeflateCompression.CONTENT_ENCODING_HEADER, DeflateCompression.DEFLATE_ENCODING);
+				response.getOutputStream().write(compressedData);
+			}
+			else {
+				response.getOutputStream().write(data);
+			}
+			response.getOutputStream().flush();
+		}
+		else {
+			writeMessages(messages, response.getOutputStream());
 		}
+	}
 
+	private void writeMessages(final List<Object> messages, final OutputStream outputStream) throws IOException {
+		if (codec != null) {
+			writeMessages(messages, new DataOutputStream(outputStream), codec);
+		}
+		else {
+			writeMessages(messages, new ObjectOutputStream(outputStream));
+		}
+	}
+
+	private void writeMessages(final List<Object> messages, final ObjectOutputStream oos) throws IOException {
+		oos.writeInt(messages.size());
+		for (final Object message : messages) {
+			try {
+				LOGGER.debug("Write message to response stream: " + message);
+				oos.flush();
+				oos.writeObject(message);
+			}
+			catch (final IOException e) {
+				MessageToolkit.handleExceptions(brokerId, e);
+				throw e;
+			}
+			catch (final RuntimeException e) {
+				MessageToolkit.handleExceptions(brokerId, e);
+				throw e;
+			}
+		}
 		oos.flush();
 	}
 
+	private void writeMessages(final List<Object> messages, final DataOutputStream output, final IMessageCodec messageCodec)
+			throws IOException {
+		output.writeInt(messages.size());
+		for (final Object message : messages) {
+			try {
+				LOGGER.debug("Write message to response stream: " + message);
+				messageCodec.encode(message, output);
+			}
+			catch (final IOException e) {
+				MessageToolkit.handleExceptions(brokerId, e);
+				throw e;
+			}
+			catch (final RuntimeException e) {
+				MessageToolkit.handleExceptions(brokerId, e);
+				throw e;
+			}
+		}
+		output.flush();
+	}
+
 	@Override
 	protected void doPost(final HttpServletRequest request, final HttpServletResponse response)
 			throws ServletException, IOException {
@@ -517,14 +679,23 @@ public final class MessageServlet extends HttpServlet implements IMessageReceive
 		}
 		final MessageChannel conn = getOrCreateMessageChannel(session);
 		try {
-			final WatchDogEvent watchEvent = watchdog.getLastWatchEvent();
-			if (watchEvent.getPendingExecutions(denyRequestPendingTimeoutMillis).size() > 0) {
-				LOGGER.debug("Reject message, to many pending messages");
+			final List<Object> messages;
+			final InputStream inputStream = getInputStream(request);
+			if (request.getHeader(MESSAGE_BATCH_HEADER) != null) {
+				messages = readMessages(inputStream);
+			}
+			else {
+				messages = Collections.singletonList(readMessage(inputStream));
+			}
+			if (isRejected(watchdog.getLastWatchEvent(), messages.size())) {
+				LOGGER.debug("Reject " + messages.size() + " message(s), to many pending messages");
 				watchdog.cancelExecutionsOfSession(session);
 				response.sendError(503, "Message rejected, to many pending messages.");
 				return;
 			}
-			conn.onMessage(new ObjectInputStream(request.getInputStream()).readObject(), executionInterceptors);
+			for (final Object message : messages) {
+				conn.onMessage(message, executionInterceptors);
+			}
 		}
 		catch (final ClassNotFoundException e) {
 			MessageToolkit.handleExceptions(brokerId, e);
@@ -532,6 +703,61 @@ public final class MessageServlet extends HttpServlet implements IMessageReceive
 		}
 	}
 
+	/**
+	 * Checks if the messages of a request must be rejected. Each message of a batch counts as a pending
+	 * execution, so a batch will be rejected if it would exceed the hara-kiri pending threshold.
+	 * 
+	 * @param watchEvent The last watch event
+	 * @param messageCount The number of messages of the request
+	 * 
+	 * @return True if the messages must be rejected, false otherwise
+	 */
+	private boolean isRejected(final WatchDogEvent watchEvent, final int messageCount) {
+		if (watchEvent.getPendingExecutions(denyRequestPendingTimeoutMillis).size() > 0) {
+			return true;
+		}
+		final Long pendingThreshold = watchdog.getHaraKiriPendingThreshold();
+		return pendingThreshold != null
+			&& watchEvent.getPendingExecutions().size() + messageCount >= pendingThreshold.longValue();
+	}
+
+	private InputStream getInputStream(final HttpServletRequest request) throws IOException {
+		if (DeflateCompression.isDeflateEncoded(request.getHeader(DeflateCompression.CONTENT_ENCODING_HEADER))) {
+			return DeflateCompression.decompress(request.getInputStream());
+		}
+		else {
+			return request.getInputStream();
+		}
+	}
+
+	private Object readMessage(final InputStream inputStream) throws IOException, ClassNotFoundException {
+		if (codec != null) {
+			return codec.decode(new DataInputStream(inputStream));
+		}
+		else {
+			return new ObjectInputStream(inputStream).readObject();
+		}
+	}
+
+	private List<Object> readMessages(final InputStream inputStream) throws IOException, ClassNotFoundException {
+		final DataInputStream input = new DataInputStream(inputStream);
+		final int messageCount = input.readInt();
+		if (messageCount < 0) {
+			throw new IOException("Invalid message count '" + messageCount + "'");
+		}
+		final List<Object> result = new ArrayList<Object>(Math.min(messageCount, 1024));
+		for (int i = 0; i < messageCount; i++) {
+			final int length = input.readInt();
+			if (length < 0) {
+				throw new IOException("Invalid message length '" + length + "'");
+			}
+			final byte[] messageData = new byte[length];
+			input.readFully(messageData);
+			result.add(readMessage(new ByteArrayInputStream(messageData)));
+		}
+		return result;
+	}
+
 	private HttpSession getHttpSession(final HttpServletRequest request) {
 		if (request.isRequestedSessionIdValid()) {
 			try {
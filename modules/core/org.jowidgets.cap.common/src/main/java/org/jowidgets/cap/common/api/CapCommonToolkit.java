@@ -29,7 +29,6 @@
 package org.jowidgets.cap.common.api;
 
 import java.util.Collection;
-import java.util.Comparator;
 import java.util.List;
 
 import javax.validation.Validator;
@@ -39,6 +38,7 @@ import org.jowidgets.cap.common.api.bean.IBeanDto;
 import org.jowidgets.cap.common.api.bean.IBeanDtoBuilder;
 import org.jowidgets.cap.common.api.bean.IBeanDtoDescriptor;
 import org.jowidgets.cap.common.api.bean.IBeanDtoDescriptorBuilder;
+import org.jowidgets.cap.common.api.bean.IBeanDtoSchema;
 import org.jowidgets.cap.common.api.bean.IBeanFormInfoDescriptorBuilder;
 import org.jowidgets.cap.common.api.bean.IBeanKeyBuilder;
 import org.jowidgets.cap.common.api.bean.IBeanModificationBuilder;
@@ -60,6 +60,7 @@ import org.jowidgets.cap.common.api.service.IBeanServicesProviderFactory;
 import org.jowidgets.cap.common.api.service.IEntityInfoBuilder;
 import org.jowidgets.cap.common.api.service.IEntityService;
 import org.jowidgets.cap.common.api.service.IEntityServiceCompositeBuilder;
+import org.jowidgets.cap.common.api.sort.IBeanDtoComparator;
 import org.jowidgets.cap.common.api.sort.IBeanDtoComparatorBuilder;
 import org.jowidgets.cap.common.api.sort.ISort;
 import org.jowidgets.cap.common.api.sort.ISortConverterMap;
@@ -200,6 +201,18 @@ public final class CapCommonToolkit {
 		return getInstance().dtoBuilder(beanTypeId);
 	}
 
+	public static IBeanDtoSchema dtoSchema(final Object beanTypeId, final Collection<String> propertyNames) {
+		return getInstance().dtoSchema(beanTypeId, propertyNames);
+	}
+
+	public static IBeanDtoBuilder dtoBuilder(final IBeanDtoSchema schema) {
+		return getInstance().dtoBuilder(schema);
+	}
+
+	public static List<IBeanDto> columnarDtoList(final List<IBeanDto> dtos) {
+		return getInstance().columnarDtoList(dtos);
+	}
+
 	public static IBeanDataBuilder beanDataBuilder() {
 		return getInstance().beanDataBuilder();
 	}
@@ -224,7 +237,7 @@ public final class CapCommonToolkit {
 		return getInstance().beanDtoFilter();
 	}
 
-	public static Comparator<IBeanDto> beanDtoComparator(final Collection<? extends ISort> sorting) {
+	public static IBeanDtoComparator beanDtoComparator(final Collection<? extends ISort> sorting) {
 		return getInstance().beanDtoComparator(sorting);
 	}
 
@@ -29,7 +29,7 @@
 package org.jowidgets.cap.common.api;
 
 import java.util.Collection;
-import java.util.Comparator;
+import java.util.List;
 
 import javax.validation.Validator;
 
@@ -38,10 +38,12 @@ import org.jowidgets.cap.common.api.bean.IBeanDto;
 import org.jowidgets.cap.common.api.bean.IBeanDtoBuilder;
 import org.jowidgets.cap.common.api.bean.IBeanDtoDescriptor;
 import org.jowidgets.cap.common.api.bean.IBeanDtoDescriptorBuilder;
+import org.jowidgets.cap.common.api.bean.IBeanDtoSchema;
 import org.jowidgets.cap.common.api.bean.IBeanFormInfoDescriptorBuilder;
 import org.jowidgets.cap.common.api.bean.IBeanKeyBuilder;
 import org.jowidgets.cap.common.api.bean.IBeanModificationBuilder;
 import org.jowidgets.cap.common.api.bean.IBeanPropertyBuilder;
+import org.jowidgets.cap.common.api.bean.IColumnarBeanDtoList;
 import org.jowidgets.cap.common.api.bean.IProperty;
 import org.jowidgets.cap.common.api.bean.IPropertyBuilder;
 import org.jowidgets.cap.common.api.bean.IPropertyValidatorBuilder;
@@ -59,6 +61,7 @@ import org.jowidgets.cap.common.api.service.IBeanServicesProviderFactory;
 import org.jowidgets.cap.common.api.service.IEntityInfoBuilder;
 import org.jowidgets.cap.common.api.service.IEntityService;
 import org.jowidgets.cap.common.api.service.IEntityServiceCompositeBuilder;
+import org.jowidgets.cap.common.api.sort.IBeanDtoComparator;
 import org.jowidgets.cap.common.api.sort.IBeanDtoComparatorBuilder;
 import org.jowidgets.cap.common.api.sort.ISort;
 import org.jowidgets.cap.common.api.sort.ISortConverterMap;
@@ -136,6 +139,38 @@ public interface ICapCommonToolkit {
 
 	IBeanDtoBuilder dtoBuilder(Object beanTypeId);
 
+	/**
+	 * Gets the shared schema for bean dto's of a bean type with the given properties
+	 * 
+	 * @param beanTypeId The bean type id, must not be null
+	 * @param propertyNames The property names, must not be null
+	 * 
+	 * @return The schema, never null
+	 */
+	IBeanDtoSchema dtoSchema(Object beanTypeId, Collection<String> propertyNames);
+
+	/**
+	 * Creates a builder for an array backed bean dto that uses the given schema
+	 * 
+	 * @param schema The schema to use, must not be null
+	 * 
+	 * @return A new builder
+	 */
+	IBeanDtoBuilder dtoBuilder(IBeanDtoSchema schema);
+
+	/**
+	 * Packs dto's into a columnar list, if all dto's was created with the same schema (see {@link #dtoBuilder(IBeanDtoSchema)}).
+	 * 
+	 * The columnar list can be used like any other (modifiable) list, but it has a smaller heap footprint and
+	 * will be transferred much more compact. The values can be read without creating dto's with the column
+	 * accessors of {@link IColumnarBeanDtoList}.
+	 * 
+	 * @param dtos The dto's to pack, must not be null
+	 * 
+	 * @return The columnar list (an {@link IColumnarBeanDtoList}), or the given list if the dto's could not be packed
+	 */
+	List<IBeanDto> columnarDtoList(List<IBeanDto> dtos);
+
 	IBeanDataBuilder beanDataBuilder();
 
 	IBeanKeyBuilder beanKeyBuilder();
@@ -148,7 +183,7 @@ public interface ICapCommonToolkit {
 
 	IBeanDtoFilter beanDtoFilter();
 
-	Comparator<IBeanDto> beanDtoComparator(Collection<? extends ISort> sorting);
+	IBeanDtoComparator beanDtoComparator(Collection<? extends ISort> sorting);
 
 	IBeanDtoComparatorBuilder beanDtoComparatorBuilder();
 
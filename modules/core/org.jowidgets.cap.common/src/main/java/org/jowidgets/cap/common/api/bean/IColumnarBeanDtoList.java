@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.jowidgets.cap.common.api.bean;
+
+import java.util.List;
+
+/**
+ * A list of bean dto's of the same schema that holds the ids, versions and property values in columns.
+ * 
+ * Accessing the list with {@link #get(int)} creates a dto for the row. Consumers that only need some
+ * values can read them with the column accessors of this interface, which do not create any dto's.
+ * 
+ * The column accessors are also valid after the list was modified, but then they read the values from
+ * the row dto's.
+ */
+public interface IColumnarBeanDtoList extends List<IBeanDto> {
+
+	/**
+	 * @return The schema of the dto's, may be null if the list was created in row representation
+	 */
+	IBeanDtoSchema getSchema();
+
+	/**
+	 * Gets the id of a row
+	 * 
+	 * @param row The row index
+	 * 
+	 * @return The id, may be null
+	 */
+	Object getId(int row);
+
+	/**
+	 * Gets the version of a row
+	 * 
+	 * @param row The row index
+	 * 
+	 * @return The version
+	 */
+	long getVersion(int row);
+
+	/**
+	 * Gets a value of a row by the slot index of the schema
+	 * 
+	 * @param row The row index
+	 * @param column The slot index of the property, see {@link IBeanDtoSchema#getPropertyIndex(String)}
+	 * 
+	 * @return The value, may be null
+	 */
+	Object getValue(int row, int column);
+
+	/**
+	 * Gets a value of a row by its property name, the same value as {@link IBeanDto#getValue(String)} of the row
+	 * 
+	 * @param row The row index
+	 * @param propertyName The property name, must not be empty
+	 * 
+	 * @return The value, may be null
+	 */
+	Object getValue(int row, String propertyName);
+
+}
@@ -34,4 +34,16 @@ public interface IBeanDtoFilter {
 
 	boolean accept(IBeanDto beanDto, IFilter filter);
 
+	/**
+	 * Compiles the filter into a predicate that can be used for many beans.
+	 * 
+	 * Parameters will be prepared and custom filter plugins will be resolved only once,
+	 * so this should be preferred when filtering collections.
+	 * 
+	 * @param filter The filter to compile, must not be null
+	 * 
+	 * @return The compiled predicate, never null
+	 */
+	IBeanDtoPredicate compile(IFilter filter);
+
 }
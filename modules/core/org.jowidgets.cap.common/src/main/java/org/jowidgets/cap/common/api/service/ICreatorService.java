@@ -39,6 +39,15 @@ import org.jowidgets.cap.common.api.execution.IResultCallback;
 
 public interface ICreatorService {
 
+	/**
+	 * Creates new beans
+	 * 
+	 * @param result The result callback for the created beans, the created beans must have the same
+	 *            order than the given bean data, so the n-th created bean was created from the n-th bean data
+	 * @param parentBeanKeys The keys of the parent beans
+	 * @param beansData The data of the beans to create
+	 * @param executionCallback
+	 */
 	void create(
 		IResultCallback<List<IBeanDto>> result,
 		List<? extends IBeanKey> parentBeanKeys,
@@ -29,24 +29,22 @@
 package org.jowidgets.cap.common.api.sort;
 
 import java.util.Collection;
-import java.util.Comparator;
 
 import org.jowidgets.cap.common.api.CapCommonToolkit;
-import org.jowidgets.cap.common.api.bean.IBeanDto;
 
 public final class BeanDtoComparator {
 
 	private BeanDtoComparator() {}
 
-	public static Comparator<IBeanDto> create(final Collection<? extends ISort> sorting) {
+	public static IBeanDtoComparator create(final Collection<? extends ISort> sorting) {
 		return CapCommonToolkit.beanDtoComparator(sorting);
 	}
 
-	public static Comparator<IBeanDto> create(final Class<?> beanType, final Collection<? extends ISort> sorting) {
+	public static IBeanDtoComparator create(final Class<?> beanType, final Collection<? extends ISort> sorting) {
 		return builder().setSorting(sorting).setPropertyComparators(beanType).build();
 	}
 
-	public static Comparator<IBeanDto> create(final ISortConverterMap sortConverters, final Collection<? extends ISort> sorting) {
+	public static IBeanDtoComparator create(final ISortConverterMap sortConverters, final Collection<? extends ISort> sorting) {
 		return builder().setSorting(sorting).setPropertyComparators(sortConverters).build();
 	}
 
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.cap.common.api.sort;
+
+import java.util.Comparator;
+
+import org.jowidgets.cap.common.api.bean.IBeanDto;
+
+/**
+ * A bean dto comparator that allows to extract the sort key of a bean once. When sorting many beans, the sorted
+ * properties must then not be read (and converted) again for each comparison.
+ */
+public interface IBeanDtoComparator extends Comparator<IBeanDto> {
+
+	/**
+	 * Gets the sort key of a bean
+	 * 
+	 * @param beanDto The bean to get the key for, must not be null
+	 * 
+	 * @return The sort key, only valid for this comparator, never null
+	 */
+	Object[] getSortKey(IBeanDto beanDto);
+
+	/**
+	 * Compares two sort keys of this comparator. The result is the same as the result of
+	 * {@link #compare(Object, Object)} for the beans the keys was extracted from.
+	 * 
+	 * @param firstKey The first key, must not be null
+	 * @param secondKey The second key, must not be null
+	 * 
+	 * @return a negative integer, zero, or a positive integer as the first key is less than, equal to,
+	 *         or greater than the second key
+	 */
+	int compareSortKeys(Object[] firstKey, Object[] secondKey);
+
+}
@@ -31,7 +31,6 @@ package org.jowidgets.cap.common.api.sort;
 import java.util.Collection;
 import java.util.Comparator;
 
-import org.jowidgets.cap.common.api.bean.IBeanDto;
 import org.jowidgets.util.IConverter;
 
 public interface IBeanDtoComparatorBuilder {
@@ -46,6 +45,6 @@ public interface IBeanDtoComparatorBuilder {
 
 	IBeanDtoComparatorBuilder setPropertyComparators(Class<?> beanType);
 
-	Comparator<IBeanDto> build();
+	IBeanDtoComparator build();
 
 }
@@ -33,7 +33,7 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Map;
 
-import org.jowidgets.cap.common.api.bean.IBeanDto;
+import org.jowidgets.cap.common.api.sort.IBeanDtoComparator;
 import org.jowidgets.cap.common.api.sort.IBeanDtoComparatorBuilder;
 import org.jowidgets.cap.common.api.sort.ISort;
 import org.jowidgets.cap.common.api.sort.ISortConverterMap;
@@ -90,13 +90,13 @@ final class BeanDtoComparatorBuilderImpl implements IBeanDtoComparatorBuilder {
 	}
 
 	@Override
-	public Comparator<IBeanDto> build() {
+	public IBeanDtoComparator build() {
 		Assert.paramNotNull(sorting, "sorting");
 		return new BeanDtoComparatorImpl(sorting, comparators);
 	}
 
 	@SuppressWarnings({"rawtypes", "unchecked"})
-	private static final class ConverterBasedComparator implements Comparator<Object> {
+	static final class ConverterBasedComparator implements Comparator<Object> {
 
 		private final IConverter converter;
 		private final String propertyName;
@@ -118,27 +118,33 @@ final class BeanDtoComparatorBuilderImpl implements IBeanDtoComparatorBuilder {
 				return 1;
 			}
 			else {
-				final Object converted1 = converter.convert(object1);
-				final Object converted2 = converter.convert(object2);
-				if (converted1 == null && converted2 == null) {
-					return 0;
-				}
-				else if (converted1 == null) {// only one of them is null
-					return -1;
-				}
-				else if (converted2 == null) {// only one of them is null
-					return 1;
-				}
-				else if (converted1 instanceof Comparable<?> && converted2 instanceof Comparable<?>) {
-					return ((Comparable) converted1).compareTo(converted2);
-				}
-				else {
-					throw new IllegalArgumentException("The converted data of the property '"
-						+ propertyName
-						+ "' with the type '"
-						+ converted1.getClass()
-						+ "' is not comparable");
-				}
+				return compareConverted(convert(object1), convert(object2));
+			}
+		}
+
+		Object convert(final Object object) {
+			return converter.convert(object);
+		}
+
+		int compareConverted(final Object converted1, final Object converted2) {
+			if (converted1 == null && converted2 == null) {
+				return 0;
+			}
+			else if (converted1 == null) {// only one of them is null
+				return -1;
+			}
+			else if (converted2 == null) {// only one of them is null
+				return 1;
+			}
+			else if (converted1 instanceof Comparable<?> && converted2 instanceof Comparable<?>) {
+				return ((Comparable) converted1).compareTo(converted2);
+			}
+			else {
+				throw new IllegalArgumentException("The converted data of the property '"
+					+ propertyName
+					+ "' with the type '"
+					+ converted1.getClass()
+					+ "' is not comparable");
 			}
 		}
 	}
@@ -28,98 +28,211 @@
 
 package org.jowidgets.cap.common.impl;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
-import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
 import org.jowidgets.cap.common.api.bean.IBeanDto;
+import org.jowidgets.cap.common.api.sort.IBeanDtoComparator;
 import org.jowidgets.cap.common.api.sort.ISort;
 import org.jowidgets.cap.common.api.sort.SortOrder;
 import org.jowidgets.util.Assert;
 
 @SuppressWarnings("rawtypes")
-final class BeanDtoComparatorImpl implements Comparator<IBeanDto> {
+final class BeanDtoComparatorImpl implements IBeanDtoComparator {
 
-	private final List<? extends ISort> sorting;
+	private static final Object CONVERTED_NULL = new Object();
 
-	private final Map<String, Comparator> comparators;
+	private final SortColumn[] columns;
 
 	BeanDtoComparatorImpl(final Collection<? extends ISort> sorting, final Map<String, Comparator<?>> comparators) {
 		Assert.paramNotNull(sorting, "sorting");
 		Assert.paramNotNull(comparators, "comparators");
-		this.sorting = new LinkedList<ISort>(sorting);
-		this.comparators = new HashMap<String, Comparator>(comparators);
+		final List<SortColumn> columnList = new ArrayList<SortColumn>(sorting.size());
+		for (final ISort sort : sorting) {
+			final SortOrder sortOrder = sort.getSortOrder();
+			if (SortOrder.ASC.equals(sortOrder) || SortOrder.DESC.equals(sortOrder)) {
+				final String propertyName = sort.getPropertyName();
+				final boolean descending = SortOrder.DESC.equals(sortOrder);
+				columnList.add(createColumn(propertyName, descending, comparators.get(propertyName)));
+			}
+		}
+		this.columns = columnList.toArray(new SortColumn[columnList.size()]);
+	}
+
+	private static SortColumn createColumn(final String propertyName, final boolean descending, final Comparator<?> comparator) {
+		if (comparator instanceof BeanDtoComparatorBuilderImpl.ConverterBasedComparator) {
+			return new ConverterSortColumn(
+				propertyName,
+				descending,
+				(BeanDtoComparatorBuilderImpl.ConverterBasedComparator) comparator);
+		}
+		else if (comparator != null) {
+			return new ComparatorSortColumn(propertyName, descending, comparator);
+		}
+		else {
+			return new NaturalSortColumn(propertyName, descending);
+		}
 	}
 
 	@Override
 	public int compare(final IBeanDto firstBeanDto, final IBeanDto secondBeanDto) {
-		int result = 0;
-		for (final ISort sort : sorting) {
-			final String propertyName = sort.getPropertyName();
-			final SortOrder sortOrder = sort.getSortOrder();
-			if (null != sortOrder) {
-				if (sortOrder.equals(SortOrder.ASC)) {
-					result = compareWithCast(firstBeanDto, secondBeanDto, result, propertyName);
-				}
-				else if (sortOrder.equals(SortOrder.DESC)) {
-					result = -1 * compareWithCast(firstBeanDto, secondBeanDto, result, propertyName);
-				}
-			}
+		for (final SortColumn column : columns) {
+			final int result = column.compare(column.getKey(firstBeanDto), column.getKey(secondBeanDto));
 			if (result != 0) {
 				return result;
 			}
+		}
+		return 0;
+	}
 
+	@Override
+	public Object[] getSortKey(final IBeanDto beanDto) {
+		final Object[] result = new Object[columns.length];
+		for (int i = 0; i < columns.length; i++) {
+			result[i] = columns[i].getKey(beanDto);
 		}
 		return result;
 	}
 
-	@SuppressWarnings({"unchecked"})
-	private int compareWithCast(final IBeanDto firstBeanDto, final IBeanDto secondBeanDto, int result, final String propertyName) {
-		final Object firstValue = getComparableValue(firstBeanDto.getValue(propertyName));
-		final Object secondValue = getComparableValue(secondBeanDto.getValue(propertyName));
-		if (firstValue != null && secondValue != null) {
-			final Comparator<Object> comparator = comparators.get(propertyName);
-			if (comparator != null) {
-				result = comparator.compare(firstValue, secondValue);
+	@Override
+	public int compareSortKeys(final Object[] firstKey, final Object[] secondKey) {
+		for (int i = 0; i < columns.length; i++) {
+			final int result = columns[i].compare(firstKey[i], secondKey[i]);
+			if (result != 0) {
+				return result;
 			}
-			else if (firstValue instanceof Comparable<?> && secondValue instanceof Comparable<?>) {
-				result = ((Comparable) firstValue).compareTo(secondValue);
+		}
+		return 0;
+	}
+
+	private abstract static class SortColumn {
+
+		private final String propertyName;
+		private final boolean descending;
+
+		SortColumn(final String propertyName, final boolean descending) {
+			this.propertyName = propertyName;
+			this.descending = descending;
+		}
+
+		String getPropertyName() {
+			return propertyName;
+		}
+
+		Object getKey(final IBeanDto beanDto) {
+			final Object value = beanDto.getValue(propertyName);
+			if (value instanceof Comparable<?>) {
+				return value;
+			}
+			else if (value instanceof Collection<?>) {
+				final Collection<?> collection = (Collection<?>) value;
+				if (collection.isEmpty()) {
+					return null;
+				}
+				else {
+					return collection.iterator().next();
+				}
 			}
 			else {
-				throw new IllegalArgumentException("The datatype of the property '" + propertyName + "' is not comparable");
+				return value;
 			}
 		}
-		else if (firstValue == null && secondValue == null) {
-			result = 0;
+
+		final int compare(final Object firstKey, final Object secondKey) {
+			final int result;
+			if (firstKey != null && secondKey != null) {
+				result = compareNotNull(firstKey, secondKey);
+			}
+			else if (firstKey == null && secondKey == null) {
+				result = 0;
+			}
+			else if (firstKey == null) {
+				result = 1;
+			}
+			else {
+				result = -1;
+			}
+			return descending ? -result : result;
 		}
-		else if (firstValue == null) {
-			result = 1;
+
+		abstract int compareNotNull(Object firstKey, Object secondKey);
+
+	}
+
+	private static final class NaturalSortColumn extends SortColumn {
+
+		NaturalSortColumn(final String propertyName, final boolean descending) {
+			super(propertyName, descending);
 		}
-		else {
-			result = -1;
+
+		@SuppressWarnings("unchecked")
+		@Override
+		int compareNotNull(final Object firstKey, final Object secondKey) {
+			if (firstKey instanceof Comparable<?> && secondKey instanceof Comparable<?>) {
+				return ((Comparable) firstKey).compareTo(secondKey);
+			}
+			else {
+				throw new IllegalArgumentException("The datatype of the property '" + getPropertyName() + "' is not comparable");
+			}
 		}
-		return result;
+
 	}
 
-	private Object getComparableValue(final Object object) {
-		if (object instanceof Comparable<?>) {
-			return object;
+	private static final class ComparatorSortColumn extends SortColumn {
+
+		private final Comparator comparator;
+
+		ComparatorSortColumn(final String propertyName, final boolean descending, final Comparator comparator) {
+			super(propertyName, descending);
+			this.comparator = comparator;
 		}
-		else if (object instanceof Collection<?>) {
-			final Collection<?> collection = (Collection<?>) object;
-			if (collection.isEmpty()) {
-				return null;
+
+		@SuppressWarnings("unchecked")
+		@Override
+		int compareNotNull(final Object firstKey, final Object secondKey) {
+			return comparator.compare(firstKey, secondKey);
+		}
+
+	}
+
+	/**
+	 * Holds the converted values as key, so the converter will be invoked only once per bean
+	 * if sort keys are used
+	 */
+	private static final class ConverterSortColumn extends SortColumn {
+
+		private final BeanDtoComparatorBuilderImpl.ConverterBasedComparator comparator;
+
+		ConverterSortColumn(
+			final String propertyName,
+			final boolean descending,
+			final BeanDtoComparatorBuilderImpl.ConverterBasedComparator comparator) {
+			super(propertyName, descending);
+			this.comparator = comparator;
+		}
+
+		@Override
+		Object getKey(final IBeanDto beanDto) {
+			final Object value = super.getKey(beanDto);
+			if (value != null) {
+				final Object converted = comparator.convert(value);
+				return converted != null ? converted : CONVERTED_NULL;
 			}
 			else {
-				return collection.iterator().next();
+				return null;
 			}
 		}
-		else {
-			return object;
+
+		@Override
+		int compareNotNull(final Object firstKey, final Object secondKey) {
+			return comparator.compareConverted(
+					firstKey != CONVERTED_NULL ? firstKey : null,
+					secondKey != CONVERTED_NULL ? secondKey : null);
 		}
+
 	}
 
 }
@@ -34,6 +34,7 @@ import java.util.Map;
 import org.jowidgets.cap.common.api.bean.IBean;
 import org.jowidgets.cap.common.api.bean.IBeanDto;
 import org.jowidgets.util.Assert;
+import org.jowidgets.util.NullCompatibleEquivalence;
 
 class BeanDtoImpl implements IBeanDto, Serializable {
 
@@ -82,6 +83,14 @@ class BeanDtoImpl implements IBeanDto, Serializable {
 		}
 	}
 
+	String getBeanTypeId() {
+		return beanTypeId;
+	}
+
+	Map<String, Object> getBeanData() {
+		return beanData;
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
@@ -96,30 +105,18 @@ class BeanDtoImpl implements IBeanDto, Serializable {
 		if (this == obj) {
 			return true;
 		}
-		if (obj == null) {
-			return false;
+		//equal to the bean dto implementations with the same bean type id and id, regardless of the representation
+		if (obj instanceof BeanDtoImpl) {
+			final BeanDtoImpl other = (BeanDtoImpl) obj;
+			return NullCompatibleEquivalence.equals(beanTypeId, other.beanTypeId)
+				&& NullCompatibleEquivalence.equals(id, other.id);
 		}
-		if (getClass() != obj.getClass()) {
-			return false;
+		else if (obj instanceof SchemaBeanDtoImpl) {
+			return obj.equals(this);
 		}
-		final BeanDtoImpl other = (BeanDtoImpl) obj;
-		if (beanTypeId == null) {
-			if (other.beanTypeId != null) {
-				return false;
-			}
-		}
-		else if (!beanTypeId.equals(other.beanTypeId)) {
-			return false;
-		}
-		if (id == null) {
-			if (other.id != null) {
-				return false;
-			}
-		}
-		else if (!id.equals(other.id)) {
+		else {
 			return false;
 		}
-		return true;
 	}
 
 	@Override
@@ -0,0 +1,654 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.cap.common.impl;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.jowidgets.cap.common.api.bean.IBeanDto;
+import org.jowidgets.cap.common.api.filter.ArithmeticOperator;
+import org.jowidgets.cap.common.api.filter.BooleanOperator;
+import org.jowidgets.cap.common.api.filter.IArithmeticFilter;
+import org.jowidgets.cap.common.api.filter.IArithmeticPropertyFilter;
+import org.jowidgets.cap.common.api.filter.IBeanDtoPredicate;
+import org.jowidgets.cap.common.api.filter.IBooleanFilter;
+import org.jowidgets.cap.common.api.filter.ICustomFilter;
+import org.jowidgets.cap.common.api.filter.IFilter;
+import org.jowidgets.cap.common.api.plugin.IBeanDtoCustomFilterPlugin;
+import org.jowidgets.plugin.api.IPluginPropertiesBuilder;
+import org.jowidgets.plugin.api.PluginProvider;
+import org.jowidgets.plugin.api.PluginToolkit;
+import org.jowidgets.util.Assert;
+import org.jowidgets.util.EmptyCheck;
+import org.jowidgets.util.NullCompatibleComparison;
+import org.jowidgets.util.NullCompatibleEquivalence;
+
+/**
+ * Compiles a filter tree into a tree of predicates. Operators, parameters and custom filter plugins
+ * will be resolved once at compile time, so only the property access and the comparison remain per bean.
+ */
+final class BeanDtoPredicateCompiler {
+
+	private BeanDtoPredicateCompiler() {}
+
+	static IBeanDtoPredicate compile(final IFilter filter) {
+		Assert.paramNotNull(filter, "filter");
+		if (filter instanceof IBooleanFilter) {
+			return compileBoolean((IBooleanFilter) filter);
+		}
+		else if (filter instanceof IArithmeticFilter) {
+			return new ArithmeticPredicate((IArithmeticFilter) filter);
+		}
+		else if (filter instanceof IArithmeticPropertyFilter) {
+			return new ArithmeticPropertyPredicate((IArithmeticPropertyFilter) filter);
+		}
+		else if (filter instanceof ICustomFilter) {
+			return new CustomPredicate((ICustomFilter) filter);
+		}
+		else {
+			throw new IllegalArgumentException("Unkown filter type '" + filter.getClass().getName() + "'.");
+		}
+	}
+
+	private static IBeanDtoPredicate compileBoolean(final IBooleanFilter filter) {
+		final List<IFilter> filters = filter.getFilters();
+		final IBeanDtoPredicate[] predicates = new IBeanDtoPredicate[filters.size()];
+		int index = 0;
+		for (final IFilter currentFilter : filters) {
+			predicates[index] = compile(currentFilter);
+			index++;
+		}
+		if (BooleanOperator.AND.equals(filter.getOperator())) {
+			return new AndPredicate(predicates, filter.isInverted());
+		}
+		else if (BooleanOperator.OR.equals(filter.getOperator())) {
+			return new OrPredicate(predicates, filter.isInverted());
+		}
+		else {
+			throw new IllegalArgumentException("Unknown boolean operator '" + filter.getOperator().getClass().getName() + "'.");
+		}
+	}
+
+	private static ArithmeticOperator checkOperator(final ArithmeticOperator operator) {
+		switch (operator) {
+			case EMPTY:
+			case EQUAL:
+			case LESS:
+			case LESS_EQUAL:
+			case GREATER:
+			case GREATER_EQUAL:
+			case BETWEEN:
+			case CONTAINS_ANY:
+			case CONTAINS_ALL:
+				return operator;
+
+			default:
+				throw new IllegalArgumentException("Unknown arithmetic operator '" + operator + ".'");
+		}
+	}
+
+	private static Parameter[] createParameters(final Object[] parameters) {
+		final Parameter[] result = new Parameter[parameters.length];
+		for (int i = 0; i < parameters.length; i++) {
+			result[i] = createParameter(parameters[i]);
+		}
+		return result;
+	}
+
+	private static Parameter createParameter(final Object parameter) {
+		if (parameter instanceof Collection<?>) {
+			final Collection<?> collection = (Collection<?>) parameter;
+			final Parameter[] elements = new Parameter[collection.size()];
+			int index = 0;
+			for (final Object element : collection) {
+				elements[index] = createElementParameter(element);
+				index++;
+			}
+			return new AnyParameter(elements);
+		}
+		else {
+			return createElementParameter(parameter);
+		}
+	}
+
+	private static Parameter createElementParameter(final Object parameter) {
+		if (parameter instanceof String) {
+			return new StringParameter((String) parameter);
+		}
+		else {
+			return new ObjectParameter(parameter);
+		}
+	}
+
+	/**
+	 * Evaluates the operator for a single (non collection) value. The parameters will only be
+	 * created if needed, because they may depend on the bean for property filters.
+	 */
+	private static boolean acceptValue(
+		final ArithmeticOperator operator,
+		final IParameterSource parameters,
+		final Object value) {
+		switch (operator) {
+			case EMPTY:
+				return EmptyCheck.isEmpty(value);
+
+			case EQUAL:
+				return parameters.get(0).isEqual(value);
+
+			case LESS:
+				return parameters.get(0).isLess(value);
+
+			case LESS_EQUAL:
+				final Parameter lessEqualParameter = parameters.get(0);
+				return lessEqualParameter.isEqual(value) || lessEqualParameter.isLess(value);
+
+			case GREATER:
+				return parameters.get(0).isGreater(value);
+
+			case GREATER_EQUAL:
+				final Parameter greaterEqualParameter = parameters.get(0);
+				return greaterEqualParameter.isEqual(value) || greaterEqualParameter.isGreater(value);
+
+			case BETWEEN:
+				final Parameter lower = parameters.get(0);
+				if (!lower.isEqual(value) && !lower.isGreater(value)) {
+					return false;
+				}
+				final Parameter upper = parameters.get(1);
+				return upper.isEqual(value) || upper.isLess(value);
+
+			case CONTAINS_ANY:
+				return containsAny(parameters.getAll(), value);
+
+			case CONTAINS_ALL:
+				throw new IllegalArgumentException("Arithmetic operator " + operator + " cannot be used with a non-collection value.");
+
+			default:
+				throw new IllegalArgumentException("Unknown arithmetic operator '" + operator + ".'");
+		}
+	}
+
+	/**
+	 * Evaluates the operator for a collection value. Each comparison is true if it is true for any value
+	 * of the collection.
+	 */
+	private static boolean acceptCollection(
+		final ArithmeticOperator operator,
+		final IParameterSource parameters,
+		final Collection<?> values) {
+		switch (operator) {
+			case EMPTY:
+				return EmptyCheck.isEmpty(values);
+
+			case EQUAL:
+				return isEqual(parameters.get(0), values);
+
+			case LESS:
+				return isLess(parameters.get(0), values);
+
+			case LESS_EQUAL:
+				final Parameter lessEqualParameter = parameters.get(0);
+				return isEqual(lessEqualParameter, values) || isLess(lessEqualParameter, values);
+
+			case GREATER:
+				return isGreater(parameters.get(0), values);
+
+			case GREATER_EQUAL:
+				final Parameter greaterEqualParameter = parameters.get(0);
+				return isEqual(greaterEqualParameter, values) || isGreater(greaterEqualParameter, values);
+
+			case BETWEEN:
+				final Parameter lower = parameters.get(0);
+				if (!isEqual(lower, values) && !isGreater(lower, values)) {
+					return false;
+				}
+				final Parameter upper = parameters.get(1);
+				return isEqual(upper, values) || isLess(upper, values);
+
+			case CONTAINS_ANY:
+				return containsAny(parameters.getAll(), values);
+
+			case CONTAINS_ALL:
+				return parameters.containsAll(values);
+
+			default:
+				throw new IllegalArgumentException("Unknown arithmetic operator '" + operator + ".'");
+		}
+	}
+
+	private static boolean isEqual(final Parameter parameter, final Collection<?> values) {
+		for (final Object value : values) {
+			if (parameter.isEqual(value)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isLess(final Parameter parameter, final Collection<?> values) {
+		for (final Object value : values) {
+			if (parameter.isLess(value)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isGreater(final Parameter parameter, final Collection<?> values) {
+		for (final Object value : values) {
+			if (parameter.isGreater(value)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean containsAny(final Parameter[] parameters, final Object value) {
+		for (final Parameter parameter : parameters) {
+			if (parameter.isEqual(value)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean containsAny(final Parameter[] parameters, final Collection<?> values) {
+		for (final Object value : values) {
+			if (containsAny(parameters, value)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean containsAll(final Parameter[] parameters, final Collection<?> values) {
+		for (final Parameter parameter : parameters) {
+			if (!isEqual(parameter, values)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean invert(final boolean value, final boolean invert) {
+		return invert ? !value : value;
+	}
+
+	/**
+	 * Gets the regex for a search string with wild cards, all other characters will be quoted
+	 */
+	private static String getRegex(final String search) {
+		final StringBuilder regex = new StringBuilder(search.length() + 4);
+		final StringBuilder literal = new StringBuilder(search.length());
+		for (final char c : search.toLowerCase().toCharArray()) {
+			switch (c) {
+				case '%':
+				case '*':
+					appendLiteral(regex, literal);
+					regex.append(".*");
+					break;
+
+				case '_':
+				case '?':
+					appendLiteral(regex, literal);
+					regex.append('.');
+					break;
+
+				default:
+					literal.append(c);
+			}
+		}
+		appendLiteral(regex, literal);
+		return regex.toString();
+	}
+
+	private static void appendLiteral(final StringBuilder regex, final StringBuilder literal) {
+		if (literal.length() > 0) {
+			regex.append(Pattern.quote(literal.toString()));
+			literal.setLength(0);
+		}
+	}
+
+	private interface IParameterSource {
+
+		Parameter get(int index);
+
+		Parameter[] getAll();
+
+		boolean containsAll(Collection<?> values);
+
+	}
+
+	private static final class AndPredicate implements IBeanDtoPredicate {
+
+		private final IBeanDtoPredicate[] predicates;
+		private final boolean inverted;
+
+		AndPredicate(final IBeanDtoPredicate[] predicates, final boolean inverted) {
+			this.predicates = predicates;
+			this.inverted = inverted;
+		}
+
+		@Override
+		public boolean accept(final IBeanDto beanDto) {
+			for (final IBeanDtoPredicate predicate : predicates) {
+				if (!predicate.accept(beanDto)) {
+					return inverted;
+				}
+			}
+			return !inverted;
+		}
+
+	}
+
+	private static final class OrPredicate implements IBeanDtoPredicate {
+
+		private final IBeanDtoPredicate[] predicates;
+		private final boolean inverted;
+
+		OrPredicate(final IBeanDtoPredicate[] predicates, final boolean inverted) {
+			this.predicates = predicates;
+			this.inverted = inverted;
+		}
+
+		@Override
+		public boolean accept(final IBeanDto beanDto) {
+			for (final IBeanDtoPredicate predicate : predicates) {
+				if (predicate.accept(beanDto)) {
+					return !inverted;
+				}
+			}
+			return inverted;
+		}
+
+	}
+
+	private static final class CustomPredicate implements IBeanDtoPredicate {
+
+		private final ICustomFilter filter;
+		private final IBeanDtoCustomFilterPlugin[] plugins;
+
+		CustomPredicate(final ICustomFilter filter) {
+			Assert.paramNotEmpty(filter.getFilterType(), "filter.getFilterType()");
+			this.filter = filter;
+
+			final IPluginPropertiesBuilder propertiesBuilder = PluginToolkit.pluginPropertiesBuilder();
+			propertiesBuilder.add(IBeanDtoCustomFilterPlugin.FILTER_TYPE_PROPERTY_KEY, filter.getFilterType());
+			final List<IBeanDtoCustomFilterPlugin> pluginList;
+			pluginList = PluginProvider.getPlugins(IBeanDtoCustomFilterPlugin.ID, propertiesBuilder.build());
+			this.plugins = pluginList.toArray(new IBeanDtoCustomFilterPlugin[pluginList.size()]);
+		}
+
+		@Override
+		public boolean accept(final IBeanDto beanDto) {
+			// missing plugins are reported on evaluation, so filtering an empty collection never fails
+			if (plugins.length == 0) {
+				throw new IllegalStateException("No '"
+					+ IBeanDtoCustomFilterPlugin.class.getName()
+					+ "' implementation found for the filter type '"
+					+ filter.getFilterType()
+					+ "'");
+			}
+			for (final IBeanDtoCustomFilterPlugin plugin : plugins) {
+				// plug in has to negate result itself if filter is inverted
+				if (!plugin.accept(beanDto, filter)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+	}
+
+	private static final class ArithmeticPredicate implements IBeanDtoPredicate, IParameterSource {
+
+		private final String propertyName;
+		private final ArithmeticOperator operator;
+		private final boolean inverted;
+		private final Parameter[] parameters;
+
+		ArithmeticPredicate(final IArithmeticFilter filter) {
+			this.propertyName = filter.getPropertyName();
+			this.operator = checkOperator(filter.getOperator());
+			this.inverted = filter.isInverted();
+			final Object[] rawParameters = filter.getParameters();
+			this.parameters = rawParameters != null ? createParameters(rawParameters) : null;
+		}
+
+		@Override
+		public boolean accept(final IBeanDto beanDto) {
+			final Object value = beanDto.getValue(propertyName);
+			if (value instanceof Collection<?>) {
+				return invert(acceptCollection(operator, this, (Collection<?>) value), inverted);
+			}
+			else {
+				return invert(acceptValue(operator, this, value), inverted);
+			}
+		}
+
+		@Override
+		public Parameter get(final int index) {
+			return parameters[index];
+		}
+
+		@Override
+		public Parameter[] getAll() {
+			return parameters;
+		}
+
+		@Override
+		public boolean containsAll(final Collection<?> values) {
+			return BeanDtoPredicateCompiler.containsAll(parameters, values);
+		}
+
+	}
+
+	private static final class ArithmeticPropertyPredicate implements IBeanDtoPredicate {
+
+		private final String propertyName;
+		private final ArithmeticOperator operator;
+		private final boolean inverted;
+		private final String[] rightHandPropertyNames;
+
+		ArithmeticPropertyPredicate(final IArithmeticPropertyFilter filter) {
+			this.propertyName = filter.getPropertyName();
+			this.operator = checkOperator(filter.getOperator());
+			this.inverted = filter.isInverted();
+			this.rightHandPropertyNames = filter.getRightHandPropertyNames();
+		}
+
+		@Override
+		public boolean accept(final IBeanDto beanDto) {
+			final Object value = beanDto.getValue(propertyName);
+			final IParameterSource parameters = new BeanParameterSource(beanDto);
+			if (value instanceof Collection<?>) {
+				// CONTAINS_ALL is not supported for property filters, even if the value is a collection
+				if (ArithmeticOperator.CONTAINS_ALL.equals(operator)) {
+					throw new IllegalArgumentException("Arithmetic operator "
+						+ operator
+						+ " cannot be used with a non-collection value.");
+				}
+				return invert(acceptCollection(operator, parameters, (Collection<?>) value), inverted);
+			}
+			else {
+				return invert(acceptValue(operator, parameters, value), inverted);
+			}
+		}
+
+		private final class BeanParameterSource implements IParameterSource {
+
+			private final IBeanDto beanDto;
+
+			BeanParameterSource(final IBeanDto beanDto) {
+				this.beanDto = beanDto;
+			}
+
+			@Override
+			public Parameter get(final int index) {
+				return createParameter(beanDto.getValue(rightHandPropertyNames[index]));
+			}
+
+			@Override
+			public Parameter[] getAll() {
+				final Parameter[] result = new Parameter[rightHandPropertyNames.length];
+				for (int i = 0; i < rightHandPropertyNames.length; i++) {
+					result[i] = get(i);
+				}
+				return result;
+			}
+
+			@Override
+			public boolean containsAll(final Collection<?> values) {
+				return BeanDtoPredicateCompiler.containsAll(getAll(), values);
+			}
+
+		}
+
+	}
+
+	private abstract static class Parameter {
+
+		abstract boolean isEqual(Object value);
+
+		abstract boolean isLess(Object value);
+
+		abstract boolean isGreater(Object value);
+
+	}
+
+	/**
+	 * A collection parameter matches if any of its elements matches
+	 */
+	private static final class AnyParameter extends Parameter {
+
+		private final Parameter[] elements;
+
+		AnyParameter(final Parameter[] elements) {
+			this.elements = elements;
+		}
+
+		@Override
+		boolean isEqual(final Object value) {
+			for (final Parameter element : elements) {
+				if (element.isEqual(value)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		@Override
+		boolean isLess(final Object value) {
+			for (final Parameter element : elements) {
+				if (element.isLess(value)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		@Override
+		boolean isGreater(final Object value) {
+			for (final Parameter element : elements) {
+				if (element.isGreater(value)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+	}
+
+	private static class ObjectParameter extends Parameter {
+
+		private final Object parameter;
+
+		ObjectParameter(final Object parameter) {
+			this.parameter = parameter;
+		}
+
+		@Override
+		boolean isEqual(final Object value) {
+			return NullCompatibleEquivalence.equals(parameter, value);
+		}
+
+		@Override
+		boolean isLess(final Object value) {
+			return compareTo(value) < 0;
+		}
+
+		@Override
+		boolean isGreater(final Object value) {
+			return compareTo(value) > 0;
+		}
+
+		@SuppressWarnings({"rawtypes", "unchecked"})
+		private int compareTo(final Object value) {
+			return NullCompatibleComparison.compareTo((Comparable) value, (Comparable) parameter);
+		}
+
+	}
+
+	/**
+	 * String parameters are matched case insensitive with wild cards. The pattern will be compiled once
+	 * on the first match, so comparisons of string parameters do not compile a pattern.
+	 */
+	private static final class StringParameter extends ObjectParameter {
+
+		private final String parameter;
+
+		private volatile Pattern pattern;
+
+		StringParameter(final String parameter) {
+			super(parameter);
+			this.parameter = parameter;
+		}
+
+		@Override
+		boolean isEqual(final Object value) {
+			if (value instanceof String) {
+				return getPattern().matcher(((String) value).toLowerCase()).matches();
+			}
+			else {
+				return super.isEqual(value);
+			}
+		}
+
+		private Pattern getPattern() {
+			Pattern result = pattern;
+			if (result == null) {
+				result = Pattern.compile(getRegex(parameter));
+				pattern = result;
+			}
+			return result;
+		}
+
+	}
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.cap.common.impl;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.jowidgets.cap.common.api.bean.IBean;
+import org.jowidgets.cap.common.api.bean.IBeanDtoSchema;
+import org.jowidgets.util.Assert;
+
+final class BeanDtoSchemaImpl implements IBeanDtoSchema, Serializable {
+
+	private static final long serialVersionUID = 4615380233071883582L;
+
+	/**
+	 * Holds the shared schemas weakly, so schemas received from peers will be removed if they are no longer used
+	 */
+	private static final Map<BeanDtoSchemaImpl, WeakReference<BeanDtoSchemaImpl>> SCHEMAS =
+		new WeakHashMap<BeanDtoSchemaImpl, WeakReference<BeanDtoSchemaImpl>>();
+
+	private final String beanTypeId;
+	private final List<String> propertyNames;
+
+	private transient Map<String, Integer> propertyIndices;
+
+	private BeanDtoSchemaImpl(final String beanTypeId, final List<String> propertyNames) {
+		this.beanTypeId = beanTypeId;
+		this.propertyNames = propertyNames;
+		this.propertyIndices = createPropertyIndices(propertyNames);
+	}
+
+	/**
+	 * Gets the shared schema for a bean type and property names
+	 * 
+	 * @param beanTypeId The bean type id, must not be null
+	 * @param propertyNames The property names, must not be null, id and version will be ignored
+	 * 
+	 * @return The schema, never null
+	 */
+	static BeanDtoSchemaImpl create(final Object beanTypeId, final Collection<String> propertyNames) {
+		Assert.paramNotNull(beanTypeId, "beanTypeId");
+		Assert.paramNotNull(propertyNames, "propertyNames");
+
+		final Set<String> slotPropertyNames = new LinkedHashSet<String>(propertyNames);
+		slotPropertyNames.remove(IBean.ID_PROPERTY);
+		slotPropertyNames.remove(IBean.VERSION_PROPERTY);
+
+		final BeanDtoSchemaImpl schema = new BeanDtoSchemaImpl(
+			getBeanTypeIdString(beanTypeId),
+			Collections.unmodifiableList(new ArrayList<String>(slotPropertyNames)));
+		synchronized (SCHEMAS) {
+			final WeakReference<BeanDtoSchemaImpl> existingReference = SCHEMAS.get(schema);
+			final BeanDtoSchemaImpl existing = existingReference != null ? existingReference.get() : null;
+			if (existing != null) {
+				return existing;
+			}
+			SCHEMAS.put(schema, new WeakReference<BeanDtoSchemaImpl>(schema));
+			return schema;
+		}
+	}
+
+	private static String getBeanTypeIdString(final Object beanTypeId) {
+		if (beanTypeId instanceof Class) {
+			return ((Class<?>) beanTypeId).getName();
+		}
+		else {
+			return beanTypeId.toString();
+		}
+	}
+
+	private static Map<String, Integer> createPropertyIndices(final List<String> propertyNames) {
+		final Map<String, Integer> result = new HashMap<String, Integer>();
+		int index = 0;
+		for (final String propertyName : propertyNames) {
+			result.put(propertyName, Integer.valueOf(index++));
+		}
+		return result;
+	}
+
+	@Override
+	public String getBeanTypeId() {
+		return beanTypeId;
+	}
+
+	@Override
+	public List<String> getPropertyNames() {
+		return propertyNames;
+	}
+
+	@Override
+	public int getPropertyIndex(final String propertyName) {
+		final Integer result = propertyIndices.get(propertyName);
+		return result != null ? result.intValue() : -1;
+	}
+
+	int getPropertyCount() {
+		return propertyNames.size();
+	}
+
+	private Object readResolve() throws ObjectStreamException {
+		return create(beanTypeId, propertyNames);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * beanTypeId.hashCode() + propertyNames.hashCode();
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof BeanDtoSchemaImpl)) {
+			return false;
+		}
+		final BeanDtoSchemaImpl other = (BeanDtoSchemaImpl) obj;
+		return beanTypeId.equals(other.beanTypeId) && propertyNames.equals(other.propertyNames);
+	}
+
+	@Override
+	public String toString() {
+		return "BeanDtoSchemaImpl [beanTypeId=" + beanTypeId + ", propertyNames=" + propertyNames + "]";
+	}
+
+}
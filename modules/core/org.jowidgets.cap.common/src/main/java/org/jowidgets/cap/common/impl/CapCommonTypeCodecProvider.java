@@ -0,0 +1,513 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.cap.common.impl;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.jowidgets.cap.common.api.bean.IBean;
+import org.jowidgets.cap.common.api.bean.IBeanDto;
+import org.jowidgets.cap.common.api.filter.ArithmeticOperator;
+import org.jowidgets.cap.common.api.filter.BooleanOperator;
+import org.jowidgets.cap.common.api.filter.IFilter;
+import org.jowidgets.cap.common.api.filter.IOperator;
+import org.jowidgets.cap.common.api.sort.SortOrder;
+import org.jowidgets.message.api.IMessageCodec;
+import org.jowidgets.message.api.ISharedTypeCodec;
+import org.jowidgets.message.api.ITypeCodec;
+import org.jowidgets.message.api.ITypeCodecProvider;
+
+/**
+ * Provides the binary type codecs for bean dto's, bean keys, filters and sorts
+ */
+public final class CapCommonTypeCodecProvider implements ITypeCodecProvider {
+
+	private static final ArithmeticOperator[] ARITHMETIC_OPERATORS = ArithmeticOperator.values();
+	private static final BooleanOperator[] BOOLEAN_OPERATORS = BooleanOperator.values();
+	private static final SortOrder[] SORT_ORDERS = SortOrder.values();
+
+	private static final Collection<ITypeCodec<?>> TYPE_CODECS = Collections.unmodifiableList(Arrays.<ITypeCodec<?>> asList(
+			new BeanDtoCodec(),
+			new BeanKeyCodec(),
+			new SortCodec(),
+			new ArithmeticFilterCodec(),
+			new ArithmeticPropertyFilterCodec(),
+			new BooleanFilterCodec(),
+			new CustomFilterCodec(),
+			new BeanDtoSchemaCodec(),
+			new SchemaBeanDtoCodec(),
+			new ColumnarBeanDtoListCodec()));
+
+	@Override
+	public Collection<ITypeCodec<?>> getTypeCodecs() {
+		return TYPE_CODECS;
+	}
+
+	private static void encodeOrdinal(final Enum<?> value, final DataOutput output) throws IOException {
+		output.writeByte(value != null ? value.ordinal() : -1);
+	}
+
+	private static <TYPE> TYPE decodeOrdinal(final TYPE[] values, final DataInput input) throws IOException {
+		final byte ordinal = input.readByte();
+		return ordinal >= 0 ? values[ordinal] : null;
+	}
+
+	private static final class BeanDtoCodec implements ITypeCodec<BeanDtoImpl> {
+
+		@Override
+		public Class<BeanDtoImpl> getType() {
+			return BeanDtoImpl.class;
+		}
+
+		@Override
+		public int getTypeId() {
+			return 200;
+		}
+
+		@Override
+		public void encode(final BeanDtoImpl value, final DataOutput output, final IMessageCodec codec) throws IOException {
+			codec.encode(value.getId(), output);
+			output.writeLong(value.getVersion());
+			output.writeUTF(value.getBeanTypeId());
+			final Map<String, Object> beanData = value.getBeanData();
+			//id and version will be added by the constructor on decode
+			int size = beanData.size();
+			if (beanData.containsKey(IBean.ID_PROPERTY)) {
+				size--;
+			}
+			if (beanData.containsKey(IBean.VERSION_PROPERTY)) {
+				size--;
+			}
+			output.writeInt(size);
+			for (final Entry<String, Object> entry : beanData.entrySet()) {
+				final String propertyName = entry.getKey();
+				if (!IBean.ID_PROPERTY.equals(propertyName) && !IBean.VERSION_PROPERTY.equals(propertyName)) {
+					output.writeUTF(propertyName);
+					codec.encode(entry.getValue(), output);
+				}
+			}
+		}
+
+		@Override
+		public BeanDtoImpl decode(final DataInput input, final IMessageCodec codec) throws IOException, ClassNotFoundException {
+			final Object id = codec.decode(input);
+			final long version = input.readLong();
+			final String beanTypeId = input.readUTF();
+			final int size = input.readInt();
+			final Map<String, Object> beanData = new HashMap<String, Object>(((size + 2) * 4) / 3 + 1);
+			for (int i = 0; i < size; i++) {
+				beanData.put(input.readUTF(), codec.decode(input));
+			}
+			return new BeanDtoImpl(id, version, beanTypeId, beanData);
+		}
+	}
+
+	private static final class BeanDtoSchemaCodec implements ISharedTypeCodec<BeanDtoSchemaImpl> {
+
+		@Override
+		public Class<BeanDtoSchemaImpl> getType() {
+			return BeanDtoSchemaImpl.class;
+		}
+
+		@Override
+		public int getTypeId() {
+			return 207;
+		}
+
+		@Override
+		public void encode(final BeanDtoSchemaImpl value, final DataOutput output, final IMessageCodec codec)
+				throws IOException {
+			output.writeUTF(value.getBeanTypeId());
+			final List<String> propertyNames = value.getPropertyNames();
+			output.writeInt(propertyNames.size());
+			for (final String propertyName : propertyNames) {
+				output.writeUTF(propertyName);
+			}
+		}
+
+		@Override
+		public BeanDtoSchemaImpl decode(final DataInput input, final IMessageCodec codec) throws IOException {
+			final String beanTypeId = input.readUTF();
+			final int size = input.readInt();
+			final List<String> propertyNames = new ArrayList<String>(size);
+			for (int i = 0; i < size; i++) {
+				propertyNames.add(input.readUTF());
+			}
+			return BeanDtoSchemaImpl.create(beanTypeId, propertyNames);
+		}
+	}
+
+	private static final class SchemaBeanDtoCodec implements ITypeCodec<SchemaBeanDtoImpl> {
+
+		@Override
+		public Class<SchemaBeanDtoImpl> getType() {
+			return SchemaBeanDtoImpl.class;
+		}
+
+		@Override
+		public int getTypeId() {
+			return 208;
+		}
+
+		@Override
+		public void encode(final SchemaBeanDtoImpl value, final DataOutput output, final IMessageCodec codec)
+				throws IOException {
+			//the schema will be written only once per message
+			codec.encode(value.getSchema(), output);
+			codec.encode(value.getId(), output);
+			output.writeLong(value.getVersion());
+			for (final Object propertyValue : value.getValues()) {
+				codec.encode(propertyValue, output);
+			}
+			final Map<String, Object> additionalValues = value.getAdditionalValues();
+			if (additionalValues != null) {
+				output.writeInt(additionalValues.size());
+				for (final Entry<String, Object> entry : additionalValues.entrySet()) {
+					output.writeUTF(entry.getKey());
+					codec.encode(entry.getValue(), output);
+				}
+			}
+			else {
+				output.writeInt(0);
+			}
+		}
+
+		@Override
+		public SchemaBeanDtoImpl decode(final DataInput input, final IMessageCodec codec)
+				throws IOException, ClassNotFoundException {
+			final BeanDtoSchemaImpl schema = (BeanDtoSchemaImpl) codec.decode(input);
+			final Object id = codec.decode(input);
+			final long version = input.readLong();
+			final Object[] values = new Object[schema.getPropertyCount()];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = codec.decode(input);
+			}
+			final int additionalSize = input.readInt();
+			Map<String, Object> additionalValues = null;
+			if (additionalSize > 0) {
+				additionalValues = new HashMap<String, Object>();
+				for (int i = 0; i < additionalSize; i++) {
+					additionalValues.put(input.readUTF(), codec.decode(input));
+				}
+			}
+			return new SchemaBeanDtoImpl(schema, id, version, values, additionalValues);
+		}
+	}
+
+	private static final class ColumnarBeanDtoListCodec implements ITypeCodec<ColumnarBeanDtoList> {
+
+		@Override
+		public Class<ColumnarBeanDtoList> getType() {
+			return ColumnarBeanDtoList.class;
+		}
+
+		@Override
+		public int getTypeId() {
+			return 209;
+		}
+
+		@Override
+		public void encode(final ColumnarBeanDtoList value, final DataOutput output, final IMessageCodec codec)
+				throws IOException {
+			if (!value.isColumnar()) {
+				//list was modified, so encode the rows
+				output.writeBoolean(false);
+				codec.encode(new ArrayList<IBeanDto>(value), output);
+				return;
+			}
+			output.writeBoolean(true);
+			codec.encode(value.getSchema(), output);
+			final Object[] ids = value.getIds();
+			output.writeInt(ids.length);
+			ColumnDictionary.encodeColumn(ids, output, codec);
+			for (final long version : value.getVersions()) {
+				output.writeLong(version);
+			}
+			for (final Object[] column : value.getColumns()) {
+				ColumnDictionary.encodeColumn(column, output, codec);
+			}
+			final Map<Integer, Map<String, Object>> additionalValues = value.getAdditionalValues();
+			if (additionalValues != null) {
+				output.writeInt(additionalValues.size());
+				for (final Entry<Integer, Map<String, Object>> entry : additionalValues.entrySet()) {
+					output.writeInt(entry.getKey().intValue());
+					output.writeInt(entry.getValue().size());
+					for (final Entry<String, Object> valueEntry : entry.getValue().entrySet()) {
+						output.writeUTF(valueEntry.getKey());
+						codec.encode(valueEntry.getValue(), output);
+					}
+				}
+			}
+			else {
+				output.writeInt(0);
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public ColumnarBeanDtoList decode(final DataInput input, final IMessageCodec codec)
+				throws IOException, ClassNotFoundException {
+			if (!input.readBoolean()) {
+				return ColumnarBeanDtoList.createRows((List<IBeanDto>) codec.decode(input));
+			}
+			final BeanDtoSchemaImpl schema = (BeanDtoSchemaImpl) codec.decode(input);
+			final int rowCount = input.readInt();
+			final Object[] ids = ColumnDictionary.decodeColumn(rowCount, input, codec);
+			final long[] versions = new long[rowCount];
+			for (int row = 0; row < rowCount; row++) {
+				versions[row] = input.readLong();
+			}
+			final Object[][] columns = new Object[schema.getPropertyCount()][];
+			for (int column = 0; column < columns.length; column++) {
+				columns[column] = ColumnDictionary.decodeColumn(rowCount, input, codec);
+			}
+			final int additionalCount = input.readInt();
+			Map<Integer, Map<String, Object>> additionalValues = null;
+			if (additionalCount > 0) {
+				additionalValues = new HashMap<Integer, Map<String, Object>>();
+				for (int i = 0; i < additionalCount; i++) {
+					final Integer row = Integer.valueOf(input.readInt());
+					final int size = input.readInt();
+					final Map<String, Object> rowValues = new HashMap<String, Object>();
+					for (int j = 0; j < size; j++) {
+						rowValues.put(input.readUTF(), codec.decode(input));
+					}
+					additionalValues.put(row, rowValues);
+				}
+			}
+			return ColumnarBeanDtoList.create(schema, ids, versions, columns, additionalValues);
+		}
+	}
+
+	private static final class BeanKeyCodec implements ITypeCodec<BeanKeyImpl> {
+
+		@Override
+		public Class<BeanKeyImpl> getType() {
+			return BeanKeyImpl.class;
+		}
+
+		@Override
+		public int getTypeId() {
+			return 201;
+		}
+
+		@Override
+		public void encode(final BeanKeyImpl value, final DataOutput output, final IMessageCodec codec) throws IOException {
+			codec.encode(value.getId(), output);
+			output.writeLong(value.getVersion());
+		}
+
+		@Override
+		public BeanKeyImpl decode(final DataInput input, final IMessageCodec codec) throws IOException, ClassNotFoundException {
+			return new BeanKeyImpl(codec.decode(input), input.readLong());
+		}
+	}
+
+	private static final class SortCodec implements ITypeCodec<SortImpl> {
+
+		@Override
+		public Class<SortImpl> getType() {
+			return SortImpl.class;
+		}
+
+		@Override
+		public int getTypeId() {
+			return 202;
+		}
+
+		@Override
+		public void encode(final SortImpl value, final DataOutput output, final IMessageCodec codec) throws IOException {
+			output.writeUTF(value.getPropertyName());
+			encodeOrdinal(value.getSortOrder(), output);
+		}
+
+		@Override
+		public SortImpl decode(final DataInput input, final IMessageCodec codec) throws IOException {
+			return new SortImpl(input.readUTF(), decodeOrdinal(SORT_ORDERS, input));
+		}
+	}
+
+	private static final class ArithmeticFilterCodec implements ITypeCodec<ArithmeticFilterImpl> {
+
+		@Override
+		public Class<ArithmeticFilterImpl> getType() {
+			return ArithmeticFilterImpl.class;
+		}
+
+		@Override
+		public int getTypeId() {
+			return 203;
+		}
+
+		@Override
+		public void encode(final ArithmeticFilterImpl value, final DataOutput output, final IMessageCodec codec)
+				throws IOException {
+			codec.encode(value.getPropertyName(), output);
+			encodeOrdinal(value.getOperator(), output);
+			codec.encode(value.getParameters(), output);
+			output.writeBoolean(value.isInverted());
+		}
+
+		@Override
+		public ArithmeticFilterImpl decode(final DataInput input, final IMessageCodec codec)
+				throws IOException, ClassNotFoundException {
+			return new ArithmeticFilterImpl(
+				(String) codec.decode(input),
+				decodeOrdinal(ARITHMETIC_OPERATORS, input),
+				(Object[]) codec.decode(input),
+				input.readBoolean());
+		}
+	}
+
+	private static final class ArithmeticPropertyFilterCodec implements ITypeCodec<ArithmeticPropertyFilterImpl> {
+
+		@Override
+		public Class<ArithmeticPropertyFilterImpl> getType() {
+			return ArithmeticPropertyFilterImpl.class;
+		}
+
+		@Override
+		public int getTypeId() {
+			return 204;
+		}
+
+		@Override
+		public void encode(final ArithmeticPropertyFilterImpl value, final DataOutput output, final IMessageCodec codec)
+				throws IOException {
+			codec.encode(value.getPropertyName(), output);
+			encodeOrdinal(value.getOperator(), output);
+			final String[] rightHandPropertyNames = value.getRightHandPropertyNames();
+			if (rightHandPropertyNames != null) {
+				output.writeInt(rightHandPropertyNames.length);
+				for (final String propertyName : rightHandPropertyNames) {
+					codec.encode(propertyName, output);
+				}
+			}
+			else {
+				output.writeInt(-1);
+			}
+			output.writeBoolean(value.isInverted());
+		}
+
+		@Override
+		public ArithmeticPropertyFilterImpl decode(final DataInput input, final IMessageCodec codec)
+				throws IOException, ClassNotFoundException {
+			final String propertyName = (String) codec.decode(input);
+			final ArithmeticOperator operator = decodeOrdinal(ARITHMETIC_OPERATORS, input);
+			final int length = input.readInt();
+			String[] rightHandPropertyNames = null;
+			if (length >= 0) {
+				rightHandPropertyNames = new String[length];
+				for (int i = 0; i < length; i++) {
+					rightHandPropertyNames[i] = (String) codec.decode(input);
+				}
+			}
+			return new ArithmeticPropertyFilterImpl(propertyName, operator, rightHandPropertyNames, input.readBoolean());
+		}
+	}
+
+	private static final class BooleanFilterCodec implements ITypeCodec<BooleanFilterImpl> {
+
+		@Override
+		public Class<BooleanFilterImpl> getType() {
+			return BooleanFilterImpl.class;
+		}
+
+		@Override
+		public int getTypeId() {
+			return 205;
+		}
+
+		@Override
+		public void encode(final BooleanFilterImpl value, final DataOutput output, final IMessageCodec codec) throws IOException {
+			encodeOrdinal(value.getOperator(), output);
+			final List<IFilter> filters = value.getFilters();
+			output.writeInt(filters.size());
+			for (final IFilter filter : filters) {
+				codec.encode(filter, output);
+			}
+			output.writeBoolean(value.isInverted());
+		}
+
+		@Override
+		public BooleanFilterImpl decode(final DataInput input, final IMessageCodec codec)
+				throws IOException, ClassNotFoundException {
+			final BooleanOperator operator = decodeOrdinal(BOOLEAN_OPERATORS, input);
+			final int size = input.readInt();
+			final List<IFilter> filters = new ArrayList<IFilter>(size);
+			for (int i = 0; i < size; i++) {
+				filters.add((IFilter) codec.decode(input));
+			}
+			return new BooleanFilterImpl(operator, filters, input.readBoolean());
+		}
+	}
+
+	private static final class CustomFilterCodec implements ITypeCodec<CustomFilterImpl> {
+
+		@Override
+		public Class<CustomFilterImpl> getType() {
+			return CustomFilterImpl.class;
+		}
+
+		@Override
+		public int getTypeId() {
+			return 206;
+		}
+
+		@Override
+		public void encode(final CustomFilterImpl value, final DataOutput output, final IMessageCodec codec) throws IOException {
+			codec.encode(value.getFilterType(), output);
+			codec.encode(value.getPropertyName(), output);
+			codec.encode(value.getOperator(), output);
+			codec.encode(value.getValue(), output);
+			output.writeBoolean(value.isInverted());
+		}
+
+		@Override
+		public CustomFilterImpl decode(final DataInput input, final IMessageCodec codec)
+				throws IOException, ClassNotFoundException {
+			return new CustomFilterImpl(
+				(String) codec.decode(input),
+				(String) codec.decode(input),
+				(IOperator) codec.decode(input),
+				codec.decode(input),
+				input.readBoolean());
+		}
+	}
+
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.cap.common.impl;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jowidgets.message.api.IMessageCodec;
+
+/**
+ * Dictionary encoding of a value column.
+ * 
+ * A column will be dictionary encoded, if all values are immutable values with a proper equals
+ * (strings, numbers, enums, ...) and the number of distinct values is at most half of the row count.
+ * The distinct values will be written once, followed by the index of each row with the smallest
+ * possible width.
+ */
+final class ColumnDictionary {
+
+	private static final byte RAW = 0;
+	private static final byte DICTIONARY = 1;
+
+	private static final int MIN_ROW_COUNT = 4;
+
+	private final Object[] values;
+	private final int[] indices;
+
+	private ColumnDictionary(final Object[] values, final int[] indices) {
+		this.values = values;
+		this.indices = indices;
+	}
+
+	/**
+	 * Creates the dictionary of a column
+	 * 
+	 * @param column The column
+	 * 
+	 * @return The dictionary or null, if the column should not be dictionary encoded
+	 */
+	static ColumnDictionary create(final Object[] column) {
+		if (column.length < MIN_ROW_COUNT) {
+			return null;
+		}
+		final int maxSize = column.length / 2;
+		final Map<Object, Integer> dictionary = new HashMap<Object, Integer>();
+		final int[] indices = new int[column.length];
+		for (int row = 0; row < column.length; row++) {
+			final Object value = column[row];
+			if (value != null) {
+				if (!isDictionaryValue(value)) {
+					return null;
+				}
+				Integer index = dictionary.get(value);
+				if (index == null) {
+					if (dictionary.size() >= maxSize) {
+						return null;
+					}
+					index = Integer.valueOf(dictionary.size() + 1);
+					dictionary.put(value, index);
+				}
+				indices[row] = index.intValue();
+			}
+		}
+		final Object[] values = new Object[dictionary.size()];
+		for (final Map.Entry<Object, Integer> entry : dictionary.entrySet()) {
+			values[entry.getValue().intValue() - 1] = entry.getKey();
+		}
+		return new ColumnDictionary(values, indices);
+	}
+
+	private static boolean isDictionaryValue(final Object value) {
+		return value instanceof String
+			|| value instanceof Long
+			|| value instanceof Integer
+			|| value instanceof Short
+			|| value instanceof Byte
+			|| value instanceof Boolean
+			|| value instanceof Character
+			|| value instanceof Double
+			|| value instanceof Float
+			|| value instanceof Enum<?>;
+	}
+
+	static void writeColumn(final Object[] column, final ObjectOutput output) throws IOException {
+		final ColumnDictionary dictionary = create(column);
+		if (dictionary != null) {
+			output.writeByte(DICTIONARY);
+			output.writeObject(dictionary.values);
+			dictionary.writeIndices(output);
+		}
+		else {
+			output.writeByte(RAW);
+			output.writeObject(column);
+		}
+	}
+
+	static Object[] readColumn(final int rowCount, final ObjectInput input) throws IOException, ClassNotFoundException {
+		final byte encoding = input.readByte();
+		if (encoding == DICTIONARY) {
+			return readIndices((Object[]) input.readObject(), rowCount, input);
+		}
+		else if (encoding == RAW) {
+			final Object[] result = (Object[]) input.readObject();
+			if (result.length != rowCount) {
+				throw new IOException("Column length '" + result.length + "' does not match row count '" + rowCount + "'");
+			}
+			return result;
+		}
+		else {
+			throw new IOException("Unknown column encoding '" + encoding + "'");
+		}
+	}
+
+	static void encodeColumn(final Object[] column, final DataOutput output, final IMessageCodec codec) throws IOException {
+		final ColumnDictionary dictionary = create(column);
+		if (dictionary != null) {
+			output.writeByte(DICTIONARY);
+			codec.encode(dictionary.values, output);
+			dictionary.writeIndices(output);
+		}
+		else {
+			output.writeByte(RAW);
+			for (final Object value : column) {
+				codec.encode(value, output);
+			}
+		}
+	}
+
+	static Object[] decodeColumn(final int rowCount, final DataInput input, final IMessageCodec codec)
+			throws IOException, ClassNotFoundException {
+		final byte encoding = input.readByte();
+		if (encoding == DICTIONARY) {
+			return readIndices((Object[]) codec.decode(input), rowCount, input);
+		}
+		else if (encoding == RAW) {
+			final Object[] result = new Object[rowCount];
+			for (int row = 0; row < rowCount; row++) {
+				result[row] = codec.decode(input);
+			}
+			return result;
+		}
+		else {
+			throw new IOException("Unknown column encoding '" + encoding + "'");
+		}
+	}
+
+	private void writeIndices(final DataOutput output) throws IOException {
+		final int maxIndex = values.length;
+		for (final int index : indices) {
+			if (maxIndex <= 0xFF) {
+				output.writeByte(index);
+			}
+			else if (maxIndex <= 0xFFFF) {
+				output.writeShort(index);
+			}
+			else {
+				output.writeInt(index);
+			}
+		}
+	}
+
+	private static Object[] readIndices(final Object[] values, final int rowCount, final DataInput input) throws IOException {
+		final int maxIndex = values.length;
+		final Object[] result = new Object[rowCount];
+		for (int row = 0; row < rowCount; row++) {
+			final int index;
+			if (maxIndex <= 0xFF) {
+				index = input.readUnsignedByte();
+			}
+			else if (maxIndex <= 0xFFFF) {
+				index = input.readUnsignedShort();
+			}
+			else {
+				index = input.readInt();
+			}
+			if (index < 0 || index > maxIndex) {
+				throw new IOException("Invalid dictionary index '" + index + "'");
+			}
+			result[row] = index > 0 ? values[index - 1] : null;
+		}
+		return result;
+	}
+
+}
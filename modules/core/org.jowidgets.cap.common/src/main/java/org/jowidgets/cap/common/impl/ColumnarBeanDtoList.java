@@ -0,0 +1,408 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.cap.common.impl;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import org.jowidgets.cap.common.api.bean.IBean;
+import org.jowidgets.cap.common.api.bean.IBeanDto;
+import org.jowidgets.cap.common.api.bean.IColumnarBeanDtoList;
+import org.jowidgets.util.Assert;
+
+/**
+ * A list of bean dto's of the same schema that holds the ids, versions and property values in columns.
+ * 
+ * The dto's will be created on demand when accessed and will be kept for further accesses, so the list can be
+ * consumed like any other dto list.
+ * The list is modifiable, on the first modification all rows will be created and the list switches to a
+ * row based representation.
+ * 
+ * The column accessors read the values without creating any dto's.
+ * 
+ * For transport, columns with many repeated values (e.g. lookup keys or enums) will be dictionary encoded.
+ */
+final class ColumnarBeanDtoList extends AbstractList<IBeanDto> implements IColumnarBeanDtoList, RandomAccess, Serializable {
+
+	private static final long serialVersionUID = -5019245294542102484L;
+
+	private transient BeanDtoSchemaImpl schema;
+	private transient int rowCount;
+	private transient Object[] ids;
+	private transient long[] versions;
+	private transient Object[][] columns;
+	private transient Map<Integer, Map<String, Object>> additionalValues;
+	private transient IBeanDto[] rowViews;
+
+	private transient List<IBeanDto> rows;
+
+	private ColumnarBeanDtoList(
+		final BeanDtoSchemaImpl schema,
+		final Object[] ids,
+		final long[] versions,
+		final Object[][] columns,
+		final Map<Integer, Map<String, Object>> additionalValues) {
+		this.schema = schema;
+		this.rowCount = ids.length;
+		this.ids = ids;
+		this.versions = versions;
+		this.columns = columns;
+		this.additionalValues = additionalValues;
+	}
+
+	private ColumnarBeanDtoList(final List<IBeanDto> rows) {
+		this.rows = rows;
+	}
+
+	/**
+	 * Creates a columnar list if all dto's was created with the same schema
+	 * 
+	 * @param dtos The dto's to pack, must not be null
+	 * 
+	 * @return The columnar list or null, if the dto's can not be packed
+	 */
+	static ColumnarBeanDtoList create(final List<? extends IBeanDto> dtos) {
+		Assert.paramNotNull(dtos, "dtos");
+		if (dtos.isEmpty()) {
+			return null;
+		}
+		BeanDtoSchemaImpl schema = null;
+		for (final IBeanDto dto : dtos) {
+			if (!(dto instanceof SchemaBeanDtoImpl)) {
+				return null;
+			}
+			final BeanDtoSchemaImpl dtoSchema = ((SchemaBeanDtoImpl) dto).getSchema();
+			if (schema == null) {
+				schema = dtoSchema;
+			}
+			else if (schema != dtoSchema) {
+				return null;
+			}
+		}
+
+		final int rowCount = dtos.size();
+		final int columnCount = schema.getPropertyCount();
+		final Object[] ids = new Object[rowCount];
+		final long[] versions = new long[rowCount];
+		final Object[][] columns = new Object[columnCount][rowCount];
+		Map<Integer, Map<String, Object>> additionalValues = null;
+
+		int row = 0;
+		for (final IBeanDto dto : dtos) {
+			final SchemaBeanDtoImpl schemaDto = (SchemaBeanDtoImpl) dto;
+			ids[row] = schemaDto.getId();
+			versions[row] = schemaDto.getVersion();
+			final Object[] values = schemaDto.getValues();
+			for (int column = 0; column < columnCount; column++) {
+				columns[column][row] = values[column];
+			}
+			if (schemaDto.getAdditionalValues() != null) {
+				if (additionalValues == null) {
+					additionalValues = new HashMap<Integer, Map<String, Object>>();
+				}
+				additionalValues.put(Integer.valueOf(row), schemaDto.getAdditionalValues());
+			}
+			row++;
+		}
+		return new ColumnarBeanDtoList(schema, ids, versions, columns, additionalValues);
+	}
+
+	/**
+	 * Creates a columnar list from decoded columns
+	 * 
+	 * @throws IOException if the columns do not match the schema or the row count
+	 */
+	static ColumnarBeanDtoList create(
+		final BeanDtoSchemaImpl schema,
+		final Object[] ids,
+		final long[] versions,
+		final Object[][] columns,
+		final Map<Integer, Map<String, Object>> additionalValues) throws IOException {
+		final String error = checkColumns(schema, ids.length, ids, versions, columns, additionalValues);
+		if (error != null) {
+			throw new InvalidObjectException(error);
+		}
+		return new ColumnarBeanDtoList(schema, ids, versions, columns, additionalValues);
+	}
+
+	/**
+	 * Creates a list that is already in row representation
+	 */
+	static ColumnarBeanDtoList createRows(final List<IBeanDto> rows) {
+		Assert.paramNotNull(rows, "rows");
+		return new ColumnarBeanDtoList(new ArrayList<IBeanDto>(rows));
+	}
+
+	@Override
+	public IBeanDto get(final int index) {
+		if (rows != null) {
+			return rows.get(index);
+		}
+		checkRow(index);
+		return getRowView(index);
+	}
+
+	@Override
+	public BeanDtoSchemaImpl getSchema() {
+		return schema;
+	}
+
+	@Override
+	public Object getId(final int row) {
+		if (rows != null) {
+			return rows.get(row).getId();
+		}
+		checkRow(row);
+		return ids[row];
+	}
+
+	@Override
+	public long getVersion(final int row) {
+		if (rows != null) {
+			return rows.get(row).getVersion();
+		}
+		checkRow(row);
+		return versions[row];
+	}
+
+	@Override
+	public Object getValue(final int row, final int column) {
+		if (schema == null) {
+			throw new IllegalStateException("The list has no schema");
+		}
+		if (column < 0 || column >= schema.getPropertyCount()) {
+			throw new IndexOutOfBoundsException("Column: " + column + ", Columns: " + schema.getPropertyCount());
+		}
+		if (rows != null) {
+			return rows.get(row).getValue(schema.getPropertyNames().get(column));
+		}
+		checkRow(row);
+		return columns[column][row];
+	}
+
+	@Override
+	public Object getValue(final int row, final String propertyName) {
+		Assert.paramNotEmpty(propertyName, "propertyName");
+		if (rows != null) {
+			return rows.get(row).getValue(propertyName);
+		}
+		checkRow(row);
+		if (IBean.ID_PROPERTY.equals(propertyName)) {
+			return ids[row];
+		}
+		else if (IBean.VERSION_PROPERTY.equals(propertyName)) {
+			return Long.valueOf(versions[row]);
+		}
+		final int column = schema.getPropertyIndex(propertyName);
+		if (column >= 0) {
+			return columns[column][row];
+		}
+		else if (additionalValues != null) {
+			final Map<String, Object> rowAdditionalValues = additionalValues.get(Integer.valueOf(row));
+			return rowAdditionalValues != null ? rowAdditionalValues.get(propertyName) : null;
+		}
+		else {
+			return null;
+		}
+	}
+
+	@Override
+	public int size() {
+		return rows != null ? rows.size() : rowCount;
+	}
+
+	@Override
+	public IBeanDto set(final int index, final IBeanDto element) {
+		return getRows().set(index, element);
+	}
+
+	@Override
+	public void add(final int index, final IBeanDto element) {
+		modCount++;
+		getRows().add(index, element);
+	}
+
+	@Override
+	public IBeanDto remove(final int index) {
+		modCount++;
+		return getRows().remove(index);
+	}
+
+	private void checkRow(final int row) {
+		if (row < 0 || row >= rowCount) {
+			throw new IndexOutOfBoundsException("Index: " + row + ", Size: " + rowCount);
+		}
+	}
+
+	private IBeanDto getRowView(final int row) {
+		if (rowViews == null) {
+			rowViews = new IBeanDto[rowCount];
+		}
+		IBeanDto result = rowViews[row];
+		if (result == null) {
+			result = createRow(row);
+			rowViews[row] = result;
+		}
+		return result;
+	}
+
+	private IBeanDto createRow(final int row) {
+		final Object[] values = new Object[columns.length];
+		for (int column = 0; column < columns.length; column++) {
+			values[column] = columns[column][row];
+		}
+		final Map<String, Object> rowAdditionalValues = additionalValues != null
+				? additionalValues.get(Integer.valueOf(row)) : null;
+		return new SchemaBeanDtoImpl(schema, ids[row], versions[row], values, rowAdditionalValues);
+	}
+
+	private List<IBeanDto> getRows() {
+		if (rows == null) {
+			final List<IBeanDto> result = new ArrayList<IBeanDto>(rowCount);
+			for (int row = 0; row < rowCount; row++) {
+				result.add(rowViews != null && rowViews[row] != null ? rowViews[row] : createRow(row));
+			}
+			rows = result;
+			ids = null;
+			versions = null;
+			columns = null;
+			additionalValues = null;
+			rowViews = null;
+		}
+		return rows;
+	}
+
+	/**
+	 * @return True if the list is still in columnar representation
+	 */
+	boolean isColumnar() {
+		return rows == null;
+	}
+
+	Object[] getIds() {
+		return ids;
+	}
+
+	long[] getVersions() {
+		return versions;
+	}
+
+	Object[][] getColumns() {
+		return columns;
+	}
+
+	Map<Integer, Map<String, Object>> getAdditionalValues() {
+		return additionalValues;
+	}
+
+	private Object writeReplace() {
+		if (rows != null) {
+			return new ArrayList<IBeanDto>(rows);
+		}
+		return this;
+	}
+
+	private void writeObject(final ObjectOutputStream output) throws IOException {
+		output.defaultWriteObject();
+		output.writeObject(schema);
+		output.writeInt(rowCount);
+		ColumnDictionary.writeColumn(ids, output);
+		output.writeObject(versions);
+		for (final Object[] column : columns) {
+			ColumnDictionary.writeColumn(column, output);
+		}
+		output.writeObject(additionalValues);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void readObject(final ObjectInputStream input) throws IOException, ClassNotFoundException {
+		input.defaultReadObject();
+		schema = (BeanDtoSchemaImpl) input.readObject();
+		rowCount = input.readInt();
+		ids = ColumnDictionary.readColumn(rowCount, input);
+		versions = (long[]) input.readObject();
+		columns = new Object[schema.getPropertyCount()][];
+		for (int column = 0; column < columns.length; column++) {
+			columns[column] = ColumnDictionary.readColumn(rowCount, input);
+		}
+		additionalValues = (Map<Integer, Map<String, Object>>) input.readObject();
+		final String error = checkColumns(schema, rowCount, ids, versions, columns, additionalValues);
+		if (error != null) {
+			throw new InvalidObjectException(error);
+		}
+	}
+
+	private static String checkColumns(
+		final BeanDtoSchemaImpl schema,
+		final int rowCount,
+		final Object[] ids,
+		final long[] versions,
+		final Object[][] columns,
+		final Map<Integer, Map<String, Object>> additionalValues) {
+
+		if (schema == null) {
+			return "The schema is missing";
+		}
+		if (rowCount < 0) {
+			return "Invalid row count '" + rowCount + "'";
+		}
+		if (ids == null || ids.length != rowCount) {
+			return "The ids do not match the row count '" + rowCount + "'";
+		}
+		if (versions == null || versions.length != rowCount) {
+			return "The versions do not match the row count '" + rowCount + "'";
+		}
+		if (columns == null || columns.length != schema.getPropertyCount()) {
+			return "The columns do not match the schema";
+		}
+		for (final Object[] column : columns) {
+			if (column == null || column.length != rowCount) {
+				return "The columns do not match the row count '" + rowCount + "'";
+			}
+		}
+		if (additionalValues != null) {
+			for (final Integer row : additionalValues.keySet()) {
+				if (row == null || row.intValue() < 0 || row.intValue() >= rowCount) {
+					return "Additional values for invalid row '" + row + "'";
+				}
+			}
+		}
+		return null;
+	}
+
+}
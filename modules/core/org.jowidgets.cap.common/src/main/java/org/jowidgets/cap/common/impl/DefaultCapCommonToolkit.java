@@ -29,7 +29,7 @@
 package org.jowidgets.cap.common.impl;
 
 import java.util.Collection;
-import java.util.Comparator;
+import java.util.List;
 
 import javax.validation.Validator;
 
@@ -40,6 +40,7 @@ import org.jowidgets.cap.common.api.bean.IBeanDto;
 import org.jowidgets.cap.common.api.bean.IBeanDtoBuilder;
 import org.jowidgets.cap.common.api.bean.IBeanDtoDescriptor;
 import org.jowidgets.cap.common.api.bean.IBeanDtoDescriptorBuilder;
+import org.jowidgets.cap.common.api.bean.IBeanDtoSchema;
 import org.jowidgets.cap.common.api.bean.IBeanFormInfoDescriptorBuilder;
 import org.jowidgets.cap.common.api.bean.IBeanKeyBuilder;
 import org.jowidgets.cap.common.api.bean.IBeanModificationBuilder;
@@ -61,6 +62,7 @@ import org.jowidgets.cap.common.api.service.IBeanServicesProviderFactory;
 import org.jowidgets.cap.common.api.service.IEntityInfoBuilder;
 import org.jowidgets.cap.common.api.service.IEntityService;
 import org.jowidgets.cap.common.api.service.IEntityServiceCompositeBuilder;
+import org.jowidgets.cap.common.api.sort.IBeanDtoComparator;
 import org.jowidgets.cap.common.api.sort.IBeanDtoComparatorBuilder;
 import org.jowidgets.cap.common.api.sort.ISort;
 import org.jowidgets.cap.common.api.sort.ISortConverterMap;
@@ -126,6 +128,32 @@ public final class DefaultCapCommonToolkit implements ICapCommonToolkit {
 		return new BeanDtoBuilderImpl(beanTypeId);
 	}
 
+	@Override
+	public IBeanDtoSchema dtoSchema(final Object beanTypeId, final Collection<String> propertyNames) {
+		return BeanDtoSchemaImpl.create(beanTypeId, propertyNames);
+	}
+
+	@Override
+	public IBeanDtoBuilder dtoBuilder(final IBeanDtoSchema schema) {
+		Assert.paramNotNull(schema, "schema");
+		if (schema instanceof BeanDtoSchemaImpl) {
+			return new SchemaBeanDtoBuilderImpl((BeanDtoSchemaImpl) schema);
+		}
+		else {
+			return new SchemaBeanDtoBuilderImpl(BeanDtoSchemaImpl.create(schema.getBeanTypeId(), schema.getPropertyNames()));
+		}
+	}
+
+	@Override
+	public List<IBeanDto> columnarDtoList(final List<IBeanDto> dtos) {
+		Assert.paramNotNull(dtos, "dtos");
+		if (dtos instanceof ColumnarBeanDtoList) {
+			return dtos;
+		}
+		final List<IBeanDto> result = ColumnarBeanDtoList.create(dtos);
+		return result != null ? result : dtos;
+	}
+
 	@Override
 	public IBeanDtoDescriptor dtoDescriptor(final Collection<IProperty> properties) {
 		Assert.paramNotNull(properties, "properties");
@@ -274,7 +302,7 @@ public final class DefaultCapCommonToolkit implements ICapCommonToolkit {
 	}
 
 	@Override
-	public Comparator<IBeanDto> beanDtoComparator(final Collection<? extends ISort> sorting) {
+	public IBeanDtoComparator beanDtoComparator(final Collection<? extends ISort> sorting) {
 		return beanDtoComparatorBuilder().setSorting(sorting).build();
 	}
 
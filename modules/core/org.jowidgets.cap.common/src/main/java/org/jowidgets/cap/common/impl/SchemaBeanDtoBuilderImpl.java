@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.cap.common.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jowidgets.cap.common.api.bean.IBeanDto;
+import org.jowidgets.cap.common.api.bean.IBeanDtoBuilder;
+import org.jowidgets.util.Assert;
+import org.jowidgets.util.builder.AbstractSingleUseBuilder;
+
+final class SchemaBeanDtoBuilderImpl extends AbstractSingleUseBuilder<IBeanDto> implements IBeanDtoBuilder {
+
+	private final BeanDtoSchemaImpl schema;
+	private final Object[] values;
+
+	private Object id;
+	private long version;
+	private Map<String, Object> additionalValues;
+
+	SchemaBeanDtoBuilderImpl(final BeanDtoSchemaImpl schema) {
+		Assert.paramNotNull(schema, "schema");
+		this.schema = schema;
+		this.values = new Object[schema.getPropertyCount()];
+	}
+
+	@Override
+	public IBeanDtoBuilder setId(final Object id) {
+		this.id = id;
+		return this;
+	}
+
+	@Override
+	public IBeanDtoBuilder setVersion(final long version) {
+		this.version = version;
+		return this;
+	}
+
+	@Override
+	public IBeanDtoBuilder setValue(final String propertyName, final Object value) {
+		Assert.paramNotEmpty(propertyName, "propertyName");
+		final int index = schema.getPropertyIndex(propertyName);
+		if (index >= 0) {
+			values[index] = value;
+		}
+		else {
+			if (additionalValues == null) {
+				additionalValues = new HashMap<String, Object>();
+			}
+			additionalValues.put(propertyName, value);
+		}
+		return this;
+	}
+
+	@Override
+	public IBeanDto doBuild() {
+		return new SchemaBeanDtoImpl(schema, id, version, values, additionalValues);
+	}
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.cap.common.impl;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.jowidgets.cap.common.api.bean.IBean;
+import org.jowidgets.cap.common.api.bean.IBeanDto;
+import org.jowidgets.util.Assert;
+import org.jowidgets.util.NullCompatibleEquivalence;
+
+/**
+ * Bean dto that holds its values in an array with the slots of a shared schema.
+ * 
+ * Values of properties that are not part of the schema (e.g. added by interceptors) will be hold in an additional map.
+ */
+final class SchemaBeanDtoImpl implements IBeanDto, Serializable {
+
+	private static final long serialVersionUID = 2238810957632390455L;
+
+	private final BeanDtoSchemaImpl schema;
+	private final Object id;
+	private final long version;
+	private final Object[] values;
+	private final Map<String, Object> additionalValues;
+
+	SchemaBeanDtoImpl(
+		final BeanDtoSchemaImpl schema,
+		final Object id,
+		final long version,
+		final Object[] values,
+		final Map<String, Object> additionalValues) {
+		Assert.paramNotNull(schema, "schema");
+		Assert.paramNotNull(values, "values");
+		if (values.length != schema.getPropertyCount()) {
+			throw new IllegalArgumentException("The number of values must match the number of schema properties");
+		}
+		this.schema = schema;
+		this.id = id;
+		this.version = version;
+		this.values = values;
+		this.additionalValues = additionalValues;
+	}
+
+	@Override
+	public Object getValue(final String propertyName) {
+		Assert.paramNotEmpty(propertyName, "propertyName");
+		if (IBean.ID_PROPERTY.equals(propertyName)) {
+			return id;
+		}
+		else if (IBean.VERSION_PROPERTY.equals(propertyName)) {
+			return Long.valueOf(version);
+		}
+		final int index = schema.getPropertyIndex(propertyName);
+		if (index >= 0) {
+			return values[index];
+		}
+		else if (additionalValues != null) {
+			return additionalValues.get(propertyName);
+		}
+		else {
+			return null;
+		}
+	}
+
+	@Override
+	public Object getId() {
+		return id;
+	}
+
+	@Override
+	public long getVersion() {
+		return version;
+	}
+
+	BeanDtoSchemaImpl getSchema() {
+		return schema;
+	}
+
+	Object[] getValues() {
+		return values;
+	}
+
+	Map<String, Object> getAdditionalValues() {
+		return additionalValues;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + schema.getBeanTypeId().hashCode();
+		result = prime * result + ((id == null) ? 0 : id.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		//equal to the bean dto implementations with the same bean type id and id, regardless of the representation
+		if (obj instanceof SchemaBeanDtoImpl) {
+			final SchemaBeanDtoImpl other = (SchemaBeanDtoImpl) obj;
+			return schema.getBeanTypeId().equals(other.schema.getBeanTypeId()) && NullCompatibleEquivalence.equals(id, other.id);
+		}
+		else if (obj instanceof BeanDtoImpl) {
+			final BeanDtoImpl other = (BeanDtoImpl) obj;
+			return schema.getBeanTypeId().equals(other.getBeanTypeId()) && NullCompatibleEquivalence.equals(id, other.getId());
+		}
+		else {
+			return false;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "SchemaBeanDtoImpl [id="
+			+ id
+			+ ", beanTypeId="
+			+ schema.getBeanTypeId()
+			+ ", propertyNames="
+			+ schema.getPropertyNames()
+			+ ", values="
+			+ Arrays.toString(values)
+			+ (additionalValues != null ? ", additionalValues=" + additionalValues : "")
+			+ "]";
+	}
+
+}
@@ -32,7 +32,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 import java.util.UUID;
 
@@ -40,6 +39,7 @@ import org.jowidgets.cap.common.api.CapCommonToolkit;
 import org.jowidgets.cap.common.api.bean.IBeanDto;
 import org.jowidgets.cap.common.api.bean.IBeanDtoBuilder;
 import org.jowidgets.cap.common.api.sort.BeanDtoComparator;
+import org.jowidgets.cap.common.api.sort.IBeanDtoComparator;
 import org.jowidgets.cap.common.api.sort.ISort;
 import org.jowidgets.cap.common.api.sort.Sort;
 import org.jowidgets.cap.common.api.sort.SortOrder;
@@ -126,7 +126,33 @@ public class BeanDtoComparatorTest {
 		Assert.assertSame(bean1, beans.get(1));
 	}
 
-	private Comparator<IBeanDto> createSortComparator(
+	@Test
+	public void testSortKeys() {
+		final IBeanDto bean1 = createBeanDto(new Long(1), "2");
+		final IBeanDto bean2 = createBeanDto(new Long(2), "12");
+		final IBeanDto bean3 = createBeanDto(null, null);
+
+		final List<IBeanDto> beans = Arrays.asList(bean1, bean2, bean3);
+		final List<IBeanDtoComparator> comparators = Arrays.asList(
+				BeanDtoComparator.create(SORT_NUMBER_PROPERTY_ASC),
+				BeanDtoComparator.create(SORT_STRING_PROPERTY_DESC),
+				createSortComparator(SORT_STRING_PROPERTY_ASC, STRING_PROPRTY_NAME, STRING_SORT_CONVERTER),
+				createSortComparator(SORT_STRING_PROPERTY_DESC, STRING_PROPRTY_NAME, STRING_SORT_CONVERTER));
+
+		for (final IBeanDtoComparator comparator : comparators) {
+			for (final IBeanDto first : beans) {
+				for (final IBeanDto second : beans) {
+					final Object[] firstKey = comparator.getSortKey(first);
+					final Object[] secondKey = comparator.getSortKey(second);
+					Assert.assertEquals(
+							Integer.signum(comparator.compare(first, second)),
+							Integer.signum(comparator.compareSortKeys(firstKey, secondKey)));
+				}
+			}
+		}
+	}
+
+	private IBeanDtoComparator createSortComparator(
 		final Collection<ISort> sorting,
 		final String propertyName,
 		final IConverter<?, ?> converter) {
@@ -0,0 +1,387 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.jowidgets.cap.common;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.jowidgets.cap.common.api.CapCommonToolkit;
+import org.jowidgets.cap.common.api.bean.IBeanDto;
+import org.jowidgets.cap.common.api.bean.IBeanDtoBuilder;
+import org.jowidgets.cap.common.api.filter.ArithmeticOperator;
+import org.jowidgets.cap.common.api.filter.IArithmeticPropertyFilterBuilder;
+import org.jowidgets.cap.common.api.filter.BooleanOperator;
+import org.jowidgets.cap.common.api.filter.IBeanDtoFilter;
+import org.jowidgets.cap.common.api.filter.ICustomFilter;
+import org.jowidgets.cap.common.api.filter.ICustomFilterBuilder;
+import org.jowidgets.cap.common.api.filter.IFilter;
+import org.jowidgets.cap.common.api.filter.IFilterFactory;
+import org.jowidgets.cap.common.api.plugin.IBeanDtoCustomFilterPlugin;
+import org.jowidgets.plugin.api.IPluginProviderBuilder;
+import org.jowidgets.plugin.api.PluginProvider;
+import org.jowidgets.plugin.api.PluginToolkit;
+import org.jowidgets.plugin.tools.PluginProviderHolder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the filter semantics of the bean dto filter and of its compiled predicates.
+ * 
+ * The expected results are the results of the filter implementation that evaluated the filter tree for each bean.
+ */
+public class BeanDtoFilterTest {
+
+	private static final String BEAN_TYPE_ID = "beanTypeID";
+
+	private static final String NAME_PROPERTY = "name";
+	private static final String AGE_PROPERTY = "age";
+	private static final String MIN_AGE_PROPERTY = "minAge";
+	private static final String MAX_AGE_PROPERTY = "maxAge";
+	private static final String TAGS_PROPERTY = "tags";
+	private static final String ALIAS_PROPERTY = "alias";
+
+	private static final String CUSTOM_FILTER_TYPE = "customFilterType";
+
+	private static final IFilterFactory FILTER_FACTORY = CapCommonToolkit.filterFactory();
+	private static final IBeanDtoFilter BEAN_DTO_FILTER = CapCommonToolkit.beanDtoFilter();
+
+	private static IBeanDto createBeanDto(final String name, final Integer age, final List<?> tags) {
+		final IBeanDtoBuilder builder = CapCommonToolkit.dtoBuilder(BEAN_TYPE_ID);
+		builder.setId(name);
+		builder.setValue(NAME_PROPERTY, name);
+		builder.setValue(AGE_PROPERTY, age);
+		builder.setValue(MIN_AGE_PROPERTY, Integer.valueOf(18));
+		builder.setValue(MAX_AGE_PROPERTY, Integer.valueOf(65));
+		builder.setValue(TAGS_PROPERTY, tags);
+		builder.setValue(ALIAS_PROPERTY, name != null ? name.toUpperCase() : null);
+		return builder.build();
+	}
+
+	private static final IBeanDto MAX = createBeanDto("Max", Integer.valueOf(42), Arrays.asList("a", "b", "c"));
+	private static final IBeanDto MARTHA = createBeanDto("Martha", Integer.valueOf(17), Arrays.asList("b"));
+	private static final IBeanDto OTTO = createBeanDto("Otto.(1)", Integer.valueOf(70), Collections.emptyList());
+	private static final IBeanDto NOBODY = createBeanDto(null, null, null);
+
+	private static final List<IBeanDto> BEANS = Arrays.asList(MAX, MARTHA, OTTO, NOBODY);
+
+	@After
+	public void tearDown() {
+		PluginProvider.unregisterAllPlugins();
+	}
+
+	/**
+	 * Asserts the result of the filter and of the compiled filter for all test beans
+	 * 
+	 * @param filter The filter to test
+	 * @param expected The expected result for MAX, MARTHA, OTTO and NOBODY
+	 */
+	private static void assertAccept(final IFilter filter, final boolean... expected) {
+		assertAccept(BEANS, filter, expected);
+	}
+
+	private static void assertAccept(final List<IBeanDto> beans, final IFilter filter, final boolean... expected) {
+		for (int i = 0; i < beans.size(); i++) {
+			final IBeanDto beanDto = beans.get(i);
+			Assert.assertEquals(beanDto.getId() + ": " + filter, expected[i], BEAN_DTO_FILTER.accept(beanDto, filter));
+			Assert.assertEquals(beanDto.getId() + ": " + filter, expected[i], BEAN_DTO_FILTER.compile(filter).accept(beanDto));
+		}
+	}
+
+	private static void assertIllegalArgument(final IBeanDto beanDto, final IFilter filter) {
+		try {
+			BEAN_DTO_FILTER.accept(beanDto, filter);
+			Assert.fail("IllegalArgumentException expected");
+		}
+		catch (final IllegalArgumentException e) {
+			//expected
+		}
+		try {
+			BEAN_DTO_FILTER.compile(filter).accept(beanDto);
+			Assert.fail("IllegalArgumentException expected");
+		}
+		catch (final IllegalArgumentException e) {
+			//expected
+		}
+	}
+
+	private static IFilter arithmetic(final String propertyName, final ArithmeticOperator operator, final Object... parameters) {
+		return FILTER_FACTORY.arithmeticFilter(propertyName, operator, parameters);
+	}
+
+	private static IFilter inverted(final String propertyName, final ArithmeticOperator operator, final Object... parameters) {
+		return FILTER_FACTORY.arithmeticFilterBuilder().setPropertyName(propertyName).setOperator(operator).setParameters(
+				parameters).setInverted(true).build();
+	}
+
+	private static IFilter invertedBoolean(final BooleanOperator operator, final List<IFilter> filters) {
+		return FILTER_FACTORY.booleanFilterBuilder().setOperator(operator).setFilters(filters).setInverted(true).build();
+	}
+
+	@Test
+	public void testEmpty() {
+		assertAccept(arithmetic(NAME_PROPERTY, ArithmeticOperator.EMPTY), false, false, false, true);
+		assertAccept(arithmetic(TAGS_PROPERTY, ArithmeticOperator.EMPTY), false, false, true, true);
+		assertAccept(inverted(TAGS_PROPERTY, ArithmeticOperator.EMPTY), true, true, false, false);
+	}
+
+	@Test
+	public void testEqual() {
+		assertAccept(arithmetic(AGE_PROPERTY, ArithmeticOperator.EQUAL, Integer.valueOf(42)), true, false, false, false);
+		assertAccept(arithmetic(AGE_PROPERTY, ArithmeticOperator.EQUAL, Long.valueOf(42)), false, false, false, false);
+		assertAccept(arithmetic(AGE_PROPERTY, ArithmeticOperator.EQUAL, (Object) null), false, false, false, true);
+		assertAccept(inverted(AGE_PROPERTY, ArithmeticOperator.EQUAL, Integer.valueOf(42)), false, true, true, true);
+	}
+
+	@Test
+	public void testEqualStringIsCaseInsensitive() {
+		assertAccept(arithmetic(NAME_PROPERTY, ArithmeticOperator.EQUAL, "max"), true, false, false, false);
+		assertAccept(arithmetic(NAME_PROPERTY, ArithmeticOperator.EQUAL, "MARTHA"), false, true, false, false);
+		assertAccept(arithmetic(NAME_PROPERTY, ArithmeticOperator.EQUAL, "Ma"), false, false, false, false);
+	}
+
+	@Test
+	public void testWildcards() {
+		assertAccept(arithmetic(NAME_PROPERTY, ArithmeticOperator.EQUAL, "ma*"), true, true, false, false);
+		assertAccept(arithmetic(NAME_PROPERTY, ArithmeticOperator.EQUAL, "%a%"), true, true, false, false);
+		assertAccept(arithmetic(NAME_PROPERTY, ArithmeticOperator.EQUAL, "m?x"), true, false, false, false);
+		assertAccept(arithmetic(NAME_PROPERTY, ArithmeticOperator.EQUAL, "m_x"), true, false, false, false);
+		assertAccept(arithmetic(NAME_PROPERTY, ArithmeticOperator.EQUAL, "*"), true, true, true, false);
+
+		//regex characters must be matched literally
+		assertAccept(arithmetic(NAME_PROPERTY, ArithmeticOperator.EQUAL, "otto.(1)"), false, false, true, false);
+		assertAccept(arithmetic(NAME_PROPERTY, ArithmeticOperator.EQUAL, "otto_(1)"), false, false, true, false);
+		assertAccept(arithmetic(NAME_PROPERTY, ArithmeticOperator.EQUAL, "ott..(1)"), false, false, false, false);
+	}
+
+	@Test
+	public void testLessAndGreater() {
+		//null is less than any other value
+		assertAccept(arithmetic(AGE_PROPERTY, ArithmeticOperator.LESS, Integer.valueOf(42)), false, true, false, true);
+		assertAccept(arithmetic(AGE_PROPERTY, ArithmeticOperator.LESS_EQUAL, Integer.valueOf(42)), true, true, false, true);
+		assertAccept(arithmetic(AGE_PROPERTY, ArithmeticOperator.GREATER, Integer.valueOf(42)), false, false, true, false);
+		assertAccept(arithmetic(AGE_PROPERTY, ArithmeticOperator.GREATER_EQUAL, Integer.valueOf(42)), true, false, true, false);
+		assertAccept(arithmetic(NAME_PROPERTY, ArithmeticOperator.LESS, "Mb"), true, true, false, true);
+		assertAccept(inverted(AGE_PROPERTY, ArithmeticOperator.LESS, Integer.valueOf(42)), true, false, true, false);
+	}
+
+	@Test
+	public void testBetween() {
+		final Integer lower = Integer.valueOf(17);
+		final Integer upper = Integer.valueOf(42);
+		assertAccept(arithmetic(AGE_PROPERTY, ArithmeticOperator.BETWEEN, lower, upper), true, true, false, false);
+		assertAccept(arithmetic(AGE_PROPERTY, ArithmeticOperator.BETWEEN, Integer.valueOf(18), upper), true, false, false, false);
+		assertAccept(inverted(AGE_PROPERTY, ArithmeticOperator.BETWEEN, lower, upper), false, false, true, true);
+	}
+
+	@Test
+	public void testContainsAny() {
+		assertAccept(
+				arithmetic(AGE_PROPERTY, ArithmeticOperator.CONTAINS_ANY, Integer.valueOf(17), Integer.valueOf(70)),
+				false,
+				true,
+				true,
+				false);
+		assertAccept(arithmetic(NAME_PROPERTY, ArithmeticOperator.CONTAINS_ANY, "max", "o*"), true, false, true, false);
+		assertAccept(arithmetic(TAGS_PROPERTY, ArithmeticOperator.CONTAINS_ANY, "c", "d"), true, false, false, false);
+		assertAccept(arithmetic(TAGS_PROPERTY, ArithmeticOperator.CONTAINS_ANY, "B"), true, true, false, false);
+		assertAccept(inverted(TAGS_PROPERTY, ArithmeticOperator.CONTAINS_ANY, "c", "d"), false, true, true, true);
+	}
+
+	@Test
+	public void testContainsAll() {
+		final List<IBeanDto> beans = Arrays.asList(MAX, MARTHA, OTTO);
+		assertAccept(beans, arithmetic(TAGS_PROPERTY, ArithmeticOperator.CONTAINS_ALL, "a", "b"), true, false, false);
+		assertAccept(beans, arithmetic(TAGS_PROPERTY, ArithmeticOperator.CONTAINS_ALL, "B"), true, true, false);
+		assertAccept(beans, inverted(TAGS_PROPERTY, ArithmeticOperator.CONTAINS_ALL, "a", "b"), false, true, true);
+
+		//contains all can not be used for single values
+		assertIllegalArgument(MAX, arithmetic(NAME_PROPERTY, ArithmeticOperator.CONTAINS_ALL, "max"));
+		assertIllegalArgument(NOBODY, arithmetic(TAGS_PROPERTY, ArithmeticOperator.CONTAINS_ALL, "a"));
+	}
+
+	@Test
+	public void testCollectionValues() {
+		//a comparison is true, if it is true for any element of the collection
+		assertAccept(arithmetic(TAGS_PROPERTY, ArithmeticOperator.EQUAL, "b"), true, true, false, false);
+		assertAccept(arithmetic(TAGS_PROPERTY, ArithmeticOperator.EQUAL, "c*"), true, false, false, false);
+		assertAccept(arithmetic(TAGS_PROPERTY, ArithmeticOperator.LESS, "b"), true, false, false, true);
+		assertAccept(arithmetic(TAGS_PROPERTY, ArithmeticOperator.GREATER_EQUAL, "c"), true, false, false, false);
+		assertAccept(arithmetic(TAGS_PROPERTY, ArithmeticOperator.BETWEEN, "b", "b"), true, true, false, false);
+	}
+
+	@Test
+	public void testCollectionParameter() {
+		//a collection parameter is true, if it is true for any of its elements
+		final List<Object> parameter = Arrays.<Object> asList("max", "ot*");
+		assertAccept(arithmetic(NAME_PROPERTY, ArithmeticOperator.EQUAL, parameter), true, false, true, false);
+		assertAccept(arithmetic(TAGS_PROPERTY, ArithmeticOperator.EQUAL, Arrays.asList("x", "c")), true, false, false, false);
+		assertAccept(
+				arithmetic(AGE_PROPERTY, ArithmeticOperator.LESS, Arrays.asList(Integer.valueOf(18), Integer.valueOf(50))),
+				true,
+				true,
+				false,
+				true);
+	}
+
+	@Test
+	public void testBooleanFilter() {
+		final IFilter nameFilter = arithmetic(NAME_PROPERTY, ArithmeticOperator.EQUAL, "ma*");
+		final IFilter ageFilter = arithmetic(AGE_PROPERTY, ArithmeticOperator.GREATER, Integer.valueOf(40));
+		final List<IFilter> filters = Arrays.asList(nameFilter, ageFilter);
+
+		assertAccept(FILTER_FACTORY.booleanFilter(BooleanOperator.AND, filters), true, false, false, false);
+		assertAccept(FILTER_FACTORY.booleanFilter(BooleanOperator.OR, filters), true, true, true, false);
+		assertAccept(invertedBoolean(BooleanOperator.AND, filters), false, true, true, true);
+		assertAccept(invertedBoolean(BooleanOperator.OR, filters), false, false, false, true);
+
+		//nested filters
+		final IFilter tagsFilter = arithmetic(TAGS_PROPERTY, ArithmeticOperator.EMPTY);
+		final IFilter orFilter = FILTER_FACTORY.booleanFilter(BooleanOperator.OR, Arrays.asList(ageFilter, tagsFilter));
+		final IFilter nameNotEmptyFilter = inverted(NAME_PROPERTY, ArithmeticOperator.EMPTY);
+		final IFilter andFilter = FILTER_FACTORY.booleanFilter(BooleanOperator.AND, Arrays.asList(orFilter, nameNotEmptyFilter));
+		assertAccept(andFilter, true, false, true, false);
+	}
+
+	@Test
+	public void testEmptyBooleanFilter() {
+		final List<IFilter> filters = Collections.emptyList();
+		assertAccept(FILTER_FACTORY.booleanFilter(BooleanOperator.AND, filters), true, true, true, true);
+		assertAccept(FILTER_FACTORY.booleanFilter(BooleanOperator.OR, filters), false, false, false, false);
+	}
+
+	@Test
+	public void testPropertyFilter() {
+		assertAccept(
+				FILTER_FACTORY.arithmeticPropertyFilter(AGE_PROPERTY, ArithmeticOperator.GREATER_EQUAL, MIN_AGE_PROPERTY),
+				true,
+				false,
+				true,
+				false);
+		assertAccept(
+				FILTER_FACTORY.arithmeticPropertyFilter(
+						AGE_PROPERTY,
+						ArithmeticOperator.BETWEEN,
+						new String[] {MIN_AGE_PROPERTY, MAX_AGE_PROPERTY}),
+				true,
+				false,
+				false,
+				false);
+		assertAccept(
+				FILTER_FACTORY.arithmeticPropertyFilter(NAME_PROPERTY, ArithmeticOperator.EQUAL, ALIAS_PROPERTY),
+				true,
+				true,
+				true,
+				true);
+		final IArithmeticPropertyFilterBuilder invertedBuilder = FILTER_FACTORY.arithmeticPropertyFilterBuilder();
+		invertedBuilder.setPropertyName(AGE_PROPERTY).setOperator(ArithmeticOperator.LESS);
+		invertedBuilder.setRightHandPropertyName(MIN_AGE_PROPERTY).setInverted(true);
+		assertAccept(invertedBuilder.build(), true, false, true, false);
+
+		//contains all is not supported for property filters
+		assertIllegalArgument(
+				MAX,
+				FILTER_FACTORY.arithmeticPropertyFilter(TAGS_PROPERTY, ArithmeticOperator.CONTAINS_ALL, NAME_PROPERTY));
+	}
+
+	@Test
+	public void testCustomFilter() {
+		final IPluginProviderBuilder pluginProviderBuilder = PluginToolkit.pluginProviderBuilder();
+		pluginProviderBuilder.addPlugin(
+				IBeanDtoCustomFilterPlugin.ID,
+				new MinimumAgeFilterPlugin(),
+				IBeanDtoCustomFilterPlugin.FILTER_TYPE_PROPERTY_KEY,
+				CUSTOM_FILTER_TYPE);
+		PluginProvider.registerPluginProviderHolder(new PluginProviderHolder(pluginProviderBuilder, 0));
+
+		final ICustomFilter filter = FILTER_FACTORY.customFilter(
+				CUSTOM_FILTER_TYPE,
+				AGE_PROPERTY,
+				ArithmeticOperator.GREATER,
+				Integer.valueOf(18));
+		assertAccept(filter, true, false, true, false);
+
+		//the plugin must invert the result itself
+		final ICustomFilterBuilder invertedBuilder = FILTER_FACTORY.customFilterBuilder();
+		invertedBuilder.setFilterType(CUSTOM_FILTER_TYPE).setPropertyName(AGE_PROPERTY).setOperator(ArithmeticOperator.GREATER);
+		invertedBuilder.setValue(Integer.valueOf(18)).setInverted(true);
+		assertAccept(invertedBuilder.build(), false, true, false, true);
+	}
+
+	@Test
+	public void testCustomFilterWithoutPlugin() {
+		final ICustomFilter filter = FILTER_FACTORY.customFilter("unknown", AGE_PROPERTY, ArithmeticOperator.EQUAL, null);
+		try {
+			BEAN_DTO_FILTER.accept(MAX, filter);
+			Assert.fail("IllegalStateException expected");
+		}
+		catch (final IllegalStateException e) {
+			//expected
+		}
+		try {
+			BEAN_DTO_FILTER.compile(filter).accept(MAX);
+			Assert.fail("IllegalStateException expected");
+		}
+		catch (final IllegalStateException e) {
+			//expected
+		}
+	}
+
+	@Test
+	public void testRegexCharactersAreLiterals() {
+		final IBeanDto braces = createBeanDto("x{1}|y", Integer.valueOf(1), null);
+		final IBeanDto other = createBeanDto("x", Integer.valueOf(2), null);
+		final List<IBeanDto> beans = Arrays.asList(braces, other);
+
+		assertAccept(beans, arithmetic(NAME_PROPERTY, ArithmeticOperator.EQUAL, "X{1}|Y"), true, false);
+		assertAccept(beans, arithmetic(NAME_PROPERTY, ArithmeticOperator.EQUAL, "x{1}*"), true, false);
+		assertAccept(beans, arithmetic(NAME_PROPERTY, ArithmeticOperator.EQUAL, "x|y"), false, false);
+		assertAccept(beans, arithmetic(NAME_PROPERTY, ArithmeticOperator.EQUAL, "\\E*"), false, false);
+		assertAccept(beans, arithmetic(NAME_PROPERTY, ArithmeticOperator.CONTAINS_ANY, "x{", "x{1}|?"), true, false);
+	}
+
+	@Test
+	public void testComparisonsWithRegexCharacters() {
+		assertAccept(arithmetic(NAME_PROPERTY, ArithmeticOperator.LESS, "x{"), true, true, true, true);
+		assertAccept(arithmetic(NAME_PROPERTY, ArithmeticOperator.GREATER, "A{"), true, true, true, false);
+		assertAccept(arithmetic(NAME_PROPERTY, ArithmeticOperator.BETWEEN, "L{", "N|"), true, true, false, false);
+	}
+
+	private static final class MinimumAgeFilterPlugin implements IBeanDtoCustomFilterPlugin {
+
+		@Override
+		public boolean accept(final IBeanDto beanDto, final ICustomFilter filter) {
+			final Integer age = (Integer) beanDto.getValue(filter.getPropertyName());
+			final boolean accept = age != null && age.compareTo((Integer) filter.getValue()) > 0;
+			return filter.isInverted() ? !accept : accept;
+		}
+
+	}
+
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.cap.common;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jowidgets.cap.common.api.CapCommonToolkit;
+import org.jowidgets.cap.common.api.bean.IBean;
+import org.jowidgets.cap.common.api.bean.IBeanDto;
+import org.jowidgets.cap.common.api.bean.IBeanDtoBuilder;
+import org.jowidgets.cap.common.api.bean.IBeanDtoSchema;
+import org.jowidgets.cap.common.api.bean.IColumnarBeanDtoList;
+import org.jowidgets.message.api.IMessageCodec;
+import org.jowidgets.message.impl.codec.MessageCodec;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SchemaBeanDtoTest {
+
+	private static final String BEAN_TYPE_ID = "beanTypeID";
+
+	private static final String NAME_PROPERTY = "name";
+	private static final String AGE_PROPERTY = "ageProperty";
+	private static final String ADDITIONAL_PROPERTY = "additional";
+
+	private static final List<String> PROPERTY_NAMES = Arrays.asList(IBean.ID_PROPERTY, NAME_PROPERTY, AGE_PROPERTY);
+
+	private static IBeanDto createBeanDto(final IBeanDtoSchema schema, final long id, final String name) {
+		final IBeanDtoBuilder builder = CapCommonToolkit.dtoBuilder(schema);
+		builder.setId(Long.valueOf(id));
+		builder.setVersion(id + 1);
+		builder.setValue(NAME_PROPERTY, name);
+		builder.setValue(AGE_PROPERTY, Integer.valueOf(42));
+		return builder.build();
+	}
+
+	@Test
+	public void testSchemaIsShared() {
+		final IBeanDtoSchema schema = CapCommonToolkit.dtoSchema(BEAN_TYPE_ID, PROPERTY_NAMES);
+		Assert.assertSame(schema, CapCommonToolkit.dtoSchema(BEAN_TYPE_ID, new ArrayList<String>(PROPERTY_NAMES)));
+		Assert.assertEquals(Arrays.asList(NAME_PROPERTY, AGE_PROPERTY), schema.getPropertyNames());
+		Assert.assertEquals(1, schema.getPropertyIndex(AGE_PROPERTY));
+		Assert.assertEquals(-1, schema.getPropertyIndex(ADDITIONAL_PROPERTY));
+	}
+
+	@Test
+	public void testGetValue() {
+		final IBeanDtoSchema schema = CapCommonToolkit.dtoSchema(BEAN_TYPE_ID, PROPERTY_NAMES);
+		final IBeanDtoBuilder builder = CapCommonToolkit.dtoBuilder(schema);
+		builder.setId("1");
+		builder.setVersion(3);
+		builder.setValue(NAME_PROPERTY, "Max");
+		builder.setValue(ADDITIONAL_PROPERTY, "additionalValue");
+		final IBeanDto dto = builder.build();
+
+		Assert.assertEquals("1", dto.getId());
+		Assert.assertEquals("1", dto.getValue(IBean.ID_PROPERTY));
+		Assert.assertEquals(3, dto.getVersion());
+		Assert.assertEquals(Long.valueOf(3), dto.getValue(IBean.VERSION_PROPERTY));
+		Assert.assertEquals("Max", dto.getValue(NAME_PROPERTY));
+		Assert.assertNull(dto.getValue(AGE_PROPERTY));
+		Assert.assertEquals("additionalValue", dto.getValue(ADDITIONAL_PROPERTY));
+	}
+
+	@Test
+	public void testEqualsBeanDtoWithSameIdAndType() {
+		final IBeanDtoSchema schema = CapCommonToolkit.dtoSchema(BEAN_TYPE_ID, PROPERTY_NAMES);
+		final IBeanDto schemaDto = createBeanDto(schema, 1, "Max");
+		final IBeanDto dto = CapCommonToolkit.dtoBuilder(BEAN_TYPE_ID).setId(Long.valueOf(1)).build();
+
+		Assert.assertEquals(schemaDto, dto);
+		Assert.assertEquals(dto, schemaDto);
+		Assert.assertEquals(schemaDto.hashCode(), dto.hashCode());
+
+		Assert.assertFalse(schemaDto.equals(CapCommonToolkit.dtoBuilder(BEAN_TYPE_ID).setId(Long.valueOf(2)).build()));
+		Assert.assertFalse(CapCommonToolkit.dtoBuilder(BEAN_TYPE_ID).setId(Long.valueOf(2)).build().equals(schemaDto));
+		Assert.assertFalse(schemaDto.equals(CapCommonToolkit.dtoBuilder("otherType").setId(Long.valueOf(1)).build()));
+		Assert.assertFalse(CapCommonToolkit.dtoBuilder("otherType").setId(Long.valueOf(1)).build().equals(schemaDto));
+	}
+
+	@Test
+	public void testSerializationCodec() throws IOException, ClassNotFoundException {
+		testCodec(MessageCodec.getSerializationCodec());
+	}
+
+	@Test
+	public void testBinaryCodec() throws IOException, ClassNotFoundException {
+		testCodec(MessageCodec.getBinaryCodec());
+	}
+
+	@Test
+	public void testColumnarDtoList() throws IOException, ClassNotFoundException {
+		final IBeanDtoSchema schema = CapCommonToolkit.dtoSchema(BEAN_TYPE_ID, PROPERTY_NAMES);
+		final List<IBeanDto> dtos = createBeanDtos(schema);
+		final List<IBeanDto> columnarDtos = CapCommonToolkit.columnarDtoList(dtos);
+
+		Assert.assertNotSame(dtos, columnarDtos);
+		Assert.assertEquals(dtos, columnarDtos);
+		Assert.assertEquals("Name 3", columnarDtos.get(3).getValue(NAME_PROPERTY));
+		Assert.assertSame(columnarDtos.get(3), columnarDtos.get(3));
+
+		testCodec(MessageCodec.getSerializationCodec(), columnarDtos);
+		testCodec(MessageCodec.getBinaryCodec(), columnarDtos);
+
+		//the list must be modifiable, the accessed dto's will be kept
+		final IBeanDto accessedDto = columnarDtos.get(3);
+		columnarDtos.remove(0);
+		Assert.assertEquals(dtos.subList(1, dtos.size()), columnarDtos);
+		Assert.assertSame(accessedDto, columnarDtos.get(2));
+	}
+
+	@Test
+	public void testColumnAccessors() {
+		final IBeanDtoSchema schema = CapCommonToolkit.dtoSchema(BEAN_TYPE_ID, PROPERTY_NAMES);
+		final List<IBeanDto> dtos = createBeanDtos(schema);
+		final IBeanDtoBuilder builder = CapCommonToolkit.dtoBuilder(schema);
+		builder.setId(Long.valueOf(10));
+		builder.setValue(ADDITIONAL_PROPERTY, "additionalValue");
+		dtos.add(builder.build());
+
+		final IColumnarBeanDtoList columnarDtos = (IColumnarBeanDtoList) CapCommonToolkit.columnarDtoList(dtos);
+		Assert.assertSame(schema, columnarDtos.getSchema());
+		assertColumnAccessors(dtos, columnarDtos);
+		Assert.assertEquals("additionalValue", columnarDtos.getValue(10, ADDITIONAL_PROPERTY));
+		Assert.assertNull(columnarDtos.getValue(9, ADDITIONAL_PROPERTY));
+
+		//after a modification, the accessors read the rows
+		columnarDtos.remove(0);
+		assertColumnAccessors(dtos.subList(1, dtos.size()), columnarDtos);
+	}
+
+	private static void assertColumnAccessors(final List<IBeanDto> expected, final IColumnarBeanDtoList columnarDtos) {
+		final IBeanDtoSchema schema = columnarDtos.getSchema();
+		for (int row = 0; row < expected.size(); row++) {
+			final IBeanDto dto = expected.get(row);
+			Assert.assertEquals(dto.getId(), columnarDtos.getId(row));
+			Assert.assertEquals(dto.getVersion(), columnarDtos.getVersion(row));
+			Assert.assertEquals(dto.getId(), columnarDtos.getValue(row, IBean.ID_PROPERTY));
+			Assert.assertEquals(Long.valueOf(dto.getVersion()), columnarDtos.getValue(row, IBean.VERSION_PROPERTY));
+			for (final String propertyName : schema.getPropertyNames()) {
+				Assert.assertEquals(dto.getValue(propertyName), columnarDtos.getValue(row, propertyName));
+				Assert.assertEquals(
+						dto.getValue(propertyName),
+						columnarDtos.getValue(row, schema.getPropertyIndex(propertyName)));
+			}
+		}
+		try {
+			columnarDtos.getId(expected.size());
+			Assert.fail();
+		}
+		catch (final IndexOutOfBoundsException e) {
+			//expected
+		}
+	}
+
+	@Test
+	public void testColumnarDtoListWithoutSchema() {
+		final List<IBeanDto> dtos = new ArrayList<IBeanDto>();
+		dtos.add(CapCommonToolkit.dtoBuilder(BEAN_TYPE_ID).setId("1").build());
+		Assert.assertSame(dtos, CapCommonToolkit.columnarDtoList(dtos));
+	}
+
+	private static List<IBeanDto> createBeanDtos(final IBeanDtoSchema schema) {
+		final List<IBeanDto> result = new ArrayList<IBeanDto>();
+		for (int i = 0; i < 10; i++) {
+			result.add(createBeanDto(schema, i, "Name " + i));
+		}
+		return result;
+	}
+
+	private void testCodec(final IMessageCodec codec) throws IOException, ClassNotFoundException {
+		testCodec(codec, createBeanDtos(CapCommonToolkit.dtoSchema(BEAN_TYPE_ID, PROPERTY_NAMES)));
+	}
+
+	@SuppressWarnings("unchecked")
+	private void testCodec(final IMessageCodec codec, final List<IBeanDto> dtos) throws IOException, ClassNotFoundException {
+
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final DataOutputStream output = new DataOutputStream(bytes);
+		codec.encode(dtos, output);
+		output.flush();
+
+		final List<IBeanDto> result = (List<IBeanDto>) codec.decode(
+				new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+		Assert.assertEquals(dtos, result);
+		for (int i = 0; i < dtos.size(); i++) {
+			final IBeanDto dto = result.get(i);
+			Assert.assertEquals(i + 1, dto.getVersion());
+			Assert.assertEquals("Name " + i, dto.getValue(NAME_PROPERTY));
+			Assert.assertEquals(Integer.valueOf(42), dto.getValue(AGE_PROPERTY));
+		}
+
+		//the property names must be written only once
+		final String encoded = new String(bytes.toByteArray(), "ISO-8859-1");
+		Assert.assertEquals(encoded.indexOf(AGE_PROPERTY), encoded.lastIndexOf(AGE_PROPERTY));
+	}
+
+}
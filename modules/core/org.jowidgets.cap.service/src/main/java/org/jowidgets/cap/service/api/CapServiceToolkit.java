@@ -29,6 +29,7 @@
 package org.jowidgets.cap.service.api;
 
 import java.util.Collection;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledExecutorService;
 
 import org.jowidgets.cap.common.api.bean.IBean;
@@ -39,6 +40,7 @@ import org.jowidgets.cap.common.api.sort.ISortConverterMap;
 import org.jowidgets.cap.service.api.adapter.IAdapterFactoryProvider;
 import org.jowidgets.cap.service.api.bean.IBeanAccess;
 import org.jowidgets.cap.service.api.bean.IBeanDtoCollectionFilter;
+import org.jowidgets.cap.service.api.bean.IBeanDtoCollectionPageSorter;
 import org.jowidgets.cap.service.api.bean.IBeanDtoCollectionSorter;
 import org.jowidgets.cap.service.api.bean.IBeanDtoFactory;
 import org.jowidgets.cap.service.api.bean.IBeanIdentityResolver;
@@ -148,6 +150,12 @@ public final class CapServiceToolkit {
 		return getInstance().beanDtoCollectionSorter(sortConveters);
 	}
 
+	public static IBeanDtoCollectionPageSorter beanDtoCollectionSorter(
+		final ISortConverterMap sortConveters,
+		final Executor parallelSortExecutor) {
+		return getInstance().beanDtoCollectionSorter(sortConveters, parallelSortExecutor);
+	}
+
 	public static IBeanDtoCollectionFilter beanDtoCollectionFilter() {
 		return getInstance().beanDtoCollectionFilter();
 	}
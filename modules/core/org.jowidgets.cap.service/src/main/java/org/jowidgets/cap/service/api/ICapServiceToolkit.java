@@ -29,6 +29,7 @@
 package org.jowidgets.cap.service.api;
 
 import java.util.Collection;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledExecutorService;
 
 import org.jowidgets.cap.common.api.bean.IBean;
@@ -39,6 +40,7 @@ import org.jowidgets.cap.common.api.sort.ISortConverterMap;
 import org.jowidgets.cap.service.api.adapter.IAdapterFactoryProvider;
 import org.jowidgets.cap.service.api.bean.IBeanAccess;
 import org.jowidgets.cap.service.api.bean.IBeanDtoCollectionFilter;
+import org.jowidgets.cap.service.api.bean.IBeanDtoCollectionPageSorter;
 import org.jowidgets.cap.service.api.bean.IBeanDtoCollectionSorter;
 import org.jowidgets.cap.service.api.bean.IBeanDtoFactory;
 import org.jowidgets.cap.service.api.bean.IBeanIdentityResolver;
@@ -97,6 +99,18 @@ public interface ICapServiceToolkit {
 
 	IBeanDtoCollectionSorter beanDtoCollectionSorter(ISortConverterMap sortConveters);
 
+	/**
+	 * Creates a sorter that sorts large collections in parallel chunks on the given executor.
+	 * 
+	 * The comparators of the sort converter map will be invoked concurrently, so they must be thread safe.
+	 * 
+	 * @param sortConveters The sort converters, may be null
+	 * @param parallelSortExecutor The executor to sort the chunks with, must not be null
+	 * 
+	 * @return A new sorter
+	 */
+	IBeanDtoCollectionPageSorter beanDtoCollectionSorter(ISortConverterMap sortConveters, Executor parallelSortExecutor);
+
 	IBeanDtoCollectionFilter beanDtoCollectionFilter();
 
 	<BEAN_TYPE> IBeanInitializer<BEAN_TYPE> beanInitializer(
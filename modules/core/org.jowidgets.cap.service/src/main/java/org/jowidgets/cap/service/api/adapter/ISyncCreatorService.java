@@ -38,6 +38,16 @@ import org.jowidgets.cap.common.api.execution.IExecutionCallback;
 
 public interface ISyncCreatorService {
 
+	/**
+	 * Creates new beans
+	 * 
+	 * @param parentBeanKeys The keys of the parent beans
+	 * @param beansData The data of the beans to create
+	 * @param executionCallback
+	 * 
+	 * @return The created beans in the order of the given bean data, so the n-th created bean was created
+	 *         from the n-th bean data
+	 */
 	List<IBeanDto> create(
 		List<? extends IBeanKey> parentBeanKeys,
 		Collection<? extends IBeanData> beansData,
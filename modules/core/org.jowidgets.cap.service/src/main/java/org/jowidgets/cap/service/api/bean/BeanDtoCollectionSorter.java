@@ -28,8 +28,17 @@
 
 package org.jowidgets.cap.service.api.bean;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.jowidgets.cap.common.api.bean.IBeanDto;
+import org.jowidgets.cap.common.api.execution.IExecutionCallback;
+import org.jowidgets.cap.common.api.sort.ISort;
 import org.jowidgets.cap.common.api.sort.ISortConverterMap;
 import org.jowidgets.cap.service.api.CapServiceToolkit;
+import org.jowidgets.util.Assert;
 
 public final class BeanDtoCollectionSorter {
 
@@ -47,4 +56,77 @@ public final class BeanDtoCollectionSorter {
 		return CapServiceToolkit.beanDtoCollectionSorter(beanType);
 	}
 
+	/**
+	 * Creates a sorter that sorts large collections in parallel chunks on the given executor.
+	 * 
+	 * The comparators of the sort converter map will be invoked concurrently, so they must be thread safe.
+	 * 
+	 * @param sortConverters The sort converters, may be null
+	 * @param parallelSortExecutor The executor to sort the chunks with, must not be null
+	 * 
+	 * @return A new sorter
+	 */
+	public static IBeanDtoCollectionPageSorter create(
+		final ISortConverterMap sortConverters,
+		final Executor parallelSortExecutor) {
+		return CapServiceToolkit.beanDtoCollectionSorter(sortConverters, parallelSortExecutor);
+	}
+
+	/**
+	 * Gets a page sorter for a sorter. If the sorter can not sort pages itself, the page will be taken
+	 * from the fully sorted collection.
+	 * 
+	 * @param sorter The sorter, must not be null
+	 * 
+	 * @return The page sorter, never null
+	 */
+	public static IBeanDtoCollectionPageSorter pageSorter(final IBeanDtoCollectionSorter sorter) {
+		Assert.paramNotNull(sorter, "sorter");
+		if (sorter instanceof IBeanDtoCollectionPageSorter) {
+			return (IBeanDtoCollectionPageSorter) sorter;
+		}
+		else {
+			return new PageSorterAdapter(sorter);
+		}
+	}
+
+	private static final class PageSorterAdapter implements IBeanDtoCollectionPageSorter {
+
+		private final IBeanDtoCollectionSorter original;
+
+		PageSorterAdapter(final IBeanDtoCollectionSorter original) {
+			this.original = original;
+		}
+
+		@Override
+		public ArrayList<IBeanDto> sort(
+			final Collection<? extends IBeanDto> beanDtos,
+			final List<? extends ISort> sorting,
+			final IExecutionCallback executionCallback) {
+			return original.sort(beanDtos, sorting, executionCallback);
+		}
+
+		@Override
+		public ArrayList<IBeanDto> sort(
+			final Collection<? extends IBeanDto> beanDtos,
+			final List<? extends ISort> sorting,
+			final int firstRow,
+			final int maxRows,
+			final IExecutionCallback executionCallback) {
+			if (firstRow < 0) {
+				throw new IllegalArgumentException("Parameter 'firstRow' must not be negative.");
+			}
+			if (maxRows < 0) {
+				throw new IllegalArgumentException("Parameter 'maxRows' must not be negative.");
+			}
+			final ArrayList<IBeanDto> result = original.sort(beanDtos, sorting, executionCallback);
+			final int end = (int) Math.min((long) firstRow + maxRows, result.size());
+			if (firstRow >= end) {
+				return new ArrayList<IBeanDto>();
+			}
+			return new ArrayList<IBeanDto>(result.subList(firstRow, end));
+		}
+
+	}
+
 }
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.jowidgets.cap.service.api.bean;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.jowidgets.cap.common.api.bean.IBeanDto;
+import org.jowidgets.cap.common.api.execution.IExecutionCallback;
+import org.jowidgets.cap.common.api.sort.ISort;
+
+/**
+ * A collection sorter that can sort a page of the collection.
+ * 
+ * Use {@link BeanDtoCollectionSorter#pageSorter(IBeanDtoCollectionSorter)} to get a page sorter for any
+ * collection sorter.
+ */
+public interface IBeanDtoCollectionPageSorter extends IBeanDtoCollectionSorter {
+
+	/**
+	 * Sorts the beans and returns only the given page of the sorted result.
+	 * 
+	 * If the page is small compared to the collection, only the beans needed for the page will be fully sorted.
+	 * The result is the same as the according sub list of a sorted list.
+	 * 
+	 * @param beanDtos The beans to sort, must not be null
+	 * @param sorting The sorting to use, must not be null
+	 * @param firstRow The first row of the page, must not be negative
+	 * @param maxRows The max number of rows of the page, must not be negative
+	 * @param executionCallback The execution callback, may be null
+	 * 
+	 * @return The sorted page, never null
+	 */
+	ArrayList<IBeanDto> sort(
+		Collection<? extends IBeanDto> beanDtos,
+		List<? extends ISort> sorting,
+		int firstRow,
+		int maxRows,
+		IExecutionCallback executionCallback);
+
+}
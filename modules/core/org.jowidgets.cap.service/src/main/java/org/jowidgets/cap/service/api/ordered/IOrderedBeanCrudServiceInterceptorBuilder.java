@@ -65,6 +65,33 @@ public interface IOrderedBeanCrudServiceInterceptorBuilder<BEAN_TYPE extends IOr
 	IOrderedBeanCrudServiceInterceptorBuilder<BEAN_TYPE, GROUP_TYPE> setGroupMapper(
 		IOrderedBeanGroupMapper<? extends BEAN_TYPE, ? extends GROUP_TYPE> mapper);
 
+	/**
+	 * Sets if sparse order numbers should be used. Default is false.
+	 * 
+	 * If false, the order numbers of a group will be kept dense (0, 1, 2, ...), so inserting, moving
+	 * or deleting a bean renumbers all following beans of the group.
+	 * 
+	 * If true, the order numbers of a group have gaps. Inserted or moved beans get an order number between
+	 * the order numbers of their new neighbors, so only these beans will be updated. Deleting beans updates
+	 * no other beans. Only the neighbors of the changed positions will be read, the whole group will only be read
+	 * and renumbered if there is no free order number between the neighbors.
+	 * 
+	 * @param sparse If true, sparse order numbers will be used
+	 *
+	 * @return This builder
+	 */
+	IOrderedBeanCrudServiceInterceptorBuilder<BEAN_TYPE, GROUP_TYPE> setSparseOrderNumbers(boolean sparse);
+
+	/**
+	 * Sets the gap between the order numbers that will be used for appended beans and when a group will
+	 * be renumbered. Only used for sparse order numbers. Default is 1024.
+	 * 
+	 * @param gap The gap to set, must be greater than zero
+	 *
+	 * @return This builder
+	 */
+	IOrderedBeanCrudServiceInterceptorBuilder<BEAN_TYPE, GROUP_TYPE> setOrderNumberGap(long gap);
+
 	ICrudServiceInterceptor<BEAN_TYPE> build();
 
 }
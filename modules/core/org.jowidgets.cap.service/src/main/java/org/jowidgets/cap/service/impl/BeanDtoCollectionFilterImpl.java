@@ -34,7 +34,7 @@ import java.util.Collection;
 import org.jowidgets.cap.common.api.CapCommonToolkit;
 import org.jowidgets.cap.common.api.bean.IBeanDto;
 import org.jowidgets.cap.common.api.execution.IExecutionCallback;
-import org.jowidgets.cap.common.api.filter.IBeanDtoFilter;
+import org.jowidgets.cap.common.api.filter.IBeanDtoPredicate;
 import org.jowidgets.cap.common.api.filter.IFilter;
 import org.jowidgets.cap.service.api.CapServiceToolkit;
 import org.jowidgets.cap.service.api.bean.IBeanDtoCollectionFilter;
@@ -47,12 +47,12 @@ final class BeanDtoCollectionFilterImpl implements IBeanDtoCollectionFilter {
 		final IFilter filter,
 		final IExecutionCallback executionCallback) {
 
-		final IBeanDtoFilter beanDtoFilter = CapCommonToolkit.beanDtoFilter();
+		final IBeanDtoPredicate predicate = CapCommonToolkit.beanDtoFilter().compile(filter);
 
 		final ArrayList<IBeanDto> result = new ArrayList<IBeanDto>();
 		for (final IBeanDto beanDto : beanDtos) {
 			CapServiceToolkit.checkCanceled(executionCallback);
-			if (beanDtoFilter.accept(beanDto, filter)) {
+			if (predicate.accept(beanDto)) {
 				result.add(beanDto);
 			}
 		}
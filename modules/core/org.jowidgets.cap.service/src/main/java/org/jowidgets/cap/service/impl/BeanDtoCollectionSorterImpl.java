@@ -29,23 +29,48 @@
 package org.jowidgets.cap.service.impl;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 import org.jowidgets.cap.common.api.bean.IBeanDto;
+import org.jowidgets.cap.common.api.exception.ServiceInterruptedException;
 import org.jowidgets.cap.common.api.execution.IExecutionCallback;
 import org.jowidgets.cap.common.api.sort.BeanDtoComparator;
+import org.jowidgets.cap.common.api.sort.IBeanDtoComparator;
 import org.jowidgets.cap.common.api.sort.ISort;
 import org.jowidgets.cap.common.api.sort.ISortConverterMap;
 import org.jowidgets.cap.common.api.sort.SortConverterMap;
 import org.jowidgets.cap.service.api.CapServiceToolkit;
-import org.jowidgets.cap.service.api.bean.IBeanDtoCollectionSorter;
+import org.jowidgets.cap.service.api.bean.IBeanDtoCollectionPageSorter;
+import org.jowidgets.util.Assert;
 
-final class BeanDtoCollectionSorterImpl implements IBeanDtoCollectionSorter {
+/**
+ * Sorts with precomputed sort keys, so the sorted properties will be read (and converted) only once per bean.
+ * Pages that are small compared to the collection will be selected with a bounded heap.
+ * 
+ * If a parallel sort executor is given, large collections will be sorted in parallel chunks that will be merged
+ * afterwards. The comparators will be invoked concurrently then, so this must be enabled explicitly.
+ */
+final class BeanDtoCollectionSorterImpl implements IBeanDtoCollectionPageSorter {
+
+	private static final int PARALLEL_SORT_THRESHOLD = 50000;
+
+	// use a bounded heap if the page end is less than size / TOP_K_RATIO
+	private static final int TOP_K_RATIO = 4;
 
 	private final ISortConverterMap sortConverters;
+	private final Executor parallelSortExecutor;
+	private final int parallelism;
+	private final int parallelSortThreshold;
 
 	BeanDtoCollectionSorterImpl() {
 		this((ISortConverterMap) null);
@@ -56,38 +81,285 @@ final class BeanDtoCollectionSorterImpl implements IBeanDtoCollectionSorter {
 	}
 
 	BeanDtoCollectionSorterImpl(final ISortConverterMap sortConverters) {
+		this(sortConverters, null, 1, PARALLEL_SORT_THRESHOLD);
+	}
+
+	BeanDtoCollectionSorterImpl(final ISortConverterMap sortConverters, final Executor parallelSortExecutor) {
+		this(sortConverters, parallelSortExecutor, Runtime.getRuntime().availableProcessors(), PARALLEL_SORT_THRESHOLD);
+	}
+
+	BeanDtoCollectionSorterImpl(
+		final ISortConverterMap sortConverters,
+		final Executor parallelSortExecutor,
+		final int parallelism,
+		final int parallelSortThreshold) {
 		this.sortConverters = sortConverters;
+		this.parallelSortExecutor = parallelSortExecutor;
+		this.parallelism = parallelism;
+		this.parallelSortThreshold = parallelSortThreshold;
+	}
+
+	@Override
+	public ArrayList<IBeanDto> sort(
+		final Collection<? extends IBeanDto> beanDtos,
+		final List<? extends ISort> sorting,
+		final IExecutionCallback executionCallback) {
+		Assert.paramNotNull(beanDtos, "beanDtos");
+		Assert.paramNotNull(sorting, "sorting");
+
+		final IBeanDtoComparator comparator = createComparator(sorting);
+		final SortRow[] rows = createRows(beanDtos, comparator, executionCallback);
+		sortRows(rows, new SortRowComparator(comparator, executionCallback));
+		return toList(rows, 0, rows.length);
 	}
 
 	@Override
 	public ArrayList<IBeanDto> sort(
 		final Collection<? extends IBeanDto> beanDtos,
 		final List<? extends ISort> sorting,
+		final int firstRow,
+		final int maxRows,
+		final IExecutionCallback executionCallback) {
+		Assert.paramNotNull(beanDtos, "beanDtos");
+		Assert.paramNotNull(sorting, "sorting");
+		if (firstRow < 0) {
+			throw new IllegalArgumentException("Parameter 'firstRow' must not be negative.");
+		}
+		if (maxRows < 0) {
+			throw new IllegalArgumentException("Parameter 'maxRows' must not be negative.");
+		}
+
+		final int size = beanDtos.size();
+		final int end = (int) Math.min((long) firstRow + maxRows, size);
+		if (firstRow >= end) {
+			return new ArrayList<IBeanDto>();
+		}
+
+		final IBeanDtoComparator comparator = createComparator(sorting);
+		final SortRow[] rows = createRows(beanDtos, comparator, executionCallback);
+		final SortRowComparator rowComparator = new SortRowComparator(comparator, executionCallback);
+
+		if (end < size / TOP_K_RATIO) {
+			final SortRow[] topRows = selectTopRows(rows, end, rowComparator);
+			Arrays.sort(topRows, rowComparator);
+			return toList(topRows, firstRow, end);
+		}
+		else {
+			sortRows(rows, rowComparator);
+			return toList(rows, firstRow, end);
+		}
+	}
+
+	private IBeanDtoComparator createComparator(final List<? extends ISort> sorting) {
+		if (sortConverters != null) {
+			return BeanDtoComparator.create(sortConverters, sorting);
+		}
+		else {
+			return BeanDtoComparator.create(sorting);
+		}
+	}
+
+	private static SortRow[] createRows(
+		final Collection<? extends IBeanDto> beanDtos,
+		final IBeanDtoComparator comparator,
 		final IExecutionCallback executionCallback) {
-		final ArrayList<IBeanDto> result = new ArrayList<IBeanDto>(beanDtos);
-		Collections.sort(result, new BeanDtoComparatorDecorator(sorting, executionCallback));
+		final SortRow[] result = new SortRow[beanDtos.size()];
+		int index = 0;
+		for (final IBeanDto beanDto : beanDtos) {
+			CapServiceToolkit.checkCanceled(executionCallback);
+			result[index] = new SortRow(beanDto, comparator.getSortKey(beanDto), index);
+			index++;
+		}
 		return result;
 	}
 
-	private class BeanDtoComparatorDecorator implements Comparator<IBeanDto> {
+	private static ArrayList<IBeanDto> toList(final SortRow[] rows, final int fromIndex, final int toIndex) {
+		final ArrayList<IBeanDto> result = new ArrayList<IBeanDto>(toIndex - fromIndex);
+		for (int i = fromIndex; i < toIndex; i++) {
+			result.add(rows[i].beanDto);
+		}
+		return result;
+	}
 
-		private final Comparator<IBeanDto> original;
-		private final IExecutionCallback executionCallback;
+	/**
+	 * Selects the smallest rows with a heap that holds the largest of the selected rows on top
+	 */
+	private static SortRow[] selectTopRows(final SortRow[] rows, final int count, final SortRowComparator rowComparator) {
+		final PriorityQueue<SortRow> heap = new PriorityQueue<SortRow>(count, Collections.reverseOrder(rowComparator));
+		for (final SortRow row : rows) {
+			if (heap.size() < count) {
+				heap.add(row);
+			}
+			else if (rowComparator.compare(row, heap.peek()) < 0) {
+				heap.poll();
+				heap.add(row);
+			}
+		}
+		return heap.toArray(new SortRow[heap.size()]);
+	}
+
+	private void sortRows(final SortRow[] rows, final SortRowComparator rowComparator) {
+		if (parallelSortExecutor == null || rows.length < parallelSortThreshold || parallelism < 2) {
+			Arrays.sort(rows, rowComparator);
+		}
+		else {
+			parallelSortRows(rows, rowComparator);
+		}
+	}
+
+	private void parallelSortRows(final SortRow[] rows, final SortRowComparator rowComparator) {
+		final int[] bounds = new int[parallelism + 1];
+		for (int i = 0; i <= parallelism; i++) {
+			bounds[i] = (int) ((long) rows.length * i / parallelism);
+		}
+
+		final List<Future<?>> futures = new ArrayList<Future<?>>(parallelism);
+		for (int i = 0; i < parallelism; i++) {
+			final int fromIndex = bounds[i];
+			final int toIndex = bounds[i + 1];
+			final FutureTask<Void> future = new FutureTask<Void>(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					Arrays.sort(rows, fromIndex, toIndex, rowComparator);
+					return null;
+				}
+			});
+			futures.add(future);
+			parallelSortExecutor.execute(future);
+		}
+		awaitAll(futures);
+
+		mergeChunks(rows, bounds, rowComparator);
+	}
+
+	private static void awaitAll(final List<Future<?>> futures) {
+		try {
+			for (final Future<?> future : futures) {
+				future.get();
+			}
+		}
+		catch (final InterruptedException e) {
+			cancelAll(futures);
+			Thread.currentThread().interrupt();
+			throw new ServiceInterruptedException(e);
+		}
+		catch (final ExecutionException e) {
+			cancelAll(futures);
+			final Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			else {
+				throw new RuntimeException(cause);
+			}
+		}
+	}
+
+	private static void cancelAll(final List<Future<?>> futures) {
+		for (final Future<?> future : futures) {
+			future.cancel(true);
+		}
+	}
+
+	/**
+	 * Merges the sorted chunks given by the bounds pairwise until only one chunk remains
+	 */
+	private static void mergeChunks(final SortRow[] rows, final int[] bounds, final SortRowComparator rowComparator) {
+		SortRow[] source = rows;
+		SortRow[] target = new SortRow[rows.length];
+		int[] currentBounds = bounds;
+		while (currentBounds.length > 2) {
+			final int chunks = currentBounds.length - 1;
+			final int[] nextBounds = new int[(chunks + 1) / 2 + 1];
+			int nextIndex = 0;
+			for (int i = 0; i < chunks; i += 2) {
+				final int fromIndex = currentBounds[i];
+				final int middleIndex = currentBounds[Math.min(i + 1, chunks)];
+				final int toIndex = currentBounds[Math.min(i + 2, chunks)];
+				merge(source, fromIndex, middleIndex, toIndex, target, rowComparator);
+				nextBounds[nextIndex] = fromIndex;
+				nextIndex++;
+			}
+			nextBounds[nextIndex] = rows.length;
+
+			final SortRow[] swap = source;
+			source = target;
+			target = swap;
+			currentBounds = nextBounds;
+		}
+		if (source != rows) {
+			System.arraycopy(source, 0, rows, 0, rows.length);
+		}
+	}
 
-		BeanDtoComparatorDecorator(final List<? extends ISort> sorting, final IExecutionCallback executionCallback) {
-			if (sortConverters != null) {
-				this.original = BeanDtoComparator.create(sortConverters, sorting);
+	private static void merge(
+		final SortRow[] source,
+		final int fromIndex,
+		final int middleIndex,
+		final int toIndex,
+		final SortRow[] target,
+		final SortRowComparator rowComparator) {
+		int left = fromIndex;
+		int right = middleIndex;
+		for (int i = fromIndex; i < toIndex; i++) {
+			if (right >= toIndex || (left < middleIndex && rowComparator.compare(source[left], source[right]) <= 0)) {
+				target[i] = source[left];
+				left++;
 			}
 			else {
-				this.original = BeanDtoComparator.create(sorting);
+				target[i] = source[right];
+				right++;
 			}
+		}
+	}
+
+	private static final class SortRow {
+
+		private final IBeanDto beanDto;
+		private final Object[] key;
+		private final int index;
+
+		SortRow(final IBeanDto beanDto, final Object[] key, final int index) {
+			this.beanDto = beanDto;
+			this.key = key;
+			this.index = index;
+		}
+
+	}
+
+	/**
+	 * Compares the precomputed keys. Equal keys will be ordered by the original index, so the
+	 * result is stable for all sort strategies.
+	 */
+	private static final class SortRowComparator implements Comparator<SortRow> {
+
+		private final IBeanDtoComparator comparator;
+		private final IExecutionCallback executionCallback;
+
+		SortRowComparator(final IBeanDtoComparator comparator, final IExecutionCallback executionCallback) {
+			this.comparator = comparator;
 			this.executionCallback = executionCallback;
 		}
 
 		@Override
-		public int compare(final IBeanDto firstBeanDto, final IBeanDto secondBeanDto) {
+		public int compare(final SortRow firstRow, final SortRow secondRow) {
 			CapServiceToolkit.checkCanceled(executionCallback);
-			return original.compare(firstBeanDto, secondBeanDto);
+			final int result = comparator.compareSortKeys(firstRow.key, secondRow.key);
+			if (result != 0) {
+				return result;
+			}
+			else if (firstRow.index < secondRow.index) {
+				return -1;
+			}
+			else if (firstRow.index > secondRow.index) {
+				return 1;
+			}
+			else {
+				return 0;
+			}
 		}
 
 	}
@@ -28,24 +28,21 @@
 
 package org.jowidgets.cap.service.impl;
 
-import java.beans.BeanInfo;
-import java.beans.IntrospectionException;
-import java.beans.Introspector;
-import java.beans.PropertyDescriptor;
-import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
 
 import org.jowidgets.cap.common.api.CapCommonToolkit;
 import org.jowidgets.cap.common.api.bean.IBean;
 import org.jowidgets.cap.common.api.bean.IBeanDto;
 import org.jowidgets.cap.common.api.bean.IBeanDtoBuilder;
+import org.jowidgets.cap.common.api.bean.IBeanDtoSchema;
 import org.jowidgets.cap.common.api.bean.IPropertyMap;
+import org.jowidgets.cap.common.api.execution.IExecutionCallback;
+import org.jowidgets.cap.service.api.CapServiceToolkit;
 import org.jowidgets.cap.service.api.bean.BeanDtoFactoryInterceptor;
-import org.jowidgets.cap.service.api.bean.IBeanDtoFactory;
+import org.jowidgets.cap.service.api.bean.IBeanDtoBatchFactory;
 import org.jowidgets.cap.service.api.bean.IBeanDtoFactoryInterceptor;
 import org.jowidgets.cap.service.api.bean.IBeanIdentityResolver;
 import org.jowidgets.cap.service.api.plugin.IBeanDtoFactoryPlugin;
@@ -56,12 +53,13 @@ import org.jowidgets.plugin.api.PluginToolkit;
 import org.jowidgets.util.Assert;
 import org.jowidgets.util.reflection.AnnotationCache;
 
-final class BeanDtoFactoryImpl<BEAN_TYPE> implements IBeanDtoFactory<BEAN_TYPE> {
+final class BeanDtoFactoryImpl<BEAN_TYPE> implements IBeanDtoBatchFactory<BEAN_TYPE> {
 
 	private final IBeanIdentityResolver<BEAN_TYPE> identityResolver;
 	private final Class<?> beanType;
-	private final Map<String, Method> methods;
+	private final PropertyAccessor[] accessors;
 	private final Collection<String> propertyNames;
+	private final IBeanDtoSchema schema;
 	private final IBeanDtoFactoryInterceptor<BEAN_TYPE> interceptor;
 	private final List<IBeanDtoFactoryPlugin<BEAN_TYPE>> interceptorPlugins;
 
@@ -79,23 +77,20 @@ final class BeanDtoFactoryImpl<BEAN_TYPE> implements IBeanDtoFactory<BEAN_TYPE>
 		this.identityResolver = (IBeanIdentityResolver<BEAN_TYPE>) identityResolver;
 		this.propertyNames = new LinkedHashSet<String>(propertyNames);
 		this.beanType = identityResolver.getBeanType();
-		this.methods = new HashMap<String, Method>();
+		this.schema = CapCommonToolkit.dtoSchema(beanType, this.propertyNames);
+		this.accessors = createAccessors(beanType, this.propertyNames);
 		this.interceptor = createInterceptor(beanType);
 		this.interceptorPlugins = createInterceptorPlugins(beanType);
+	}
 
-		try {
-			final BeanInfo beanInfo = Introspector.getBeanInfo(beanType);
-			for (final PropertyDescriptor propertyDescriptor : beanInfo.getPropertyDescriptors()) {
-				final String propertyName = propertyDescriptor.getName();
-				if (propertyNames.contains(propertyName)) {
-					methods.put(propertyName, propertyDescriptor.getReadMethod());
-				}
-			}
-		}
-		catch (final IntrospectionException e) {
-			throw new RuntimeException(e);
+	private static PropertyAccessor[] createAccessors(final Class<?> beanType, final Collection<String> propertyNames) {
+		final BeanPropertyTable properties = BeanPropertyTable.get(beanType);
+		final PropertyAccessor[] result = new PropertyAccessor[propertyNames.size()];
+		int index = 0;
+		for (final String propertyName : propertyNames) {
+			result[index++] = new PropertyAccessor(propertyName, properties.getProperty(propertyName));
 		}
-
+		return result;
 	}
 
 	@SuppressWarnings("unchecked")
@@ -128,7 +123,25 @@ final class BeanDtoFactoryImpl<BEAN_TYPE> implements IBeanDtoFactory<BEAN_TYPE>
 	@Override
 	public IBeanDto createDto(final BEAN_TYPE bean) {
 		Assert.paramNotNull(bean, "bean");
-		final IBeanDtoBuilder builder = CapCommonToolkit.dtoBuilder(beanType);
+		return createDtoImpl(bean);
+	}
+
+	@Override
+	public List<IBeanDto> createDtos(final Collection<? extends BEAN_TYPE> beans, final IExecutionCallback executionCallback) {
+		Assert.paramNotNull(beans, "beans");
+		final List<IBeanDto> result = new ArrayList<IBeanDto>(beans.size());
+		for (final BEAN_TYPE bean : beans) {
+			if (executionCallback != null) {
+				CapServiceToolkit.checkCanceled(executionCallback);
+			}
+			Assert.paramNotNull(bean, "bean");
+			result.add(createDtoImpl(bean));
+		}
+		return result;
+	}
+
+	private IBeanDto createDtoImpl(final BEAN_TYPE bean) {
+		final IBeanDtoBuilder builder = CapCommonToolkit.dtoBuilder(schema);
 
 		//interceptor annotation before
 		if (interceptor != null) {
@@ -143,19 +156,8 @@ final class BeanDtoFactoryImpl<BEAN_TYPE> implements IBeanDtoFactory<BEAN_TYPE>
 		builder.setId(identityResolver.getId(bean));
 		builder.setVersion(identityResolver.getVersion(bean));
 
-		for (final String propertyName : propertyNames) {
-			final Method method = methods.get(propertyName);
-			if (method != null) {
-				try {
-					builder.setValue(propertyName, method.invoke(bean));
-				}
-				catch (final Exception e) {
-					throw new RuntimeException(e);
-				}
-			}
-			else if (bean instanceof IPropertyMap) {
-				builder.setValue(propertyName, ((IPropertyMap) bean).getValue(propertyName));
-			}
+		for (final PropertyAccessor accessor : accessors) {
+			accessor.setValue(bean, builder);
 		}
 
 		//interceptor annotation after
@@ -170,4 +172,24 @@ final class BeanDtoFactoryImpl<BEAN_TYPE> implements IBeanDtoFactory<BEAN_TYPE>
 
 		return builder.build();
 	}
+
+	private static final class PropertyAccessor {
+
+		private final String propertyName;
+		private final BeanPropertyMethods property;
+
+		PropertyAccessor(final String propertyName, final BeanPropertyMethods property) {
+			this.propertyName = propertyName;
+			this.property = property != null && property.isReadable() ? property : null;
+		}
+
+		void setValue(final Object bean, final IBeanDtoBuilder builder) {
+			if (property != null) {
+				builder.setValue(propertyName, property.getValue(bean));
+			}
+			else if (bean instanceof IPropertyMap) {
+				builder.setValue(propertyName, ((IPropertyMap) bean).getValue(propertyName));
+			}
+		}
+	}
 }
@@ -28,12 +28,7 @@
 
 package org.jowidgets.cap.service.impl;
 
-import java.beans.BeanInfo;
-import java.beans.Introspector;
-import java.beans.PropertyDescriptor;
-import java.lang.reflect.Method;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -50,28 +45,11 @@ import org.jowidgets.util.EmptyCompatibleEquivalence;
 
 final class BeanModifierImpl<BEAN_TYPE> implements IBeanModifier<BEAN_TYPE> {
 
-	private final Map<String, Method> writeMethods;
-	private final Map<String, Method> readMethods;
+	private final Map<String, BeanPropertyMethods> properties;
 	private final IPluginProperties pluginProperties;
 
 	BeanModifierImpl(final Class<? extends BEAN_TYPE> beanType, final Collection<String> propertyNames) {
-		this.writeMethods = new HashMap<String, Method>();
-		this.readMethods = new HashMap<String, Method>();
-
-		try {
-			final BeanInfo beanInfo = Introspector.getBeanInfo(beanType);
-			for (final PropertyDescriptor propertyDescriptor : beanInfo.getPropertyDescriptors()) {
-				final String propertyName = propertyDescriptor.getName();
-				if (propertyNames.contains(propertyName)) {
-					writeMethods.put(propertyName, propertyDescriptor.getWriteMethod());
-					readMethods.put(propertyName, propertyDescriptor.getReadMethod());
-				}
-			}
-		}
-		catch (final Exception e) {
-			throw new RuntimeException(e);
-		}
-
+		this.properties = BeanPropertyTable.get(beanType).getProperties(propertyNames);
 		this.pluginProperties = createPluginProperties(beanType);
 	}
 
@@ -95,14 +73,9 @@ final class BeanModifierImpl<BEAN_TYPE> implements IBeanModifier<BEAN_TYPE> {
 	}
 
 	private Object getCurrentValue(final BEAN_TYPE bean, final IBeanModification modification) {
-		final Method readMethod = readMethods.get(modification.getPropertyName());
-		if (readMethod != null) {
-			try {
-				return readMethod.invoke(bean);
-			}
-			catch (final Exception e) {
-				throw new RuntimeException(e);
-			}
+		final BeanPropertyMethods property = properties.get(modification.getPropertyName());
+		if (property != null && property.isReadable()) {
+			return property.getValue(bean);
 		}
 		else if (bean instanceof IPropertyMap) {
 			return ((IPropertyMap) bean).getValue(modification.getPropertyName());
@@ -117,8 +90,9 @@ final class BeanModifierImpl<BEAN_TYPE> implements IBeanModifier<BEAN_TYPE> {
 	@SuppressWarnings({"unchecked", "rawtypes"})
 	@Override
 	public void modify(final BEAN_TYPE bean, final IBeanModification modification) {
-		final Method writeMethod = writeMethods.get(modification.getPropertyName());
-		if (writeMethod != null || bean instanceof IPropertyMap) {
+		final BeanPropertyMethods property = properties.get(modification.getPropertyName());
+		final boolean writable = property != null && property.isWritable();
+		if (writable || bean instanceof IPropertyMap) {
 			//plugin before invocation
 			final List<IBeanModifierPlugin<?>> plugins;
 			plugins = PluginProvider.getPlugins(IBeanModifierPlugin.ID, pluginProperties);
@@ -127,13 +101,8 @@ final class BeanModifierImpl<BEAN_TYPE> implements IBeanModifier<BEAN_TYPE> {
 			}
 
 			//do modification
-			if (writeMethod != null) {
-				try {
-					writeMethod.invoke(bean, modification.getNewValue());
-				}
-				catch (final Exception e) {
-					throw new RuntimeException(e);
-				}
+			if (writable) {
+				property.setValue(bean, modification.getNewValue());
 			}
 			else if (bean instanceof IPropertyMap) {
 				((IPropertyMap) bean).setValue(modification.getPropertyName(), modification.getNewValue());
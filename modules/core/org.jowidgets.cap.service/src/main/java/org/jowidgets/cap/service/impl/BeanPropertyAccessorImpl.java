@@ -28,14 +28,6 @@
 
 package org.jowidgets.cap.service.impl;
 
-import java.beans.BeanInfo;
-import java.beans.IntrospectionException;
-import java.beans.Introspector;
-import java.beans.PropertyDescriptor;
-import java.lang.reflect.Method;
-import java.util.HashMap;
-import java.util.Map;
-
 import org.jowidgets.cap.common.api.bean.IBean;
 import org.jowidgets.cap.common.api.bean.IPropertyMap;
 import org.jowidgets.cap.service.api.bean.IBeanIdentityResolver;
@@ -47,7 +39,7 @@ final class BeanPropertyAccessorImpl<BEAN_TYPE> implements IBeanPropertyAccessor
 
 	private final IBeanIdentityResolver<BEAN_TYPE> identityResolver;
 	private final Class<?> beanType;
-	private final Map<String, Method> methods;
+	private final BeanPropertyTable properties;
 
 	@SuppressWarnings({"unchecked", "rawtypes"})
 	BeanPropertyAccessorImpl(final Class<? extends IBean> beanType) {
@@ -61,19 +53,7 @@ final class BeanPropertyAccessorImpl<BEAN_TYPE> implements IBeanPropertyAccessor
 
 		this.identityResolver = (IBeanIdentityResolver<BEAN_TYPE>) identityResolver;
 		this.beanType = identityResolver.getBeanType();
-		this.methods = new HashMap<String, Method>();
-
-		try {
-			final BeanInfo beanInfo = Introspector.getBeanInfo(beanType);
-			for (final PropertyDescriptor propertyDescriptor : beanInfo.getPropertyDescriptors()) {
-				final String propertyName = propertyDescriptor.getName();
-				methods.put(propertyName, propertyDescriptor.getReadMethod());
-			}
-		}
-		catch (final IntrospectionException e) {
-			throw new RuntimeException(e);
-		}
-
+		this.properties = BeanPropertyTable.get(beanType);
 	}
 
 	@Override
@@ -89,14 +69,9 @@ final class BeanPropertyAccessorImpl<BEAN_TYPE> implements IBeanPropertyAccessor
 	@Override
 	public Object getValue(final BEAN_TYPE bean, final String propertyName) {
 		Assert.paramNotNull(bean, "bean");
-		final Method method = methods.get(propertyName);
-		if (method != null) {
-			try {
-				return method.invoke(bean);
-			}
-			catch (final Exception e) {
-				throw new RuntimeException(e);
-			}
+		final BeanPropertyMethods property = properties.getProperty(propertyName);
+		if (property != null && property.isReadable()) {
+			return property.getValue(bean);
 		}
 		else if (bean instanceof IPropertyMap) {
 			return ((IPropertyMap) bean).getValue(propertyName);
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.cap.service.impl;
+
+import java.lang.reflect.Method;
+
+/**
+ * The read and write method of a bean property.
+ * 
+ * The methods will be made accessible once, so the access check will not be done on each invocation.
+ */
+final class BeanPropertyMethods {
+
+	private final Method readMethod;
+	private final Method writeMethod;
+
+	BeanPropertyMethods(final Method readMethod, final Method writeMethod) {
+		this.readMethod = makeAccessible(readMethod);
+		this.writeMethod = makeAccessible(writeMethod);
+	}
+
+	private static Method makeAccessible(final Method method) {
+		if (method != null) {
+			try {
+				method.setAccessible(true);
+			}
+			catch (final SecurityException e) {
+				//the method is public, so it can be invoked with access check anyway
+			}
+		}
+		return method;
+	}
+
+	boolean isReadable() {
+		return readMethod != null;
+	}
+
+	boolean isWritable() {
+		return writeMethod != null;
+	}
+
+	Object getValue(final Object bean) {
+		try {
+			return readMethod.invoke(bean);
+		}
+		catch (final Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	void setValue(final Object bean, final Object value) {
+		try {
+			writeMethod.invoke(bean, value);
+		}
+		catch (final Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.cap.service.impl;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.ref.SoftReference;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.jowidgets.util.Assert;
+
+/**
+ * Holds the read and write methods of all properties of a bean type.
+ * 
+ * The tables will be created once for each bean type and shared by all accessors, modifiers and dto factories
+ * of the type, so the bean introspection will only be done once while the type is in use.
+ */
+final class BeanPropertyTable {
+
+	/**
+	 * Holds the bean types weakly and the tables softly, because the methods of a table reference its bean type.
+	 * Otherwise the tables would prevent the class loaders of the bean types (e.g. of OSGi bundles) from being unloaded.
+	 * The soft references keep the tables while no accessor holds them, so they will only be released on memory demand.
+	 */
+	private static final Map<Class<?>, SoftReference<BeanPropertyTable>> TABLES =
+		new WeakHashMap<Class<?>, SoftReference<BeanPropertyTable>>();
+
+	private final Map<String, BeanPropertyMethods> properties;
+
+	private BeanPropertyTable(final Class<?> beanType) {
+		this.properties = new HashMap<String, BeanPropertyMethods>();
+		try {
+			final BeanInfo beanInfo = Introspector.getBeanInfo(beanType);
+			for (final PropertyDescriptor propertyDescriptor : beanInfo.getPropertyDescriptors()) {
+				properties.put(
+						propertyDescriptor.getName(),
+						new BeanPropertyMethods(propertyDescriptor.getReadMethod(), propertyDescriptor.getWriteMethod()));
+			}
+		}
+		catch (final IntrospectionException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	static BeanPropertyTable get(final Class<?> beanType) {
+		Assert.paramNotNull(beanType, "beanType");
+		final BeanPropertyTable existing = getExisting(beanType);
+		if (existing != null) {
+			return existing;
+		}
+
+		// introspect without holding the lock, a table created concurrently for the same type wins
+		final BeanPropertyTable table = new BeanPropertyTable(beanType);
+		synchronized (TABLES) {
+			final BeanPropertyTable concurrent = getExisting(beanType);
+			if (concurrent != null) {
+				return concurrent;
+			}
+			TABLES.put(beanType, new SoftReference<BeanPropertyTable>(table));
+			return table;
+		}
+	}
+
+	private static BeanPropertyTable getExisting(final Class<?> beanType) {
+		synchronized (TABLES) {
+			final SoftReference<BeanPropertyTable> reference = TABLES.get(beanType);
+			return reference != null ? reference.get() : null;
+		}
+	}
+
+	/**
+	 * Gets the methods of a property
+	 * 
+	 * @param propertyName The name of the property
+	 * 
+	 * @return The methods or null, if the bean type has no property with the given name
+	 */
+	BeanPropertyMethods getProperty(final String propertyName) {
+		return properties.get(propertyName);
+	}
+
+	/**
+	 * Gets the methods of some properties
+	 * 
+	 * @param propertyNames The names of the properties to get
+	 * 
+	 * @return A new map with the methods of all given properties the bean type has, never null
+	 */
+	Map<String, BeanPropertyMethods> getProperties(final Collection<String> propertyNames) {
+		final Map<String, BeanPropertyMethods> result = new HashMap<String, BeanPropertyMethods>();
+		for (final String propertyName : propertyNames) {
+			final BeanPropertyMethods property = properties.get(propertyName);
+			if (property != null) {
+				result.put(propertyName, property);
+			}
+		}
+		return result;
+	}
+
+}
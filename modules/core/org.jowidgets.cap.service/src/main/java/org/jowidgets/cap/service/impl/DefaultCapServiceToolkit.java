@@ -30,6 +30,7 @@ package org.jowidgets.cap.service.impl;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 
@@ -43,6 +44,7 @@ import org.jowidgets.cap.service.api.ICapServiceToolkit;
 import org.jowidgets.cap.service.api.adapter.IAdapterFactoryProvider;
 import org.jowidgets.cap.service.api.bean.IBeanAccess;
 import org.jowidgets.cap.service.api.bean.IBeanDtoCollectionFilter;
+import org.jowidgets.cap.service.api.bean.IBeanDtoCollectionPageSorter;
 import org.jowidgets.cap.service.api.bean.IBeanDtoCollectionSorter;
 import org.jowidgets.cap.service.api.bean.IBeanDtoFactory;
 import org.jowidgets.cap.service.api.bean.IBeanIdentityResolver;
@@ -292,6 +294,14 @@ public final class DefaultCapServiceToolkit implements ICapServiceToolkit {
 		return new BeanDtoCollectionSorterImpl(sortConveters);
 	}
 
+	@Override
+	public IBeanDtoCollectionPageSorter beanDtoCollectionSorter(
+		final ISortConverterMap sortConveters,
+		final Executor parallelSortExecutor) {
+		Assert.paramNotNull(parallelSortExecutor, "parallelSortExecutor");
+		return new BeanDtoCollectionSorterImpl(sortConveters, parallelSortExecutor);
+	}
+
 	@Override
 	public IBeanDtoCollectionFilter beanDtoCollectionFilter() {
 		return beanDtoFilter;
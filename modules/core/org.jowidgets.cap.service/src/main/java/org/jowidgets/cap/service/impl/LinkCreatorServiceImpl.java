@@ -29,11 +29,15 @@
 package org.jowidgets.cap.service.impl;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.jowidgets.cap.common.api.CapCommonToolkit;
@@ -64,6 +68,7 @@ import org.jowidgets.cap.service.api.bean.IBeanDtoFactory;
 import org.jowidgets.i18n.api.IMessage;
 import org.jowidgets.util.Assert;
 import org.jowidgets.util.EmptyCheck;
+import org.jowidgets.util.NullCompatibleEquivalence;
 import org.jowidgets.util.reflection.BeanUtils;
 
 final class LinkCreatorServiceImpl<SOURCE_BEAN_TYPE extends IBean, LINKED_BEAN_TYPE extends IBean>
@@ -194,15 +199,16 @@ final class LinkCreatorServiceImpl<SOURCE_BEAN_TYPE extends IBean, LINKED_BEAN_T
 	}
 
 	private List<IBeanDto> createStandardLinks(final ILinkCreation link, final IExecutionCallback executionCallback) {
-		final List<IBeanDto> result = new LinkedList<IBeanDto>();
 		final List<IBeanDto> sourceBeans = createSourceBeans(link, executionCallback);
 		final List<IBeanDto> linkedBeans = createLinkedBeans(link, executionCallback);
+		final List<DecoratedLinkBeanData> linkBeansData = new ArrayList<DecoratedLinkBeanData>(
+			sourceBeans.size() * linkedBeans.size());
 		for (final IBeanDto sourceBean : sourceBeans) {
 			for (final IBeanDto linkedBean : linkedBeans) {
-				result.add(createLink(sourceBean, linkedBean, link.getAdditionalLinkProperties(), executionCallback));
+				linkBeansData.add(new DecoratedLinkBeanData(link.getAdditionalLinkProperties(), linkedBean, sourceBean));
 			}
 		}
-		return result;
+		return createLinks(linkBeansData, executionCallback);
 	}
 
 	private List<IBeanDto> createDirectLinks(final ILinkCreation link, final IExecutionCallback executionCallback) {
@@ -210,9 +216,11 @@ final class LinkCreatorServiceImpl<SOURCE_BEAN_TYPE extends IBean, LINKED_BEAN_T
 		final List<IBeanDto> sourceBeans = createSourceBeans(link, executionCallback);
 		final List<IBeanDto> linkedBeans = createDirectLinkedBeans(sourceBeans, link, executionCallback);
 		if (EmptyCheck.isEmpty(linkedBeans)) {//no linked beans, so create links from additional properties
+			final List<DecoratedLinkBeanData> linkBeansData = new ArrayList<DecoratedLinkBeanData>(sourceBeans.size());
 			for (final IBeanDto sourceBean : sourceBeans) {
-				result.add(createLink(sourceBean, null, link.getAdditionalLinkProperties(), executionCallback));
+				linkBeansData.add(new DecoratedLinkBeanData(link.getAdditionalLinkProperties(), null, sourceBean));
 			}
+			result.addAll(createLinks(linkBeansData, executionCallback));
 		}
 		else {//direct link with linked beans
 			result.addAll(linkedBeans);
@@ -304,30 +312,65 @@ final class LinkCreatorServiceImpl<SOURCE_BEAN_TYPE extends IBean, LINKED_BEAN_T
 		}
 	}
 
-	private IBeanDto createLink(
-		final IBeanDto sourceBean,
-		final IBeanDto linkedBean,
-		final IBeanData additionalProperties,
+	private List<IBeanDto> createLinks(
+		final List<DecoratedLinkBeanData> linkBeansData,
 		final IExecutionCallback executionCallback) {
 
-		final IBeanData decoratedBeanData = new DecoratedLinkBeanData(additionalProperties, linkedBean, sourceBean);
-		final IBeanDto linkBean = createBean(decoratedBeanData, linkCreatorService, executionCallback);
+		final List<IBeanDto> linkBeans = createBeans(linkBeansData, linkCreatorService, executionCallback);
 
-		if (linkBean == null) {
-			throw new ServiceException("Can not create link for source: "
-				+ sourceBean
-				+ ", linked: "
-				+ linkedBean
-				+ ", additional properties: "
-				+ additionalProperties
-				+ ".");
+		final List<IBeanDto> result = new LinkedList<IBeanDto>();
+		final Iterator<IBeanDto> linkBeansIterator = linkBeans.iterator();
+		for (final DecoratedLinkBeanData linkBeanData : linkBeansData) {
+			final IBeanDto linkBean = linkBeansIterator.next();
+			if (linkBean == null) {
+				throw new ServiceException("Can not create link for source: "
+					+ linkBeanData.sourceBean
+					+ ", linked: "
+					+ linkBeanData.linkedBean
+					+ ", additional properties: "
+					+ linkBeanData.original
+					+ ".");
+			}
+			checkLinkBean(linkBean, linkBeanData);
+
+			if (linkBeanType.equals(linkedBeanAccess.getBeanType()) && linkBeanData.linkedBean == null) {
+				result.add(linkBean);
+			}
+			else {
+				result.add(linkBeanData.linkedBean);
+			}
 		}
+		return result;
+	}
 
-		if (linkBeanType.equals(linkedBeanAccess.getBeanType()) && linkedBean == null) {
-			return linkBean;
+	/**
+	 * The created beans will be assigned to the bean data by position, because the creator service must create the
+	 * beans in the order of the bean data. This checks the contract for the link beans with the foreign keys, if the
+	 * created link bean provides them.
+	 */
+	private void checkLinkBean(final IBeanDto linkBean, final DecoratedLinkBeanData linkBeanData) {
+		if (sourceProperties != null && linkBeanData.sourceBean != null) {
+			checkForeignKey(linkBean, linkBeanData, sourceProperties.getForeignKeyPropertyName());
 		}
-		else {
-			return linkedBean;
+		if (destinationProperties != null && linkBeanData.linkedBean != null) {
+			checkForeignKey(linkBean, linkBeanData, destinationProperties.getForeignKeyPropertyName());
+		}
+	}
+
+	private void checkForeignKey(
+		final IBeanDto linkBean,
+		final DecoratedLinkBeanData linkBeanData,
+		final String foreignKeyPropertyName) {
+		final Object foreignKey = linkBean.getValue(foreignKeyPropertyName);
+		if (foreignKey != null && !NullCompatibleEquivalence.equals(foreignKey, linkBeanData.getValue(foreignKeyPropertyName))) {
+			throw new ServiceException("The link creator service did not create the links in the order of the link data, "
+				+ "the link: "
+				+ linkBean
+				+ " was created for source: "
+				+ linkBeanData.sourceBean
+				+ ", linked: "
+				+ linkBeanData.linkedBean
+				+ ".");
 		}
 	}
 
@@ -340,59 +383,78 @@ final class LinkCreatorServiceImpl<SOURCE_BEAN_TYPE extends IBean, LINKED_BEAN_T
 		final IExecutionCallback executionCallback) {
 
 		final List<IBeanDto> result = new LinkedList<IBeanDto>();
-		for (final IBeanKey beanKey : beanKeys) {
-			CapServiceToolkit.checkCanceled(executionCallback);
-			final List<IBeanKey> singletonList = Collections.singletonList(beanKey);
-			final List<BEAN_TYPE> beans = beanAccess.getBeans(singletonList, executionCallback);
-			if (!EmptyCheck.isEmpty(beans) && beans.size() == 1) {
-				final BEAN_TYPE bean = beans.iterator().next();
-				if (linkedBean != null && linkProperties != null) {
-					final Object sourceKey = linkedBean.getValue(linkProperties.getKeyPropertyName());
-					BeanUtils.setProperty(bean, linkProperties.getForeignKeyPropertyName(), sourceKey);
+		if (EmptyCheck.isEmpty(beanKeys)) {
+			return result;
+		}
+
+		CapServiceToolkit.checkCanceled(executionCallback);
+		final List<BEAN_TYPE> beans = beanAccess.getBeans(beanKeys, executionCallback);
+		final Map<Object, BEAN_TYPE> beansById = new HashMap<Object, BEAN_TYPE>();
+		if (beans != null) {
+			for (final BEAN_TYPE bean : beans) {
+				final BEAN_TYPE formerBean = beansById.put(bean.getId(), bean);
+				if (formerBean != null && formerBean != bean) {
+					throw new BeanException(bean.getId(), "More than one bean found for the id '" + bean.getId() + "'");
 				}
-				result.add(dtoFactory.createDto(bean));
 			}
-			else if (!EmptyCheck.isEmpty(beans) && beans.size() > 1) {
-				throw new BeanException(beanKey.getId(), "More than one bean found for the key '" + beanKey + "'");
-			}
-			else {
+		}
+
+		for (final IBeanKey beanKey : beanKeys) {
+			final BEAN_TYPE bean = beansById.get(beanKey.getId());
+			if (bean == null) {
 				throw new DeletedBeanException(beanKey.getId());
 			}
+			if (linkedBean != null && linkProperties != null) {
+				final Object sourceKey = linkedBean.getValue(linkProperties.getKeyPropertyName());
+				BeanUtils.setProperty(bean, linkProperties.getForeignKeyPropertyName(), sourceKey);
+			}
+			result.add(dtoFactory.createDto(bean));
 		}
 		return result;
 	}
 
 	private List<IBeanDto> createBeans(
-		final Collection<IBeanData> beanDatas,
+		final Collection<? extends IBeanData> beanDatas,
 		final ICreatorService creatorService,
 		final IExecutionCallback executionCallback) {
-		final List<IBeanDto> result = new LinkedList<IBeanDto>();
-		for (final IBeanData beanData : beanDatas) {
-			result.add(createBean(beanData, creatorService, executionCallback));
-		}
-		return result;
-	}
 
-	private IBeanDto createBean(
-		final IBeanData beanData,
-		final ICreatorService creatorService,
-		final IExecutionCallback executionCallback) {
+		final List<IBeanData> createBeanDatas = new ArrayList<IBeanData>(beanDatas.size());
+		if (creatorService != null) {
+			for (final IBeanData beanData : beanDatas) {
+				if (beanData != null) {
+					createBeanDatas.add(beanData);
+				}
+			}
+		}
 
-		if (creatorService != null && beanData != null) {
+		final List<IBeanDto> createdBeans;
+		if (!createBeanDatas.isEmpty()) {
 			final SyncResultCallback<List<IBeanDto>> resultCallback = new SyncResultCallback<List<IBeanDto>>();
 			final List<IBeanKey> emptyList = Collections.emptyList();
-			creatorService.create(resultCallback, emptyList, Collections.singleton(beanData), executionCallback);
-			final List<IBeanDto> result = resultCallback.getResultSynchronious();
-			if (result.size() == 1) {
-				CapServiceToolkit.checkCanceled(executionCallback);
-				return result.iterator().next();
-			}
-			else {
+			//the creator service creates the beans in the order of the bean data
+			creatorService.create(resultCallback, emptyList, createBeanDatas, executionCallback);
+			createdBeans = resultCallback.getResultSynchronious();
+			if (createdBeans == null || createdBeans.size() != createBeanDatas.size()) {
 				throw new ServiceException("Can not create bean from bean data");
 			}
+			CapServiceToolkit.checkCanceled(executionCallback);
+		}
+		else {
+			createdBeans = Collections.emptyList();
 		}
 
-		return null;
+		//the result contains null for bean data that was not created, like the former single creation did
+		final List<IBeanDto> result = new LinkedList<IBeanDto>();
+		final Iterator<IBeanDto> createdBeansIterator = createdBeans.iterator();
+		for (final IBeanData beanData : beanDatas) {
+			if (creatorService != null && beanData != null) {
+				result.add(createdBeansIterator.next());
+			}
+			else {
+				result.add(null);
+			}
+		}
+		return result;
 	}
 
 	private List<IBeanDto> createDirectLinkBeans(
@@ -400,12 +462,11 @@ final class LinkCreatorServiceImpl<SOURCE_BEAN_TYPE extends IBean, LINKED_BEAN_T
 		final Collection<IBeanData> beanDatas,
 		final ICreatorService creatorService,
 		final IExecutionCallback executionCallback) {
-		final List<IBeanDto> result = new LinkedList<IBeanDto>();
+		final List<IBeanData> decoratedBeanDatas = new ArrayList<IBeanData>(beanDatas.size());
 		for (final IBeanData beanData : beanDatas) {
-			final DecoratedLinkBeanData decoratedBeanData = new DecoratedLinkBeanData(beanData, null, sourceBean);
-			result.add(createBean(decoratedBeanData, creatorService, executionCallback));
+			decoratedBeanDatas.add(new DecoratedLinkBeanData(beanData, null, sourceBean));
 		}
-		return result;
+		return createBeans(decoratedBeanDatas, creatorService, executionCallback);
 	}
 
 	private List<IBeanDto> createInverseDirectLinkBeans(
@@ -413,44 +474,44 @@ final class LinkCreatorServiceImpl<SOURCE_BEAN_TYPE extends IBean, LINKED_BEAN_T
 		final Collection<IBeanData> beanDatas,
 		final ICreatorService creatorService,
 		final IExecutionCallback executionCallback) {
-		final List<IBeanDto> result = new LinkedList<IBeanDto>();
+		final List<IBeanData> decoratedBeanDatas = new ArrayList<IBeanData>(beanDatas.size());
 		for (final IBeanData beanData : beanDatas) {
-			final DecoratedLinkBeanData decoratedBeanData = new DecoratedLinkBeanData(beanData, linkedBean, null);
-			result.add(createBean(decoratedBeanData, creatorService, executionCallback));
+			decoratedBeanDatas.add(new DecoratedLinkBeanData(beanData, linkedBean, null));
 		}
-		return result;
+		return createBeans(decoratedBeanDatas, creatorService, executionCallback);
 	}
 
 	private void checkExecutableState(final ILinkCreation link, final IExecutionCallback executionCallback) {
 		final Collection<IBeanKey> linkableBeans = link.getLinkableBeans();
 		if (!EmptyCheck.isEmpty(linkableBeans)) {
-			for (final IBeanKey sourceBean : link.getSourceBeans()) {
-				final IFilterFactory filterFactory = CapCommonToolkit.filterFactory();
-				final Object[] linkableKeys = new Object[linkableBeans.size()];
-				int index = 0;
-				for (final IBeanKey key : linkableBeans) {
-					linkableKeys[index] = key.getId();
-					index++;
-				}
+			final IFilterFactory filterFactory = CapCommonToolkit.filterFactory();
+			final Object[] linkableKeys = new Object[linkableBeans.size()];
+			int index = 0;
+			for (final IBeanKey key : linkableBeans) {
+				linkableKeys[index] = key.getId();
+				index++;
+			}
 
-				final IArithmeticFilter filter;
+			final IArithmeticFilter filter;
 
-				if (destinationProperties != null) {
-					filter = filterFactory.arithmeticFilter(
-							destinationProperties.getKeyPropertyName(),
-							ArithmeticOperator.CONTAINS_ANY,
-							linkableKeys);
-				}
-				else if (sourceProperties != null) {
-					filter = filterFactory.arithmeticFilter(
-							sourceProperties.getKeyPropertyName(),
-							ArithmeticOperator.CONTAINS_ANY,
-							linkableKeys);
-				}
-				else {
-					throw new IllegalStateException("Neither the source not the destination properties are defined");
-				}
+			if (destinationProperties != null) {
+				filter = filterFactory.arithmeticFilter(
+						destinationProperties.getKeyPropertyName(),
+						ArithmeticOperator.CONTAINS_ANY,
+						linkableKeys);
+			}
+			else if (sourceProperties != null) {
+				filter = filterFactory.arithmeticFilter(
+						sourceProperties.getKeyPropertyName(),
+						ArithmeticOperator.CONTAINS_ANY,
+						linkableKeys);
+			}
+			else {
+				throw new IllegalStateException("Neither the source not the destination properties are defined");
+			}
 
+			for (final IBeanKey sourceBean : link.getSourceBeans()) {
+				CapServiceToolkit.checkCanceled(executionCallback);
 				final SyncResultCallback<Integer> result = new SyncResultCallback<Integer>();
 				linkableReaderService.count(result, Collections.singletonList(sourceBean), filter, null, executionCallback);
 				final Integer count = result.getResultSynchronious();
@@ -42,9 +42,13 @@ final class OrderedBeanCrudInterceptorBuilderImpl<BEAN_TYPE extends IOrderedBean
 	private IBeanIdentityResolver<BEAN_TYPE> identityResolver;
 	private IBeanReader<BEAN_TYPE, Void> beanReader;
 	private IOrderedBeanGroupMapper<BEAN_TYPE, GROUP_TYPE> groupMapper;
+	private boolean sparseOrderNumbers;
+	private long orderNumberGap;
 
 	OrderedBeanCrudInterceptorBuilderImpl() {
 		this.groupMapper = new DefaultOrderedBeanGroupMapper<BEAN_TYPE, GROUP_TYPE>();
+		this.sparseOrderNumbers = false;
+		this.orderNumberGap = 1024;
 	}
 
 	@SuppressWarnings("unchecked")
@@ -74,6 +78,21 @@ final class OrderedBeanCrudInterceptorBuilderImpl<BEAN_TYPE extends IOrderedBean
 		return this;
 	}
 
+	@Override
+	public IOrderedBeanCrudServiceInterceptorBuilder<BEAN_TYPE, GROUP_TYPE> setSparseOrderNumbers(final boolean sparse) {
+		this.sparseOrderNumbers = sparse;
+		return this;
+	}
+
+	@Override
+	public IOrderedBeanCrudServiceInterceptorBuilder<BEAN_TYPE, GROUP_TYPE> setOrderNumberGap(final long gap) {
+		if (gap <= 0) {
+			throw new IllegalArgumentException("The parameter 'gap' must be greater than zero.");
+		}
+		this.orderNumberGap = gap;
+		return this;
+	}
+
 	IBeanIdentityResolver<BEAN_TYPE> getIdentityResolver() {
 		return identityResolver;
 	}
@@ -86,6 +105,14 @@ final class OrderedBeanCrudInterceptorBuilderImpl<BEAN_TYPE extends IOrderedBean
 		return groupMapper;
 	}
 
+	boolean isSparseOrderNumbers() {
+		return sparseOrderNumbers;
+	}
+
+	long getOrderNumberGap() {
+		return orderNumberGap;
+	}
+
 	@Override
 	public ICrudServiceInterceptor<BEAN_TYPE> build() {
 		return new OrderedBeansCrudInterceptorImpl<BEAN_TYPE>(this);
@@ -34,6 +34,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -72,9 +73,14 @@ final class OrderedBeansCrudInterceptorImpl<BEAN_TYPE extends IOrderedBean> exte
 	private static final List<Sort> ORDER_NUMBER_ASC_SORTING = Arrays.asList(
 			new Sort(IOrderedBean.ORDER_NUMBER_PROPERTY, SortOrder.ASC));
 
+	private static final List<Sort> ORDER_NUMBER_DESC_SORTING = Arrays.asList(
+			new Sort(IOrderedBean.ORDER_NUMBER_PROPERTY, SortOrder.DESC));
+
 	private final IBeanIdentityResolver<BEAN_TYPE> identityResolver;
 	private final IBeanReader<BEAN_TYPE, Void> beanReader;
 	private final IOrderedBeanGroupMapper<BEAN_TYPE, Object> groupMapper;
+	private final boolean sparseOrderNumbers;
+	private final long orderNumberGap;
 
 	@SuppressWarnings("unchecked")
 	OrderedBeansCrudInterceptorImpl(final OrderedBeanCrudInterceptorBuilderImpl<BEAN_TYPE, ?> builder) {
@@ -86,6 +92,8 @@ final class OrderedBeansCrudInterceptorImpl<BEAN_TYPE extends IOrderedBean> exte
 		this.identityResolver = builder.getIdentityResolver();
 		this.beanReader = builder.getBeanReader();
 		this.groupMapper = (IOrderedBeanGroupMapper<BEAN_TYPE, Object>) builder.getGroupMapper();
+		this.sparseOrderNumbers = builder.isSparseOrderNumbers();
+		this.orderNumberGap = builder.getOrderNumberGap();
 	}
 
 	@Override
@@ -95,7 +103,7 @@ final class OrderedBeansCrudInterceptorImpl<BEAN_TYPE extends IOrderedBean> exte
 		final IBeanDataMapper<BEAN_TYPE> mapper,
 		final IExecutionCallback executionCallback) {
 
-		fixOrderNumbersForGroups(new ArrayList<BEAN_TYPE>(beans), new CreatedBeansFilter(mapper), false, executionCallback);
+		fixOrderNumbersForGroups(new ArrayList<BEAN_TYPE>(beans), new CreatedBeansFilter(mapper), null, false, executionCallback);
 	}
 
 	@Override
@@ -112,18 +120,24 @@ final class OrderedBeansCrudInterceptorImpl<BEAN_TYPE extends IOrderedBean> exte
 		fixOrderNumbersForGroups(
 				beansWithRelevantModifications,
 				new RelevantModifiedBeansFilter(modifications),
+				modifications,
 				false,
 				executionCallback);
 	}
 
 	@Override
 	public void afterDelete(final Collection<BEAN_TYPE> beans, final IExecutionCallback executionCallback) {
-		fixOrderNumbersForGroups(new ArrayList<BEAN_TYPE>(beans), new DeletedBeansFilter(beans), true, executionCallback);
+		if (sparseOrderNumbers) {
+			//deleted beans only leave gaps, so the order of the remaining beans is still valid
+			return;
+		}
+		fixOrderNumbersForGroups(new ArrayList<BEAN_TYPE>(beans), new DeletedBeansFilter(beans), null, true, executionCallback);
 	}
 
 	private void fixOrderNumbersForGroups(
 		final List<BEAN_TYPE> beans,
 		final org.jowidgets.util.IFilter<BEAN_TYPE> beansFilter,
+		final IBeanModificationsMap<BEAN_TYPE> modifications,
 		final boolean beansDeleted,
 		final IExecutionCallback executionCallback) {
 
@@ -131,7 +145,22 @@ final class OrderedBeansCrudInterceptorImpl<BEAN_TYPE extends IOrderedBean> exte
 
 		for (final Entry<Object, List<BEAN_TYPE>> beansOfGroup : mappedToGroups) {
 			CapServiceToolkit.checkCanceled(executionCallback);
-			fixOrderNumbersForGroup(beansOfGroup.getKey(), beansOfGroup.getValue(), beansFilter, beansDeleted, executionCallback);
+			if (sparseOrderNumbers) {
+				fixSparseOrderNumbersForGroup(
+						beansOfGroup.getKey(),
+						beansOfGroup.getValue(),
+						beansFilter,
+						modifications,
+						executionCallback);
+			}
+			else {
+				fixOrderNumbersForGroup(
+						beansOfGroup.getKey(),
+						beansOfGroup.getValue(),
+						beansFilter,
+						beansDeleted,
+						executionCallback);
+			}
 		}
 	}
 
@@ -291,26 +320,472 @@ final class OrderedBeansCrudInterceptorImpl<BEAN_TYPE extends IOrderedBean> exte
 		return expectedOrderNumber;
 	}
 
+	private void fixSparseOrderNumbersForGroup(
+		final Object group,
+		final List<BEAN_TYPE> relevantGroupMembers,
+		final org.jowidgets.util.IFilter<BEAN_TYPE> relevantBeansFilter,
+		final IBeanModificationsMap<BEAN_TYPE> modifications,
+		final IExecutionCallback executionCallback) {
+
+		final List<BEAN_TYPE> positionedBeans = new ArrayList<BEAN_TYPE>();
+		final List<BEAN_TYPE> appendedBeans = new ArrayList<BEAN_TYPE>();
+		for (final BEAN_TYPE bean : relevantGroupMembers) {
+			if (bean.getOrderNumber() != null) {
+				positionedBeans.add(bean);
+			}
+			else {
+				appendedBeans.add(bean);
+			}
+		}
+
+		//the relevant beans may be found between the neighbors, so read enough beans to find the neighbors nevertheless
+		final int maxNeighborRows = relevantGroupMembers.size() + 1;
+
+		final Map<BEAN_TYPE, Long> newOrderNumbers = new IdentityHashMap<BEAN_TYPE, Long>();
+		for (final OrderNumberRange range : getAffectedOrderNumberRanges(positionedBeans, modifications)) {
+			CapServiceToolkit.checkCanceled(executionCallback);
+			final List<BEAN_TYPE> orderedRangeMembers = readOrderedRangeMembers(
+					group,
+					range,
+					relevantBeansFilter,
+					modifications,
+					maxNeighborRows,
+					executionCallback);
+			final Set<BEAN_TYPE> relevantBeans = Collections.newSetFromMap(new IdentityHashMap<BEAN_TYPE, Boolean>());
+			relevantBeans.addAll(range.getBeans());
+			//the beans of the former ranges may have been placed behind the lower neighbor of this range
+			final Long lowerBound = getMaxOrderNumber(newOrderNumbers.values());
+			final boolean calculated = calculateSparseOrderNumbers(
+					orderedRangeMembers,
+					relevantBeans,
+					lowerBound,
+					newOrderNumbers,
+					executionCallback);
+			if (!calculated) {
+				//the gap is exhausted, so renumber the whole group
+				renumberSparseOrderNumbersOfGroup(
+						group,
+						relevantGroupMembers,
+						relevantBeansFilter,
+						modifications,
+						executionCallback);
+				return;
+			}
+		}
+
+		if (!appendedBeans.isEmpty()) {
+			long orderNumber = getLastOrderNumber(
+					group,
+					relevantBeansFilter,
+					newOrderNumbers,
+					maxNeighborRows,
+					executionCallback);
+			for (final BEAN_TYPE bean : appendedBeans) {
+				orderNumber = orderNumber + orderNumberGap;
+				newOrderNumbers.put(bean, Long.valueOf(orderNumber));
+			}
+		}
+
+		for (final Entry<BEAN_TYPE, Long> newOrderNumber : newOrderNumbers.entrySet()) {
+			newOrderNumber.getKey().setOrderNumber(newOrderNumber.getValue());
+		}
+	}
+
+	/**
+	 * Gets the order number ranges that are affected by the relevant beans. A range spans the former and the
+	 * requested order numbers of its beans, overlapping ranges will be merged.
+	 * 
+	 * @param positionedBeans The relevant beans that have an order number
+	 * @param modifications The modifications of the relevant beans, or null if the beans were created
+	 * 
+	 * @return The affected ranges, sorted by their lower bound
+	 */
+	private List<OrderNumberRange> getAffectedOrderNumberRanges(
+		final List<BEAN_TYPE> positionedBeans,
+		final IBeanModificationsMap<BEAN_TYPE> modifications) {
+
+		final List<OrderNumberRange> ranges = new ArrayList<OrderNumberRange>(positionedBeans.size());
+		for (final BEAN_TYPE bean : positionedBeans) {
+			final long orderNumber = bean.getOrderNumber().longValue();
+			final Long formerOrderNumber = getFormerOrderNumber(bean, modifications);
+			if (formerOrderNumber != null) {
+				ranges.add(new OrderNumberRange(
+					bean,
+					Math.min(orderNumber, formerOrderNumber.longValue()),
+					Math.max(orderNumber, formerOrderNumber.longValue())));
+			}
+			else {
+				ranges.add(new OrderNumberRange(bean, orderNumber, orderNumber));
+			}
+		}
+		Collections.sort(ranges);
+
+		final List<OrderNumberRange> result = new LinkedList<OrderNumberRange>();
+		OrderNumberRange lastRange = null;
+		for (final OrderNumberRange range : ranges) {
+			if (lastRange != null && range.getLower() <= lastRange.getUpper()) {
+				lastRange.merge(range);
+			}
+			else {
+				result.add(range);
+				lastRange = range;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Reads the other group members inside of the range and the neighbors of the range, and gets the new order
+	 * of them and the relevant beans of the range. Other group members outside of the range keep their order.
+	 * 
+	 * @param group The group
+	 * @param range The affected range
+	 * @param relevantBeansFilter Filters the relevant beans from the read beans
+	 * @param modifications The modifications of the relevant beans, or null if the beans were created
+	 * @param maxNeighborRows The max rows to read for a neighbor
+	 * @param executionCallback The execution callback
+	 * 
+	 * @return The lower neighbor (if exists), the members of the range in their new order and the upper neighbor (if exists)
+	 */
+	private List<BEAN_TYPE> readOrderedRangeMembers(
+		final Object group,
+		final OrderNumberRange range,
+		final org.jowidgets.util.IFilter<BEAN_TYPE> relevantBeansFilter,
+		final IBeanModificationsMap<BEAN_TYPE> modifications,
+		final int maxNeighborRows,
+		final IExecutionCallback executionCallback) {
+
+		final List<BEAN_TYPE> otherRangeMembers = new ArrayList<BEAN_TYPE>();
+		final IFilter rangeFilter = createOrderNumberFilter(
+				ArithmeticOperator.BETWEEN,
+				Long.valueOf(range.getLower()),
+				Long.valueOf(range.getUpper()));
+		for (final BEAN_TYPE bean : new FilteredIterable<BEAN_TYPE>(
+			readMembersOfGroupFromReader(group, rangeFilter, ORDER_NUMBER_ASC_SORTING, MAX_BEANS + 1, executionCallback),
+			relevantBeansFilter)) {
+			otherRangeMembers.add(bean);
+		}
+
+		final List<BEAN_TYPE> result = new ArrayList<BEAN_TYPE>(otherRangeMembers.size() + range.getBeans().size() + 2);
+
+		final IFilter lowerFilter = createOrderNumberFilter(ArithmeticOperator.LESS, Long.valueOf(range.getLower()));
+		final BEAN_TYPE lowerNeighbor = readNeighbor(
+				group,
+				lowerFilter,
+				ORDER_NUMBER_DESC_SORTING,
+				relevantBeansFilter,
+				maxNeighborRows,
+				executionCallback);
+		if (lowerNeighbor != null) {
+			result.add(lowerNeighbor);
+		}
+
+		result.addAll(getSparseOrderOfGroup(otherRangeMembers, range.getBeans(), modifications, executionCallback));
+
+		final IFilter upperFilter = createOrderNumberFilter(ArithmeticOperator.GREATER, Long.valueOf(range.getUpper()));
+		final BEAN_TYPE upperNeighbor = readNeighbor(
+				group,
+				upperFilter,
+				ORDER_NUMBER_ASC_SORTING,
+				relevantBeansFilter,
+				maxNeighborRows,
+				executionCallback);
+		if (upperNeighbor != null) {
+			result.add(upperNeighbor);
+		}
+
+		return result;
+	}
+
+	private BEAN_TYPE readNeighbor(
+		final Object group,
+		final IFilter orderNumberFilter,
+		final List<Sort> sorting,
+		final org.jowidgets.util.IFilter<BEAN_TYPE> relevantBeansFilter,
+		final int maxRows,
+		final IExecutionCallback executionCallback) {
+
+		for (final BEAN_TYPE bean : new FilteredIterable<BEAN_TYPE>(
+			readMembersOfGroupFromReader(group, orderNumberFilter, sorting, maxRows, executionCallback),
+			relevantBeansFilter)) {
+			return bean;
+		}
+		return null;
+	}
+
+	private long getLastOrderNumber(
+		final Object group,
+		final org.jowidgets.util.IFilter<BEAN_TYPE> relevantBeansFilter,
+		final Map<BEAN_TYPE, Long> newOrderNumbers,
+		final int maxRows,
+		final IExecutionCallback executionCallback) {
+
+		final BEAN_TYPE lastMember = readNeighbor(
+				group,
+				createOrderNumberNotNullFilter(),
+				ORDER_NUMBER_DESC_SORTING,
+				relevantBeansFilter,
+				maxRows,
+				executionCallback);
+
+		//the first order number is zero
+		final long result = lastMember != null ? lastMember.getOrderNumber().longValue() : -orderNumberGap;
+		final Long maxNewOrderNumber = getMaxOrderNumber(newOrderNumbers.values());
+		return maxNewOrderNumber != null ? Math.max(result, maxNewOrderNumber.longValue()) : result;
+	}
+
+	private static Long getMaxOrderNumber(final Collection<Long> orderNumbers) {
+		Long result = null;
+		for (final Long orderNumber : orderNumbers) {
+			if (result == null || orderNumber.longValue() > result.longValue()) {
+				result = orderNumber;
+			}
+		}
+		return result;
+	}
+
+	private void renumberSparseOrderNumbersOfGroup(
+		final Object group,
+		final List<BEAN_TYPE> relevantGroupMembers,
+		final org.jowidgets.util.IFilter<BEAN_TYPE> relevantBeansFilter,
+		final IBeanModificationsMap<BEAN_TYPE> modifications,
+		final IExecutionCallback executionCallback) {
+
+		final List<BEAN_TYPE> otherGroupMembers = new ArrayList<BEAN_TYPE>();
+		for (final BEAN_TYPE bean : new FilteredIterable<BEAN_TYPE>(
+			readAllMembersOfGroupFromReader(group, executionCallback),
+			relevantBeansFilter)) {
+			otherGroupMembers.add(bean);
+		}
+
+		final List<BEAN_TYPE> orderedGroupMembers = getSparseOrderOfGroup(
+				otherGroupMembers,
+				relevantGroupMembers,
+				modifications,
+				executionCallback);
+
+		renumberSparseOrderNumbers(orderedGroupMembers, executionCallback);
+	}
+
+	/**
+	 * Gets the new order of the group members. The order number of a relevant bean will be treated as the position of the
+	 * group member with this order number before the modification, so the relevant bean takes this position and the
+	 * other group members fill the remaining positions in their former order (like for dense order numbers).
+	 * 
+	 * The positions are relative to the given members, so this can be done for an affected range of the group too.
+	 * 
+	 * @param otherGroupMembers The group members that are not relevant, sorted by order number
+	 * @param relevantGroupMembers The created or modified group members
+	 * @param modifications The modifications of the relevant beans, or null if the beans were created
+	 * @param executionCallback The execution callback
+	 * 
+	 * @return The new order of all group members
+	 */
+	private List<BEAN_TYPE> getSparseOrderOfGroup(
+		final List<BEAN_TYPE> otherGroupMembers,
+		final List<BEAN_TYPE> relevantGroupMembers,
+		final IBeanModificationsMap<BEAN_TYPE> modifications,
+		final IExecutionCallback executionCallback) {
+
+		final List<Long> formerOrderNumbers = new ArrayList<Long>(otherGroupMembers.size() + relevantGroupMembers.size());
+		for (final BEAN_TYPE bean : otherGroupMembers) {
+			formerOrderNumbers.add(bean.getOrderNumber());
+		}
+		for (final BEAN_TYPE bean : relevantGroupMembers) {
+			final Long formerOrderNumber = getFormerOrderNumber(bean, modifications);
+			if (formerOrderNumber != null) {
+				formerOrderNumbers.add(formerOrderNumber);
+			}
+		}
+		Collections.sort(formerOrderNumbers);
+
+		final List<BEAN_TYPE> sortedRelevantGroupMembers = new ArrayList<BEAN_TYPE>(relevantGroupMembers);
+		Collections.sort(sortedRelevantGroupMembers, OrderedBeanComparator.getInstance());
+
+		final int size = otherGroupMembers.size() + relevantGroupMembers.size();
+		final List<BEAN_TYPE> positions = new ArrayList<BEAN_TYPE>(Collections.<BEAN_TYPE> nCopies(size, null));
+		final List<BEAN_TYPE> appendedBeans = new LinkedList<BEAN_TYPE>();
+		for (final BEAN_TYPE bean : sortedRelevantGroupMembers) {
+			CapServiceToolkit.checkCanceled(executionCallback);
+			final Long orderNumber = bean.getOrderNumber();
+			if (orderNumber != null) {
+				int position = getCountOfLowerOrderNumbers(formerOrderNumbers, orderNumber.longValue());
+				while (position < size && positions.get(position) != null) {
+					position++;
+				}
+				if (position < size) {
+					positions.set(position, bean);
+				}
+				else {
+					appendedBeans.add(bean);
+				}
+			}
+			else {
+				appendedBeans.add(bean);
+			}
+		}
+
+		final List<BEAN_TYPE> result = new ArrayList<BEAN_TYPE>(size);
+		final Iterator<BEAN_TYPE> otherIterator = otherGroupMembers.iterator();
+		for (final BEAN_TYPE bean : positions) {
+			if (bean != null) {
+				result.add(bean);
+			}
+			else if (otherIterator.hasNext()) {
+				result.add(otherIterator.next());
+			}
+		}
+		result.addAll(appendedBeans);
+		return result;
+	}
+
+	private Long getFormerOrderNumber(final BEAN_TYPE bean, final IBeanModificationsMap<BEAN_TYPE> modifications) {
+		if (modifications == null) {
+			return null;
+		}
+		Long result = bean.getOrderNumber();
+		final Set<String> groupChangingAttributes = groupMapper.getGroupChangingAttributes();
+		for (final IBeanModification modification : modifications.getModifications(bean)) {
+			if (IOrderedBean.ORDER_NUMBER_PROPERTY.equals(modification.getPropertyName())) {
+				final Object lastOrderNumber = modification.getOldValue();
+				result = lastOrderNumber instanceof Long ? (Long) lastOrderNumber : null;
+			}
+			else if (groupChangingAttributes.contains(modification.getPropertyName())) {
+				//the former order number belongs to another group
+				return null;
+			}
+		}
+		return result;
+	}
+
+	private static int getCountOfLowerOrderNumbers(final List<Long> sortedOrderNumbers, final long orderNumber) {
+		int low = 0;
+		int high = sortedOrderNumbers.size();
+		while (low < high) {
+			final int middle = (low + high) >>> 1;
+			if (sortedOrderNumbers.get(middle).longValue() < orderNumber) {
+				low = middle + 1;
+			}
+			else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Calculates the order numbers of the relevant beans between the order numbers of their neighbors. The order
+	 * numbers of the other beans will not be changed.
+	 * 
+	 * @param orderedMembers The members in their new order
+	 * @param relevantBeans The beans that can be renumbered
+	 * @param lowerBound The order number the relevant beans must be greater than, may be null
+	 * @param newOrderNumbers Gets the calculated order numbers of the relevant beans
+	 * @param executionCallback The execution callback
+	 * 
+	 * @return False if there is no free order number between two neighbors, true otherwise
+	 */
+	private boolean calculateSparseOrderNumbers(
+		final List<BEAN_TYPE> orderedMembers,
+		final Set<BEAN_TYPE> relevantBeans,
+		final Long lowerBound,
+		final Map<BEAN_TYPE, Long> newOrderNumbers,
+		final IExecutionCallback executionCallback) {
+
+		final int size = orderedMembers.size();
+		Long lowerOrderNumberRef = lowerBound;
+		int index = 0;
+		while (index < size) {
+			CapServiceToolkit.checkCanceled(executionCallback);
+			final BEAN_TYPE bean = orderedMembers.get(index);
+			if (!relevantBeans.contains(bean)) {
+				final Long orderNumber = bean.getOrderNumber();
+				if (lowerOrderNumberRef == null || orderNumber.longValue() > lowerOrderNumberRef.longValue()) {
+					lowerOrderNumberRef = orderNumber;
+				}
+				index++;
+				continue;
+			}
+
+			int end = index;
+			while (end < size && relevantBeans.contains(orderedMembers.get(end))) {
+				end++;
+			}
+
+			long orderNumber;
+			final long step;
+			if (end < size && lowerOrderNumberRef != null) {
+				final long upperOrderNumber = orderedMembers.get(end).getOrderNumber().longValue();
+				orderNumber = lowerOrderNumberRef.longValue();
+				step = (upperOrderNumber - orderNumber) / (end - index + 1);
+				if (step < 1) {
+					return false;
+				}
+			}
+			else if (end < size) {
+				//no lower neighbor, so count down from the upper neighbor
+				orderNumber = orderedMembers.get(end).getOrderNumber().longValue() - (end - index + 1) * orderNumberGap;
+				step = orderNumberGap;
+			}
+			else if (lowerOrderNumberRef != null) {
+				orderNumber = lowerOrderNumberRef.longValue();
+				step = orderNumberGap;
+			}
+			else {
+				//the first order number is zero
+				orderNumber = -orderNumberGap;
+				step = orderNumberGap;
+			}
+
+			for (; index < end; index++) {
+				orderNumber = orderNumber + step;
+				newOrderNumbers.put(orderedMembers.get(index), Long.valueOf(orderNumber));
+			}
+			lowerOrderNumberRef = Long.valueOf(orderNumber);
+		}
+		return true;
+	}
+
+	private void renumberSparseOrderNumbers(
+		final List<BEAN_TYPE> orderedGroupMembers,
+		final IExecutionCallback executionCallback) {
+		long orderNumber = 0;
+		for (final BEAN_TYPE bean : orderedGroupMembers) {
+			CapServiceToolkit.checkCanceled(executionCallback);
+			final Long orderNumberRef = bean.getOrderNumber();
+			if (orderNumberRef == null || orderNumberRef.longValue() != orderNumber) {
+				bean.setOrderNumber(Long.valueOf(orderNumber));
+			}
+			orderNumber = orderNumber + orderNumberGap;
+		}
+	}
+
 	private List<BEAN_TYPE> readAllMembersOfGroupFromReader(final Object group, final IExecutionCallback executionCallback) {
-		final List<IBeanKey> parent = Collections.emptyList();
-		return beanReader.read(
-				parent,
-				createReadFilter(group),
+		return readMembersOfGroupFromReader(
+				group,
+				createOrderNumberNotNullFilter(),
 				ORDER_NUMBER_ASC_SORTING,
-				0,
 				MAX_BEANS + 1,
-				null,
 				executionCallback);
 	}
 
-	private IFilter createReadFilter(final Object group) {
+	private List<BEAN_TYPE> readMembersOfGroupFromReader(
+		final Object group,
+		final IFilter orderNumberFilter,
+		final List<Sort> sorting,
+		final int maxRows,
+		final IExecutionCallback executionCallback) {
+		final List<IBeanKey> parent = Collections.emptyList();
+		return beanReader.read(parent, createReadFilter(group, orderNumberFilter), sorting, 0, maxRows, null, executionCallback);
+	}
+
+	private IFilter createReadFilter(final Object group, final IFilter orderNumberFilter) {
 		final IFilter groupFilter = groupMapper.createGroupFilter(group);
-		final IFilter orderNumberNotNullFilter = createOrderNumberNotNullFilter();
 		if (groupFilter == null) {
-			return orderNumberNotNullFilter;
+			return orderNumberFilter;
 		}
 		else {
-			return BooleanFilter.create(groupFilter, orderNumberNotNullFilter);
+			return BooleanFilter.create(groupFilter, orderNumberFilter);
 		}
 	}
 
@@ -322,6 +797,54 @@ final class OrderedBeansCrudInterceptorImpl<BEAN_TYPE extends IOrderedBean> exte
 		return builder.build();
 	}
 
+	private IFilter createOrderNumberFilter(final ArithmeticOperator operator, final Long... orderNumbers) {
+		final IArithmeticFilterBuilder builder = ArithmeticFilter.builder();
+		builder.setPropertyName(IOrderedBean.ORDER_NUMBER_PROPERTY);
+		builder.setOperator(operator);
+		builder.setParameters(orderNumbers);
+		return builder.build();
+	}
+
+	/**
+	 * A range of order numbers and the relevant beans that will be positioned inside of it
+	 */
+	private final class OrderNumberRange implements Comparable<OrderNumberRange> {
+
+		private final List<BEAN_TYPE> beans;
+		private final long lower;
+		private long upper;
+
+		OrderNumberRange(final BEAN_TYPE bean, final long lower, final long upper) {
+			this.beans = new LinkedList<BEAN_TYPE>();
+			this.beans.add(bean);
+			this.lower = lower;
+			this.upper = upper;
+		}
+
+		void merge(final OrderNumberRange range) {
+			beans.addAll(range.beans);
+			upper = Math.max(upper, range.upper);
+		}
+
+		List<BEAN_TYPE> getBeans() {
+			return beans;
+		}
+
+		long getLower() {
+			return lower;
+		}
+
+		long getUpper() {
+			return upper;
+		}
+
+		@Override
+		public int compareTo(final OrderNumberRange range) {
+			return lower < range.lower ? -1 : (lower == range.lower ? 0 : 1);
+		}
+
+	}
+
 	/**
 	 * Filters all created beans
 	 */
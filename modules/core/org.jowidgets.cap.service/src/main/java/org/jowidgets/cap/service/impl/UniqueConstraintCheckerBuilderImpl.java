@@ -65,9 +65,8 @@ final class UniqueConstraintCheckerBuilderImpl implements IUniqueConstraintCheck
 		this.propertyNames.clear();
 		for (final String propertyName : propertyNames) {
 			Assert.paramNotEmpty(propertyName, "propertyName");
-			propertyNames.add(propertyName);
+			this.propertyNames.add(propertyName);
 		}
-		this.propertyNames.addAll(propertyNames);
 		return this;
 	}
 
@@ -28,31 +28,52 @@
 
 package org.jowidgets.cap.service.impl;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.LinkedList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.jowidgets.cap.common.api.bean.IBean;
 import org.jowidgets.cap.common.api.bean.IBeanData;
+import org.jowidgets.cap.common.api.bean.IBeanDto;
 import org.jowidgets.cap.common.api.bean.IBeanKey;
 import org.jowidgets.cap.common.api.bean.IBeanModification;
 import org.jowidgets.cap.common.api.exception.UniqueConstraintViolationException;
 import org.jowidgets.cap.common.api.execution.IExecutionCallback;
+import org.jowidgets.cap.common.api.filter.ArithmeticFilter;
+import org.jowidgets.cap.common.api.filter.ArithmeticOperator;
+import org.jowidgets.cap.common.api.filter.BooleanFilter;
+import org.jowidgets.cap.common.api.filter.BooleanOperator;
+import org.jowidgets.cap.common.api.filter.IBooleanFilterBuilder;
 import org.jowidgets.cap.common.api.filter.IFilter;
 import org.jowidgets.cap.common.api.service.IReaderService;
+import org.jowidgets.cap.common.api.sort.SortOrder;
 import org.jowidgets.cap.common.tools.execution.SyncResultCallback;
+import org.jowidgets.cap.common.tools.sort.Sort;
+import org.jowidgets.cap.service.api.CapServiceToolkit;
 import org.jowidgets.cap.service.api.bean.IBeanAccess;
+import org.jowidgets.cap.service.api.bean.IBeanPropertyAccessor;
 import org.jowidgets.cap.service.api.bean.IUniqueConstraintChecker;
 import org.jowidgets.cap.service.api.factory.IBeanServiceFactory;
 import org.jowidgets.util.Assert;
 
 final class UniqueConstraintCheckerImpl implements IUniqueConstraintChecker {
 
+	private static final int MAX_TUPLES_PER_FILTER = 500;
+	private static final int PAGE_SIZE = 1000;
+
+	private static final List<Sort> ID_SORTING = Collections.singletonList(new Sort(IBean.ID_PROPERTY, SortOrder.ASC));
+
 	private final List<String> propertyNames;
 	private final IReaderService<Void> readerService;
-	@SuppressWarnings("unused")
 	private final IBeanAccess<IBean> beanAccess;
+	private final IBeanPropertyAccessor<IBean> beanPropertyAccessor;
 
 	UniqueConstraintCheckerImpl(
 		final IBeanServiceFactory serviceFactory,
@@ -63,35 +84,159 @@ final class UniqueConstraintCheckerImpl implements IUniqueConstraintChecker {
 		Assert.paramNotNull(beanTypeId, "beanTypeId");
 		Assert.paramNotEmpty(propertyNames, "propertyNames");
 
-		this.propertyNames = Collections.unmodifiableList(new LinkedList<String>(propertyNames));
+		this.propertyNames = Collections.unmodifiableList(new ArrayList<String>(propertyNames));
 		this.readerService = serviceFactory.readerService(beanType, beanTypeId, propertyNames);
 		this.beanAccess = serviceFactory.beanAccess(beanType, beanTypeId);
-
+		this.beanPropertyAccessor = CapServiceToolkit.beanPropertyAccessor(beanAccess);
 	}
 
 	@Override
 	public void checkCreation(final Collection<? extends IBeanData> beansData, final IExecutionCallback executionCallback) {
-		final IFilter filter = createFilter(beansData);
-		final SyncResultCallback<Integer> resultCallback = new SyncResultCallback<Integer>();
-		final List<IBeanKey> parentBeanKeys = Collections.emptyList();
-		this.readerService.count(resultCallback, parentBeanKeys, filter, null, executionCallback);
-		final Integer result = resultCallback.getResultSynchronious();
-		if (result != null && result.intValue() > 0) {
-			throw new UniqueConstraintViolationException(propertyNames);
+		Assert.paramNotNull(beansData, "beansData");
+
+		final Set<List<Object>> tuples = new LinkedHashSet<List<Object>>();
+		for (final IBeanData beanData : beansData) {
+			CapServiceToolkit.checkCanceled(executionCallback);
+			final List<Object> tuple = new ArrayList<Object>(propertyNames.size());
+			for (final String propertyName : propertyNames) {
+				tuple.add(beanData.getValue(propertyName));
+			}
+			addTuple(tuples, tuple);
 		}
-	}
 
-	private IFilter createFilter(final Collection<? extends IBeanData> beansData) {
-		// TODO MG implement createFilter method
-		return null;
+		checkTuples(tuples, null, executionCallback);
 	}
 
 	@Override
 	public void checkUpdate(
 		final Collection<? extends IBeanModification> modifications,
 		final IExecutionCallback executionCallback) {
-		// TODO MG implement check update method
+		Assert.paramNotNull(modifications, "modifications");
+
+		final Map<Object, Map<String, Object>> modifiedValues = new LinkedHashMap<Object, Map<String, Object>>();
+		final List<IBeanKey> modifiedBeanKeys = new ArrayList<IBeanKey>();
+		for (final IBeanModification modification : modifications) {
+			if (propertyNames.contains(modification.getPropertyName())) {
+				Map<String, Object> values = modifiedValues.get(modification.getId());
+				if (values == null) {
+					values = new HashMap<String, Object>();
+					modifiedValues.put(modification.getId(), values);
+					modifiedBeanKeys.add(modification);
+				}
+				values.put(modification.getPropertyName(), modification.getNewValue());
+			}
+		}
+
+		if (modifiedBeanKeys.isEmpty()) {
+			return;
+		}
+
+		final Set<List<Object>> tuples = new LinkedHashSet<List<Object>>();
+		for (final IBean bean : beanAccess.getBeans(modifiedBeanKeys, executionCallback)) {
+			CapServiceToolkit.checkCanceled(executionCallback);
+			final Map<String, Object> values = modifiedValues.get(bean.getId());
+			final List<Object> tuple = new ArrayList<Object>(propertyNames.size());
+			for (final String propertyName : propertyNames) {
+				if (values != null && values.containsKey(propertyName)) {
+					tuple.add(values.get(propertyName));
+				}
+				else {
+					tuple.add(beanPropertyAccessor.getValue(bean, propertyName));
+				}
+			}
+			addTuple(tuples, tuple);
+		}
+
+		//the stored values of the modified beans will be replaced, so they must not be counted
+		checkTuples(tuples, modifiedValues.keySet(), executionCallback);
+	}
+
+	private void addTuple(final Set<List<Object>> tuples, final List<Object> tuple) {
+		//like for database unique constraints, values that contain null do not violate the constraint
+		if (!tuple.contains(null) && !tuples.add(tuple)) {
+			throw new UniqueConstraintViolationException(propertyNames);
+		}
+	}
+
+	private void checkTuples(
+		final Collection<List<Object>> tuples,
+		final Set<Object> excludedIds,
+		final IExecutionCallback executionCallback) {
+
+		final Set<List<Object>> tuplesOfFilter = new HashSet<List<Object>>();
+		for (final List<Object> tuple : tuples) {
+			tuplesOfFilter.add(tuple);
+			if (tuplesOfFilter.size() == MAX_TUPLES_PER_FILTER) {
+				checkTuplesOfFilter(tuplesOfFilter, excludedIds, executionCallback);
+				tuplesOfFilter.clear();
+			}
+		}
+		if (!tuplesOfFilter.isEmpty()) {
+			checkTuplesOfFilter(tuplesOfFilter, excludedIds, executionCallback);
+		}
+	}
+
+	/**
+	 * Reads the beans that match the tuples. The reader may compare strings case insensitive or treat wildcards
+	 * as patterns, so the read beans will be compared exactly with the tuples, like the duplicates of the tuples.
+	 */
+	private void checkTuplesOfFilter(
+		final Set<List<Object>> tuples,
+		final Set<Object> excludedIds,
+		final IExecutionCallback executionCallback) {
 
+		final IFilter filter = createTuplesFilter(tuples);
+		final List<IBeanKey> parentBeanKeys = Collections.emptyList();
+		int firstRow = 0;
+		List<IBeanDto> page;
+		do {
+			CapServiceToolkit.checkCanceled(executionCallback);
+			final SyncResultCallback<List<IBeanDto>> resultCallback = new SyncResultCallback<List<IBeanDto>>();
+			readerService.read(resultCallback, parentBeanKeys, filter, ID_SORTING, firstRow, PAGE_SIZE, null, executionCallback);
+			page = resultCallback.getResultSynchronious();
+			for (final IBeanDto bean : page) {
+				//the stored values of the excluded beans will be replaced
+				if ((excludedIds == null || !excludedIds.contains(bean.getId())) && tuples.contains(getTuple(bean))) {
+					throw new UniqueConstraintViolationException(propertyNames);
+				}
+			}
+			firstRow = firstRow + PAGE_SIZE;
+		} while (page.size() == PAGE_SIZE);
+	}
+
+	private List<Object> getTuple(final IBeanDto bean) {
+		final List<Object> result = new ArrayList<Object>(propertyNames.size());
+		for (final String propertyName : propertyNames) {
+			result.add(bean.getValue(propertyName));
+		}
+		return result;
+	}
+
+	private IFilter createTuplesFilter(final Collection<List<Object>> tuples) {
+		if (propertyNames.size() == 1) {
+			final Object[] values = new Object[tuples.size()];
+			int index = 0;
+			for (final List<Object> tuple : tuples) {
+				values[index] = tuple.get(0);
+				index++;
+			}
+			return ArithmeticFilter.create(propertyNames.get(0), ArithmeticOperator.CONTAINS_ANY, values);
+		}
+		else {
+			final IBooleanFilterBuilder builder = BooleanFilter.builder().setOperator(BooleanOperator.OR);
+			for (final List<Object> tuple : tuples) {
+				builder.addFilter(createTupleFilter(tuple));
+			}
+			return builder.build();
+		}
+	}
+
+	private IFilter createTupleFilter(final List<Object> tuple) {
+		final IBooleanFilterBuilder builder = BooleanFilter.builder().setOperator(BooleanOperator.AND);
+		for (int index = 0; index < propertyNames.size(); index++) {
+			builder.addFilter(ArithmeticFilter.create(propertyNames.get(index), ArithmeticOperator.EQUAL, tuple.get(index)));
+		}
+		return builder.build();
 	}
 
 }
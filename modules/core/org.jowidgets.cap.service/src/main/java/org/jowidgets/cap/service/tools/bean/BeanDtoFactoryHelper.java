@@ -28,13 +28,14 @@
 
 package org.jowidgets.cap.service.tools.bean;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
 import java.util.List;
 
 import org.jowidgets.cap.common.api.bean.IBeanDto;
 import org.jowidgets.cap.common.api.execution.IExecutionCallback;
 import org.jowidgets.cap.service.api.CapServiceToolkit;
+import org.jowidgets.cap.service.api.bean.IBeanDtoBatchFactory;
 import org.jowidgets.cap.service.api.bean.IBeanDtoFactory;
 import org.jowidgets.util.Assert;
 
@@ -51,7 +52,12 @@ public final class BeanDtoFactoryHelper {
 		Assert.paramNotNull(beanDtoFactory, "beanDtoFactory");
 		Assert.paramNotNull(beans, "beans");
 
-		final List<IBeanDto> result = new LinkedList<IBeanDto>();
+		if (beanDtoFactory instanceof IBeanDtoBatchFactory) {
+			final IBeanDtoBatchFactory factory = (IBeanDtoBatchFactory) beanDtoFactory;
+			return factory.createDtos(beans, executionCallback);
+		}
+
+		final List<IBeanDto> result = new ArrayList<IBeanDto>(beans.size());
 		for (final BEAN_TYPE bean : beans) {
 			checkCanceled(executionCallback);
 			final IBeanDtoFactory factory = beanDtoFactory;
@@ -0,0 +1,330 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.cap.service.tools.reader;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.jowidgets.cap.common.api.bean.IBeanDto;
+import org.jowidgets.cap.common.api.bean.IBeanKey;
+import org.jowidgets.cap.common.api.execution.IExecutionCallback;
+import org.jowidgets.cap.common.api.filter.IFilter;
+import org.jowidgets.cap.common.api.sort.ISort;
+import org.jowidgets.cap.common.api.sort.ISortConverterMap;
+import org.jowidgets.cap.common.api.sort.SortConverterMap;
+import org.jowidgets.cap.service.api.CapServiceToolkit;
+import org.jowidgets.cap.service.api.adapter.ISyncReaderService;
+import org.jowidgets.cap.service.api.bean.BeanDtoCollectionSorter;
+import org.jowidgets.cap.service.api.bean.IBeanDtoCollectionPageSorter;
+import org.jowidgets.cap.service.api.bean.IBeanDtoFactory;
+import org.jowidgets.cap.service.tools.bean.BeanDtoFactoryHelper;
+import org.jowidgets.util.Assert;
+import org.jowidgets.util.EmptyCheck;
+
+/**
+ * An abstract implementation of the reader service that reads from an in memory snapshot of bean dtos.
+ * 
+ * The snapshot will be loaded on the first read without parent beans and without parameter and will then be used
+ * for all such reads. Filters with equality conditions on indexed properties will be answered from hash indexes,
+ * sorted reads use cached sorted views, so only the requested page will be filtered and returned.
+ * 
+ * Changes of the beans must be reported with {@link #beansCreated(Collection)}, {@link #beansUpdated(Collection)}
+ * and {@link #beansDeleted(Collection)}, or the snapshot must be dropped with {@link #invalidate()}. The snapshot
+ * can not detect changes that will not be reported, e.g. changes made by other services, other processes or
+ * directly in the data store. Reads will return stale data then until the snapshot will be invalidated, so this
+ * reader should only be used if all writes go through services that report their changes.
+ * 
+ * Sorted views will be created on demand while the read lock is held, so writes wait for their creation. The
+ * creation will be aborted if the read will be canceled.
+ * 
+ * Reads with parent beans or with a parameter will not use the snapshot, they will be processed like the
+ * {@link AbstractSimpleReaderService} does.
+ */
+public abstract class AbstractIndexedReaderService<BEAN_TYPE, PARAM_TYPE> implements ISyncReaderService<PARAM_TYPE> {
+
+	private final ISortConverterMap sortConverters;
+	private final IBeanDtoCollectionPageSorter collectionSorter;
+	private final IBeanDtoFactory<? extends BEAN_TYPE> beanFactory;
+	private final List<String> indexedProperties;
+	private final ReadWriteLock lock;
+
+	private BeanDtoSnapshot snapshot;
+	private long version;
+
+	protected AbstractIndexedReaderService(final Class<?> beanType, final IBeanDtoFactory<? extends BEAN_TYPE> beanFactory) {
+		this(beanType, beanFactory, null);
+	}
+
+	protected AbstractIndexedReaderService(
+		final Class<?> beanType,
+		final IBeanDtoFactory<? extends BEAN_TYPE> beanFactory,
+		final Collection<String> indexedProperties) {
+		this(beanType != null ? SortConverterMap.create(beanType) : null, beanFactory, indexedProperties);
+	}
+
+	/**
+	 * Creates a new instance
+	 * 
+	 * @param sortConverters The sort converters to use, may be null
+	 * @param beanFactory The bean factory to create the dtos, must not be null
+	 * @param indexedProperties The properties to create hash indexes for, may be null
+	 */
+	protected AbstractIndexedReaderService(
+		final ISortConverterMap sortConverters,
+		final IBeanDtoFactory<? extends BEAN_TYPE> beanFactory,
+		final Collection<String> indexedProperties) {
+		Assert.paramNotNull(beanFactory, "beanFactory");
+
+		this.sortConverters = sortConverters;
+		if (sortConverters != null) {
+			this.collectionSorter = BeanDtoCollectionSorter.pageSorter(BeanDtoCollectionSorter.create(sortConverters));
+		}
+		else {
+			this.collectionSorter = BeanDtoCollectionSorter.pageSorter(BeanDtoCollectionSorter.create());
+		}
+		this.beanFactory = beanFactory;
+		if (indexedProperties != null) {
+			this.indexedProperties = new ArrayList<String>(indexedProperties);
+		}
+		else {
+			this.indexedProperties = Collections.emptyList();
+		}
+		this.lock = new ReentrantReadWriteLock();
+	}
+
+	protected abstract List<? extends BEAN_TYPE> getAllBeans(
+		List<? extends IBeanKey> parentBeans,
+		PARAM_TYPE parameter,
+		IExecutionCallback executionCallback);
+
+	@Override
+	public final List<IBeanDto> read(
+		final List<? extends IBeanKey> parentBeans,
+		final IFilter filter,
+		final List<? extends ISort> sortedProperties,
+		final int firstRow,
+		final int maxRows,
+		final PARAM_TYPE parameter,
+		final IExecutionCallback executionCallback) {
+
+		if (!isSnapshotRead(parentBeans, parameter)) {
+			return readWithoutSnapshot(parentBeans, filter, sortedProperties, firstRow, maxRows, parameter, executionCallback);
+		}
+
+		final BeanDtoSnapshot currentSnapshot = lockSnapshot(executionCallback);
+		try {
+			return currentSnapshot.read(filter, sortedProperties, firstRow, maxRows, executionCallback);
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public Integer count(
+		final List<? extends IBeanKey> parentBeans,
+		final IFilter filter,
+		final PARAM_TYPE parameter,
+		final IExecutionCallback executionCallback) {
+
+		if (!isSnapshotRead(parentBeans, parameter)) {
+			final List<IBeanDto> beanDtos = createDtos(parentBeans, parameter, executionCallback);
+			if (filter == null) {
+				return Integer.valueOf(beanDtos.size());
+			}
+			else {
+				final List<IBeanDto> filteredDtos = CapServiceToolkit.beanDtoCollectionFilter().filter(
+					beanDtos,
+					filter,
+					executionCallback);
+				return Integer.valueOf(filteredDtos.size());
+			}
+		}
+
+		final BeanDtoSnapshot currentSnapshot = lockSnapshot(executionCallback);
+		try {
+			return Integer.valueOf(currentSnapshot.count(filter, executionCallback));
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Must be invoked after beans was created
+	 * 
+	 * @param beans The created beans, must not be null
+	 */
+	public void beansCreated(final Collection<? extends BEAN_TYPE> beans) {
+		beansChanged(beans);
+	}
+
+	/**
+	 * Must be invoked after beans was updated
+	 * 
+	 * @param beans The updated beans, must not be null
+	 */
+	public void beansUpdated(final Collection<? extends BEAN_TYPE> beans) {
+		beansChanged(beans);
+	}
+
+	/**
+	 * Must be invoked after beans was deleted
+	 * 
+	 * @param beans The deleted beans, must not be null
+	 */
+	public void beansDeleted(final Collection<? extends BEAN_TYPE> beans) {
+		Assert.paramNotNull(beans, "beans");
+		final List<IBeanDto> beanDtos = BeanDtoFactoryHelper.createDtos(beanFactory, beans);
+		lock.writeLock().lock();
+		try {
+			if (snapshot != null) {
+				for (final IBeanDto beanDto : beanDtos) {
+					snapshot.remove(beanDto.getId());
+				}
+			}
+			version++;
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Drops the snapshot, it will be loaded again on the next read
+	 */
+	public void invalidate() {
+		lock.writeLock().lock();
+		try {
+			snapshot = null;
+			version++;
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * @return The version of the snapshot, that will be incremented on each change
+	 */
+	public long getSnapshotVersion() {
+		lock.readLock().lock();
+		try {
+			return version;
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private void beansChanged(final Collection<? extends BEAN_TYPE> beans) {
+		Assert.paramNotNull(beans, "beans");
+		final List<IBeanDto> beanDtos = BeanDtoFactoryHelper.createDtos(beanFactory, beans);
+		lock.writeLock().lock();
+		try {
+			if (snapshot != null) {
+				for (final IBeanDto beanDto : beanDtos) {
+					snapshot.put(beanDto);
+				}
+			}
+			version++;
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private boolean isSnapshotRead(final List<? extends IBeanKey> parentBeans, final PARAM_TYPE parameter) {
+		return EmptyCheck.isEmpty(parentBeans) && parameter == null;
+	}
+
+	/**
+	 * Gets the snapshot and loads it if necessary. The read lock is held when this method returns,
+	 * the invoker must release it.
+	 */
+	private BeanDtoSnapshot lockSnapshot(final IExecutionCallback executionCallback) {
+		lock.readLock().lock();
+		if (snapshot != null) {
+			return snapshot;
+		}
+		lock.readLock().unlock();
+
+		lock.writeLock().lock();
+		try {
+			if (snapshot == null) {
+				final List<IBeanDto> beanDtos = createDtos(Collections.<IBeanKey> emptyList(), null, executionCallback);
+				snapshot = new BeanDtoSnapshot(beanDtos, indexedProperties, sortConverters);
+				version++;
+			}
+			// downgrade to the read lock
+			lock.readLock().lock();
+			return snapshot;
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private List<IBeanDto> createDtos(
+		final List<? extends IBeanKey> parentBeans,
+		final PARAM_TYPE parameter,
+		final IExecutionCallback executionCallback) {
+		final List<? extends BEAN_TYPE> beans = getAllBeans(parentBeans, parameter, executionCallback);
+		return BeanDtoFactoryHelper.createDtos(beanFactory, beans, executionCallback);
+	}
+
+	private List<IBeanDto> readWithoutSnapshot(
+		final List<? extends IBeanKey> parentBeans,
+		final IFilter filter,
+		final List<? extends ISort> sortedProperties,
+		final int firstRow,
+		final int maxRows,
+		final PARAM_TYPE parameter,
+		final IExecutionCallback executionCallback) {
+
+		List<IBeanDto> result = createDtos(parentBeans, parameter, executionCallback);
+		if (filter != null) {
+			result = CapServiceToolkit.beanDtoCollectionFilter().filter(result, filter, executionCallback);
+		}
+		if (sortedProperties != null && sortedProperties.size() > 0) {
+			return collectionSorter.sort(result, sortedProperties, firstRow, maxRows, executionCallback);
+		}
+		else if (result.size() > firstRow) {
+			return new ArrayList<IBeanDto>(result.subList(firstRow, (int) Math.min((long) firstRow + maxRows, result.size())));
+		}
+		else {
+			return new ArrayList<IBeanDto>();
+		}
+	}
+
+}
@@ -46,7 +46,7 @@ import org.jowidgets.cap.common.api.sort.ISortConverterMap;
 import org.jowidgets.cap.common.api.sort.SortConverterMap;
 import org.jowidgets.cap.service.api.CapServiceToolkit;
 import org.jowidgets.cap.service.api.bean.BeanDtoCollectionSorter;
-import org.jowidgets.cap.service.api.bean.IBeanDtoCollectionSorter;
+import org.jowidgets.cap.service.api.bean.IBeanDtoCollectionPageSorter;
 import org.jowidgets.cap.service.api.bean.IBeanPropertyAccessor;
 import org.jowidgets.cap.service.api.bean.IBeanReader;
 import org.jowidgets.util.Assert;
@@ -60,7 +60,7 @@ import org.jowidgets.util.EmptyCheck;
  */
 public abstract class AbstractSimpleBeanReader<BEAN_TYPE, PARAM_TYPE> implements IBeanReader<BEAN_TYPE, PARAM_TYPE> {
 
-	private final IBeanDtoCollectionSorter collectionSorter;
+	private final IBeanDtoCollectionPageSorter collectionSorter;
 	private final IBeanPropertyAccessor<BEAN_TYPE> propertyAccessor;
 	private final Collection<IFilter> additionalFilters;
 
@@ -104,12 +104,12 @@ public abstract class AbstractSimpleBeanReader<BEAN_TYPE, PARAM_TYPE> implements
 		}
 	}
 
-	private static IBeanDtoCollectionSorter getCollectionSorter(final ISortConverterMap sortConverters) {
+	private static IBeanDtoCollectionPageSorter getCollectionSorter(final ISortConverterMap sortConverters) {
 		if (sortConverters != null) {
-			return BeanDtoCollectionSorter.create(sortConverters);
+			return BeanDtoCollectionSorter.pageSorter(BeanDtoCollectionSorter.create(sortConverters));
 		}
 		else {
-			return BeanDtoCollectionSorter.create();
+			return BeanDtoCollectionSorter.pageSorter(BeanDtoCollectionSorter.create());
 		}
 	}
 
@@ -141,10 +141,15 @@ public abstract class AbstractSimpleBeanReader<BEAN_TYPE, PARAM_TYPE> implements
 				result = CapServiceToolkit.beanDtoCollectionFilter().filter(result, decoratedFilter, executionCallback);
 			}
 			if (sortedProperties != null && sortedProperties.size() > 0) {
-				result = collectionSorter.sort(result, sortedProperties, executionCallback);
+				final ArrayList<IBeanDto> page = collectionSorter.sort(
+						result,
+						sortedProperties,
+						firstRow,
+						maxRows,
+						executionCallback);
+				return createBeansSubList(page, 0, page.size(), executionCallback);
 			}
-
-			if (result.size() >= firstRow) {
+			else if (result.size() >= firstRow) {
 				return createBeansSubList(result, firstRow, Math.min(firstRow + maxRows, result.size()), executionCallback);
 			}
 			else {
@@ -37,6 +37,7 @@ import org.jowidgets.cap.common.api.bean.IBeanDto;
 import org.jowidgets.cap.common.api.bean.IBeanKey;
 import org.jowidgets.cap.common.api.execution.IExecutionCallback;
 import org.jowidgets.cap.common.api.filter.BooleanOperator;
+import org.jowidgets.cap.common.api.filter.IBeanDtoPredicate;
 import org.jowidgets.cap.common.api.filter.IBooleanFilterBuilder;
 import org.jowidgets.cap.common.api.filter.IFilter;
 import org.jowidgets.cap.common.api.sort.ISort;
@@ -45,7 +46,7 @@ import org.jowidgets.cap.common.api.sort.SortConverterMap;
 import org.jowidgets.cap.service.api.CapServiceToolkit;
 import org.jowidgets.cap.service.api.adapter.ISyncReaderService;
 import org.jowidgets.cap.service.api.bean.BeanDtoCollectionSorter;
-import org.jowidgets.cap.service.api.bean.IBeanDtoCollectionSorter;
+import org.jowidgets.cap.service.api.bean.IBeanDtoCollectionPageSorter;
 import org.jowidgets.cap.service.api.bean.IBeanDtoFactory;
 import org.jowidgets.cap.service.tools.bean.BeanDtoFactoryHelper;
 import org.jowidgets.util.Assert;
@@ -59,7 +60,7 @@ import org.jowidgets.util.EmptyCheck;
  */
 public abstract class AbstractSimpleReaderService<BEAN_TYPE, PARAM_TYPE> implements ISyncReaderService<PARAM_TYPE> {
 
-	private final IBeanDtoCollectionSorter collectionSorter;
+	private final IBeanDtoCollectionPageSorter collectionSorter;
 	private final IBeanDtoFactory<? extends BEAN_TYPE> beanFactory;
 	private final Collection<IFilter> additionalFilters;
 
@@ -100,12 +101,12 @@ public abstract class AbstractSimpleReaderService<BEAN_TYPE, PARAM_TYPE> impleme
 		}
 	}
 
-	private static IBeanDtoCollectionSorter getCollectionSorter(final ISortConverterMap sortConverters) {
+	private static IBeanDtoCollectionPageSorter getCollectionSorter(final ISortConverterMap sortConverters) {
 		if (sortConverters != null) {
-			return BeanDtoCollectionSorter.create(sortConverters);
+			return BeanDtoCollectionSorter.pageSorter(BeanDtoCollectionSorter.create(sortConverters));
 		}
 		else {
-			return BeanDtoCollectionSorter.create();
+			return BeanDtoCollectionSorter.pageSorter(BeanDtoCollectionSorter.create());
 		}
 	}
 
@@ -140,10 +141,14 @@ public abstract class AbstractSimpleReaderService<BEAN_TYPE, PARAM_TYPE> impleme
 				result = CapServiceToolkit.beanDtoCollectionFilter().filter(result, decoratedFilter, executionCallback);
 			}
 			if (sortedProperties != null && sortedProperties.size() > 0) {
-				result = collectionSorter.sort(result, sortedProperties, executionCallback);
+				return new LinkedList<IBeanDto>(collectionSorter.sort(
+						result,
+						sortedProperties,
+						firstRow,
+						maxRows,
+						executionCallback));
 			}
-
-			if (result.size() >= firstRow) {
+			else if (result.size() >= firstRow) {
 				return new LinkedList<IBeanDto>(result.subList(firstRow, Math.min(firstRow + maxRows, result.size())));
 			}
 			else {
@@ -169,8 +174,15 @@ public abstract class AbstractSimpleReaderService<BEAN_TYPE, PARAM_TYPE> impleme
 					beanFactory,
 					getAllBeans(parentBeans, parameter, executionCallback),
 					executionCallback);
-			return Integer.valueOf(
-					CapServiceToolkit.beanDtoCollectionFilter().filter(result, decoratedFilter, executionCallback).size());
+			final IBeanDtoPredicate predicate = CapCommonToolkit.beanDtoFilter().compile(decoratedFilter);
+			int count = 0;
+			for (final IBeanDto beanDto : result) {
+				CapServiceToolkit.checkCanceled(executionCallback);
+				if (predicate.accept(beanDto)) {
+					count++;
+				}
+			}
+			return Integer.valueOf(count);
 		}
 	}
 
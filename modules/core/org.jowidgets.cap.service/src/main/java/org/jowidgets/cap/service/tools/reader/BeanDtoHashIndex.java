@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.cap.service.tools.reader;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A hash index for one property of the snapshot rows.
+ * 
+ * String values will be indexed lower case, collection values will be indexed with each element. This matches
+ * the equality of the in memory filter for parameters without wild cards, so index lookups always yield a
+ * superset of the matching rows.
+ */
+final class BeanDtoHashIndex {
+
+	private final String propertyName;
+	private final Map<Object, Set<BeanDtoSnapshotRow>> entries;
+
+	BeanDtoHashIndex(final String propertyName) {
+		this.propertyName = propertyName;
+		this.entries = new HashMap<Object, Set<BeanDtoSnapshotRow>>();
+	}
+
+	String getPropertyName() {
+		return propertyName;
+	}
+
+	void add(final BeanDtoSnapshotRow row) {
+		final Object value = row.getBeanDto().getValue(propertyName);
+		if (value instanceof Collection<?>) {
+			for (final Object element : (Collection<?>) value) {
+				add(getKey(element), row);
+			}
+		}
+		else {
+			add(getKey(value), row);
+		}
+	}
+
+	private void add(final Object key, final BeanDtoSnapshotRow row) {
+		Set<BeanDtoSnapshotRow> rows = entries.get(key);
+		if (rows == null) {
+			rows = new HashSet<BeanDtoSnapshotRow>();
+			entries.put(key, rows);
+		}
+		rows.add(row);
+	}
+
+	void remove(final BeanDtoSnapshotRow row) {
+		final Object value = row.getBeanDto().getValue(propertyName);
+		if (value instanceof Collection<?>) {
+			for (final Object element : (Collection<?>) value) {
+				remove(getKey(element), row);
+			}
+		}
+		else {
+			remove(getKey(value), row);
+		}
+	}
+
+	private void remove(final Object key, final BeanDtoSnapshotRow row) {
+		final Set<BeanDtoSnapshotRow> rows = entries.get(key);
+		if (rows != null) {
+			rows.remove(row);
+			if (rows.isEmpty()) {
+				entries.remove(key);
+			}
+		}
+	}
+
+	/**
+	 * Gets the candidates for an equality parameter of the filter
+	 * 
+	 * @param parameter The parameter, a collection parameter matches any of its elements
+	 * @param result The result to add the candidates to
+	 * 
+	 * @return false if the parameter can not be looked up with this index, true otherwise
+	 */
+	boolean lookUp(final Object parameter, final Set<BeanDtoSnapshotRow> result) {
+		if (parameter instanceof Collection<?>) {
+			for (final Object element : (Collection<?>) parameter) {
+				if (!lookUpElement(element, result)) {
+					return false;
+				}
+			}
+			return true;
+		}
+		else {
+			return lookUpElement(parameter, result);
+		}
+	}
+
+	private boolean lookUpElement(final Object parameter, final Set<BeanDtoSnapshotRow> result) {
+		if (parameter instanceof String && !isLiteral((String) parameter)) {
+			return false;
+		}
+		final Set<BeanDtoSnapshotRow> rows = entries.get(getKey(parameter));
+		if (rows != null) {
+			result.addAll(rows);
+		}
+		return true;
+	}
+
+	private static Object getKey(final Object value) {
+		if (value instanceof String) {
+			return ((String) value).toLowerCase();
+		}
+		else {
+			return value;
+		}
+	}
+
+	/**
+	 * Strings with wild cards or unescaped regex characters will be matched with a pattern by the filter
+	 */
+	private static boolean isLiteral(final String parameter) {
+		for (int i = 0; i < parameter.length(); i++) {
+			switch (parameter.charAt(i)) {
+				case '%':
+				case '*':
+				case '_':
+				case '?':
+				case '{':
+				case '}':
+				case '|':
+					return false;
+
+				default:
+					break;
+			}
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,360 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.cap.service.tools.reader;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jowidgets.cap.common.api.CapCommonToolkit;
+import org.jowidgets.cap.common.api.bean.IBeanDto;
+import org.jowidgets.cap.common.api.execution.IExecutionCallback;
+import org.jowidgets.cap.common.api.filter.ArithmeticOperator;
+import org.jowidgets.cap.common.api.filter.BooleanOperator;
+import org.jowidgets.cap.common.api.filter.IArithmeticFilter;
+import org.jowidgets.cap.common.api.filter.IBeanDtoPredicate;
+import org.jowidgets.cap.common.api.filter.IBooleanFilter;
+import org.jowidgets.cap.common.api.filter.IFilter;
+import org.jowidgets.cap.common.api.sort.BeanDtoComparator;
+import org.jowidgets.cap.common.api.sort.IBeanDtoComparator;
+import org.jowidgets.cap.common.api.sort.ISort;
+import org.jowidgets.cap.common.api.sort.ISortConverterMap;
+import org.jowidgets.cap.service.api.CapServiceToolkit;
+
+/**
+ * An in memory snapshot of bean dtos with optional hash indexes and cached sorted views.
+ * 
+ * The snapshot is not thread safe for modifications, the owner must ensure that modifications
+ * are not made concurrent to reads.
+ */
+final class BeanDtoSnapshot {
+
+	private static final int MAX_SORTED_VIEWS = 8;
+
+	// candidates of an index will be sorted instead of scanning a sorted view if they are less than size / ratio
+	private static final int CANDIDATES_SORT_RATIO = 8;
+
+	private final ISortConverterMap sortConverters;
+	private final LinkedHashMap<Object, BeanDtoSnapshotRow> rows;
+	private final Map<String, BeanDtoHashIndex> hashIndexes;
+	private final Map<String, BeanDtoSortedView> sortedViews;
+
+	private long nextSequence;
+
+	BeanDtoSnapshot(
+		final Collection<? extends IBeanDto> beanDtos,
+		final Collection<String> indexedProperties,
+		final ISortConverterMap sortConverters) {
+
+		this.sortConverters = sortConverters;
+		this.rows = new LinkedHashMap<Object, BeanDtoSnapshotRow>();
+		this.hashIndexes = new HashMap<String, BeanDtoHashIndex>();
+		this.sortedViews = Collections.synchronizedMap(new SortedViewsMap());
+
+		for (final String propertyName : indexedProperties) {
+			hashIndexes.put(propertyName, new BeanDtoHashIndex(propertyName));
+		}
+		for (final IBeanDto beanDto : beanDtos) {
+			put(beanDto);
+		}
+	}
+
+	int size() {
+		return rows.size();
+	}
+
+	void put(final IBeanDto beanDto) {
+		final Object id = beanDto.getId();
+		final BeanDtoSnapshotRow oldRow = rows.get(id);
+		if (oldRow != null) {
+			final BeanDtoSnapshotRow newRow = new BeanDtoSnapshotRow(beanDto, oldRow.getSequence());
+			rows.put(id, newRow);
+			for (final BeanDtoHashIndex index : hashIndexes.values()) {
+				index.remove(oldRow);
+				index.add(newRow);
+			}
+			final Iterator<BeanDtoSortedView> viewIterator = sortedViews.values().iterator();
+			while (viewIterator.hasNext()) {
+				final BeanDtoSortedView view = viewIterator.next();
+				if (view.remove(oldRow)) {
+					view.add(newRow);
+				}
+				else {
+					viewIterator.remove();
+				}
+			}
+		}
+		else {
+			final BeanDtoSnapshotRow newRow = new BeanDtoSnapshotRow(beanDto, nextSequence++);
+			rows.put(id, newRow);
+			for (final BeanDtoHashIndex index : hashIndexes.values()) {
+				index.add(newRow);
+			}
+			for (final BeanDtoSortedView view : sortedViews.values()) {
+				view.add(newRow);
+			}
+		}
+	}
+
+	void remove(final Object id) {
+		final BeanDtoSnapshotRow oldRow = rows.remove(id);
+		if (oldRow != null) {
+			for (final BeanDtoHashIndex index : hashIndexes.values()) {
+				index.remove(oldRow);
+			}
+			final Iterator<BeanDtoSortedView> viewIterator = sortedViews.values().iterator();
+			while (viewIterator.hasNext()) {
+				if (!viewIterator.next().remove(oldRow)) {
+					viewIterator.remove();
+				}
+			}
+		}
+	}
+
+	ArrayList<IBeanDto> read(
+		final IFilter filter,
+		final List<? extends ISort> sorting,
+		final int firstRow,
+		final int maxRows,
+		final IExecutionCallback executionCallback) {
+
+		final IBeanDtoPredicate predicate = filter != null ? CapCommonToolkit.beanDtoFilter().compile(filter) : null;
+		final Set<BeanDtoSnapshotRow> candidates = filter != null ? getCandidates(filter) : null;
+
+		final Collection<BeanDtoSnapshotRow> source;
+		if (sorting == null || sorting.isEmpty()) {
+			source = candidates != null ? sortBySequence(candidates) : rows.values();
+		}
+		else {
+			final BeanDtoSortedView view = getSortedView(sorting, executionCallback);
+			if (candidates != null && candidates.size() < rows.size() / CANDIDATES_SORT_RATIO) {
+				source = view.sort(candidates, executionCallback);
+			}
+			else {
+				source = view.getRows();
+			}
+		}
+
+		final long end = (long) firstRow + maxRows;
+		final ArrayList<IBeanDto> result = new ArrayList<IBeanDto>((int) Math.min(maxRows, rows.size()));
+		long matched = 0;
+		for (final BeanDtoSnapshotRow row : source) {
+			if (matched >= end) {
+				break;
+			}
+			CapServiceToolkit.checkCanceled(executionCallback);
+			final IBeanDto beanDto = row.getBeanDto();
+			if (predicate == null || predicate.accept(beanDto)) {
+				if (matched >= firstRow) {
+					result.add(beanDto);
+				}
+				matched++;
+			}
+		}
+		return result;
+	}
+
+	int count(final IFilter filter, final IExecutionCallback executionCallback) {
+		if (filter == null) {
+			return rows.size();
+		}
+		final IBeanDtoPredicate predicate = CapCommonToolkit.beanDtoFilter().compile(filter);
+		final Set<BeanDtoSnapshotRow> candidates = getCandidates(filter);
+		final Collection<BeanDtoSnapshotRow> source = candidates != null ? candidates : rows.values();
+		int result = 0;
+		for (final BeanDtoSnapshotRow row : source) {
+			CapServiceToolkit.checkCanceled(executionCallback);
+			if (predicate.accept(row.getBeanDto())) {
+				result++;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the candidate rows for a filter from the hash indexes. The candidates are a superset of the
+	 * accepted rows, the filter must be applied to them anyway.
+	 * 
+	 * @param filter The filter to get the candidates for
+	 * 
+	 * @return The candidates or null, if the filter can not be answered by the indexes
+	 */
+	Set<BeanDtoSnapshotRow> getCandidates(final IFilter filter) {
+		if (filter.isInverted()) {
+			return null;
+		}
+		else if (filter instanceof IArithmeticFilter) {
+			return getCandidates((IArithmeticFilter) filter);
+		}
+		else if (filter instanceof IBooleanFilter) {
+			return getCandidates((IBooleanFilter) filter);
+		}
+		else {
+			return null;
+		}
+	}
+
+	private Set<BeanDtoSnapshotRow> getCandidates(final IBooleanFilter filter) {
+		if (BooleanOperator.AND.equals(filter.getOperator())) {
+			Set<BeanDtoSnapshotRow> result = null;
+			for (final IFilter childFilter : filter.getFilters()) {
+				final Set<BeanDtoSnapshotRow> candidates = getCandidates(childFilter);
+				if (candidates != null && (result == null || candidates.size() < result.size())) {
+					result = candidates;
+				}
+			}
+			return result;
+		}
+		else if (BooleanOperator.OR.equals(filter.getOperator())) {
+			final Set<BeanDtoSnapshotRow> result = new HashSet<BeanDtoSnapshotRow>();
+			for (final IFilter childFilter : filter.getFilters()) {
+				final Set<BeanDtoSnapshotRow> candidates = getCandidates(childFilter);
+				if (candidates == null) {
+					return null;
+				}
+				result.addAll(candidates);
+			}
+			return result;
+		}
+		else {
+			return null;
+		}
+	}
+
+	private Set<BeanDtoSnapshotRow> getCandidates(final IArithmeticFilter filter) {
+		final BeanDtoHashIndex index = hashIndexes.get(filter.getPropertyName());
+		final Object[] parameters = filter.getParameters();
+		if (index == null || parameters == null) {
+			return null;
+		}
+
+		final Set<BeanDtoSnapshotRow> result = new HashSet<BeanDtoSnapshotRow>();
+		if (ArithmeticOperator.EQUAL.equals(filter.getOperator()) && parameters.length > 0) {
+			return index.lookUp(parameters[0], result) ? result : null;
+		}
+		else if (ArithmeticOperator.CONTAINS_ANY.equals(filter.getOperator())) {
+			for (final Object parameter : parameters) {
+				if (!index.lookUp(parameter, result)) {
+					return null;
+				}
+			}
+			return result;
+		}
+		else {
+			return null;
+		}
+	}
+
+	private static List<BeanDtoSnapshotRow> sortBySequence(final Collection<BeanDtoSnapshotRow> rows) {
+		final List<BeanDtoSnapshotRow> result = new ArrayList<BeanDtoSnapshotRow>(rows);
+		Collections.sort(result, new Comparator<BeanDtoSnapshotRow>() {
+			@Override
+			public int compare(final BeanDtoSnapshotRow firstRow, final BeanDtoSnapshotRow secondRow) {
+				final long firstSequence = firstRow.getSequence();
+				final long secondSequence = secondRow.getSequence();
+				return firstSequence < secondSequence ? -1 : (firstSequence == secondSequence ? 0 : 1);
+			}
+		});
+		return result;
+	}
+
+	boolean hasSortedView(final List<? extends ISort> sorting) {
+		return sortedViews.containsKey(getSortingKey(sorting));
+	}
+
+	/**
+	 * Gets a sorted view for the sorting. Views will be created on demand and updated incrementally, this
+	 * may happen concurrently for reads, so the views are held in a synchronized map. If there are too many
+	 * views, the least recently used view will be evicted.
+	 * 
+	 * The view will be created while the owner holds its read lock, so writes are blocked meanwhile. If the
+	 * read will be canceled, the creation will be aborted and the view will not be added.
+	 */
+	private BeanDtoSortedView getSortedView(final List<? extends ISort> sorting, final IExecutionCallback executionCallback) {
+		final String key = getSortingKey(sorting);
+		final BeanDtoSortedView view = sortedViews.get(key);
+		if (view != null) {
+			return view;
+		}
+		final BeanDtoSortedView newView = new BeanDtoSortedView(createComparator(sorting), rows.values(), executionCallback);
+		synchronized (sortedViews) {
+			final BeanDtoSortedView oldView = sortedViews.get(key);
+			if (oldView != null) {
+				return oldView;
+			}
+			sortedViews.put(key, newView);
+		}
+		return newView;
+	}
+
+	private IBeanDtoComparator createComparator(final List<? extends ISort> sorting) {
+		if (sortConverters != null) {
+			return BeanDtoComparator.create(sortConverters, sorting);
+		}
+		else {
+			return BeanDtoComparator.create(sorting);
+		}
+	}
+
+	private static String getSortingKey(final List<? extends ISort> sorting) {
+		final StringBuilder result = new StringBuilder();
+		for (final ISort sort : sorting) {
+			result.append(sort.getPropertyName());
+			result.append('\u0000');
+			result.append(sort.getSortOrder());
+			result.append('\u0000');
+		}
+		return result.toString();
+	}
+
+	private static final class SortedViewsMap extends LinkedHashMap<String, BeanDtoSortedView> {
+
+		private static final long serialVersionUID = 1L;
+
+		SortedViewsMap() {
+			//access order, so the eldest entry is the least recently used view
+			super(MAX_SORTED_VIEWS * 2, 0.75f, true);
+		}
+
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<String, BeanDtoSortedView> eldest) {
+			return size() > MAX_SORTED_VIEWS;
+		}
+
+	}
+
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.cap.service.tools.reader;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.RandomAccess;
+
+import org.jowidgets.cap.common.api.execution.IExecutionCallback;
+import org.jowidgets.cap.common.api.sort.IBeanDtoComparator;
+import org.jowidgets.cap.service.api.CapServiceToolkit;
+
+/**
+ * The rows of the snapshot sorted for one sorting. Rows with equal sort keys are ordered by their sequence,
+ * so the view has the same order as a stable sort of the beans.
+ * 
+ * Creating a view and sorting candidates may take a while for large snapshots, so these operations check the
+ * execution callback for cancellation. Adding and removing rows is cheap and will not be canceled.
+ */
+final class BeanDtoSortedView {
+
+	private final IBeanDtoComparator comparator;
+	private final ArrayList<Entry> entries;
+	private final Comparator<Entry> entryComparator;
+
+	BeanDtoSortedView(
+		final IBeanDtoComparator comparator,
+		final Collection<BeanDtoSnapshotRow> rows,
+		final IExecutionCallback executionCallback) {
+
+		this.comparator = comparator;
+		this.entryComparator = new EntryComparator(null);
+		this.entries = createSortedEntries(rows, executionCallback);
+	}
+
+	List<BeanDtoSnapshotRow> getRows() {
+		return new RowList();
+	}
+
+	void add(final BeanDtoSnapshotRow row) {
+		final Entry entry = createEntry(row);
+		final int index = Collections.binarySearch(entries, entry, entryComparator);
+		entries.add(index >= 0 ? index : -index - 1, entry);
+	}
+
+	/**
+	 * Removes a row from the view
+	 * 
+	 * @param row The row to remove
+	 * 
+	 * @return false if the row could not be found, the view should be discarded then
+	 */
+	boolean remove(final BeanDtoSnapshotRow row) {
+		final int index = Collections.binarySearch(entries, createEntry(row), entryComparator);
+		if (index >= 0 && entries.get(index).row == row) {
+			entries.remove(index);
+			return true;
+		}
+		else {
+			return false;
+		}
+	}
+
+	List<BeanDtoSnapshotRow> sort(final Collection<BeanDtoSnapshotRow> rows, final IExecutionCallback executionCallback) {
+		final List<Entry> sortedEntries = createSortedEntries(rows, executionCallback);
+		final List<BeanDtoSnapshotRow> result = new ArrayList<BeanDtoSnapshotRow>(sortedEntries.size());
+		for (final Entry entry : sortedEntries) {
+			result.add(entry.row);
+		}
+		return result;
+	}
+
+	private ArrayList<Entry> createSortedEntries(
+		final Collection<BeanDtoSnapshotRow> rows,
+		final IExecutionCallback executionCallback) {
+
+		final ArrayList<Entry> result = new ArrayList<Entry>(rows.size());
+		for (final BeanDtoSnapshotRow row : rows) {
+			CapServiceToolkit.checkCanceled(executionCallback);
+			result.add(createEntry(row));
+		}
+		Collections.sort(result, new EntryComparator(executionCallback));
+		return result;
+	}
+
+	private Entry createEntry(final BeanDtoSnapshotRow row) {
+		return new Entry(row, comparator.getSortKey(row.getBeanDto()));
+	}
+
+	private final class RowList extends AbstractList<BeanDtoSnapshotRow> implements RandomAccess {
+
+		@Override
+		public BeanDtoSnapshotRow get(final int index) {
+			return entries.get(index).row;
+		}
+
+		@Override
+		public int size() {
+			return entries.size();
+		}
+
+	}
+
+	private static final class Entry {
+
+		private final BeanDtoSnapshotRow row;
+		private final Object[] key;
+
+		Entry(final BeanDtoSnapshotRow row, final Object[] key) {
+			this.row = row;
+			this.key = key;
+		}
+
+	}
+
+	private final class EntryComparator implements Comparator<Entry> {
+
+		private final IExecutionCallback executionCallback;
+
+		EntryComparator(final IExecutionCallback executionCallback) {
+			this.executionCallback = executionCallback;
+		}
+
+		@Override
+		public int compare(final Entry firstEntry, final Entry secondEntry) {
+			if (executionCallback != null) {
+				CapServiceToolkit.checkCanceled(executionCallback);
+			}
+			final int result = comparator.compareSortKeys(firstEntry.key, secondEntry.key);
+			if (result != 0) {
+				return result;
+			}
+			final long firstSequence = firstEntry.row.getSequence();
+			final long secondSequence = secondEntry.row.getSequence();
+			if (firstSequence < secondSequence) {
+				return -1;
+			}
+			else if (firstSequence > secondSequence) {
+				return 1;
+			}
+			else {
+				return 0;
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.jowidgets.cap.service.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jowidgets.cap.common.api.CapCommonToolkit;
+import org.jowidgets.cap.common.api.bean.IBeanDto;
+import org.jowidgets.cap.common.api.bean.IBeanDtoBuilder;
+import org.jowidgets.cap.common.api.execution.IExecutionCallback;
+import org.jowidgets.cap.common.api.sort.BeanDtoComparator;
+import org.jowidgets.cap.common.api.sort.ISort;
+import org.jowidgets.cap.common.api.sort.Sort;
+import org.jowidgets.cap.common.api.sort.SortOrder;
+import org.jowidgets.cap.service.api.bean.BeanDtoCollectionSorter;
+import org.jowidgets.cap.service.api.bean.IBeanDtoCollectionPageSorter;
+import org.jowidgets.cap.service.api.bean.IBeanDtoCollectionSorter;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BeanDtoCollectionSorterImplTest {
+
+	private static final String BEAN_TYPE_ID = "beanTypeID";
+
+	private static final String GROUP_PROPERTY = "group";
+	private static final String NAME_PROPERTY = "name";
+
+	// few groups, so there are many equal keys and the result must be stable
+	private static final int GROUP_COUNT = 7;
+
+	private static final List<ISort> SORTING = Arrays.asList(Sort.create(GROUP_PROPERTY, SortOrder.DESC));
+
+	private ExecutorService executor;
+
+	@Before
+	public void setUp() {
+		executor = Executors.newFixedThreadPool(3);
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	private static List<IBeanDto> createBeanDtos(final int count) {
+		final Random random = new Random(count);
+		final List<IBeanDto> result = new ArrayList<IBeanDto>(count);
+		for (int i = 0; i < count; i++) {
+			final IBeanDtoBuilder builder = CapCommonToolkit.dtoBuilder(BEAN_TYPE_ID);
+			builder.setId(Integer.valueOf(i));
+			builder.setValue(GROUP_PROPERTY, Integer.valueOf(random.nextInt(GROUP_COUNT)));
+			builder.setValue(NAME_PROPERTY, "Name " + i);
+			result.add(builder.build());
+		}
+		return result;
+	}
+
+	/**
+	 * @return The expected result, sorted by the stable Collections.sort() with the original comparator
+	 */
+	private static List<IBeanDto> sortExpected(final Collection<IBeanDto> beanDtos) {
+		final List<IBeanDto> result = new ArrayList<IBeanDto>(beanDtos);
+		Collections.sort(result, BeanDtoComparator.create(SORTING));
+		return result;
+	}
+
+	private static void assertPage(
+		final IBeanDtoCollectionPageSorter sorter,
+		final List<IBeanDto> beanDtos,
+		final int firstRow,
+		final int maxRows) {
+
+		final List<IBeanDto> expected = sortExpected(beanDtos);
+		final int end = (int) Math.min((long) firstRow + maxRows, expected.size());
+		final List<IBeanDto> expectedPage;
+		if (firstRow < end) {
+			expectedPage = expected.subList(firstRow, end);
+		}
+		else {
+			expectedPage = Collections.emptyList();
+		}
+		assertSame(expectedPage, sorter.sort(beanDtos, SORTING, firstRow, maxRows, null));
+	}
+
+	private static void assertSame(final List<IBeanDto> expected, final List<IBeanDto> actual) {
+		Assert.assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			Assert.assertSame("Row " + i, expected.get(i), actual.get(i));
+		}
+	}
+
+	@Test
+	public void testSort() {
+		final List<IBeanDto> beanDtos = createBeanDtos(1000);
+		final IBeanDtoCollectionSorter sorter = new BeanDtoCollectionSorterImpl();
+		assertSame(sortExpected(beanDtos), sorter.sort(beanDtos, SORTING, null));
+	}
+
+	@Test
+	public void testSortPage() {
+		final List<IBeanDto> beanDtos = createBeanDtos(100);
+		final IBeanDtoCollectionPageSorter sorter = new BeanDtoCollectionSorterImpl();
+
+		assertPage(sorter, beanDtos, 0, 100);
+		assertPage(sorter, beanDtos, 0, 60);
+		assertPage(sorter, beanDtos, 40, 60);
+		assertPage(sorter, beanDtos, 90, 20);
+		assertPage(sorter, beanDtos, 0, Integer.MAX_VALUE);
+		assertPage(sorter, beanDtos, 50, Integer.MAX_VALUE);
+		assertPage(sorter, beanDtos, 100, 10);
+		assertPage(sorter, beanDtos, 200, 10);
+		assertPage(sorter, beanDtos, 10, 0);
+	}
+
+	@Test
+	public void testSortTopRows() {
+		// pages that end before a quarter of the collection will be selected with a bounded heap
+		final List<IBeanDto> beanDtos = createBeanDtos(1000);
+		final IBeanDtoCollectionPageSorter sorter = new BeanDtoCollectionSorterImpl();
+
+		assertPage(sorter, beanDtos, 0, 1);
+		assertPage(sorter, beanDtos, 0, 10);
+		assertPage(sorter, beanDtos, 10, 10);
+		assertPage(sorter, beanDtos, 100, 100);
+		assertPage(sorter, beanDtos, 0, 249);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSortPageWithNegativeFirstRow() {
+		new BeanDtoCollectionSorterImpl().sort(createBeanDtos(10), SORTING, -1, 10, null);
+	}
+
+	@Test
+	public void testParallelSort() {
+		final List<IBeanDto> beanDtos = createBeanDtos(1000);
+		final List<IBeanDto> expected = sortExpected(beanDtos);
+
+		// the odd chunk counts test the merge of a remaining single chunk
+		for (int parallelism = 2; parallelism <= 5; parallelism++) {
+			final CountingExecutor countingExecutor = new CountingExecutor(executor);
+			final IBeanDtoCollectionPageSorter sorter = new BeanDtoCollectionSorterImpl(null, countingExecutor, parallelism, 100);
+
+			assertSame(expected, sorter.sort(beanDtos, SORTING, null));
+			Assert.assertEquals(parallelism, countingExecutor.getCount());
+
+			assertSame(expected.subList(500, 900), sorter.sort(beanDtos, SORTING, 500, 400, null));
+		}
+	}
+
+	@Test
+	public void testParallelSortBelowThreshold() {
+		final List<IBeanDto> beanDtos = createBeanDtos(99);
+		final CountingExecutor countingExecutor = new CountingExecutor(executor);
+		final IBeanDtoCollectionPageSorter sorter = new BeanDtoCollectionSorterImpl(null, countingExecutor, 4, 100);
+
+		assertSame(sortExpected(beanDtos), sorter.sort(beanDtos, SORTING, null));
+		Assert.assertEquals(0, countingExecutor.getCount());
+	}
+
+	@Test
+	public void testPageSorterAdapter() {
+		final List<IBeanDto> beanDtos = createBeanDtos(100);
+		final IBeanDtoCollectionSorter original = new IBeanDtoCollectionSorter() {
+			@Override
+			public ArrayList<IBeanDto> sort(
+				final Collection<? extends IBeanDto> beans,
+				final List<? extends ISort> sorting,
+				final IExecutionCallback executionCallback) {
+				return new ArrayList<IBeanDto>(sortExpected(new ArrayList<IBeanDto>(beans)));
+			}
+		};
+		final IBeanDtoCollectionPageSorter sorter = BeanDtoCollectionSorter.pageSorter(original);
+
+		assertPage(sorter, beanDtos, 0, 10);
+		assertPage(sorter, beanDtos, 95, 10);
+		assertPage(sorter, beanDtos, 100, 10);
+
+		final IBeanDtoCollectionSorter pageSorter = new BeanDtoCollectionSorterImpl();
+		Assert.assertSame(pageSorter, BeanDtoCollectionSorter.pageSorter(pageSorter));
+	}
+
+	private static final class CountingExecutor implements Executor {
+
+		private final Executor original;
+		private final AtomicInteger count;
+
+		CountingExecutor(final Executor original) {
+			this.original = original;
+			this.count = new AtomicInteger();
+		}
+
+		@Override
+		public void execute(final Runnable command) {
+			count.incrementAndGet();
+			original.execute(command);
+		}
+
+		int getCount() {
+			return count.get();
+		}
+
+	}
+
+}
@@ -0,0 +1,421 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.cap.service.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.jowidgets.cap.common.api.CapCommonToolkit;
+import org.jowidgets.cap.common.api.bean.IBean;
+import org.jowidgets.cap.common.api.bean.IBeanData;
+import org.jowidgets.cap.common.api.bean.IBeanDto;
+import org.jowidgets.cap.common.api.bean.IBeanDtoBuilder;
+import org.jowidgets.cap.common.api.bean.IBeanKey;
+import org.jowidgets.cap.common.api.entity.IEntityLinkProperties;
+import org.jowidgets.cap.common.api.exception.DeletedBeanException;
+import org.jowidgets.cap.common.api.exception.ServiceException;
+import org.jowidgets.cap.common.api.execution.IExecutionCallback;
+import org.jowidgets.cap.common.api.execution.IResultCallback;
+import org.jowidgets.cap.common.api.link.ILinkCreation;
+import org.jowidgets.cap.common.api.service.ICreatorService;
+import org.jowidgets.cap.common.tools.execution.SyncResultCallback;
+import org.jowidgets.cap.service.api.bean.IBeanAccess;
+import org.jowidgets.cap.service.api.bean.IBeanDtoFactory;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LinkCreatorServiceImplTest {
+
+	private static final String SOURCE_ID_PROPERTY = "sourceId";
+	private static final String LINKED_ID_PROPERTY = "linkedId";
+	private static final String NAME_PROPERTY = "name";
+
+	private TestBeanAccess sourceBeanAccess;
+	private TestBeanAccess linkedBeanAccess;
+	private TestCreatorService sourceCreatorService;
+	private TestCreatorService linkCreatorService;
+	private TestCreatorService linkableCreatorService;
+
+	@Before
+	public void setUp() {
+		sourceBeanAccess = new TestBeanAccess(1, 2, 3);
+		linkedBeanAccess = new TestBeanAccess(10, 11, 12);
+		sourceCreatorService = new TestCreatorService(100);
+		linkCreatorService = new TestCreatorService(1000);
+		linkableCreatorService = new TestCreatorService(200);
+	}
+
+	private LinkCreatorServiceImpl<TestBean, TestBean> createService(
+		final IEntityLinkProperties sourceProperties,
+		final IEntityLinkProperties destinationProperties) {
+		return new LinkCreatorServiceImpl<TestBean, TestBean>(
+			sourceBeanAccess,
+			new TestDtoFactory(),
+			LinkBean.class,
+			linkedBeanAccess,
+			new TestDtoFactory(),
+			sourceCreatorService,
+			linkCreatorService,
+			linkableCreatorService,
+			null,
+			createLinkProperties(SOURCE_ID_PROPERTY),
+			destinationProperties);
+	}
+
+	private static List<IBeanDto> create(final LinkCreatorServiceImpl<?, ?> service, final ILinkCreation link) {
+		final SyncResultCallback<List<IBeanDto>> result = new SyncResultCallback<List<IBeanDto>>();
+		service.create(result, Collections.singletonList(link), null);
+		return result.getResultSynchronious();
+	}
+
+	@Test
+	public void testStandardLinksAreCreatedWithOneInvocation() {
+		final LinkCreatorServiceImpl<TestBean, TestBean> service = createService(
+				createLinkProperties(SOURCE_ID_PROPERTY),
+				createLinkProperties(LINKED_ID_PROPERTY));
+		final TestLinkCreation link = new TestLinkCreation();
+		link.sourceBeans.addAll(Arrays.asList(key(1), key(3)));
+		link.linkableBeans.addAll(Arrays.asList(key(12), key(10)));
+		link.transientLinkableBeans.add(createData("transient linkable"));
+
+		final List<IBeanDto> result = create(service, link);
+
+		Assert.assertEquals(Arrays.asList(12, 10, 200), getIds(result));
+		Assert.assertEquals(1, sourceBeanAccess.invocations);
+		Assert.assertEquals(1, linkedBeanAccess.invocations);
+		Assert.assertEquals(1, linkableCreatorService.invocations);
+		Assert.assertEquals(0, sourceCreatorService.invocations);
+		Assert.assertEquals(1, linkCreatorService.invocations);
+
+		final List<Object> links = new ArrayList<Object>();
+		for (final IBeanDto linkBean : linkCreatorService.createdBeans) {
+			links.add(linkBean.getValue(SOURCE_ID_PROPERTY) + "-" + linkBean.getValue(LINKED_ID_PROPERTY));
+		}
+		Assert.assertEquals(Arrays.asList("1-12", "1-10", "1-200", "3-12", "3-10", "3-200"), links);
+	}
+
+	@Test
+	public void testTransientSourceBeansAreLinked() {
+		final LinkCreatorServiceImpl<TestBean, TestBean> service = createService(
+				createLinkProperties(SOURCE_ID_PROPERTY),
+				createLinkProperties(LINKED_ID_PROPERTY));
+		final TestLinkCreation link = new TestLinkCreation();
+		link.transientSourceBeans.addAll(Arrays.asList(createData("source 1"), createData("source 2")));
+		link.linkableBeans.add(key(11));
+
+		create(service, link);
+
+		Assert.assertEquals(Arrays.asList("source 1", "source 2"), getNames(sourceCreatorService.createdBeans));
+		final List<Object> links = new ArrayList<Object>();
+		for (final IBeanDto linkBean : linkCreatorService.createdBeans) {
+			links.add(linkBean.getValue(SOURCE_ID_PROPERTY) + "-" + linkBean.getValue(LINKED_ID_PROPERTY));
+		}
+		Assert.assertEquals(Arrays.asList("100-11", "101-11"), links);
+	}
+
+	@Test
+	public void testDirectLinkedBeansGetTheSourceKey() {
+		final LinkCreatorServiceImpl<TestBean, TestBean> service = createService(
+				createLinkProperties(SOURCE_ID_PROPERTY),
+				null);
+		final TestLinkCreation link = new TestLinkCreation();
+		link.sourceBeans.add(key(2));
+		link.transientLinkableBeans.addAll(Arrays.asList(createData("linked 1"), createData("linked 2")));
+
+		final List<IBeanDto> result = create(service, link);
+
+		Assert.assertEquals(Arrays.asList(200, 201), getIds(result));
+		Assert.assertEquals(Arrays.asList("linked 1", "linked 2"), getNames(result));
+		for (final IBeanDto linkedBean : result) {
+			Assert.assertEquals(2, linkedBean.getValue(SOURCE_ID_PROPERTY));
+		}
+		Assert.assertEquals(0, linkCreatorService.invocations);
+	}
+
+	@Test(expected = ServiceException.class)
+	public void testLinksCreatedInOtherOrderAreDetected() {
+		final LinkCreatorServiceImpl<TestBean, TestBean> service = createService(
+				createLinkProperties(SOURCE_ID_PROPERTY),
+				createLinkProperties(LINKED_ID_PROPERTY));
+		final TestLinkCreation link = new TestLinkCreation();
+		link.sourceBeans.addAll(Arrays.asList(key(1), key(2)));
+		link.linkableBeans.add(key(10));
+		linkCreatorService.reverse = true;
+
+		create(service, link);
+	}
+
+	@Test(expected = ServiceException.class)
+	public void testMissingCreatedBeansAreDetected() {
+		final LinkCreatorServiceImpl<TestBean, TestBean> service = createService(
+				createLinkProperties(SOURCE_ID_PROPERTY),
+				createLinkProperties(LINKED_ID_PROPERTY));
+		final TestLinkCreation link = new TestLinkCreation();
+		link.sourceBeans.add(key(1));
+		link.transientLinkableBeans.addAll(Arrays.asList(createData("linked 1"), createData("linked 2")));
+		linkableCreatorService.skipLast = true;
+
+		create(service, link);
+	}
+
+	@Test(expected = DeletedBeanException.class)
+	public void testDeletedSourceBean() {
+		final LinkCreatorServiceImpl<TestBean, TestBean> service = createService(
+				createLinkProperties(SOURCE_ID_PROPERTY),
+				createLinkProperties(LINKED_ID_PROPERTY));
+		final TestLinkCreation link = new TestLinkCreation();
+		link.sourceBeans.addAll(Arrays.asList(key(1), key(4)));
+		link.linkableBeans.add(key(10));
+
+		create(service, link);
+	}
+
+	private static List<Object> getIds(final Collection<IBeanDto> beans) {
+		final List<Object> result = new ArrayList<Object>();
+		for (final IBeanDto bean : beans) {
+			result.add(bean.getId());
+		}
+		return result;
+	}
+
+	private static List<Object> getNames(final Collection<IBeanDto> beans) {
+		final List<Object> result = new ArrayList<Object>();
+		for (final IBeanDto bean : beans) {
+			result.add(bean.getValue(NAME_PROPERTY));
+		}
+		return result;
+	}
+
+	private static IBeanData createData(final String name) {
+		return new IBeanData() {
+			@Override
+			public Object getValue(final String propertyName) {
+				if (NAME_PROPERTY.equals(propertyName)) {
+					return name;
+				}
+				return null;
+			}
+		};
+	}
+
+	private static IBeanKey key(final Object id) {
+		return new IBeanKey() {
+			@Override
+			public Object getId() {
+				return id;
+			}
+
+			@Override
+			public long getVersion() {
+				return 0;
+			}
+		};
+	}
+
+	private static IEntityLinkProperties createLinkProperties(final String foreignKeyPropertyName) {
+		return new IEntityLinkProperties() {
+			@Override
+			public String getKeyPropertyName() {
+				return IBean.ID_PROPERTY;
+			}
+
+			@Override
+			public String getForeignKeyPropertyName() {
+				return foreignKeyPropertyName;
+			}
+		};
+	}
+
+	private static final class TestLinkCreation implements ILinkCreation {
+
+		private final List<IBeanKey> sourceBeans = new LinkedList<IBeanKey>();
+		private final List<IBeanData> transientSourceBeans = new LinkedList<IBeanData>();
+		private final List<IBeanKey> linkableBeans = new LinkedList<IBeanKey>();
+		private final List<IBeanData> transientLinkableBeans = new LinkedList<IBeanData>();
+
+		@Override
+		public Collection<IBeanKey> getSourceBeans() {
+			return sourceBeans;
+		}
+
+		@Override
+		public Collection<IBeanData> getTransientSourceBeans() {
+			return transientSourceBeans;
+		}
+
+		@Override
+		public IBeanData getAdditionalLinkProperties() {
+			return createData(null);
+		}
+
+		@Override
+		public Collection<IBeanKey> getLinkableBeans() {
+			return linkableBeans;
+		}
+
+		@Override
+		public Collection<IBeanData> getTransientLinkableBeans() {
+			return transientLinkableBeans;
+		}
+	}
+
+	private static class TestBean implements IBean {
+
+		private final Object id;
+
+		TestBean(final Object id) {
+			this.id = id;
+		}
+
+		@Override
+		public Object getId() {
+			return id;
+		}
+
+		@Override
+		public long getVersion() {
+			return 0;
+		}
+	}
+
+	private static final class LinkBean extends TestBean {
+
+		LinkBean(final Object id) {
+			super(id);
+		}
+	}
+
+	private static final class TestBeanAccess implements IBeanAccess<TestBean> {
+
+		private final Map<Object, TestBean> beans;
+		private int invocations;
+
+		TestBeanAccess(final Object... ids) {
+			this.beans = new HashMap<Object, TestBean>();
+			for (final Object id : ids) {
+				beans.put(id, new TestBean(id));
+			}
+		}
+
+		@Override
+		public List<TestBean> getBeans(final Collection<? extends IBeanKey> keys, final IExecutionCallback executionCallback) {
+			invocations++;
+			final List<TestBean> result = new LinkedList<TestBean>();
+			for (final IBeanKey key : keys) {
+				final TestBean bean = beans.get(key.getId());
+				if (bean != null) {
+					//the result order is not defined, so return the beans in another order
+					result.add(0, bean);
+				}
+			}
+			return result;
+		}
+
+		@Override
+		public Class<TestBean> getBeanType() {
+			return TestBean.class;
+		}
+
+		@Override
+		public Object getBeanTypeId() {
+			return TestBean.class.getName();
+		}
+
+		@Override
+		public Object getId(final TestBean bean) {
+			return bean.getId();
+		}
+
+		@Override
+		public long getVersion(final TestBean bean) {
+			return bean.getVersion();
+		}
+
+		@Override
+		public void flush() {}
+	}
+
+	private static final class TestDtoFactory implements IBeanDtoFactory<TestBean> {
+
+		@Override
+		public IBeanDto createDto(final TestBean bean) {
+			final IBeanDtoBuilder builder = CapCommonToolkit.dtoBuilder(TestBean.class.getName());
+			builder.setId(bean.getId());
+			return builder.build();
+		}
+	}
+
+	private static final class TestCreatorService implements ICreatorService {
+
+		private final List<IBeanDto> createdBeans;
+		private int nextId;
+		private int invocations;
+		private boolean reverse;
+		private boolean skipLast;
+
+		TestCreatorService(final int firstId) {
+			this.createdBeans = new ArrayList<IBeanDto>();
+			this.nextId = firstId;
+		}
+
+		@Override
+		public void create(
+			final IResultCallback<List<IBeanDto>> result,
+			final List<? extends IBeanKey> parentBeanKeys,
+			final Collection<? extends IBeanData> beansData,
+			final IExecutionCallback executionCallback) {
+			invocations++;
+			final List<IBeanDto> beans = new ArrayList<IBeanDto>();
+			for (final IBeanData beanData : beansData) {
+				final IBeanDtoBuilder builder = CapCommonToolkit.dtoBuilder(TestBean.class.getName());
+				builder.setId(Integer.valueOf(nextId++));
+				builder.setValue(NAME_PROPERTY, beanData.getValue(NAME_PROPERTY));
+				builder.setValue(SOURCE_ID_PROPERTY, beanData.getValue(SOURCE_ID_PROPERTY));
+				builder.setValue(LINKED_ID_PROPERTY, beanData.getValue(LINKED_ID_PROPERTY));
+				beans.add(builder.build());
+			}
+			createdBeans.addAll(beans);
+			if (reverse) {
+				Collections.reverse(beans);
+			}
+			if (skipLast) {
+				beans.remove(beans.size() - 1);
+			}
+			result.finished(beans);
+		}
+	}
+
+}
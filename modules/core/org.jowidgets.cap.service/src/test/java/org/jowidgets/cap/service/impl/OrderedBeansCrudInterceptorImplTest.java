@@ -0,0 +1,482 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.cap.service.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jowidgets.cap.common.api.bean.IBeanData;
+import org.jowidgets.cap.common.api.bean.IBeanKey;
+import org.jowidgets.cap.common.api.bean.IBeanModification;
+import org.jowidgets.cap.common.api.execution.IExecutionCallback;
+import org.jowidgets.cap.common.api.filter.IArithmeticFilter;
+import org.jowidgets.cap.common.api.filter.IBooleanFilter;
+import org.jowidgets.cap.common.api.filter.IFilter;
+import org.jowidgets.cap.common.api.ordered.IOrderedBean;
+import org.jowidgets.cap.common.api.sort.ISort;
+import org.jowidgets.cap.common.api.sort.SortOrder;
+import org.jowidgets.cap.service.api.bean.IBeanIdentityResolver;
+import org.jowidgets.cap.service.api.bean.IBeanReader;
+import org.jowidgets.cap.service.api.creator.IBeanDataMapper;
+import org.jowidgets.cap.service.api.crud.ICrudServiceInterceptor;
+import org.jowidgets.cap.service.api.updater.IBeanModificationsMap;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OrderedBeansCrudInterceptorImplTest {
+
+	private static final long GAP = 10;
+	private static final int GROUP_SIZE = 100;
+
+	private TestBeanReader beanReader;
+	private ICrudServiceInterceptor<TestBean> interceptor;
+
+	@Before
+	public void setUp() {
+		beanReader = new TestBeanReader();
+		for (int i = 0; i < GROUP_SIZE; i++) {
+			beanReader.beans.add(new TestBean("bean" + i, Long.valueOf(i * GAP)));
+		}
+
+		final OrderedBeanCrudInterceptorBuilderImpl<TestBean, Object> builder;
+		builder = new OrderedBeanCrudInterceptorBuilderImpl<TestBean, Object>();
+		builder.setIdentityResolver(new TestIdentityResolver());
+		builder.setBeanReader(beanReader);
+		builder.setSparseOrderNumbers(true);
+		builder.setOrderNumberGap(GAP);
+		interceptor = builder.build();
+	}
+
+	@Test
+	public void testInsertIntoGap() {
+		final TestBean createdBean = create("created", Long.valueOf(20));
+
+		Assert.assertEquals(Long.valueOf(15), createdBean.getOrderNumber());
+		assertOrder("bean0", "bean1", "created", "bean2", "bean3");
+		assertOnlyNeighborsRead();
+		assertOrderNumbersUnchanged(createdBean);
+	}
+
+	@Test
+	public void testInsertBeforeFirst() {
+		final TestBean createdBean = create("created", Long.valueOf(0));
+
+		Assert.assertEquals(Long.valueOf(-GAP), createdBean.getOrderNumber());
+		assertOrder("created", "bean0", "bean1");
+		assertOnlyNeighborsRead();
+		assertOrderNumbersUnchanged(createdBean);
+	}
+
+	@Test
+	public void testAppend() {
+		final TestBean createdBean = create("created", null);
+
+		Assert.assertEquals(Long.valueOf(GROUP_SIZE * GAP), createdBean.getOrderNumber());
+		assertOnlyNeighborsRead();
+		assertOrderNumbersUnchanged(createdBean);
+	}
+
+	@Test
+	public void testMoveUp() {
+		//moves bean4 to the position of bean3
+		final TestBean movedBean = move(4, Long.valueOf(30));
+
+		Assert.assertEquals(Long.valueOf(25), movedBean.getOrderNumber());
+		assertOrder("bean2", "bean4", "bean3", "bean5");
+		assertOnlyNeighborsRead();
+		assertOrderNumbersUnchanged(movedBean);
+	}
+
+	@Test
+	public void testMoveDown() {
+		//moves bean1 to the position of bean2
+		final TestBean movedBean = move(1, Long.valueOf(20));
+
+		Assert.assertEquals(Long.valueOf(25), movedBean.getOrderNumber());
+		assertOrder("bean0", "bean2", "bean1", "bean3");
+		assertOnlyNeighborsRead();
+		assertOrderNumbersUnchanged(movedBean);
+	}
+
+	@Test
+	public void testMoveBlockUp() {
+		//moves bean1 and bean2 to the position of bean0 like the move executor does
+		final TestBean bean1 = beanReader.beans.get(1);
+		final TestBean bean2 = beanReader.beans.get(2);
+		final TestModifications modifications = new TestModifications();
+		modifications.setOrderNumber(bean1, Long.valueOf(0));
+		modifications.setOrderNumber(bean2, Long.valueOf(10));
+		interceptor.afterUpdate(Arrays.asList(bean1, bean2), modifications, null);
+
+		assertOrder("bean1", "bean2", "bean0", "bean3");
+		assertOnlyNeighborsRead();
+		assertOrderNumbersUnchanged(bean1, bean2);
+	}
+
+	@Test
+	public void testMoveBlockDown() {
+		//moves bean1 and bean2 to the position of bean3 like the move executor does
+		final TestBean bean1 = beanReader.beans.get(1);
+		final TestBean bean2 = beanReader.beans.get(2);
+		final TestModifications modifications = new TestModifications();
+		modifications.setOrderNumber(bean1, Long.valueOf(20));
+		modifications.setOrderNumber(bean2, Long.valueOf(30));
+		interceptor.afterUpdate(Arrays.asList(bean1, bean2), modifications, null);
+
+		assertOrder("bean0", "bean3", "bean1", "bean2", "bean4");
+		assertOnlyNeighborsRead();
+		assertOrderNumbersUnchanged(bean1, bean2);
+	}
+
+	@Test
+	public void testMoveTwoRangesWithSharedNeighbor() {
+		//moves bean0 behind bean1 and bean3 before bean2, so bean1 is the lower neighbor of both ranges
+		final TestBean bean0 = beanReader.beans.get(0);
+		final TestBean bean3 = beanReader.beans.get(3);
+		final TestModifications modifications = new TestModifications();
+		modifications.setOrderNumber(bean0, Long.valueOf(10));
+		modifications.setOrderNumber(bean3, Long.valueOf(20));
+		interceptor.afterUpdate(Arrays.asList(bean0, bean3), modifications, null);
+
+		assertOrder("bean1", "bean0", "bean3", "bean2", "bean4");
+		assertOrderNumbersUnchanged(bean0, bean3);
+	}
+
+	@Test
+	public void testMoveTwoDistantRanges() {
+		//moves bean2 to the position of bean1 and bean50 to the position of bean51
+		final TestBean bean2 = beanReader.beans.get(2);
+		final TestBean bean50 = beanReader.beans.get(50);
+		final TestModifications modifications = new TestModifications();
+		modifications.setOrderNumber(bean2, Long.valueOf(10));
+		modifications.setOrderNumber(bean50, Long.valueOf(510));
+		interceptor.afterUpdate(Arrays.asList(bean2, bean50), modifications, null);
+
+		assertOrder("bean0", "bean2", "bean1", "bean3");
+		assertOrder("bean49", "bean51", "bean50", "bean52");
+		assertOnlyNeighborsRead(2);
+		assertOrderNumbersUnchanged(bean2, bean50);
+	}
+
+	@Test
+	public void testRebalanceIfGapIsExhausted() {
+		beanReader.beans.get(1).setOrderNumber(Long.valueOf(1));
+
+		final TestBean createdBean = create("created", Long.valueOf(1));
+
+		assertOrder("bean0", "created", "bean1", "bean2");
+		final List<TestBean> beans = getSortedBeans();
+		for (int i = 0; i < beans.size(); i++) {
+			Assert.assertEquals(Long.valueOf(i * GAP), beans.get(i).getOrderNumber());
+		}
+		Assert.assertTrue(beanReader.readBeansCount > GROUP_SIZE);
+	}
+
+	private TestBean create(final String name, final Long orderNumber) {
+		final TestBean createdBean = new TestBean(name, orderNumber);
+		beanReader.beans.add(createdBean);
+		beanReader.saveOrderNumbers();
+		final List<IBeanKey> parentBeanKeys = Collections.emptyList();
+		interceptor.afterInitializeForCreation(
+				parentBeanKeys,
+				Collections.singletonList(createdBean),
+				new IBeanDataMapper<TestBean>() {
+					@Override
+					public IBeanData getBeanData(final TestBean bean) {
+						if (bean == createdBean) {
+							return new IBeanData() {
+								@Override
+								public Object getValue(final String propertyName) {
+									return null;
+								}
+							};
+						}
+						return null;
+					}
+				},
+				null);
+		return createdBean;
+	}
+
+	private TestBean move(final int index, final Long orderNumber) {
+		final TestBean bean = beanReader.beans.get(index);
+		final TestModifications modifications = new TestModifications();
+		modifications.setOrderNumber(bean, orderNumber);
+		interceptor.afterUpdate(Collections.singletonList(bean), modifications, null);
+		return bean;
+	}
+
+	private void assertOrder(final String... names) {
+		final List<String> sortedNames = new ArrayList<String>();
+		Long lastOrderNumber = null;
+		for (final TestBean bean : getSortedBeans()) {
+			if (lastOrderNumber != null) {
+				final boolean ascending = bean.getOrderNumber().longValue() > lastOrderNumber.longValue();
+				Assert.assertTrue("Duplicate order number: " + bean, ascending);
+			}
+			lastOrderNumber = bean.getOrderNumber();
+			sortedNames.add(bean.name);
+		}
+		final int index = sortedNames.indexOf(names[0]);
+		Assert.assertTrue(index >= 0);
+		Assert.assertEquals(Arrays.asList(names), sortedNames.subList(index, index + names.length));
+	}
+
+	private void assertOnlyNeighborsRead() {
+		assertOnlyNeighborsRead(1);
+	}
+
+	private void assertOnlyNeighborsRead(final int rangeCount) {
+		Assert.assertTrue("Read beans: " + beanReader.readBeansCount, beanReader.readBeansCount <= 10 * rangeCount);
+	}
+
+	private void assertOrderNumbersUnchanged(final TestBean... relevantBeans) {
+		final List<TestBean> expectedChanged = Arrays.asList(relevantBeans);
+		for (final TestBean bean : beanReader.beans) {
+			if (!expectedChanged.contains(bean)) {
+				Assert.assertEquals(beanReader.savedOrderNumbers.get(bean), bean.getOrderNumber());
+			}
+		}
+	}
+
+	private List<TestBean> getSortedBeans() {
+		final List<TestBean> result = new ArrayList<TestBean>(beanReader.beans);
+		Collections.sort(result, new OrderNumberComparator(SortOrder.ASC));
+		return result;
+	}
+
+	private static final class TestBean implements IOrderedBean {
+
+		private final String name;
+		private Long orderNumber;
+
+		TestBean(final String name, final Long orderNumber) {
+			this.name = name;
+			this.orderNumber = orderNumber;
+		}
+
+		@Override
+		public Long getOrderNumber() {
+			return orderNumber;
+		}
+
+		@Override
+		public void setOrderNumber(final Long orderNumber) {
+			this.orderNumber = orderNumber;
+		}
+
+		@Override
+		public String toString() {
+			return name + ":" + orderNumber;
+		}
+	}
+
+	private final class TestModifications implements IBeanModificationsMap<TestBean> {
+
+		private final Map<TestBean, List<IBeanModification>> modifications;
+
+		TestModifications() {
+			this.modifications = new IdentityHashMap<TestBean, List<IBeanModification>>();
+		}
+
+		void setOrderNumber(final TestBean bean, final Long orderNumber) {
+			final Long oldOrderNumber = bean.getOrderNumber();
+			bean.setOrderNumber(orderNumber);
+			beanReader.saveOrderNumbers();
+			final IBeanModification modification = new IBeanModification() {
+
+				@Override
+				public Object getId() {
+					return bean.name;
+				}
+
+				@Override
+				public long getVersion() {
+					return 0;
+				}
+
+				@Override
+				public String getPropertyName() {
+					return IOrderedBean.ORDER_NUMBER_PROPERTY;
+				}
+
+				@Override
+				public Object getOldValue() {
+					return oldOrderNumber;
+				}
+
+				@Override
+				public Object getNewValue() {
+					return orderNumber;
+				}
+			};
+			modifications.put(bean, Collections.singletonList(modification));
+		}
+
+		@Override
+		public List<IBeanModification> getModifications(final TestBean bean) {
+			final List<IBeanModification> result = modifications.get(bean);
+			if (result != null) {
+				return result;
+			}
+			return Collections.emptyList();
+		}
+	}
+
+	private static final class TestIdentityResolver implements IBeanIdentityResolver<TestBean> {
+
+		@Override
+		public Class<TestBean> getBeanType() {
+			return TestBean.class;
+		}
+
+		@Override
+		public Object getBeanTypeId() {
+			return TestBean.class.getName();
+		}
+
+		@Override
+		public Object getId(final TestBean bean) {
+			return bean.name;
+		}
+
+		@Override
+		public long getVersion(final TestBean bean) {
+			return 0;
+		}
+	}
+
+	private static final class TestBeanReader implements IBeanReader<TestBean, Void> {
+
+		private final List<TestBean> beans = new ArrayList<TestBean>();
+		private final Map<TestBean, Long> savedOrderNumbers = new IdentityHashMap<TestBean, Long>();
+		private int readBeansCount;
+
+		void saveOrderNumbers() {
+			for (final TestBean bean : beans) {
+				savedOrderNumbers.put(bean, bean.getOrderNumber());
+			}
+		}
+
+		@Override
+		public List<TestBean> read(
+			final List<? extends IBeanKey> parentBeanKeys,
+			final IFilter filter,
+			final List<? extends ISort> sorting,
+			final int firstRow,
+			final int maxRows,
+			final Void parameter,
+			final IExecutionCallback executionCallback) {
+
+			Assert.assertEquals(1, sorting.size());
+			Assert.assertEquals(IOrderedBean.ORDER_NUMBER_PROPERTY, sorting.get(0).getPropertyName());
+
+			final List<TestBean> result = new ArrayList<TestBean>();
+			for (final TestBean bean : beans) {
+				if (accept(filter, bean)) {
+					result.add(bean);
+				}
+			}
+			Collections.sort(result, new OrderNumberComparator(sorting.get(0).getSortOrder()));
+			final List<TestBean> rows = result.subList(firstRow, Math.min(result.size(), firstRow + maxRows));
+			readBeansCount = readBeansCount + rows.size();
+			return new ArrayList<TestBean>(rows);
+		}
+
+		private boolean accept(final IFilter filter, final TestBean bean) {
+			if (filter instanceof IBooleanFilter) {
+				for (final IFilter childFilter : ((IBooleanFilter) filter).getFilters()) {
+					if (!accept(childFilter, bean)) {
+						return false;
+					}
+				}
+				return true;
+			}
+			final IArithmeticFilter arithmeticFilter = (IArithmeticFilter) filter;
+			Assert.assertEquals(IOrderedBean.ORDER_NUMBER_PROPERTY, arithmeticFilter.getPropertyName());
+			final Long orderNumber = bean.getOrderNumber();
+			final Object[] parameters = arithmeticFilter.getParameters();
+			final boolean result;
+			switch (arithmeticFilter.getOperator()) {
+				case EMPTY:
+					result = orderNumber == null;
+					break;
+				case LESS:
+					result = orderNumber != null && orderNumber.longValue() < getLong(parameters[0]);
+					break;
+				case GREATER:
+					result = orderNumber != null && orderNumber.longValue() > getLong(parameters[0]);
+					break;
+				case BETWEEN:
+					result = orderNumber != null
+						&& orderNumber.longValue() >= getLong(parameters[0])
+						&& orderNumber.longValue() <= getLong(parameters[1]);
+					break;
+				default:
+					throw new IllegalArgumentException("Operator not supported: " + arithmeticFilter.getOperator());
+			}
+			return result != arithmeticFilter.isInverted();
+		}
+
+		private static long getLong(final Object parameter) {
+			return ((Number) parameter).longValue();
+		}
+
+		@Override
+		public Integer count(
+			final List<? extends IBeanKey> parentBeanKeys,
+			final IFilter filter,
+			final Void parameter,
+			final IExecutionCallback executionCallback) {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	private static final class OrderNumberComparator implements Comparator<TestBean> {
+
+		private final SortOrder sortOrder;
+
+		OrderNumberComparator(final SortOrder sortOrder) {
+			this.sortOrder = sortOrder;
+		}
+
+		@Override
+		public int compare(final TestBean bean1, final TestBean bean2) {
+			final int result = bean1.getOrderNumber().compareTo(bean2.getOrderNumber());
+			return SortOrder.ASC == sortOrder ? result : -result;
+		}
+	}
+
+}
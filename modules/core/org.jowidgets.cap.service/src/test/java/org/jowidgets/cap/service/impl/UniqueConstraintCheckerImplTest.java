@@ -0,0 +1,506 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.cap.service.impl;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.jowidgets.cap.common.api.CapCommonToolkit;
+import org.jowidgets.cap.common.api.bean.IBean;
+import org.jowidgets.cap.common.api.bean.IBeanData;
+import org.jowidgets.cap.common.api.bean.IBeanDto;
+import org.jowidgets.cap.common.api.bean.IBeanDtoBuilder;
+import org.jowidgets.cap.common.api.bean.IBeanKey;
+import org.jowidgets.cap.common.api.bean.IBeanModification;
+import org.jowidgets.cap.common.api.exception.UniqueConstraintViolationException;
+import org.jowidgets.cap.common.api.execution.IExecutionCallback;
+import org.jowidgets.cap.common.api.execution.IResultCallback;
+import org.jowidgets.cap.common.api.filter.BooleanOperator;
+import org.jowidgets.cap.common.api.filter.IArithmeticFilter;
+import org.jowidgets.cap.common.api.filter.IBooleanFilter;
+import org.jowidgets.cap.common.api.filter.IFilter;
+import org.jowidgets.cap.common.api.service.IReaderService;
+import org.jowidgets.cap.common.api.sort.ISort;
+import org.jowidgets.cap.service.api.bean.IBeanAccess;
+import org.jowidgets.cap.service.api.bean.IUniqueConstraintChecker;
+import org.jowidgets.cap.service.api.factory.IBeanServiceFactory;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class UniqueConstraintCheckerImplTest {
+
+	private static final String NAME_PROPERTY = "name";
+	private static final String GROUP_PROPERTY = "group";
+
+	private static final int MAX_FILTER_PARAMETERS = 1000;
+
+	private Map<Object, TestBean> beans;
+	private TestReaderService readerService;
+
+	@Before
+	public void setUp() {
+		beans = new LinkedHashMap<Object, TestBean>();
+		readerService = new TestReaderService();
+		addBean(1, "a", "group1");
+		addBean(2, "b", "group1");
+		addBean(3, "c", "group2");
+	}
+
+	@Test
+	public void testCreationWithNewValues() {
+		createChecker(NAME_PROPERTY).checkCreation(Arrays.asList(createData("d", null), createData("e", null)), null);
+	}
+
+	@Test(expected = UniqueConstraintViolationException.class)
+	public void testCreationWithExistingValue() {
+		createChecker(NAME_PROPERTY).checkCreation(Arrays.asList(createData("d", null), createData("c", null)), null);
+	}
+
+	@Test(expected = UniqueConstraintViolationException.class)
+	public void testCreationWithDuplicatesInBatch() {
+		createChecker(NAME_PROPERTY).checkCreation(Arrays.asList(createData("d", null), createData("d", null)), null);
+	}
+
+	@Test
+	public void testCreationWithNullValues() {
+		createChecker(NAME_PROPERTY, GROUP_PROPERTY).checkCreation(
+				Arrays.asList(createData("a", null), createData("a", null)),
+				null);
+	}
+
+	@Test(expected = UniqueConstraintViolationException.class)
+	public void testCreationWithExistingTuple() {
+		createChecker(NAME_PROPERTY, GROUP_PROPERTY).checkCreation(
+				Arrays.asList(createData("a", "group2"), createData("c", "group2")),
+				null);
+	}
+
+	@Test
+	public void testCreationWithOtherCase() {
+		createChecker(NAME_PROPERTY).checkCreation(Arrays.asList(createData("A", null), createData("C", null)), null);
+	}
+
+	@Test
+	public void testCreationWithWildcard() {
+		createChecker(NAME_PROPERTY).checkCreation(Arrays.asList(createData("*", null), createData("a*", null)), null);
+	}
+
+	@Test(expected = UniqueConstraintViolationException.class)
+	public void testCreationWithExistingWildcard() {
+		addBean(4, "a*", "group1");
+		createChecker(NAME_PROPERTY).checkCreation(Arrays.asList(createData("a*", null)), null);
+	}
+
+	@Test
+	public void testCreationWithWildcardMatchingManyBeans() {
+		createRotation(2500);
+
+		createChecker(NAME_PROPERTY).checkCreation(Arrays.asList(createData("value*", null)), null);
+
+		Assert.assertTrue(readerService.readCount > 1);
+	}
+
+	@Test(expected = UniqueConstraintViolationException.class)
+	public void testCreationWithExistingWildcardBehindManyMatchingBeans() {
+		createRotation(2500);
+		addBean(5000, "value*", "group1");
+
+		createChecker(NAME_PROPERTY).checkCreation(Arrays.asList(createData("value*", null)), null);
+	}
+
+	@Test
+	public void testUpdateWithOtherCase() {
+		createChecker(NAME_PROPERTY).checkUpdate(Arrays.asList(modification(1, NAME_PROPERTY, "C")), null);
+	}
+
+	@Test
+	public void testUpdateWithWildcard() {
+		createChecker(NAME_PROPERTY).checkUpdate(Arrays.asList(modification(1, NAME_PROPERTY, "*")), null);
+	}
+
+	@Test
+	public void testUpdateWithNewValue() {
+		createChecker(NAME_PROPERTY).checkUpdate(Arrays.asList(modification(1, NAME_PROPERTY, "d")), null);
+	}
+
+	@Test
+	public void testUpdateWithOwnValue() {
+		createChecker(NAME_PROPERTY).checkUpdate(Arrays.asList(modification(1, NAME_PROPERTY, "a")), null);
+	}
+
+	@Test(expected = UniqueConstraintViolationException.class)
+	public void testUpdateWithExistingValue() {
+		createChecker(NAME_PROPERTY).checkUpdate(Arrays.asList(modification(1, NAME_PROPERTY, "c")), null);
+	}
+
+	@Test(expected = UniqueConstraintViolationException.class)
+	public void testUpdateWithDuplicatesInBatch() {
+		createChecker(NAME_PROPERTY).checkUpdate(
+				Arrays.asList(modification(1, NAME_PROPERTY, "d"), modification(2, NAME_PROPERTY, "d")),
+				null);
+	}
+
+	@Test
+	public void testUpdateWithSwappedValuesInBatch() {
+		createChecker(NAME_PROPERTY).checkUpdate(
+				Arrays.asList(modification(1, NAME_PROPERTY, "b"), modification(2, NAME_PROPERTY, "a")),
+				null);
+	}
+
+	@Test
+	public void testUpdateOfOtherPropertyOfTuple() {
+		//the name of the modified bean will be taken from the stored bean
+		createChecker(NAME_PROPERTY, GROUP_PROPERTY).checkUpdate(Arrays.asList(modification(1, GROUP_PROPERTY, "group3")), null);
+	}
+
+	@Test(expected = UniqueConstraintViolationException.class)
+	public void testUpdateOfOtherPropertyOfTupleWithExistingTuple() {
+		//the name of the modified bean will be taken from the stored bean
+		addBean(4, "b", "group2");
+		createChecker(NAME_PROPERTY, GROUP_PROPERTY).checkUpdate(Arrays.asList(modification(2, GROUP_PROPERTY, "group2")), null);
+	}
+
+	@Test
+	public void testUpdateOfManyBeansWithRotatedValues() {
+		final List<IBeanModification> modifications = createRotation(2500);
+
+		createChecker(NAME_PROPERTY).checkUpdate(modifications, null);
+
+		Assert.assertTrue(readerService.maxFilterParameters <= MAX_FILTER_PARAMETERS);
+	}
+
+	@Test
+	public void testUpdateOfManyBeansWithExistingValue() {
+		final List<IBeanModification> modifications = createRotation(2500);
+		modifications.add(modification(1, NAME_PROPERTY, "c"));
+
+		try {
+			createChecker(NAME_PROPERTY).checkUpdate(modifications, null);
+			Assert.fail("Unique constraint violation expected");
+		}
+		catch (final UniqueConstraintViolationException exception) {
+			Assert.assertTrue(readerService.maxFilterParameters <= MAX_FILTER_PARAMETERS);
+		}
+	}
+
+	/**
+	 * Creates beans with the names value0, value1, ... and modifications that give each bean the name of its successor
+	 */
+	private List<IBeanModification> createRotation(final int count) {
+		for (int i = 0; i < count; i++) {
+			addBean(10 + i, "value" + i, "group1");
+		}
+		final List<IBeanModification> result = new ArrayList<IBeanModification>();
+		for (int i = 0; i < count; i++) {
+			result.add(modification(10 + i, NAME_PROPERTY, "value" + ((i + 1) % count)));
+		}
+		return result;
+	}
+
+	private IUniqueConstraintChecker createChecker(final String... propertyNames) {
+		final IBeanAccess<IBean> beanAccess = new TestBeanAccess();
+		final IBeanServiceFactory serviceFactory = (IBeanServiceFactory) Proxy.newProxyInstance(
+				getClass().getClassLoader(),
+				new Class<?>[] {IBeanServiceFactory.class},
+				new InvocationHandler() {
+					@Override
+					public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+						if ("readerService".equals(method.getName())) {
+							return readerService;
+						}
+						else if ("beanAccess".equals(method.getName())) {
+							return beanAccess;
+						}
+						throw new UnsupportedOperationException(method.getName());
+					}
+				});
+		return new UniqueConstraintCheckerImpl(serviceFactory, TestBean.class, TestBean.class, Arrays.asList(propertyNames));
+	}
+
+	private void addBean(final Object id, final String name, final String group) {
+		beans.put(id, new TestBean(id, name, group));
+	}
+
+	private static IBeanData createData(final String name, final String group) {
+		return new IBeanData() {
+			@Override
+			public Object getValue(final String propertyName) {
+				if (NAME_PROPERTY.equals(propertyName)) {
+					return name;
+				}
+				else if (GROUP_PROPERTY.equals(propertyName)) {
+					return group;
+				}
+				return null;
+			}
+		};
+	}
+
+	private IBeanModification modification(final Object id, final String propertyName, final Object newValue) {
+		final Object oldValue = beans.get(id).getValue(propertyName);
+		return new IBeanModification() {
+
+			@Override
+			public Object getId() {
+				return id;
+			}
+
+			@Override
+			public long getVersion() {
+				return 0;
+			}
+
+			@Override
+			public String getPropertyName() {
+				return propertyName;
+			}
+
+			@Override
+			public Object getOldValue() {
+				return oldValue;
+			}
+
+			@Override
+			public Object getNewValue() {
+				return newValue;
+			}
+		};
+	}
+
+	private static final class TestBean implements IBean {
+
+		private final Object id;
+		private final String name;
+		private final String group;
+
+		TestBean(final Object id, final String name, final String group) {
+			this.id = id;
+			this.name = name;
+			this.group = group;
+		}
+
+		@Override
+		public Object getId() {
+			return id;
+		}
+
+		@Override
+		public long getVersion() {
+			return 0;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public String getGroup() {
+			return group;
+		}
+
+		Object getValue(final String propertyName) {
+			if (NAME_PROPERTY.equals(propertyName)) {
+				return name;
+			}
+			else if (GROUP_PROPERTY.equals(propertyName)) {
+				return group;
+			}
+			else if (IBean.ID_PROPERTY.equals(propertyName)) {
+				return id;
+			}
+			throw new IllegalArgumentException("Unknown property: " + propertyName);
+		}
+	}
+
+	private final class TestBeanAccess implements IBeanAccess<IBean> {
+
+		@Override
+		public List<IBean> getBeans(final Collection<? extends IBeanKey> keys, final IExecutionCallback executionCallback) {
+			final List<IBean> result = new ArrayList<IBean>();
+			for (final IBeanKey key : keys) {
+				final TestBean bean = beans.get(key.getId());
+				if (bean != null) {
+					result.add(bean);
+				}
+			}
+			return result;
+		}
+
+		@Override
+		public Class<IBean> getBeanType() {
+			return IBean.class;
+		}
+
+		@Override
+		public Object getBeanTypeId() {
+			return TestBean.class;
+		}
+
+		@Override
+		public Object getId(final IBean bean) {
+			return bean.getId();
+		}
+
+		@Override
+		public long getVersion(final IBean bean) {
+			return bean.getVersion();
+		}
+
+		@Override
+		public void flush() {}
+	}
+
+	private final class TestReaderService implements IReaderService<Void> {
+
+		private int maxFilterParameters;
+		private int readCount;
+
+		@Override
+		public void read(
+			final IResultCallback<List<IBeanDto>> result,
+			final List<? extends IBeanKey> parentBeanKeys,
+			final IFilter filter,
+			final List<? extends ISort> sorting,
+			final int firstRow,
+			final int maxRows,
+			final Void parameter,
+			final IExecutionCallback executionCallback) {
+
+			Assert.assertEquals(1, sorting.size());
+			Assert.assertEquals(IBean.ID_PROPERTY, sorting.get(0).getPropertyName());
+			readCount++;
+
+			final List<TestBean> matchingBeans = getMatchingBeans(filter);
+			Collections.sort(matchingBeans, new Comparator<TestBean>() {
+				@Override
+				public int compare(final TestBean bean1, final TestBean bean2) {
+					return ((Integer) bean1.getId()).compareTo((Integer) bean2.getId());
+				}
+			});
+
+			final List<IBeanDto> beanDtos = new ArrayList<IBeanDto>();
+			for (final TestBean bean : matchingBeans.subList(Math.min(firstRow, matchingBeans.size()), matchingBeans.size())) {
+				if (beanDtos.size() == maxRows) {
+					break;
+				}
+				final IBeanDtoBuilder builder = CapCommonToolkit.dtoBuilder(TestBean.class);
+				builder.setId(bean.getId());
+				builder.setValue(NAME_PROPERTY, bean.getName());
+				builder.setValue(GROUP_PROPERTY, bean.getGroup());
+				beanDtos.add(builder.build());
+			}
+			result.finished(beanDtos);
+		}
+
+		@Override
+		public void count(
+			final IResultCallback<Integer> result,
+			final List<? extends IBeanKey> parentBeanKeys,
+			final IFilter filter,
+			final Void parameter,
+			final IExecutionCallback executionCallback) {
+			result.finished(Integer.valueOf(getMatchingBeans(filter).size()));
+		}
+
+		private List<TestBean> getMatchingBeans(final IFilter filter) {
+			final List<TestBean> result = new ArrayList<TestBean>();
+			for (final TestBean bean : beans.values()) {
+				if (accept(filter, bean)) {
+					result.add(bean);
+				}
+			}
+			return result;
+		}
+
+		private boolean accept(final IFilter filter, final TestBean bean) {
+			final boolean result;
+			if (filter instanceof IBooleanFilter) {
+				final IBooleanFilter booleanFilter = (IBooleanFilter) filter;
+				final boolean and = BooleanOperator.AND == booleanFilter.getOperator();
+				boolean accepted = and;
+				for (final IFilter childFilter : booleanFilter.getFilters()) {
+					if (accept(childFilter, bean) != and) {
+						accepted = !and;
+						break;
+					}
+				}
+				result = accepted;
+			}
+			else {
+				final IArithmeticFilter arithmeticFilter = (IArithmeticFilter) filter;
+				final List<Object> parameters = Arrays.asList(arithmeticFilter.getParameters());
+				maxFilterParameters = Math.max(maxFilterParameters, parameters.size());
+				final Object value = bean.getValue(arithmeticFilter.getPropertyName());
+				switch (arithmeticFilter.getOperator()) {
+					case EQUAL:
+						result = matches(value, parameters.get(0));
+						break;
+					case CONTAINS_ANY:
+						boolean matches = false;
+						for (final Object filterParameter : parameters) {
+							matches = matches || matches(value, filterParameter);
+						}
+						result = matches;
+						break;
+					default:
+						throw new IllegalArgumentException("Operator not supported: " + arithmeticFilter.getOperator());
+				}
+			}
+			return result != filter.isInverted();
+		}
+
+		/**
+		 * Matches like the jpa reader does by default, i.e. case insensitive and with wildcards
+		 */
+		private boolean matches(final Object value, final Object filterParameter) {
+			if (value instanceof String && filterParameter instanceof String) {
+				final StringBuilder regex = new StringBuilder();
+				for (final String part : ((String) filterParameter).split("\\*", -1)) {
+					if (regex.length() > 0) {
+						regex.append(".*");
+					}
+					regex.append(Pattern.quote(part));
+				}
+				return Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE).matcher((String) value).matches();
+			}
+			return value.equals(filterParameter);
+		}
+	}
+
+}
@@ -0,0 +1,304 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.jowidgets.cap.service.tools.reader;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.jowidgets.cap.common.api.CapCommonToolkit;
+import org.jowidgets.cap.common.api.bean.IBeanDto;
+import org.jowidgets.cap.common.api.bean.IBeanDtoBuilder;
+import org.jowidgets.cap.common.api.bean.IBeanKey;
+import org.jowidgets.cap.common.api.execution.IExecutionCallback;
+import org.jowidgets.cap.common.api.filter.ArithmeticOperator;
+import org.jowidgets.cap.common.api.filter.IBeanDtoPredicate;
+import org.jowidgets.cap.common.api.filter.IFilter;
+import org.jowidgets.cap.common.api.sort.BeanDtoComparator;
+import org.jowidgets.cap.common.api.sort.IBeanDtoComparator;
+import org.jowidgets.cap.common.api.sort.ISort;
+import org.jowidgets.cap.common.api.sort.ISortConverterMap;
+import org.jowidgets.cap.common.api.sort.Sort;
+import org.jowidgets.cap.common.api.sort.SortOrder;
+import org.jowidgets.cap.service.api.bean.IBeanDtoFactory;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the indexed reader service with concurrent reads and writes
+ */
+public class AbstractIndexedReaderServiceTest {
+
+	private static final String BEAN_TYPE_ID = "beanTypeID";
+
+	private static final String NAME_PROPERTY = "name";
+	private static final String GROUP_PROPERTY = "group";
+
+	private static final int BEAN_COUNT = 500;
+	private static final int NAME_COUNT = 50;
+	private static final int GROUP_COUNT = 5;
+
+	private static final int WRITER_COUNT = 2;
+	private static final int READER_COUNT = 4;
+	private static final int WRITES = 1000;
+
+	private static final List<List<ISort>> SORTINGS = Arrays.asList(
+			Collections.<ISort> emptyList(),
+			Arrays.asList(Sort.create(GROUP_PROPERTY, SortOrder.DESC)),
+			Arrays.asList(Sort.create(NAME_PROPERTY, SortOrder.ASC), Sort.create(GROUP_PROPERTY, SortOrder.ASC)));
+
+	private ConcurrentMap<Object, IBeanDto> beans;
+	private ReaderService readerService;
+	private ExecutorService executor;
+
+	@Before
+	public void setUp() {
+		beans = new ConcurrentHashMap<Object, IBeanDto>();
+		final Random random = new Random(0);
+		for (int i = 0; i < BEAN_COUNT; i++) {
+			final IBeanDto beanDto = createBeanDto(random, i);
+			beans.put(beanDto.getId(), beanDto);
+		}
+		readerService = new ReaderService(beans);
+		executor = Executors.newFixedThreadPool(WRITER_COUNT + READER_COUNT);
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	private static IBeanDto createBeanDto(final Random random, final int id) {
+		final IBeanDtoBuilder builder = CapCommonToolkit.dtoBuilder(BEAN_TYPE_ID);
+		builder.setId(Integer.valueOf(id));
+		builder.setValue(NAME_PROPERTY, "Name " + random.nextInt(NAME_COUNT));
+		builder.setValue(GROUP_PROPERTY, Integer.valueOf(random.nextInt(GROUP_COUNT)));
+		return builder.build();
+	}
+
+	private static IFilter createFilter(final Random random) {
+		switch (random.nextInt(3)) {
+			case 0:
+				return null;
+			case 1:
+				return CapCommonToolkit.filterFactory().arithmeticFilter(
+						NAME_PROPERTY,
+						ArithmeticOperator.EQUAL,
+						"name " + random.nextInt(NAME_COUNT));
+			default:
+				return CapCommonToolkit.filterFactory().arithmeticFilter(
+						GROUP_PROPERTY,
+						ArithmeticOperator.EQUAL,
+						Integer.valueOf(random.nextInt(GROUP_COUNT)));
+		}
+	}
+
+	@Test
+	public void testConcurrentReadsAndWrites() throws Exception {
+		final CountDownLatch start = new CountDownLatch(1);
+		final AtomicBoolean writing = new AtomicBoolean(true);
+		final CountDownLatch writersDone = new CountDownLatch(WRITER_COUNT);
+
+		final List<Future<?>> futures = new ArrayList<Future<?>>();
+		for (int i = 0; i < WRITER_COUNT; i++) {
+			final int writer = i;
+			futures.add(executor.submit(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						await(start);
+						write(new Random(writer + 1), writer);
+					}
+					finally {
+						writersDone.countDown();
+					}
+				}
+			}));
+		}
+		for (int i = 0; i < READER_COUNT; i++) {
+			final int reader = i;
+			futures.add(executor.submit(new Runnable() {
+				@Override
+				public void run() {
+					await(start);
+					final Random random = new Random(100 + reader);
+					while (writing.get()) {
+						assertRead(random);
+					}
+				}
+			}));
+		}
+
+		start.countDown();
+		Assert.assertTrue(writersDone.await(60, TimeUnit.SECONDS));
+		writing.set(false);
+		for (final Future<?> future : futures) {
+			future.get(60, TimeUnit.SECONDS);
+		}
+
+		// after all writes the snapshot must have the same content as the beans
+		for (final List<ISort> sorting : SORTINGS) {
+			final List<IBeanDto> result = readerService.read(null, null, sorting, 0, Integer.MAX_VALUE, null, null);
+			Assert.assertEquals(beans.size(), result.size());
+			assertSorted(result, sorting);
+			for (final IBeanDto beanDto : result) {
+				Assert.assertSame(beans.get(beanDto.getId()), beanDto);
+			}
+		}
+		final Random random = new Random(0);
+		for (int i = 0; i < 20; i++) {
+			final IFilter filter = createFilter(random);
+			final List<IBeanDto> result = readerService.read(null, filter, SORTINGS.get(1), 0, Integer.MAX_VALUE, null, null);
+			Assert.assertEquals(countExpected(filter), result.size());
+			Assert.assertEquals(Integer.valueOf(result.size()), readerService.count(null, filter, null, null));
+		}
+	}
+
+	/**
+	 * Each writer creates, updates and deletes its own beans, so the beans map reflects the last reported change
+	 */
+	private void write(final Random random, final int writer) {
+		int nextId = BEAN_COUNT + writer;
+		for (int i = 0; i < WRITES; i++) {
+			final Object id = Integer.valueOf(WRITER_COUNT * random.nextInt(BEAN_COUNT / WRITER_COUNT) + writer);
+			switch (random.nextInt(3)) {
+				case 0:
+					final IBeanDto createdBean = createBeanDto(random, nextId);
+					nextId = nextId + WRITER_COUNT;
+					beans.put(createdBean.getId(), createdBean);
+					readerService.beansCreated(Collections.singleton(createdBean));
+					break;
+
+				case 1:
+					final IBeanDto updatedBean = createBeanDto(random, ((Integer) id).intValue());
+					if (beans.replace(id, updatedBean) != null) {
+						readerService.beansUpdated(Collections.singleton(updatedBean));
+					}
+					break;
+
+				default:
+					final IBeanDto deletedBean = beans.remove(id);
+					if (deletedBean != null) {
+						readerService.beansDeleted(Collections.singleton(deletedBean));
+					}
+					break;
+			}
+		}
+	}
+
+	/**
+	 * Each read must be consistent, so the result has no duplicates, is sorted and accepted by the filter
+	 */
+	private void assertRead(final Random random) {
+		final IFilter filter = createFilter(random);
+		final List<ISort> sorting = SORTINGS.get(random.nextInt(SORTINGS.size()));
+		final int firstRow = random.nextInt(2) * random.nextInt(BEAN_COUNT / 2);
+		final List<IBeanDto> result = readerService.read(null, filter, sorting, firstRow, 100, null, null);
+
+		Assert.assertTrue(result.size() <= 100);
+		assertSorted(result, sorting);
+		final Set<Object> ids = new HashSet<Object>();
+		final IBeanDtoPredicate predicate = filter != null ? CapCommonToolkit.beanDtoFilter().compile(filter) : null;
+		for (final IBeanDto beanDto : result) {
+			Assert.assertTrue("Duplicate " + beanDto.getId(), ids.add(beanDto.getId()));
+			Assert.assertTrue(predicate == null || predicate.accept(beanDto));
+		}
+	}
+
+	private static void assertSorted(final List<IBeanDto> result, final List<ISort> sorting) {
+		if (sorting.isEmpty()) {
+			return;
+		}
+		final IBeanDtoComparator comparator = BeanDtoComparator.create(sorting);
+		for (int i = 1; i < result.size(); i++) {
+			Assert.assertTrue("Row " + i, comparator.compare(result.get(i - 1), result.get(i)) <= 0);
+		}
+	}
+
+	private int countExpected(final IFilter filter) {
+		if (filter == null) {
+			return beans.size();
+		}
+		final IBeanDtoPredicate predicate = CapCommonToolkit.beanDtoFilter().compile(filter);
+		int result = 0;
+		for (final IBeanDto beanDto : beans.values()) {
+			if (predicate.accept(beanDto)) {
+				result++;
+			}
+		}
+		return result;
+	}
+
+	private static void await(final CountDownLatch latch) {
+		try {
+			latch.await();
+		}
+		catch (final InterruptedException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static final class ReaderService extends AbstractIndexedReaderService<IBeanDto, Void> {
+
+		private final ConcurrentMap<Object, IBeanDto> beans;
+
+		ReaderService(final ConcurrentMap<Object, IBeanDto> beans) {
+			super((ISortConverterMap) null, new IBeanDtoFactory<IBeanDto>() {
+				@Override
+				public IBeanDto createDto(final IBeanDto bean) {
+					return bean;
+				}
+			}, Arrays.asList(NAME_PROPERTY, GROUP_PROPERTY));
+			this.beans = beans;
+		}
+
+		@Override
+		protected List<? extends IBeanDto> getAllBeans(
+			final List<? extends IBeanKey> parentBeans,
+			final Void parameter,
+			final IExecutionCallback executionCallback) {
+			return new ArrayList<IBeanDto>(beans.values());
+		}
+
+	}
+
+}
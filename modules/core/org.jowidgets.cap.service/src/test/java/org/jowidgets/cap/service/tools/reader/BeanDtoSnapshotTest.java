@@ -0,0 +1,448 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.jowidgets.cap.service.tools.reader;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.jowidgets.cap.common.api.CapCommonToolkit;
+import org.jowidgets.cap.common.api.bean.IBeanDto;
+import org.jowidgets.cap.common.api.bean.IBeanDtoBuilder;
+import org.jowidgets.cap.common.api.exception.ServiceCanceledException;
+import org.jowidgets.cap.common.api.filter.ArithmeticOperator;
+import org.jowidgets.cap.common.api.filter.BooleanOperator;
+import org.jowidgets.cap.common.api.filter.IArithmeticFilterBuilder;
+import org.jowidgets.cap.common.api.filter.IBeanDtoPredicate;
+import org.jowidgets.cap.common.api.filter.IFilter;
+import org.jowidgets.cap.common.api.filter.IFilterFactory;
+import org.jowidgets.cap.common.api.sort.BeanDtoComparator;
+import org.jowidgets.cap.common.api.sort.ISort;
+import org.jowidgets.cap.common.api.sort.Sort;
+import org.jowidgets.cap.common.api.sort.SortOrder;
+import org.jowidgets.cap.common.tools.execution.DummyExecutionCallback;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests that the index candidates of the snapshot are a superset of the beans accepted by the filter
+ * and that the incrementally updated sorted views have the order of a stable sort.
+ */
+public class BeanDtoSnapshotTest {
+
+	private static final String BEAN_TYPE_ID = "beanTypeID";
+
+	private static final String NAME_PROPERTY = "name";
+	private static final String TAGS_PROPERTY = "tags";
+	private static final String AGE_PROPERTY = "age";
+	private static final String GROUP_PROPERTY = "group";
+
+	private static final List<String> INDEXED_PROPERTIES = Arrays.asList(NAME_PROPERTY, TAGS_PROPERTY, AGE_PROPERTY);
+
+	// few groups, so there are many equal keys and the views must be stable
+	private static final int GROUP_COUNT = 5;
+
+	private static final List<ISort> SORTING = Arrays.asList(Sort.create(GROUP_PROPERTY, SortOrder.DESC));
+
+	private static final IFilterFactory FILTER_FACTORY = CapCommonToolkit.filterFactory();
+
+	private static IBeanDto createBeanDto(final int id, final String name, final List<?> tags, final Integer age) {
+		final IBeanDtoBuilder builder = CapCommonToolkit.dtoBuilder(BEAN_TYPE_ID);
+		builder.setId(Integer.valueOf(id));
+		builder.setValue(NAME_PROPERTY, name);
+		builder.setValue(TAGS_PROPERTY, tags);
+		builder.setValue(AGE_PROPERTY, age);
+		builder.setValue(GROUP_PROPERTY, Integer.valueOf(id % GROUP_COUNT));
+		return builder.build();
+	}
+
+	private static List<IBeanDto> createBeanDtos() {
+		final List<IBeanDto> result = new ArrayList<IBeanDto>();
+		result.add(createBeanDto(0, "Max", Arrays.asList("a", "B"), Integer.valueOf(42)));
+		result.add(createBeanDto(1, "max", Arrays.asList("b"), Integer.valueOf(17)));
+		result.add(createBeanDto(2, "MAX", Collections.emptyList(), null));
+		result.add(createBeanDto(3, "Maxi", Arrays.asList("A", "c"), Integer.valueOf(42)));
+		result.add(createBeanDto(4, "Martha", Arrays.asList(Integer.valueOf(1), "1"), Integer.valueOf(70)));
+		result.add(createBeanDto(5, "Otto.(1)", Arrays.asList((Object) null), Integer.valueOf(3)));
+		result.add(createBeanDto(6, "Otto-(1)", Arrays.asList("*"), Integer.valueOf(3)));
+		result.add(createBeanDto(7, null, Arrays.asList("c"), null));
+		result.add(createBeanDto(8, "\u00c4rger", Arrays.asList("\u00c4"), Integer.valueOf(42)));
+		result.add(createBeanDto(9, "\u00c4RGER", Arrays.asList("\u00e4"), Integer.valueOf(18)));
+		return result;
+	}
+
+	private static IFilter filter(final String propertyName, final ArithmeticOperator operator, final Object... parameters) {
+		return FILTER_FACTORY.arithmeticFilter(propertyName, operator, parameters);
+	}
+
+	private static IFilter and(final IFilter... filters) {
+		return FILTER_FACTORY.booleanFilter(BooleanOperator.AND, Arrays.asList(filters));
+	}
+
+	private static IFilter or(final IFilter... filters) {
+		return FILTER_FACTORY.booleanFilter(BooleanOperator.OR, Arrays.asList(filters));
+	}
+
+	private static IFilter inverted(final String propertyName, final ArithmeticOperator operator, final Object... parameters) {
+		final IArithmeticFilterBuilder builder = FILTER_FACTORY.arithmeticFilterBuilder();
+		builder.setPropertyName(propertyName).setOperator(operator).setParameters(parameters).setInverted(true);
+		return builder.build();
+	}
+
+	private static List<IBeanDto> filterExpected(final Collection<IBeanDto> beanDtos, final IFilter filter) {
+		final IBeanDtoPredicate predicate = CapCommonToolkit.beanDtoFilter().compile(filter);
+		final List<IBeanDto> result = new ArrayList<IBeanDto>();
+		for (final IBeanDto beanDto : beanDtos) {
+			if (predicate.accept(beanDto)) {
+				result.add(beanDto);
+			}
+		}
+		return result;
+	}
+
+	private static List<IBeanDto> sortExpected(final Collection<IBeanDto> beanDtos, final List<ISort> sorting) {
+		final List<IBeanDto> result = new ArrayList<IBeanDto>(beanDtos);
+		Collections.sort(result, BeanDtoComparator.create(sorting));
+		return result;
+	}
+
+	/**
+	 * Asserts that the candidates of the index contain all beans accepted by the filter and that
+	 * the read and the count of the snapshot yield the same result as the full predicate
+	 * 
+	 * @param snapshot The snapshot to test
+	 * @param beanDtos The beans of the snapshot in their original order
+	 * @param filter The filter to test
+	 * @param indexed True if the filter must be answered by the indexes, false otherwise
+	 */
+	private static void assertCandidates(
+		final BeanDtoSnapshot snapshot,
+		final Collection<IBeanDto> beanDtos,
+		final IFilter filter,
+		final boolean indexed) {
+
+		final List<IBeanDto> expected = filterExpected(beanDtos, filter);
+		final Set<BeanDtoSnapshotRow> candidates = snapshot.getCandidates(filter);
+		if (indexed) {
+			Assert.assertNotNull("Candidates expected: " + filter, candidates);
+			final Map<IBeanDto, Boolean> candidateDtos = new IdentityHashMap<IBeanDto, Boolean>();
+			for (final BeanDtoSnapshotRow row : candidates) {
+				candidateDtos.put(row.getBeanDto(), Boolean.TRUE);
+			}
+			for (final IBeanDto beanDto : expected) {
+				Assert.assertTrue("Missing candidate " + beanDto.getId() + ": " + filter, candidateDtos.containsKey(beanDto));
+			}
+		}
+		else {
+			Assert.assertNull("No candidates expected: " + filter, candidates);
+		}
+
+		assertSame(expected, snapshot.read(filter, null, 0, Integer.MAX_VALUE, null));
+		assertSame(sortExpected(expected, SORTING), snapshot.read(filter, SORTING, 0, Integer.MAX_VALUE, null));
+		Assert.assertEquals(expected.size(), snapshot.count(filter, null));
+	}
+
+	private static void assertSame(final List<IBeanDto> expected, final List<IBeanDto> actual) {
+		Assert.assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			Assert.assertSame("Row " + i, expected.get(i), actual.get(i));
+		}
+	}
+
+	@Test
+	public void testCaseInsensitiveStrings() {
+		final List<IBeanDto> beanDtos = createBeanDtos();
+		final BeanDtoSnapshot snapshot = new BeanDtoSnapshot(beanDtos, INDEXED_PROPERTIES, null);
+
+		assertCandidates(snapshot, beanDtos, filter(NAME_PROPERTY, ArithmeticOperator.EQUAL, "max"), true);
+		assertCandidates(snapshot, beanDtos, filter(NAME_PROPERTY, ArithmeticOperator.EQUAL, "MAX"), true);
+		assertCandidates(snapshot, beanDtos, filter(NAME_PROPERTY, ArithmeticOperator.EQUAL, "\u00e4rger"), true);
+		assertCandidates(snapshot, beanDtos, filter(NAME_PROPERTY, ArithmeticOperator.EQUAL, "Otto.(1)"), true);
+		assertCandidates(snapshot, beanDtos, filter(NAME_PROPERTY, ArithmeticOperator.EQUAL, "OTTO-(1)"), true);
+		assertCandidates(snapshot, beanDtos, filter(NAME_PROPERTY, ArithmeticOperator.EQUAL, "unknown"), true);
+		assertCandidates(snapshot, beanDtos, filter(NAME_PROPERTY, ArithmeticOperator.EQUAL, (Object) null), true);
+		assertCandidates(snapshot, beanDtos, filter(NAME_PROPERTY, ArithmeticOperator.CONTAINS_ANY, "martha", "MAXI"), true);
+		assertCandidates(snapshot, beanDtos, filter(TAGS_PROPERTY, ArithmeticOperator.EQUAL, "b"), true);
+		assertCandidates(snapshot, beanDtos, filter(TAGS_PROPERTY, ArithmeticOperator.EQUAL, "\u00c4"), true);
+	}
+
+	@Test
+	public void testWildcardStrings() {
+		final List<IBeanDto> beanDtos = createBeanDtos();
+		final BeanDtoSnapshot snapshot = new BeanDtoSnapshot(beanDtos, INDEXED_PROPERTIES, null);
+
+		assertCandidates(snapshot, beanDtos, filter(NAME_PROPERTY, ArithmeticOperator.EQUAL, "Ma*"), false);
+		assertCandidates(snapshot, beanDtos, filter(NAME_PROPERTY, ArithmeticOperator.EQUAL, "%x"), false);
+		assertCandidates(snapshot, beanDtos, filter(NAME_PROPERTY, ArithmeticOperator.EQUAL, "M?x"), false);
+		assertCandidates(snapshot, beanDtos, filter(NAME_PROPERTY, ArithmeticOperator.EQUAL, "ma_"), false);
+		assertCandidates(snapshot, beanDtos, filter(NAME_PROPERTY, ArithmeticOperator.CONTAINS_ANY, "max", "Otto*"), false);
+		assertCandidates(snapshot, beanDtos, filter(TAGS_PROPERTY, ArithmeticOperator.EQUAL, "*"), false);
+		assertCandidates(snapshot, beanDtos, filter(TAGS_PROPERTY, ArithmeticOperator.EQUAL, Arrays.asList("a", "?")), false);
+	}
+
+	@Test
+	public void testCollectionValues() {
+		final List<IBeanDto> beanDtos = createBeanDtos();
+		final BeanDtoSnapshot snapshot = new BeanDtoSnapshot(beanDtos, INDEXED_PROPERTIES, null);
+
+		assertCandidates(snapshot, beanDtos, filter(TAGS_PROPERTY, ArithmeticOperator.EQUAL, "c"), true);
+		assertCandidates(snapshot, beanDtos, filter(TAGS_PROPERTY, ArithmeticOperator.EQUAL, Integer.valueOf(1)), true);
+		assertCandidates(snapshot, beanDtos, filter(TAGS_PROPERTY, ArithmeticOperator.EQUAL, "1"), true);
+		assertCandidates(snapshot, beanDtos, filter(TAGS_PROPERTY, ArithmeticOperator.EQUAL, (Object) null), true);
+		assertCandidates(snapshot, beanDtos, filter(TAGS_PROPERTY, ArithmeticOperator.EQUAL, Arrays.asList("a", "c")), true);
+		assertCandidates(snapshot, beanDtos, filter(TAGS_PROPERTY, ArithmeticOperator.CONTAINS_ANY, "x", "b"), true);
+		assertCandidates(
+				snapshot,
+				beanDtos,
+				filter(TAGS_PROPERTY, ArithmeticOperator.CONTAINS_ANY, Arrays.asList("c", Integer.valueOf(1))),
+				true);
+		assertCandidates(snapshot, beanDtos, filter(TAGS_PROPERTY, ArithmeticOperator.CONTAINS_ANY), true);
+	}
+
+	@Test
+	public void testOtherValues() {
+		final List<IBeanDto> beanDtos = createBeanDtos();
+		final BeanDtoSnapshot snapshot = new BeanDtoSnapshot(beanDtos, INDEXED_PROPERTIES, null);
+
+		assertCandidates(snapshot, beanDtos, filter(AGE_PROPERTY, ArithmeticOperator.EQUAL, Integer.valueOf(42)), true);
+		assertCandidates(snapshot, beanDtos, filter(AGE_PROPERTY, ArithmeticOperator.EQUAL, Long.valueOf(42)), true);
+		assertCandidates(snapshot, beanDtos, filter(AGE_PROPERTY, ArithmeticOperator.EQUAL, "42"), true);
+		assertCandidates(snapshot, beanDtos, filter(AGE_PROPERTY, ArithmeticOperator.GREATER, Integer.valueOf(18)), false);
+		assertCandidates(snapshot, beanDtos, filter(GROUP_PROPERTY, ArithmeticOperator.EQUAL, Integer.valueOf(1)), false);
+	}
+
+	@Test
+	public void testBooleanAndInvertedFilters() {
+		final List<IBeanDto> beanDtos = createBeanDtos();
+		final BeanDtoSnapshot snapshot = new BeanDtoSnapshot(beanDtos, INDEXED_PROPERTIES, null);
+
+		final IFilter nameFilter = filter(NAME_PROPERTY, ArithmeticOperator.EQUAL, "max");
+		final IFilter tagsFilter = filter(TAGS_PROPERTY, ArithmeticOperator.EQUAL, "b");
+		final IFilter ageFilter = filter(AGE_PROPERTY, ArithmeticOperator.GREATER, Integer.valueOf(18));
+		final IFilter invertedFilter = inverted(NAME_PROPERTY, ArithmeticOperator.EQUAL, "max");
+
+		assertCandidates(snapshot, beanDtos, and(nameFilter, ageFilter), true);
+		assertCandidates(snapshot, beanDtos, and(nameFilter, tagsFilter), true);
+		assertCandidates(snapshot, beanDtos, and(invertedFilter, tagsFilter), true);
+		assertCandidates(snapshot, beanDtos, and(invertedFilter, ageFilter), false);
+		assertCandidates(snapshot, beanDtos, or(nameFilter, tagsFilter), true);
+		assertCandidates(snapshot, beanDtos, or(nameFilter, ageFilter), false);
+		assertCandidates(snapshot, beanDtos, or(and(nameFilter, ageFilter), tagsFilter), true);
+		assertCandidates(snapshot, beanDtos, or(), true);
+		assertCandidates(snapshot, beanDtos, invertedFilter, false);
+	}
+
+	@Test
+	public void testIndexUpdates() {
+		final Map<Object, IBeanDto> beanDtos = new LinkedHashMap<Object, IBeanDto>();
+		for (final IBeanDto beanDto : createBeanDtos()) {
+			beanDtos.put(beanDto.getId(), beanDto);
+		}
+		final BeanDtoSnapshot snapshot = new BeanDtoSnapshot(beanDtos.values(), INDEXED_PROPERTIES, null);
+
+		final List<IFilter> filters = Arrays.asList(
+				filter(NAME_PROPERTY, ArithmeticOperator.EQUAL, "max"),
+				filter(TAGS_PROPERTY, ArithmeticOperator.EQUAL, "b"),
+				filter(AGE_PROPERTY, ArithmeticOperator.EQUAL, Integer.valueOf(42)));
+
+		// update, rename max to moritz and move the tag b
+		final IBeanDto moritz = createBeanDto(1, "Moritz", Arrays.asList("x"), Integer.valueOf(42));
+		final IBeanDto martha = createBeanDto(4, "Martha", Arrays.asList("B"), Integer.valueOf(70));
+		beanDtos.put(moritz.getId(), moritz);
+		beanDtos.put(martha.getId(), martha);
+		snapshot.put(moritz);
+		snapshot.put(martha);
+		for (final IFilter filter : filters) {
+			assertCandidates(snapshot, beanDtos.values(), filter, true);
+		}
+
+		// create
+		final IBeanDto newMax = createBeanDto(10, "mAx", Arrays.asList("b"), Integer.valueOf(42));
+		beanDtos.put(newMax.getId(), newMax);
+		snapshot.put(newMax);
+		for (final IFilter filter : filters) {
+			assertCandidates(snapshot, beanDtos.values(), filter, true);
+		}
+
+		// delete
+		beanDtos.remove(Integer.valueOf(0));
+		beanDtos.remove(Integer.valueOf(10));
+		snapshot.remove(Integer.valueOf(0));
+		snapshot.remove(Integer.valueOf(10));
+		for (final IFilter filter : filters) {
+			assertCandidates(snapshot, beanDtos.values(), filter, true);
+		}
+		Assert.assertEquals(beanDtos.size(), snapshot.size());
+	}
+
+	@Test
+	public void testSortedViewUpdates() {
+		final Random random = new Random(1);
+		final Map<Object, IBeanDto> beanDtos = new LinkedHashMap<Object, IBeanDto>();
+		for (int i = 0; i < 200; i++) {
+			beanDtos.put(Integer.valueOf(i), createRandomBeanDto(random, i));
+		}
+		final BeanDtoSnapshot snapshot = new BeanDtoSnapshot(beanDtos.values(), INDEXED_PROPERTIES, null);
+		final List<ISort> nameSorting = Arrays.asList(
+				Sort.create(NAME_PROPERTY, SortOrder.ASC),
+				Sort.create(AGE_PROPERTY, SortOrder.DESC));
+
+		// create the views before the changes, so they will be updated incrementally
+		assertSorted(snapshot, beanDtos.values(), SORTING);
+		assertSorted(snapshot, beanDtos.values(), nameSorting);
+
+		int nextId = beanDtos.size();
+		for (int i = 0; i < 500; i++) {
+			final int operation = random.nextInt(3);
+			if (operation == 0) {
+				final IBeanDto beanDto = createRandomBeanDto(random, nextId++);
+				beanDtos.put(beanDto.getId(), beanDto);
+				snapshot.put(beanDto);
+			}
+			else if (operation == 1 && !beanDtos.isEmpty()) {
+				final Object id = getRandomId(random, beanDtos);
+				final IBeanDto beanDto = createRandomBeanDto(random, ((Integer) id).intValue());
+				beanDtos.put(id, beanDto);
+				snapshot.put(beanDto);
+			}
+			else if (!beanDtos.isEmpty()) {
+				final Object id = getRandomId(random, beanDtos);
+				beanDtos.remove(id);
+				snapshot.remove(id);
+			}
+			if (i % 10 == 0) {
+				assertSorted(snapshot, beanDtos.values(), SORTING);
+				assertSorted(snapshot, beanDtos.values(), nameSorting);
+			}
+		}
+		assertSorted(snapshot, beanDtos.values(), SORTING);
+		assertSorted(snapshot, beanDtos.values(), nameSorting);
+
+		// few candidates will be sorted with the view instead of scanning it
+		final IFilter filter = filter(NAME_PROPERTY, ArithmeticOperator.EQUAL, "name 1");
+		final List<IBeanDto> expected = sortExpected(filterExpected(beanDtos.values(), filter), SORTING);
+		assertSame(expected, snapshot.read(filter, SORTING, 0, Integer.MAX_VALUE, null));
+	}
+
+	@Test
+	public void testSortedViewPages() {
+		final Random random = new Random(2);
+		final List<IBeanDto> beanDtos = new ArrayList<IBeanDto>();
+		for (int i = 0; i < 100; i++) {
+			beanDtos.add(createRandomBeanDto(random, i));
+		}
+		final BeanDtoSnapshot snapshot = new BeanDtoSnapshot(beanDtos, INDEXED_PROPERTIES, null);
+		final List<IBeanDto> expected = sortExpected(beanDtos, SORTING);
+
+		assertSame(expected.subList(0, 10), snapshot.read(null, SORTING, 0, 10, null));
+		assertSame(expected.subList(95, 100), snapshot.read(null, SORTING, 95, 10, null));
+		assertSame(expected.subList(0, 0), snapshot.read(null, SORTING, 100, 10, null));
+	}
+
+	@Test
+	public void testSortedViewCanceled() {
+		final List<IBeanDto> beanDtos = createBeanDtos();
+		final BeanDtoSnapshot snapshot = new BeanDtoSnapshot(beanDtos, INDEXED_PROPERTIES, null);
+
+		try {
+			snapshot.read(null, SORTING, 0, Integer.MAX_VALUE, new DummyExecutionCallback() {
+				@Override
+				public boolean isCanceled() {
+					return true;
+				}
+			});
+			Assert.fail("ServiceCanceledException expected");
+		}
+		catch (final ServiceCanceledException e) {
+			// expected
+		}
+
+		assertSorted(snapshot, beanDtos, SORTING);
+	}
+
+	@Test
+	public void testLeastRecentlyUsedSortedViewEvicted() {
+		final List<IBeanDto> beanDtos = createBeanDtos();
+		final BeanDtoSnapshot snapshot = new BeanDtoSnapshot(beanDtos, INDEXED_PROPERTIES, null);
+		final List<List<ISort>> sortings = new ArrayList<List<ISort>>();
+		for (final SortOrder sortOrder : SortOrder.values()) {
+			sortings.add(Arrays.asList(Sort.create(NAME_PROPERTY, sortOrder)));
+			sortings.add(Arrays.asList(Sort.create(AGE_PROPERTY, sortOrder)));
+			sortings.add(Arrays.asList(Sort.create(GROUP_PROPERTY, sortOrder)));
+			sortings.add(Arrays.asList(Sort.create(NAME_PROPERTY, sortOrder), Sort.create(AGE_PROPERTY, sortOrder)));
+			sortings.add(Arrays.asList(Sort.create(AGE_PROPERTY, sortOrder), Sort.create(NAME_PROPERTY, sortOrder)));
+		}
+
+		for (final List<ISort> sorting : sortings.subList(0, 8)) {
+			assertSorted(snapshot, beanDtos, sorting);
+		}
+		// use the first view again, so the second view is the least recently used
+		assertSorted(snapshot, beanDtos, sortings.get(0));
+		assertSorted(snapshot, beanDtos, sortings.get(8));
+
+		Assert.assertTrue(snapshot.hasSortedView(sortings.get(0)));
+		Assert.assertFalse(snapshot.hasSortedView(sortings.get(1)));
+		for (final List<ISort> sorting : sortings.subList(2, 9)) {
+			Assert.assertTrue(snapshot.hasSortedView(sorting));
+		}
+
+		// views that are added later replace the eldest views
+		assertSorted(snapshot, beanDtos, sortings.get(9));
+		Assert.assertTrue(snapshot.hasSortedView(sortings.get(9)));
+		Assert.assertFalse(snapshot.hasSortedView(sortings.get(2)));
+	}
+
+	private static IBeanDto createRandomBeanDto(final Random random, final int id) {
+		final IBeanDtoBuilder builder = CapCommonToolkit.dtoBuilder(BEAN_TYPE_ID);
+		builder.setId(Integer.valueOf(id));
+		builder.setValue(NAME_PROPERTY, "Name " + random.nextInt(20));
+		builder.setValue(AGE_PROPERTY, random.nextInt(10) > 0 ? Integer.valueOf(random.nextInt(100)) : null);
+		builder.setValue(GROUP_PROPERTY, Integer.valueOf(random.nextInt(GROUP_COUNT)));
+		return builder.build();
+	}
+
+	private static Object getRandomId(final Random random, final Map<Object, IBeanDto> beanDtos) {
+		final List<Object> ids = new ArrayList<Object>(beanDtos.keySet());
+		return ids.get(random.nextInt(ids.size()));
+	}
+
+	private static void assertSorted(
+		final BeanDtoSnapshot snapshot,
+		final Collection<IBeanDto> beanDtos,
+		final List<ISort> sorting) {
+		assertSame(sortExpected(beanDtos, sorting), snapshot.read(null, sorting, 0, Integer.MAX_VALUE, null));
+	}
+
+}
@@ -44,7 +44,7 @@ import org.jowidgets.cap.common.api.bean.IBeanKey;
 import org.jowidgets.cap.common.api.exception.ServiceCanceledException;
 import org.jowidgets.cap.common.api.execution.IExecutionCallback;
 import org.jowidgets.cap.common.api.execution.IResultCallback;
-import org.jowidgets.cap.common.api.filter.IBeanDtoFilter;
+import org.jowidgets.cap.common.api.filter.IBeanDtoPredicate;
 import org.jowidgets.cap.common.api.filter.IFilter;
 import org.jowidgets.cap.common.api.service.IReaderService;
 import org.jowidgets.cap.common.api.sort.BeanDtoComparator;
@@ -398,12 +398,12 @@ final class CachedBeanListReaderService<PARAM_TYPE, BEAN_TYPE> implements IReade
 			final IFilter filter,
 			final IExecutionCallback executionCallback) {
 			final List<IBeanDto> result = new LinkedList<IBeanDto>();
-			final IBeanDtoFilter dtoFilter = CapCommonToolkit.beanDtoFilter();
+			final IBeanDtoPredicate predicate = CapCommonToolkit.beanDtoFilter().compile(filter);
 			for (final IBeanDto sourceBean : source) {
 				if (executionCallback.isCanceled()) {
 					throw new ServiceCanceledException();
 				}
-				if (dtoFilter.accept(sourceBean, filter)) {
+				if (predicate.accept(sourceBean)) {
 					result.add(sourceBean);
 				}
 			}
@@ -30,6 +30,16 @@ package org.jowidgets.plugin.api;
 
 public interface IPluginFilter {
 
+	/**
+	 * Decides if a plugin will be provided for the given properties.
+	 * 
+	 * The result must only depend on the given properties, because plugin providers may cache
+	 * the plugins for equal properties.
+	 * 
+	 * @param properties The properties of the plugin lookup
+	 * 
+	 * @return True if the plugin will be provided, false otherwise
+	 */
 	boolean accept(IPluginProperties properties);
 
 }
@@ -38,4 +38,6 @@ public interface IPluginToolkit {
 
 	IPluginFilterBuilder pluginFilterBuilderOr();
 
+	IPluginLookupStatistics getLookupStatistics();
+
 }
@@ -101,14 +101,27 @@ public final class PluginProvider {
 				public <PLUGIN_TYPE> List<PLUGIN_TYPE> getPlugins(
 					final IPluginId<PLUGIN_TYPE> id,
 					final IPluginProperties properties) {
-					final List<PLUGIN_TYPE> result = new LinkedList<PLUGIN_TYPE>();
+					List<PLUGIN_TYPE> result = null;
+					List<PLUGIN_TYPE> mergedResult = null;
 					for (final IPluginProviderHolder pluginProviderHolder : pluginProviderHolders) {
 						final IPluginProvider provider = pluginProviderHolder.getPluginProvider();
 						final List<PLUGIN_TYPE> plugins = provider.getPlugins(id, properties);
 						if (plugins != null && !plugins.isEmpty()) {
-							result.addAll(plugins);
+							if (result == null) {
+								result = plugins;
+							}
+							else {
+								if (mergedResult == null) {
+									mergedResult = new LinkedList<PLUGIN_TYPE>(result);
+									result = mergedResult;
+								}
+								mergedResult.addAll(plugins);
+							}
 						}
 					}
+					if (result == null) {
+						return Collections.emptyList();
+					}
 					return Collections.unmodifiableList(result);
 				}
 			};
@@ -55,4 +55,8 @@ public final class PluginToolkit {
 	public static IPluginFilterBuilder pluginFilterBuilderOr() {
 		return getInstance().pluginFilterBuilderOr();
 	}
+
+	public static IPluginLookupStatistics getLookupStatistics() {
+		return getInstance().getLookupStatistics();
+	}
 }
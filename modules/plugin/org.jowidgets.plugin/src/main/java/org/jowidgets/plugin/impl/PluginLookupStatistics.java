@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2011, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.plugin.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jowidgets.plugin.api.IPluginLookupStatistics;
+
+final class PluginLookupStatistics implements IPluginLookupStatistics {
+
+	private static final PluginLookupStatistics INSTANCE = new PluginLookupStatistics();
+
+	private final AtomicLong lookupCount;
+	private final AtomicLong cacheHitCount;
+
+	private PluginLookupStatistics() {
+		this.lookupCount = new AtomicLong();
+		this.cacheHitCount = new AtomicLong();
+	}
+
+	static PluginLookupStatistics getInstance() {
+		return INSTANCE;
+	}
+
+	void lookup() {
+		lookupCount.incrementAndGet();
+	}
+
+	void cacheHit() {
+		cacheHitCount.incrementAndGet();
+	}
+
+	@Override
+	public long getLookupCount() {
+		return lookupCount.get();
+	}
+
+	@Override
+	public long getCacheHitCount() {
+		return cacheHitCount.get();
+	}
+
+	@Override
+	public double getCacheHitRate() {
+		final long lookups = lookupCount.get();
+		if (lookups > 0) {
+			return (double) cacheHitCount.get() / lookups;
+		}
+		return 0;
+	}
+
+}
@@ -51,6 +51,23 @@ final class PluginPropertiesImpl implements IPluginProperties {
 		return (VALUE_TYPE) map.get(key);
 	}
 
+	@Override
+	public int hashCode() {
+		return map.hashCode();
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof PluginPropertiesImpl)) {
+			return false;
+		}
+		final PluginPropertiesImpl other = (PluginPropertiesImpl) obj;
+		return map.equals(other.map);
+	}
+
 	@Override
 	public String toString() {
 		final StringBuilder builder = new StringBuilder();
@@ -28,11 +28,13 @@
 
 package org.jowidgets.plugin.impl;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.jowidgets.plugin.api.IPluginFilter;
 import org.jowidgets.plugin.api.IPluginId;
@@ -44,31 +46,103 @@ import org.jowidgets.util.Tuple;
 @SuppressWarnings({"rawtypes", "unchecked"})
 final class PluginProviderImpl implements IPluginProvider {
 
+	static final int MAX_CACHE_SIZE = 1000;
+
 	private final Map plugins;
+	private final Map<LookupKey, List> lookupCache;
+	private final PluginLookupStatistics statistics;
 
 	PluginProviderImpl(final Map plugins) {
-		this.plugins = new LinkedHashMap(plugins);
+		this.plugins = new LinkedHashMap();
+		for (final Object entry : plugins.entrySet()) {
+			final Entry pluginsEntry = (Entry) entry;
+			this.plugins.put(pluginsEntry.getKey(), new ArrayList((List) pluginsEntry.getValue()));
+		}
+		this.lookupCache = new ConcurrentHashMap<LookupKey, List>();
+		this.statistics = PluginLookupStatistics.getInstance();
 	}
 
 	@Override
 	public <PLUGIN_TYPE> List<PLUGIN_TYPE> getPlugins(final IPluginId<PLUGIN_TYPE> id, final IPluginProperties properties) {
 		Assert.paramNotNull(id, "id");
 		Assert.paramNotNull(properties, "properties");
-
-		final List<PLUGIN_TYPE> result = new LinkedList<PLUGIN_TYPE>();
+		statistics.lookup();
 
 		final List<Tuple> registerdPlugins = (List<Tuple>) plugins.get(id);
-		if (registerdPlugins != null) {
-			for (final Tuple tuple : registerdPlugins) {
-				final PLUGIN_TYPE plugin = (PLUGIN_TYPE) tuple.getFirst();
-				final IPluginFilter filter = (IPluginFilter) tuple.getSecond();
-				if (filter.accept(properties)) {
-					result.add(plugin);
-				}
+		if (registerdPlugins == null) {
+			return Collections.emptyList();
+		}
+
+		//only the properties created by the toolkit can be compared, so other properties will not be cached
+		if (!(properties instanceof PluginPropertiesImpl)) {
+			return getFilteredPlugins(registerdPlugins, properties);
+		}
+
+		final LookupKey key = new LookupKey(id, properties);
+		List<PLUGIN_TYPE> result = lookupCache.get(key);
+		if (result != null) {
+			statistics.cacheHit();
+			return result;
+		}
+
+		result = getFilteredPlugins(registerdPlugins, properties);
+		if (lookupCache.size() >= MAX_CACHE_SIZE) {
+			lookupCache.clear();
+		}
+		lookupCache.put(key, result);
+		return result;
+	}
+
+	private <PLUGIN_TYPE> List<PLUGIN_TYPE> getFilteredPlugins(
+		final List<Tuple> registerdPlugins,
+		final IPluginProperties properties) {
+
+		final List<PLUGIN_TYPE> result = new ArrayList<PLUGIN_TYPE>(registerdPlugins.size());
+		for (final Tuple tuple : registerdPlugins) {
+			final PLUGIN_TYPE plugin = (PLUGIN_TYPE) tuple.getFirst();
+			final IPluginFilter filter = (IPluginFilter) tuple.getSecond();
+			if (filter.accept(properties)) {
+				result.add(plugin);
 			}
 		}
 
+		if (result.isEmpty()) {
+			return Collections.emptyList();
+		}
 		return Collections.unmodifiableList(result);
 	}
 
+	private static final class LookupKey {
+
+		private final IPluginId<?> id;
+		private final IPluginProperties properties;
+
+		LookupKey(final IPluginId<?> id, final IPluginProperties properties) {
+			this.id = id;
+			this.properties = properties;
+		}
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + id.hashCode();
+			result = prime * result + properties.hashCode();
+			return result;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof LookupKey)) {
+				return false;
+			}
+			final LookupKey other = (LookupKey) obj;
+			return id.equals(other.id) && properties.equals(other.properties);
+		}
+
+	}
+
 }
@@ -29,6 +29,7 @@
 package org.jowidgets.plugin.impl;
 
 import org.jowidgets.plugin.api.IPluginFilterBuilder;
+import org.jowidgets.plugin.api.IPluginLookupStatistics;
 import org.jowidgets.plugin.api.IPluginPropertiesBuilder;
 import org.jowidgets.plugin.api.IPluginProviderBuilder;
 import org.jowidgets.plugin.api.IPluginToolkit;
@@ -55,4 +56,9 @@ public final class PluginToolkitImpl implements IPluginToolkit {
 		return new PluginFilterBuilderImpl(false);
 	}
 
+	@Override
+	public IPluginLookupStatistics getLookupStatistics() {
+		return PluginLookupStatistics.getInstance();
+	}
+
 }
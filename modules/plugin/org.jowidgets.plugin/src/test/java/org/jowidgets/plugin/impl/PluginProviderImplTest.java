@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.plugin.impl;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.jowidgets.plugin.api.IPluginFilter;
+import org.jowidgets.plugin.api.IPluginId;
+import org.jowidgets.plugin.api.IPluginProperties;
+import org.jowidgets.plugin.api.IPluginProvider;
+import org.jowidgets.plugin.api.IPluginProviderBuilder;
+import org.jowidgets.util.ITypedKey;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PluginProviderImplTest {
+
+	private static final IPluginId<String> PLUGIN_ID = new IPluginId<String>() {};
+	private static final IPluginId<String> OTHER_PLUGIN_ID = new IPluginId<String>() {};
+
+	private static final ITypedKey<Integer> VALUE_KEY = new ITypedKey<Integer>() {};
+
+	private static final String EVEN_PLUGIN = "evenPlugin";
+	private static final String ODD_PLUGIN = "oddPlugin";
+
+	private PluginToolkitImpl toolkit;
+	private CountingFilter evenFilter;
+	private CountingFilter oddFilter;
+	private IPluginProvider provider;
+
+	@Before
+	public void setUp() {
+		toolkit = new PluginToolkitImpl();
+		evenFilter = new CountingFilter(0);
+		oddFilter = new CountingFilter(1);
+		final IPluginProviderBuilder builder = toolkit.pluginProviderBuilder();
+		builder.addPlugin(PLUGIN_ID, EVEN_PLUGIN, evenFilter);
+		builder.addPlugin(PLUGIN_ID, ODD_PLUGIN, oddFilter);
+		provider = builder.build();
+	}
+
+	private IPluginProperties createProperties(final int value) {
+		return toolkit.pluginPropertiesBuilder().add(VALUE_KEY, Integer.valueOf(value)).build();
+	}
+
+	@Test
+	public void testCacheHitForEqualProperties() {
+		final long hits = toolkit.getLookupStatistics().getCacheHitCount();
+
+		final List<String> first = provider.getPlugins(PLUGIN_ID, createProperties(2));
+		final List<String> second = provider.getPlugins(PLUGIN_ID, createProperties(2));
+
+		Assert.assertEquals(Collections.singletonList(EVEN_PLUGIN), first);
+		Assert.assertSame(first, second);
+		Assert.assertEquals(1, evenFilter.count);
+		Assert.assertEquals(1, oddFilter.count);
+		Assert.assertEquals(hits + 1, toolkit.getLookupStatistics().getCacheHitCount());
+	}
+
+	@Test
+	public void testCacheMissForOtherProperties() {
+		Assert.assertEquals(Collections.singletonList(EVEN_PLUGIN), provider.getPlugins(PLUGIN_ID, createProperties(2)));
+		Assert.assertEquals(Collections.singletonList(ODD_PLUGIN), provider.getPlugins(PLUGIN_ID, createProperties(3)));
+		Assert.assertEquals(2, evenFilter.count);
+		Assert.assertEquals(2, oddFilter.count);
+	}
+
+	@Test
+	public void testCacheMissForOtherId() {
+		final IPluginProviderBuilder builder = toolkit.pluginProviderBuilder();
+		builder.addPlugin(PLUGIN_ID, EVEN_PLUGIN, evenFilter);
+		builder.addPlugin(OTHER_PLUGIN_ID, ODD_PLUGIN, evenFilter);
+		provider = builder.build();
+
+		Assert.assertEquals(Collections.singletonList(EVEN_PLUGIN), provider.getPlugins(PLUGIN_ID, createProperties(2)));
+		Assert.assertEquals(Collections.singletonList(ODD_PLUGIN), provider.getPlugins(OTHER_PLUGIN_ID, createProperties(2)));
+		Assert.assertEquals(2, evenFilter.count);
+	}
+
+	@Test
+	public void testPropertiesNotCreatedByToolkitAreNotCached() {
+		final long hits = toolkit.getLookupStatistics().getCacheHitCount();
+		final IPluginProperties properties = new IPluginProperties() {
+			@SuppressWarnings("unchecked")
+			@Override
+			public <VALUE_TYPE> VALUE_TYPE getValue(final ITypedKey<VALUE_TYPE> key) {
+				return (VALUE_TYPE) Integer.valueOf(4);
+			}
+		};
+
+		Assert.assertEquals(Collections.singletonList(EVEN_PLUGIN), provider.getPlugins(PLUGIN_ID, properties));
+		Assert.assertEquals(Collections.singletonList(EVEN_PLUGIN), provider.getPlugins(PLUGIN_ID, properties));
+		Assert.assertEquals(2, evenFilter.count);
+		Assert.assertEquals(hits, toolkit.getLookupStatistics().getCacheHitCount());
+	}
+
+	@Test
+	public void testCacheClearedAtMaxSize() {
+		for (int i = 0; i < PluginProviderImpl.MAX_CACHE_SIZE; i++) {
+			provider.getPlugins(PLUGIN_ID, createProperties(i));
+		}
+		Assert.assertEquals(PluginProviderImpl.MAX_CACHE_SIZE, evenFilter.count);
+
+		//the cache is full but not cleared yet, so the first properties are still cached
+		provider.getPlugins(PLUGIN_ID, createProperties(0));
+		Assert.assertEquals(PluginProviderImpl.MAX_CACHE_SIZE, evenFilter.count);
+
+		//the next miss clears the cache
+		provider.getPlugins(PLUGIN_ID, createProperties(PluginProviderImpl.MAX_CACHE_SIZE));
+		Assert.assertEquals(PluginProviderImpl.MAX_CACHE_SIZE + 1, evenFilter.count);
+
+		provider.getPlugins(PLUGIN_ID, createProperties(0));
+		Assert.assertEquals(PluginProviderImpl.MAX_CACHE_SIZE + 2, evenFilter.count);
+
+		//the properties that caused the clear are cached again
+		provider.getPlugins(PLUGIN_ID, createProperties(PluginProviderImpl.MAX_CACHE_SIZE));
+		Assert.assertEquals(PluginProviderImpl.MAX_CACHE_SIZE + 2, evenFilter.count);
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testCachedResultIsUnmodifiable() {
+		final List<String> plugins = provider.getPlugins(PLUGIN_ID, createProperties(2));
+		plugins.addAll(Arrays.asList(ODD_PLUGIN));
+	}
+
+	private static final class CountingFilter implements IPluginFilter {
+
+		private final int remainder;
+		private int count;
+
+		CountingFilter(final int remainder) {
+			this.remainder = remainder;
+		}
+
+		@Override
+		public boolean accept(final IPluginProperties properties) {
+			count++;
+			return properties.getValue(VALUE_KEY).intValue() % 2 == remainder;
+		}
+	}
+
+}
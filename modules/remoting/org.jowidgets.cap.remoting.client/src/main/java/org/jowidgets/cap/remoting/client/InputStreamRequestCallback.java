@@ -42,6 +42,8 @@ import org.jowidgets.cap.remoting.common.InputStreamMarkRequest;
 import org.jowidgets.cap.remoting.common.InputStreamMarkResponse;
 import org.jowidgets.cap.remoting.common.InputStreamMarkSupportedRequest;
 import org.jowidgets.cap.remoting.common.InputStreamMarkSupportedResponse;
+import org.jowidgets.cap.remoting.common.InputStreamReadChunkRequest;
+import org.jowidgets.cap.remoting.common.InputStreamReadChunkResponse;
 import org.jowidgets.cap.remoting.common.InputStreamReadRequest;
 import org.jowidgets.cap.remoting.common.InputStreamReadResponse;
 import org.jowidgets.cap.remoting.common.InputStreamResetRequest;
@@ -55,10 +57,12 @@ import org.jowidgets.util.Assert;
 final class InputStreamRequestCallback implements IInterimRequestCallback<IInputStreamRequest, IInputStreamResponse> {
 
 	private final ArrayList<InputStream> inputStreams;
+	private final long[] nextChunkSequences;
 
 	InputStreamRequestCallback(final ArrayList<InputStream> inputStreams) {
 		Assert.paramNotEmpty(inputStreams, "inputStreams");
 		this.inputStreams = inputStreams;
+		this.nextChunkSequences = new long[inputStreams.size()];
 	}
 
 	@SuppressWarnings({"rawtypes", "unchecked"})
@@ -70,6 +74,9 @@ final class InputStreamRequestCallback implements IInterimRequestCallback<IInput
 		if (request instanceof InputStreamReadRequest) {
 			inputStreamReadRequest(callback, (InputStreamReadRequest) request);
 		}
+		else if (request instanceof InputStreamReadChunkRequest) {
+			inputStreamReadChunkRequest(callback, (InputStreamReadChunkRequest) request);
+		}
 		else if (request instanceof InputStreamSkipRequest) {
 			inputStreamSkipRequest(callback, (InputStreamSkipRequest) request);
 		}
@@ -157,6 +164,51 @@ final class InputStreamRequestCallback implements IInterimRequestCallback<IInput
 		}
 	}
 
+	private void inputStreamReadChunkRequest(
+		final IInterimResponseCallback<InputStreamReadChunkResponse> responseCallback,
+		final InputStreamReadChunkRequest request) {
+		final InputStream inputStream = inputStreams.get(request.getIndex());
+		//chunk requests may be processed concurrently, so reading and numbering the chunks must be atomic
+		synchronized (inputStream) {
+			final long sequence = nextChunkSequences[request.getIndex()]++;
+			try {
+				final byte[] bytes = new byte[request.getChunkSize()];
+				final int readBytes = readChunk(inputStream, bytes);
+				if (readBytes == -1) {
+					responseCallback.response(new InputStreamReadChunkResponse(sequence));
+				}
+				else if (readBytes == bytes.length) {
+					responseCallback.response(new InputStreamReadChunkResponse(sequence, bytes, readBytes));
+				}
+				else {//readBytes < bytes.length
+					final byte[] trimmedBytes = new byte[readBytes];
+					System.arraycopy(bytes, 0, trimmedBytes, 0, readBytes);
+					responseCallback.response(new InputStreamReadChunkResponse(sequence, trimmedBytes, readBytes));
+				}
+			}
+			catch (final IOException e) {
+				responseCallback.response(new InputStreamReadChunkResponse(sequence, e));
+			}
+		}
+	}
+
+	/**
+	 * Reads until the chunk is full or the end of the stream is reached
+	 * 
+	 * @return The number of bytes read or -1 if the stream was already at its end
+	 */
+	private int readChunk(final InputStream inputStream, final byte[] chunk) throws IOException {
+		int result = 0;
+		while (result < chunk.length) {
+			final int readBytes = inputStream.read(chunk, result, chunk.length - result);
+			if (readBytes == -1) {
+				return result > 0 ? result : -1;
+			}
+			result = result + readBytes;
+		}
+		return result;
+	}
+
 	private void inputStreamResetRequest(
 		final IInterimResponseCallback<InputStreamResetResponse> responseCallback,
 		final InputStreamResetRequest request) {
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.cap.remoting.client;
+
+import java.io.InputStream;
+import java.lang.reflect.Method;
+
+import org.jowidgets.cap.common.api.execution.IExecutionCallback;
+import org.jowidgets.cap.common.api.execution.IResultCallback;
+
+/**
+ * The analysis of the parameters of a remote method that will be cached
+ * to avoid the parameter type scans on each invocation
+ */
+final class RemoteMethodInfo {
+
+	private final Class<?>[] parameterTypes;
+	private final int resultCallbackIndex;
+	private final int executionCallbackIndex;
+	private final boolean inputStreamParameters;
+
+	RemoteMethodInfo(final Method method) {
+		this.parameterTypes = method.getParameterTypes();
+		this.resultCallbackIndex = getFirstMatchingIndex(IResultCallback.class, parameterTypes);
+		this.executionCallbackIndex = getFirstMatchingIndex(IExecutionCallback.class, parameterTypes);
+		this.inputStreamParameters = hasInputStreamParameters(parameterTypes);
+	}
+
+	/**
+	 * @return The parameter types, must not be modified
+	 */
+	Class<?>[] getParameterTypes() {
+		return parameterTypes;
+	}
+
+	int getResultCallbackIndex() {
+		return resultCallbackIndex;
+	}
+
+	int getExecutionCallbackIndex() {
+		return executionCallbackIndex;
+	}
+
+	/**
+	 * @return True if at least one parameter may hold input streams
+	 */
+	boolean hasInputStreamParameters() {
+		return inputStreamParameters;
+	}
+
+	private static boolean hasInputStreamParameters(final Class<?>[] parameterTypes) {
+		for (final Class<?> parameterType : parameterTypes) {
+			if (InputStream.class.isAssignableFrom(parameterType)
+				|| InputStream[].class.isAssignableFrom(parameterType)
+				|| Iterable.class.isAssignableFrom(parameterType)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static int getFirstMatchingIndex(final Class<?> type, final Class<?>[] paramTypes) {
+		for (int i = 0; i < paramTypes.length; i++) {
+			if (type.isAssignableFrom(paramTypes[i])) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+}
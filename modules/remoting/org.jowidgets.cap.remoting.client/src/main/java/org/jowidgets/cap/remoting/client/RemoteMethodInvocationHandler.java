@@ -33,6 +33,8 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.jowidgets.cap.common.api.execution.IExecutionCallback;
 import org.jowidgets.cap.common.api.execution.IResultCallback;
@@ -57,11 +59,13 @@ final class RemoteMethodInvocationHandler implements InvocationHandler {
 
 	private final IServiceId<?> serviceId;
 	private final IInvocationServiceClient invocationServiceClient;
+	private final ConcurrentMap<Method, RemoteMethodInfo> methodInfos;
 
 	RemoteMethodInvocationHandler(final Object brokerId, final IServiceId<?> serviceId) {
 		Assert.paramNotNull(serviceId, "serviceId");
 		this.serviceId = serviceId;
 		this.invocationServiceClient = InvocationServiceClientToolkit.getClient(brokerId);
+		this.methodInfos = new ConcurrentHashMap<Method, RemoteMethodInfo>();
 	}
 
 	@Override
@@ -96,11 +100,18 @@ final class RemoteMethodInvocationHandler implements InvocationHandler {
 	}
 
 	private Object invokeRemoteMethod(final Object proxy, final Method method, final Object[] args) {
-		final Class<?>[] parameterTypes = method.getParameterTypes();
+		final RemoteMethodInfo methodInfo = getMethodInfo(method);
+		final Class<?>[] parameterTypes = methodInfo.getParameterTypes();
 
-		final IResultCallback<Object> resultCallback = getResultCallback(parameterTypes, args);
-		final IExecutionCallback executionCallback = getExecutionCallback(parameterTypes, args);
-		final ArrayList<InputStream> inputStreams = getInputStreams(parameterTypes, args);
+		final IResultCallback<Object> resultCallback = getResultCallback(methodInfo, args);
+		final IExecutionCallback executionCallback = getExecutionCallback(methodInfo, args);
+		final ArrayList<InputStream> inputStreams;
+		if (methodInfo.hasInputStreamParameters()) {
+			inputStreams = getInputStreams(parameterTypes, args);
+		}
+		else {
+			inputStreams = new ArrayList<InputStream>(0);
+		}
 
 		final IInterimResponseCallback<Progress> interimResponseCallback;
 		final IInterimRequestCallback<UserQuestionRequest, UserQuestionResult> userQuestionRequestCallback;
@@ -187,14 +198,24 @@ final class RemoteMethodInvocationHandler implements InvocationHandler {
 		methodService.invoke(invocationCallback, interimResponseCallback, interimRequestCallback, parameter);
 	}
 
+	private RemoteMethodInfo getMethodInfo(final Method method) {
+		final RemoteMethodInfo cachedMethodInfo = methodInfos.get(method);
+		if (cachedMethodInfo != null) {
+			return cachedMethodInfo;
+		}
+		final RemoteMethodInfo methodInfo = new RemoteMethodInfo(method);
+		final RemoteMethodInfo existingMethodInfo = methodInfos.putIfAbsent(method, methodInfo);
+		return existingMethodInfo != null ? existingMethodInfo : methodInfo;
+	}
+
 	@SuppressWarnings("unchecked")
-	private IResultCallback<Object> getResultCallback(final Class<?>[] parameterTypes, final Object[] args) {
-		final int index = getFirstMatchingIndex(IResultCallback.class, parameterTypes);
+	private IResultCallback<Object> getResultCallback(final RemoteMethodInfo methodInfo, final Object[] args) {
+		final int index = methodInfo.getResultCallbackIndex();
 		return (IResultCallback<Object>) (index != -1 ? args[index] : null);
 	}
 
-	private IExecutionCallback getExecutionCallback(final Class<?>[] parameterTypes, final Object[] args) {
-		final int index = getFirstMatchingIndex(IExecutionCallback.class, parameterTypes);
+	private IExecutionCallback getExecutionCallback(final RemoteMethodInfo methodInfo, final Object[] args) {
+		final int index = methodInfo.getExecutionCallbackIndex();
 		return (IExecutionCallback) (index != -1 ? args[index] : null);
 	}
 
@@ -228,17 +249,6 @@ final class RemoteMethodInvocationHandler implements InvocationHandler {
 		return result;
 	}
 
-	private int getFirstMatchingIndex(final Class<?> type, final Class<?>[] paramTypes) {
-		if (paramTypes != null) {
-			for (int i = 0; i < paramTypes.length; i++) {
-				if (type.isAssignableFrom(paramTypes[i])) {
-					return i;
-				}
-			}
-		}
-		return -1;
-	}
-
 	/**
 	 * Filter the callback arguments
 	 * 
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.cap.remoting.common;
+
+import java.io.IOException;
+
+public final class InputStreamReadChunkResponse extends AbstractInputStreamResponse {
+
+	private static final long serialVersionUID = -1730461120577816054L;
+
+	private final long sequence;
+	private final byte[] bytes;
+	private final int bytesRead;
+
+	public InputStreamReadChunkResponse(final long sequence, final IOException ioException) {
+		super(ioException);
+		this.sequence = sequence;
+		this.bytes = null;
+		this.bytesRead = -1;
+	}
+
+	public InputStreamReadChunkResponse(final long sequence) {
+		this(sequence, new byte[0], -1);
+	}
+
+	public InputStreamReadChunkResponse(final long sequence, final byte[] bytes, final int bytesRead) {
+		this.sequence = sequence;
+		this.bytes = bytes;
+		this.bytesRead = bytesRead;
+	}
+
+	/**
+	 * @return The number of the chunk in the stream, starting with 0
+	 */
+	public long getSequence() {
+		return sequence;
+	}
+
+	public byte[] getBytes() throws IOException {
+		checkException();
+		return bytes;
+	}
+
+	/**
+	 * @return The number of bytes of the chunk or -1 if the end of the stream was reached
+	 * 
+	 * @throws IOException If reading the chunk failed
+	 */
+	public int getBytesRead() throws IOException {
+		checkException();
+		return bytesRead;
+	}
+
+}
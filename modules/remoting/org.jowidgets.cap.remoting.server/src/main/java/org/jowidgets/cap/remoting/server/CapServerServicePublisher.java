@@ -41,6 +41,7 @@ import org.jowidgets.util.concurrent.DaemonThreadFactory;
 public final class CapServerServicePublisher {
 
 	private static final long DEFAULT_PROGRESS_DELAY = 500;
+	private static final long DEFAULT_INPUT_STREAM_TIMEOUT = 60000;
 
 	private final Object brokerId;
 
@@ -62,12 +63,64 @@ public final class CapServerServicePublisher {
 	}
 
 	public void publishServices(final ScheduledExecutorService progressExecutor, final long progressDelay) {
+		publishServices(progressExecutor, progressDelay, 0, 0);
+	}
+
+	/**
+	 * Publishes the services with a chunked transfer for input stream parameters.
+	 * 
+	 * The client streams will be transferred in chunks of the given size, and up to window size chunks will be
+	 * requested in advance, so uploads will not be bound to the round trip time of each read.
+	 * 
+	 * Remark: The clients must support chunked input stream requests
+	 * 
+	 * @param progressExecutor The executor for delayed progress
+	 * @param progressDelay The progress delay
+	 * @param inputStreamChunkSize The chunk size in bytes, if 0 each read will be requested separately
+	 * @param inputStreamWindowSize The max number of requested and buffered chunks, if 0 each read will be requested separately
+	 */
+	public void publishServices(
+		final ScheduledExecutorService progressExecutor,
+		final long progressDelay,
+		final int inputStreamChunkSize,
+		final int inputStreamWindowSize) {
+		publishServices(
+				progressExecutor,
+				progressDelay,
+				inputStreamChunkSize,
+				inputStreamWindowSize,
+				DEFAULT_INPUT_STREAM_TIMEOUT);
+	}
+
+	/**
+	 * Publishes the services with a chunked transfer for input stream parameters and a timeout for the chunks.
+	 * 
+	 * The server has no timeout for the invocation itself, so a read of a chunked input stream waits at most the
+	 * given timeout for the next chunk. If the invocation will be canceled, waiting reads will be aborted.
+	 * 
+	 * @param progressExecutor The executor for delayed progress
+	 * @param progressDelay The progress delay
+	 * @param inputStreamChunkSize The chunk size in bytes, if 0 each read will be requested separately
+	 * @param inputStreamWindowSize The max number of requested and buffered chunks, if 0 each read will be requested separately
+	 * @param inputStreamTimeout The max time in millis to wait for a chunk, must be positive
+	 */
+	public void publishServices(
+		final ScheduledExecutorService progressExecutor,
+		final long progressDelay,
+		final int inputStreamChunkSize,
+		final int inputStreamWindowSize,
+		final long inputStreamTimeout) {
 
 		final IInvocationServiceServerRegistry registry = InvocationServiceServerToolkit.getRegistry(brokerId);
 
 		registry.register(CapInvocationMethodNames.SERVICE_LOCATOR_METHOD_NAME, new ServiceLocatorMethod());
 		registry.register(
 				CapInvocationMethodNames.GENERIC_REMOTE_METHOD_NAME,
-				new GenericRemoteMethod(progressExecutor, progressDelay));
+				new GenericRemoteMethod(
+					progressExecutor,
+					progressDelay,
+					inputStreamChunkSize,
+					inputStreamWindowSize,
+					inputStreamTimeout));
 	}
 }
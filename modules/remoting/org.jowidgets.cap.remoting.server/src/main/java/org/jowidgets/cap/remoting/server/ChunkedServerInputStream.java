@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.cap.remoting.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jowidgets.cap.remoting.common.InputStreamCloseRequest;
+import org.jowidgets.cap.remoting.common.InputStreamCloseResponse;
+import org.jowidgets.cap.remoting.common.InputStreamReadChunkRequest;
+import org.jowidgets.cap.remoting.common.InputStreamReadChunkResponse;
+import org.jowidgets.invocation.service.common.api.ICancelListener;
+import org.jowidgets.invocation.service.common.api.IInterimRequestCallback;
+import org.jowidgets.invocation.service.common.api.IInterimResponseCallback;
+import org.jowidgets.invocation.service.common.api.IInvocationCallback;
+import org.jowidgets.invocation.service.common.tools.SyncInterimResponseCallback;
+import org.jowidgets.util.Assert;
+
+/**
+ * Input stream that transfers the client stream in chunks.
+ * 
+ * Up to window size chunks will be requested in advance (read ahead), so the client
+ * sends the stream continuously instead of waiting for a request after each read.
+ * The window also limits the number of chunks that are buffered but not yet consumed.
+ * 
+ * A read fails with an IOException if the invocation was canceled or if the next chunk
+ * was not received within the timeout.
+ */
+final class ChunkedServerInputStream extends InputStream {
+
+	private final int index;
+	private final IInterimRequestCallback<Object, Object> interimRequestCallback;
+	private final int chunkSize;
+	private final int windowSize;
+	private final long timeout;
+
+	private final Object lock;
+	private final Map<Long, InputStreamReadChunkResponse> receivedChunks;
+	private int pendingRequests;
+	private boolean canceled;
+
+	private long nextSequence;
+	private byte[] buffer;
+	private int bufferPosition;
+	private int bufferLength;
+	private boolean endOfStream;
+
+	/**
+	 * Creates a new stream
+	 * 
+	 * @param index The index of the stream in the invocation
+	 * @param invocationCallback The callback of the invocation, used to abort reads when the invocation was canceled
+	 * @param interimRequestCallback The callback to request the chunks from the client
+	 * @param chunkSize The chunk size in bytes, must be positive
+	 * @param windowSize The max number of requested and buffered chunks, must be positive
+	 * @param timeout The max time in millis to wait for a chunk, must be positive
+	 */
+	ChunkedServerInputStream(
+		final int index,
+		final IInvocationCallback<Object> invocationCallback,
+		final IInterimRequestCallback<Object, Object> interimRequestCallback,
+		final int chunkSize,
+		final int windowSize,
+		final long timeout) {
+
+		Assert.paramNotNull(invocationCallback, "invocationCallback");
+		Assert.paramNotNull(interimRequestCallback, "interimRequestCallback");
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("The parameter 'chunkSize' must be positive");
+		}
+		if (windowSize <= 0) {
+			throw new IllegalArgumentException("The parameter 'windowSize' must be positive");
+		}
+		if (timeout <= 0) {
+			throw new IllegalArgumentException("The parameter 'timeout' must be positive");
+		}
+
+		this.index = index;
+		this.interimRequestCallback = interimRequestCallback;
+		this.chunkSize = chunkSize;
+		this.windowSize = windowSize;
+		this.timeout = timeout;
+
+		this.lock = new Object();
+		this.receivedChunks = new HashMap<Long, InputStreamReadChunkResponse>();
+		this.pendingRequests = 0;
+		this.canceled = false;
+
+		invocationCallback.addCancelListener(new ICancelListener() {
+			@Override
+			public void canceled() {
+				synchronized (lock) {
+					canceled = true;
+					lock.notifyAll();
+				}
+			}
+		});
+
+		this.nextSequence = 0;
+		this.bufferPosition = 0;
+		this.bufferLength = 0;
+		this.endOfStream = false;
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (!fillBuffer()) {
+			return -1;
+		}
+		return buffer[bufferPosition++] & 0xFF;
+	}
+
+	@Override
+	public int read(final byte[] b, final int off, final int len) throws IOException {
+		Assert.paramNotNull(b, "b");
+		if (off < 0 || len < 0 || len > b.length - off) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (len == 0) {
+			return 0;
+		}
+		if (!fillBuffer()) {
+			return -1;
+		}
+		final int result = Math.min(len, bufferLength - bufferPosition);
+		System.arraycopy(buffer, bufferPosition, b, off, result);
+		bufferPosition = bufferPosition + result;
+		return result;
+	}
+
+	@Override
+	public int available() throws IOException {
+		return bufferLength - bufferPosition;
+	}
+
+	@Override
+	public void close() throws IOException {
+		buffer = null;
+		bufferPosition = 0;
+		bufferLength = 0;
+		endOfStream = true;
+
+		final SyncInterimResponseCallback<Object> responseCallback = new SyncInterimResponseCallback<Object>();
+		interimRequestCallback.request(responseCallback, new InputStreamCloseRequest(index));
+		final InputStreamCloseResponse response = (InputStreamCloseResponse) getResponseSynchronious(responseCallback);
+		if (response.hasExcpetion()) {
+			throw response.getException();
+		}
+	}
+
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+
+	private boolean fillBuffer() throws IOException {
+		while (bufferPosition >= bufferLength) {
+			if (endOfStream) {
+				return false;
+			}
+			requestChunks();
+			final InputStreamReadChunkResponse chunk = awaitChunk(nextSequence);
+			nextSequence++;
+			final int bytesRead = chunk.getBytesRead();
+			if (bytesRead == -1) {
+				endOfStream = true;
+				return false;
+			}
+			buffer = chunk.getBytes();
+			bufferPosition = 0;
+			bufferLength = bytesRead;
+		}
+		return true;
+	}
+
+	private void requestChunks() {
+		final int requestCount;
+		synchronized (lock) {
+			requestCount = windowSize - pendingRequests - receivedChunks.size();
+			if (requestCount > 0) {
+				pendingRequests = pendingRequests + requestCount;
+			}
+		}
+		for (int i = 0; i < requestCount; i++) {
+			interimRequestCallback.request(new ChunkResponseCallback(), new InputStreamReadChunkRequest(index, chunkSize));
+		}
+	}
+
+	private InputStreamReadChunkResponse awaitChunk(final long sequence) throws IOException {
+		synchronized (lock) {
+			final long deadline = System.currentTimeMillis() + timeout;
+			try {
+				while (canceled || !receivedChunks.containsKey(Long.valueOf(sequence))) {
+					if (canceled) {
+						throw new IOException("The invocation was canceled before the chunk '" + sequence + "' was read");
+					}
+					final long remaining = deadline - System.currentTimeMillis();
+					if (remaining <= 0) {
+						throw new IOException("Timeout '" + timeout + " ms' while waiting for the chunk '" + sequence + "'");
+					}
+					lock.wait(remaining);
+				}
+			}
+			catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException(e);
+			}
+			return receivedChunks.remove(Long.valueOf(sequence));
+		}
+	}
+
+	private static Object getResponseSynchronious(final SyncInterimResponseCallback<Object> responseCallback)
+			throws IOException {
+		try {
+			return responseCallback.getResponseSynchronious();
+		}
+		catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(e);
+		}
+	}
+
+	private final class ChunkResponseCallback implements IInterimResponseCallback<Object> {
+
+		@Override
+		public void response(final Object response) {
+			final InputStreamReadChunkResponse chunk = (InputStreamReadChunkResponse) response;
+			synchronized (lock) {
+				pendingRequests--;
+				receivedChunks.put(Long.valueOf(chunk.getSequence()), chunk);
+				lock.notifyAll();
+			}
+		}
+
+	}
+}
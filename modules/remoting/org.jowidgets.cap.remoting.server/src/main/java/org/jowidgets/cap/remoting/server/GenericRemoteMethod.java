@@ -31,10 +31,10 @@ package org.jowidgets.cap.remoting.server;
 import java.io.InputStream;
 import java.lang.reflect.Method;
 import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ScheduledExecutorService;
 
-import org.jowidgets.cap.common.api.execution.IExecutionCallback;
-import org.jowidgets.cap.common.api.execution.IResultCallback;
 import org.jowidgets.cap.remoting.common.InputStreamDummy;
 import org.jowidgets.cap.remoting.common.RemoteInvocationParameter;
 import org.jowidgets.invocation.service.common.api.IInterimRequestCallback;
@@ -48,10 +48,27 @@ final class GenericRemoteMethod implements IMethodInvocationService<Object, Obje
 
 	private final long progressDelay;
 	private final ScheduledExecutorService scheduledExecutorService;
+	private final int inputStreamChunkSize;
+	private final int inputStreamWindowSize;
+	private final long inputStreamTimeout;
+	private final ConcurrentMap<RemoteMethodDispatch.Key, RemoteMethodDispatch> dispatchCache;
 
 	GenericRemoteMethod(final ScheduledExecutorService scheduledExecutorService, final long progressDelay) {
+		this(scheduledExecutorService, progressDelay, 0, 0, 0);
+	}
+
+	GenericRemoteMethod(
+		final ScheduledExecutorService scheduledExecutorService,
+		final long progressDelay,
+		final int inputStreamChunkSize,
+		final int inputStreamWindowSize,
+		final long inputStreamTimeout) {
 		this.scheduledExecutorService = scheduledExecutorService;
 		this.progressDelay = progressDelay;
+		this.inputStreamChunkSize = inputStreamChunkSize;
+		this.inputStreamWindowSize = inputStreamWindowSize;
+		this.inputStreamTimeout = inputStreamTimeout;
+		this.dispatchCache = new ConcurrentHashMap<RemoteMethodDispatch.Key, RemoteMethodDispatch>();
 	}
 
 	@Override
@@ -63,24 +80,13 @@ final class GenericRemoteMethod implements IMethodInvocationService<Object, Obje
 		try {
 			final Object service = ServiceProvider.getService(parameter.getServiceId());
 			if (service != null) {
-				final Method method = service.getClass().getMethod(parameter.getMethodName(), parameter.getParameterTypes());
-				if (method != null) {
-					invokeMethodOnService(
-							service,
-							method,
-							invocationCallback,
-							interimResponseCallback,
-							interimRequestCallback,
-							parameter);
-				}
-				else {
-					throw new IllegalArgumentException(
-						"No method found for '"
-							+ parameter.getMethodName()
-							+ "' with parameters '"
-							+ parameter.getParameterTypes()
-							+ "'");
-				}
+				invokeMethodOnService(
+						service,
+						getDispatch(service.getClass(), parameter),
+						invocationCallback,
+						interimResponseCallback,
+						interimRequestCallback,
+						parameter);
 			}
 			else {
 				throw new IllegalArgumentException("No service found for the id '" + parameter.getServiceId() + "'");
@@ -91,19 +97,36 @@ final class GenericRemoteMethod implements IMethodInvocationService<Object, Obje
 		}
 	}
 
+	private RemoteMethodDispatch getDispatch(final Class<?> serviceType, final RemoteInvocationParameter parameter)
+			throws NoSuchMethodException {
+		final RemoteMethodDispatch.Key key = new RemoteMethodDispatch.Key(
+			serviceType,
+			parameter.getMethodName(),
+			parameter.getParameterTypes());
+		final RemoteMethodDispatch cachedDispatch = dispatchCache.get(key);
+		if (cachedDispatch != null) {
+			return cachedDispatch;
+		}
+		final RemoteMethodDispatch dispatch = RemoteMethodDispatch.create(
+				serviceType,
+				parameter.getMethodName(),
+				parameter.getParameterTypes());
+		final RemoteMethodDispatch existingDispatch = dispatchCache.putIfAbsent(key, dispatch);
+		return existingDispatch != null ? existingDispatch : dispatch;
+	}
+
 	@SuppressWarnings("unchecked")
-	public void invokeMethodOnService(
+	private void invokeMethodOnService(
 		final Object service,
-		final Method method,
+		final RemoteMethodDispatch dispatch,
 		final IInvocationCallback<Object> invocationCallback,
 		final IInterimResponseCallback<Object> interimResponseCallback,
 		final IInterimRequestCallback<Object, Object> interimRequestCallback,
 		final RemoteInvocationParameter parameter) throws Exception {
 
-		final Class<?>[] parameterTypes = parameter.getParameterTypes();
 		final Object[] arguments = parameter.getArguments();
 
-		final int executionCallbackIndex = getFirstMatchingIndex(IExecutionCallback.class, parameterTypes);
+		final int executionCallbackIndex = dispatch.getExecutionCallbackIndex();
 		if (executionCallbackIndex != -1) {
 			arguments[executionCallbackIndex] = new ServerExecutionCallback(
 				scheduledExecutorService,
@@ -113,27 +136,31 @@ final class GenericRemoteMethod implements IMethodInvocationService<Object, Obje
 				interimRequestCallback);
 		}
 
-		if (parameterTypes != null) {
+		if (dispatch.hasInputStreamParameters()) {
 			int inputStreamIndex = 0;
-			for (int i = 0; i < parameterTypes.length; i++) {
-				if (InputStream.class.isAssignableFrom(parameterTypes[i])) {
-					arguments[i] = createServerInputStream(inputStreamIndex, interimRequestCallback);
+			for (int i = 0; i < dispatch.getParameterCount(); i++) {
+				final RemoteMethodDispatch.ParameterKind parameterKind = dispatch.getParameterKind(i);
+				if (parameterKind == RemoteMethodDispatch.ParameterKind.INPUT_STREAM) {
+					arguments[i] = createServerInputStream(inputStreamIndex, invocationCallback, interimRequestCallback);
 					inputStreamIndex++;
 				}
-				else if (InputStream[].class.isAssignableFrom(parameterTypes[i])) {
+				else if (parameterKind == RemoteMethodDispatch.ParameterKind.INPUT_STREAM_ARRAY) {
 					final InputStreamDummy[] inputStreamDummies = (InputStreamDummy[]) arguments[i];
 					if (inputStreamDummies != null) {
 						final InputStream[] inputStreams = new InputStream[inputStreamDummies.length];
 						for (int j = 0; j < inputStreams.length; j++) {
 							if (inputStreamDummies[j] != null) {
-								inputStreams[j] = createServerInputStream(inputStreamIndex, interimRequestCallback);
+								inputStreams[j] = createServerInputStream(
+										inputStreamIndex,
+										invocationCallback,
+										interimRequestCallback);
 								inputStreamIndex++;
 							}
 						}
 						arguments[i] = inputStreams;
 					}
 				}
-				else if (Collection.class.isAssignableFrom(parameterTypes[i])) {
+				else if (parameterKind == RemoteMethodDispatch.ParameterKind.COLLECTION) {
 					final Collection<?> collection = (Collection<?>) arguments[i];
 					if (collection != null && isIterableOfType(collection, InputStreamDummy.class)) {
 						final Collection<InputStream> inputStreams;
@@ -147,7 +174,10 @@ final class GenericRemoteMethod implements IMethodInvocationService<Object, Obje
 						}
 						for (final Object element : collection) {
 							if (element instanceof InputStreamDummy) {
-								inputStreams.add(createServerInputStream(inputStreamIndex, interimRequestCallback));
+								inputStreams.add(createServerInputStream(
+										inputStreamIndex,
+										invocationCallback,
+										interimRequestCallback));
 								inputStreamIndex++;
 							}
 							else if (element == null) {
@@ -163,7 +193,8 @@ final class GenericRemoteMethod implements IMethodInvocationService<Object, Obje
 			}
 		}
 
-		final int resultCallbackIndex = getFirstMatchingIndex(IResultCallback.class, parameterTypes);
+		final Method method = dispatch.getMethod();
+		final int resultCallbackIndex = dispatch.getResultCallbackIndex();
 		if (resultCallbackIndex == -1) {
 			final Object result = method.invoke(service, arguments);
 			invocationCallback.finished(result);
@@ -190,19 +221,20 @@ final class GenericRemoteMethod implements IMethodInvocationService<Object, Obje
 
 	private InputStream createServerInputStream(
 		final int inputStreamIndex,
+		final IInvocationCallback<Object> invocationCallback,
 		final IInterimRequestCallback<Object, Object> interimRequestCallback) {
-		return new LazyBufferedInputStream(new ServerInputStream(inputStreamIndex, interimRequestCallback), 1024000);
-	}
-
-	private int getFirstMatchingIndex(final Class<?> type, final Class<?>[] paramTypes) {
-		if (paramTypes != null) {
-			for (int i = 0; i < paramTypes.length; i++) {
-				if (type.isAssignableFrom(paramTypes[i])) {
-					return i;
-				}
-			}
+		if (inputStreamChunkSize > 0 && inputStreamWindowSize > 0) {
+			return new LazyBufferedInputStream(new ChunkedServerInputStream(
+				inputStreamIndex,
+				invocationCallback,
+				interimRequestCallback,
+				inputStreamChunkSize,
+				inputStreamWindowSize,
+				inputStreamTimeout), inputStreamChunkSize);
+		}
+		else {
+			return new LazyBufferedInputStream(new ServerInputStream(inputStreamIndex, interimRequestCallback), 1024000);
 		}
-		return -1;
 	}
 
 }
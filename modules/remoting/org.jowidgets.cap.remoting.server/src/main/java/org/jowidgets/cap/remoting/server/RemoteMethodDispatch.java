@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.cap.remoting.server;
+
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.jowidgets.cap.common.api.execution.IExecutionCallback;
+import org.jowidgets.cap.common.api.execution.IResultCallback;
+import org.jowidgets.util.Assert;
+
+/**
+ * The resolved method of a remote invocation together with the precomputed analysis of its parameters,
+ * so the method lookup and the parameter type scans must not be done for each invocation
+ */
+final class RemoteMethodDispatch {
+
+	enum ParameterKind {
+		INPUT_STREAM,
+		INPUT_STREAM_ARRAY,
+		COLLECTION,
+		OTHER;
+	}
+
+	private final Method method;
+	private final int executionCallbackIndex;
+	private final int resultCallbackIndex;
+	private final ParameterKind[] parameterKinds;
+	private final boolean inputStreamParameters;
+
+	private RemoteMethodDispatch(final Method method, final Class<?>[] parameterTypes) {
+		this.method = method;
+		this.executionCallbackIndex = getFirstMatchingIndex(IExecutionCallback.class, parameterTypes);
+		this.resultCallbackIndex = getFirstMatchingIndex(IResultCallback.class, parameterTypes);
+
+		final int parameterCount = parameterTypes != null ? parameterTypes.length : 0;
+		this.parameterKinds = new ParameterKind[parameterCount];
+		boolean hasInputStreamParameters = false;
+		for (int i = 0; i < parameterCount; i++) {
+			parameterKinds[i] = getParameterKind(parameterTypes[i]);
+			hasInputStreamParameters = hasInputStreamParameters || parameterKinds[i] != ParameterKind.OTHER;
+		}
+		this.inputStreamParameters = hasInputStreamParameters;
+	}
+
+	static RemoteMethodDispatch create(final Class<?> serviceType, final String methodName, final Class<?>[] parameterTypes)
+			throws NoSuchMethodException {
+		Assert.paramNotNull(serviceType, "serviceType");
+		Assert.paramNotNull(methodName, "methodName");
+		final Method method = serviceType.getMethod(methodName, parameterTypes);
+		try {
+			//avoids the access check on each invocation
+			method.setAccessible(true);
+		}
+		catch (final SecurityException e) {
+			//ignore, the access check will be done on each invocation then
+		}
+		return new RemoteMethodDispatch(method, parameterTypes);
+	}
+
+	Method getMethod() {
+		return method;
+	}
+
+	int getExecutionCallbackIndex() {
+		return executionCallbackIndex;
+	}
+
+	int getResultCallbackIndex() {
+		return resultCallbackIndex;
+	}
+
+	ParameterKind getParameterKind(final int index) {
+		return parameterKinds[index];
+	}
+
+	int getParameterCount() {
+		return parameterKinds.length;
+	}
+
+	/**
+	 * @return True if at least one parameter may hold input streams
+	 */
+	boolean hasInputStreamParameters() {
+		return inputStreamParameters;
+	}
+
+	private static ParameterKind getParameterKind(final Class<?> parameterType) {
+		if (InputStream.class.isAssignableFrom(parameterType)) {
+			return ParameterKind.INPUT_STREAM;
+		}
+		else if (InputStream[].class.isAssignableFrom(parameterType)) {
+			return ParameterKind.INPUT_STREAM_ARRAY;
+		}
+		else if (Collection.class.isAssignableFrom(parameterType)) {
+			return ParameterKind.COLLECTION;
+		}
+		else {
+			return ParameterKind.OTHER;
+		}
+	}
+
+	private static int getFirstMatchingIndex(final Class<?> type, final Class<?>[] paramTypes) {
+		if (paramTypes != null) {
+			for (int i = 0; i < paramTypes.length; i++) {
+				if (type.isAssignableFrom(paramTypes[i])) {
+					return i;
+				}
+			}
+		}
+		return -1;
+	}
+
+	static final class Key {
+
+		private final Class<?> serviceType;
+		private final String methodName;
+		private final Class<?>[] parameterTypes;
+		private final int hashCode;
+
+		Key(final Class<?> serviceType, final String methodName, final Class<?>[] parameterTypes) {
+			this.serviceType = serviceType;
+			this.methodName = methodName;
+			this.parameterTypes = parameterTypes;
+			this.hashCode = computeHashCode();
+		}
+
+		private int computeHashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + ((serviceType == null) ? 0 : serviceType.hashCode());
+			result = prime * result + ((methodName == null) ? 0 : methodName.hashCode());
+			result = prime * result + Arrays.hashCode(parameterTypes);
+			return result;
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			final Key other = (Key) obj;
+			return hashCode == other.hashCode
+				&& serviceType == other.serviceType
+				&& (methodName == null ? other.methodName == null : methodName.equals(other.methodName))
+				&& Arrays.equals(parameterTypes, other.parameterTypes);
+		}
+
+	}
+
+}
@@ -68,7 +68,7 @@ final class ServerInputStream extends InputStream {
 			return -1;
 		}
 		else {
-			return buffer[0];
+			return buffer[0] & 0xFF;
 		}
 	}
 
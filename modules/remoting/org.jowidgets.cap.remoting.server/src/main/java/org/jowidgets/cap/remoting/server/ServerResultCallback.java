@@ -28,6 +28,10 @@
 
 package org.jowidgets.cap.remoting.server;
 
+import java.util.List;
+
+import org.jowidgets.cap.common.api.CapCommonToolkit;
+import org.jowidgets.cap.common.api.bean.IBeanDto;
 import org.jowidgets.cap.common.api.execution.IResultCallback;
 import org.jowidgets.invocation.service.common.api.IInvocationCallback;
 
@@ -41,7 +45,7 @@ final class ServerResultCallback implements IResultCallback<Object> {
 
 	@Override
 	public void finished(final Object result) {
-		invocationCallback.finished(result);
+		invocationCallback.finished(pack(result));
 	}
 
 	@Override
@@ -49,4 +53,29 @@ final class ServerResultCallback implements IResultCallback<Object> {
 		invocationCallback.exeption(exception);
 	}
 
+	/**
+	 * Packs lists of dto's into columnar lists before they will be transferred. This will be done
+	 * here and not by the reader services, so local consumers get the dto's of the services unchanged.
+	 */
+	@SuppressWarnings("unchecked")
+	private static Object pack(final Object result) {
+		if (result instanceof List<?> && isDtoList((List<?>) result)) {
+			//columnar list will only be created if all dto's have the same schema
+			return CapCommonToolkit.columnarDtoList((List<IBeanDto>) result);
+		}
+		return result;
+	}
+
+	private static boolean isDtoList(final List<?> list) {
+		if (list.isEmpty()) {
+			return false;
+		}
+		for (final Object element : list) {
+			if (!(element instanceof IBeanDto)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 }
@@ -0,0 +1,266 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.cap.remoting.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jowidgets.cap.remoting.common.InputStreamCloseResponse;
+import org.jowidgets.cap.remoting.common.InputStreamReadChunkRequest;
+import org.jowidgets.cap.remoting.common.InputStreamReadChunkResponse;
+import org.jowidgets.invocation.service.common.api.ICancelListener;
+import org.jowidgets.invocation.service.common.api.IInterimRequestCallback;
+import org.jowidgets.invocation.service.common.api.IInterimResponseCallback;
+import org.jowidgets.invocation.service.common.api.IInvocationCallback;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ChunkedServerInputStreamTest {
+
+	private static final int CHUNK_SIZE = 4;
+	private static final int WINDOW_SIZE = 2;
+
+	private static final long LONG_TIMEOUT = 60000;
+	private static final long SHORT_TIMEOUT = 50;
+
+	@Test
+	public void testRead() throws IOException {
+		final byte[] data = new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+		final TestClient client = new TestClient(data, true);
+		final ChunkedServerInputStream inputStream = createInputStream(new TestInvocationCallback(), client, LONG_TIMEOUT);
+
+		Assert.assertTrue(Arrays.equals(data, readAll(inputStream)));
+		inputStream.close();
+	}
+
+	@Test
+	public void testReadDelayedChunks() throws IOException {
+		final byte[] data = new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+		final TestClient client = new TestClient(data, false);
+		final ChunkedServerInputStream inputStream = createInputStream(new TestInvocationCallback(), client, LONG_TIMEOUT);
+
+		final Thread responder = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				while (!client.isFinished()) {
+					sleep(10);
+					client.respondPendingRequests();
+				}
+			}
+		});
+		responder.start();
+
+		Assert.assertTrue(Arrays.equals(data, readAll(inputStream)));
+	}
+
+	@Test
+	public void testTimeout() {
+		final TestClient client = new TestClient(new byte[] {1}, false);
+		final ChunkedServerInputStream inputStream = createInputStream(new TestInvocationCallback(), client, SHORT_TIMEOUT);
+
+		final long start = System.currentTimeMillis();
+		try {
+			inputStream.read();
+			Assert.fail("IOException expected");
+		}
+		catch (final IOException e) {
+			//expected
+		}
+		Assert.assertTrue(System.currentTimeMillis() - start >= SHORT_TIMEOUT);
+	}
+
+	@Test
+	public void testCanceledWhileWaiting() {
+		final TestClient client = new TestClient(new byte[] {1}, false);
+		final TestInvocationCallback invocationCallback = new TestInvocationCallback();
+		final ChunkedServerInputStream inputStream = createInputStream(invocationCallback, client, LONG_TIMEOUT);
+
+		final Thread canceler = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				sleep(SHORT_TIMEOUT);
+				invocationCallback.cancel();
+			}
+		});
+		canceler.start();
+
+		final long start = System.currentTimeMillis();
+		try {
+			inputStream.read();
+			Assert.fail("IOException expected");
+		}
+		catch (final IOException e) {
+			//expected
+		}
+		Assert.assertTrue(System.currentTimeMillis() - start < LONG_TIMEOUT / 2);
+	}
+
+	@Test
+	public void testReadAfterCancel() throws IOException {
+		final TestClient client = new TestClient(new byte[] {1, 2, 3, 4, 5, 6}, true);
+		final TestInvocationCallback invocationCallback = new TestInvocationCallback();
+		final ChunkedServerInputStream inputStream = createInputStream(invocationCallback, client, LONG_TIMEOUT);
+
+		//the current chunk can be read to its end, but the next chunk will not be read after the cancel
+		Assert.assertEquals(1, inputStream.read());
+		invocationCallback.cancel();
+		try {
+			readAll(inputStream);
+			Assert.fail("IOException expected");
+		}
+		catch (final IOException e) {
+			//expected
+		}
+	}
+
+	private static ChunkedServerInputStream createInputStream(
+		final TestInvocationCallback invocationCallback,
+		final TestClient client,
+		final long timeout) {
+		return new ChunkedServerInputStream(0, invocationCallback, client, CHUNK_SIZE, WINDOW_SIZE, timeout);
+	}
+
+	private static byte[] readAll(final ChunkedServerInputStream inputStream) throws IOException {
+		final ByteArrayOutputStream result = new ByteArrayOutputStream();
+		final byte[] buffer = new byte[3];
+		int read = inputStream.read(buffer, 0, buffer.length);
+		while (read != -1) {
+			result.write(buffer, 0, read);
+			read = inputStream.read(buffer, 0, buffer.length);
+		}
+		return result.toByteArray();
+	}
+
+	private static void sleep(final long millis) {
+		try {
+			Thread.sleep(millis);
+		}
+		catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static final class TestInvocationCallback implements IInvocationCallback<Object> {
+
+		private final List<ICancelListener> cancelListeners = new ArrayList<ICancelListener>();
+
+		@Override
+		public synchronized void addCancelListener(final ICancelListener cancelListener) {
+			cancelListeners.add(cancelListener);
+		}
+
+		@Override
+		public void finished(final Object result) {}
+
+		@Override
+		public void exeption(final Throwable exception) {}
+
+		void cancel() {
+			final List<ICancelListener> listeners;
+			synchronized (this) {
+				listeners = new ArrayList<ICancelListener>(cancelListeners);
+			}
+			for (final ICancelListener listener : listeners) {
+				listener.canceled();
+			}
+		}
+
+	}
+
+	/**
+	 * Simulates the client that sends the chunks of its stream, either immediately or when the pending
+	 * requests will be responded explicitly.
+	 */
+	private static final class TestClient implements IInterimRequestCallback<Object, Object> {
+
+		private final byte[] data;
+		private final boolean respondImmediately;
+		private final List<IInterimResponseCallback<Object>> pendingRequests;
+
+		private int position;
+		private long sequence;
+		private boolean finished;
+
+		TestClient(final byte[] data, final boolean respondImmediately) {
+			this.data = data;
+			this.respondImmediately = respondImmediately;
+			this.pendingRequests = new ArrayList<IInterimResponseCallback<Object>>();
+		}
+
+		@Override
+		public void request(final IInterimResponseCallback<Object> callback, final Object request) {
+			if (request instanceof InputStreamReadChunkRequest) {
+				synchronized (this) {
+					pendingRequests.add(callback);
+				}
+				if (respondImmediately) {
+					respondPendingRequests();
+				}
+			}
+			else {
+				callback.response(new InputStreamCloseResponse());
+			}
+		}
+
+		void respondPendingRequests() {
+			final List<IInterimResponseCallback<Object>> callbacks;
+			final List<InputStreamReadChunkResponse> responses = new ArrayList<InputStreamReadChunkResponse>();
+			synchronized (this) {
+				callbacks = new ArrayList<IInterimResponseCallback<Object>>(pendingRequests);
+				pendingRequests.clear();
+				for (int i = 0; i < callbacks.size(); i++) {
+					responses.add(nextChunk());
+				}
+			}
+			for (int i = 0; i < callbacks.size(); i++) {
+				callbacks.get(i).response(responses.get(i));
+			}
+		}
+
+		synchronized boolean isFinished() {
+			return finished;
+		}
+
+		private InputStreamReadChunkResponse nextChunk() {
+			if (position >= data.length) {
+				finished = true;
+				return new InputStreamReadChunkResponse(sequence++);
+			}
+			final int length = Math.min(CHUNK_SIZE, data.length - position);
+			final byte[] bytes = Arrays.copyOfRange(data, position, position + length);
+			position = position + length;
+			return new InputStreamReadChunkResponse(sequence++, bytes, length);
+		}
+
+	}
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.invocation.common.api;
+
+import java.io.Serializable;
+
+/**
+ * Compact invocation id that consists of a (random) prefix that identifies the
+ * creator and a sequence number that is unique for the creator.
+ *
+ * The id has a fixed size of two longs, so it is much cheaper to create, hash and
+ * transfer than a random UUID.
+ */
+public final class InvocationId implements Serializable {
+
+	private static final long serialVersionUID = 3390170263367307416L;
+
+	private final long prefix;
+	private final long sequence;
+
+	public InvocationId(final long prefix, final long sequence) {
+		this.prefix = prefix;
+		this.sequence = sequence;
+	}
+
+	public long getPrefix() {
+		return prefix;
+	}
+
+	public long getSequence() {
+		return sequence;
+	}
+
+	@Override
+	public int hashCode() {
+		final long hash = prefix * 31 + sequence;
+		return (int) (hash ^ (hash >>> 32));
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof InvocationId)) {
+			return false;
+		}
+		final InvocationId other = (InvocationId) obj;
+		return prefix == other.prefix && sequence == other.sequence;
+	}
+
+	@Override
+	public String toString() {
+		return Long.toHexString(prefix) + "-" + sequence;
+	}
+
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.invocation.common.impl;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import org.jowidgets.invocation.common.api.InvocationId;
+import org.jowidgets.message.api.IMessageCodec;
+import org.jowidgets.message.api.ITypeCodec;
+import org.jowidgets.message.api.ITypeCodecProvider;
+
+/**
+ * Provides the binary type codecs for the invocation messages
+ */
+public final class InvocationMessageCodecProvider implements ITypeCodecProvider {
+
+	private static final Collection<ITypeCodec<?>> TYPE_CODECS = Collections.unmodifiableList(Arrays.<ITypeCodec<?>> asList(
+			new MethodInvocationMessageCodec(),
+			new CancelMessageCodec(),
+			new ExceptionMessageCodec(),
+			new FinishedMessageCodec(),
+			new InterimRequestMessageCodec(),
+			new InterimResponseMessageCodec(),
+			new ResponseMessageCodec(),
+			new InvocationIdCodec()));
+
+	@Override
+	public Collection<ITypeCodec<?>> getTypeCodecs() {
+		return TYPE_CODECS;
+	}
+
+	private static final class MethodInvocationMessageCodec implements ITypeCodec<MethodInvocationMessage> {
+
+		@Override
+		public Class<MethodInvocationMessage> getType() {
+			return MethodInvocationMessage.class;
+		}
+
+		@Override
+		public int getTypeId() {
+			return 100;
+		}
+
+		@Override
+		public void encode(final MethodInvocationMessage value, final DataOutput output, final IMessageCodec codec)
+				throws IOException {
+			codec.encode(value.getInvocationId(), output);
+			codec.encode(value.getMethodName(), output);
+			codec.encode(value.getParameter(), output);
+		}
+
+		@Override
+		public MethodInvocationMessage decode(final DataInput input, final IMessageCodec codec)
+				throws IOException, ClassNotFoundException {
+			return new MethodInvocationMessage(codec.decode(input), (String) codec.decode(input), codec.decode(input));
+		}
+	}
+
+	private static final class CancelMessageCodec implements ITypeCodec<CancelMessage> {
+
+		@Override
+		public Class<CancelMessage> getType() {
+			return CancelMessage.class;
+		}
+
+		@Override
+		public int getTypeId() {
+			return 101;
+		}
+
+		@Override
+		public void encode(final CancelMessage value, final DataOutput output, final IMessageCodec codec) throws IOException {
+			codec.encode(value.getInvocationId(), output);
+		}
+
+		@Override
+		public CancelMessage decode(final DataInput input, final IMessageCodec codec) throws IOException, ClassNotFoundException {
+			return new CancelMessage(codec.decode(input));
+		}
+	}
+
+	private static final class ExceptionMessageCodec implements ITypeCodec<ExceptionMessage> {
+
+		@Override
+		public Class<ExceptionMessage> getType() {
+			return ExceptionMessage.class;
+		}
+
+		@Override
+		public int getTypeId() {
+			return 102;
+		}
+
+		@Override
+		public void encode(final ExceptionMessage value, final DataOutput output, final IMessageCodec codec) throws IOException {
+			codec.encode(value.getInvocationId(), output);
+			codec.encode(value.getException(), output);
+		}
+
+		@Override
+		public ExceptionMessage decode(final DataInput input, final IMessageCodec codec)
+				throws IOException, ClassNotFoundException {
+			return new ExceptionMessage(codec.decode(input), (Throwable) codec.decode(input));
+		}
+	}
+
+	private static final class FinishedMessageCodec implements ITypeCodec<FinishedMessage> {
+
+		@Override
+		public Class<FinishedMessage> getType() {
+			return FinishedMessage.class;
+		}
+
+		@Override
+		public int getTypeId() {
+			return 103;
+		}
+
+		@Override
+		public void encode(final FinishedMessage value, final DataOutput output, final IMessageCodec codec) throws IOException {
+			codec.encode(value.getInvocationId(), output);
+			codec.encode(value.getResult(), output);
+		}
+
+		@Override
+		public FinishedMessage decode(final DataInput input, final IMessageCodec codec)
+				throws IOException, ClassNotFoundException {
+			return new FinishedMessage(codec.decode(input), codec.decode(input));
+		}
+	}
+
+	private static final class InterimRequestMessageCodec implements ITypeCodec<InterimRequestMessage> {
+
+		@Override
+		public Class<InterimRequestMessage> getType() {
+			return InterimRequestMessage.class;
+		}
+
+		@Override
+		public int getTypeId() {
+			return 104;
+		}
+
+		@Override
+		public void encode(final InterimRequestMessage value, final DataOutput output, final IMessageCodec codec)
+				throws IOException {
+			codec.encode(value.getInvocationId(), output);
+			codec.encode(value.getRequestId(), output);
+			codec.encode(value.getRequest(), output);
+		}
+
+		@Override
+		public InterimRequestMessage decode(final DataInput input, final IMessageCodec codec)
+				throws IOException, ClassNotFoundException {
+			return new InterimRequestMessage(codec.decode(input), codec.decode(input), codec.decode(input));
+		}
+	}
+
+	private static final class InterimResponseMessageCodec implements ITypeCodec<InterimResponseMessage> {
+
+		@Override
+		public Class<InterimResponseMessage> getType() {
+			return InterimResponseMessage.class;
+		}
+
+		@Override
+		public int getTypeId() {
+			return 105;
+		}
+
+		@Override
+		public void encode(final InterimResponseMessage value, final DataOutput output, final IMessageCodec codec)
+				throws IOException {
+			codec.encode(value.getInvocationId(), output);
+			codec.encode(value.getResponse(), output);
+		}
+
+		@Override
+		public InterimResponseMessage decode(final DataInput input, final IMessageCodec codec)
+				throws IOException, ClassNotFoundException {
+			return new InterimResponseMessage(codec.decode(input), codec.decode(input));
+		}
+	}
+
+	private static final class ResponseMessageCodec implements ITypeCodec<ResponseMessage> {
+
+		@Override
+		public Class<ResponseMessage> getType() {
+			return ResponseMessage.class;
+		}
+
+		@Override
+		public int getTypeId() {
+			return 106;
+		}
+
+		@Override
+		public void encode(final ResponseMessage value, final DataOutput output, final IMessageCodec codec) throws IOException {
+			codec.encode(value.getRequestId(), output);
+			codec.encode(value.getResponse(), output);
+		}
+
+		@Override
+		public ResponseMessage decode(final DataInput input, final IMessageCodec codec)
+				throws IOException, ClassNotFoundException {
+			return new ResponseMessage(codec.decode(input), codec.decode(input));
+		}
+	}
+
+	private static final class InvocationIdCodec implements ITypeCodec<InvocationId> {
+
+		@Override
+		public Class<InvocationId> getType() {
+			return InvocationId.class;
+		}
+
+		@Override
+		public int getTypeId() {
+			return 107;
+		}
+
+		@Override
+		public void encode(final InvocationId value, final DataOutput output, final IMessageCodec codec) throws IOException {
+			output.writeLong(value.getPrefix());
+			output.writeLong(value.getSequence());
+		}
+
+		@Override
+		public InvocationId decode(final DataInput input, final IMessageCodec codec) throws IOException {
+			return new InvocationId(input.readLong(), input.readLong());
+		}
+	}
+
+}
@@ -28,11 +28,22 @@
 
 package org.jowidgets.invocation.service.client.api;
 
+import org.jowidgets.invocation.service.common.api.IInvocationIdGenerator;
 
 public interface IInvocationServiceClientBuilder {
 
 	IInvocationServiceClientBuilder setDefaultTimeout(long timeout);
 
+	/**
+	 * Sets the generator for the invocation ids. If not set, a compact sequence based
+	 * generator that is shared by all clients of the broker will be used
+	 * 
+	 * @param generator The generator to use, must not be null
+	 * 
+	 * @return This builder
+	 */
+	IInvocationServiceClientBuilder setInvocationIdGenerator(IInvocationIdGenerator generator);
+
 	IInvocationServiceClient build();
 
 }
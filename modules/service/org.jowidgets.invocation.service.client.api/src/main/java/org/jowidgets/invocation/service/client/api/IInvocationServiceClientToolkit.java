@@ -34,4 +34,6 @@ public interface IInvocationServiceClientToolkit {
 
 	IInvocationServiceClientBuilder getClientBuilder(Object brokerId);
 
+	IInvocationStatistics getStatistics(Object brokerId);
+
 }
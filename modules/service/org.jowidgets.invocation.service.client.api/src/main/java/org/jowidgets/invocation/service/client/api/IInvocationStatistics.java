@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.invocation.service.client.api;
+
+/**
+ * Statistics of the outstanding invocations of a broker
+ */
+public interface IInvocationStatistics {
+
+	/**
+	 * @return The number of invocations that was invoked but not yet finished, failed, canceled or expired
+	 */
+	int getOutstandingInvocationCount();
+
+	/**
+	 * @return The number of invocations that expired because no result or interim message was received within the timeout
+	 */
+	long getExpiredInvocationCount();
+
+	/**
+	 * Gets the upper bounds (exclusive) of the age histogram buckets in millis, the last bucket has no upper bound.
+	 * 
+	 * @return The upper bounds, never null
+	 */
+	long[] getAgeHistogramBoundsMillis();
+
+	/**
+	 * Gets the age histogram of the outstanding invocations.
+	 * 
+	 * The histogram has one bucket more than {@link #getAgeHistogramBoundsMillis()} has bounds, the bucket with index i holds
+	 * the number of outstanding invocations with an age less than bound i (and not less than bound i - 1).
+	 * 
+	 * @return The histogram, never null
+	 */
+	int[] getAgeHistogram();
+
+}
@@ -86,4 +86,8 @@ public final class InvocationServiceClientToolkit {
 		return getInstance().getClientBuilder(brokerId);
 	}
 
+	public static IInvocationStatistics getStatistics(final Object brokerId) {
+		return getInstance().getStatistics(brokerId);
+	}
+
 }
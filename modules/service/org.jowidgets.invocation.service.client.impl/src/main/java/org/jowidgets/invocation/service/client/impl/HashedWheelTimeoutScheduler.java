@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.invocation.service.client.impl;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.jowidgets.logging.api.ILogger;
+import org.jowidgets.logging.api.LoggerProvider;
+import org.jowidgets.util.Assert;
+import org.jowidgets.util.concurrent.DaemonThreadFactory;
+
+/**
+ * Schedules timeout tasks on a hashed wheel.
+ * 
+ * Scheduling and canceling a timeout is O(1) and does not need a lock, the wheel itself will only be accessed by
+ * the single tick thread. The tick thread will be started with the first scheduled timeout. The expired tasks
+ * will be run by a task executor, so a slow task does not delay the expiration of other timeouts.
+ */
+final class HashedWheelTimeoutScheduler {
+
+	private static final ILogger LOGGER = LoggerProvider.get(HashedWheelTimeoutScheduler.class);
+
+	private static final long DEFAULT_TICK_MILLIS = 100;
+	private static final int DEFAULT_WHEEL_SIZE = 512;
+
+	private final long tickMillis;
+	private final int mask;
+	private final List<List<Timeout>> wheel;
+	private final Queue<Timeout> pendingTimeouts;
+	private final AtomicBoolean started;
+	private final long startTime;
+	private final Executor taskExecutor;
+
+	private ScheduledExecutorService executor;
+	private long tick;
+
+	HashedWheelTimeoutScheduler() {
+		this(
+			DEFAULT_TICK_MILLIS,
+			DEFAULT_WHEEL_SIZE,
+			Executors.newCachedThreadPool(DaemonThreadFactory.multi(HashedWheelTimeoutScheduler.class.getName() + ".Task")));
+	}
+
+	/**
+	 * Creates a new scheduler
+	 * 
+	 * @param tickMillis The duration of one tick, must be positive
+	 * @param wheelSize The number of buckets of the wheel, must be a power of two
+	 * @param taskExecutor The executor that runs the expired tasks, must not be null
+	 */
+	HashedWheelTimeoutScheduler(final long tickMillis, final int wheelSize, final Executor taskExecutor) {
+		Assert.paramNotNull(taskExecutor, "taskExecutor");
+		if (tickMillis <= 0) {
+			throw new IllegalArgumentException("Parameter 'tickMillis' must be positive");
+		}
+		if (wheelSize <= 0 || Integer.bitCount(wheelSize) != 1) {
+			throw new IllegalArgumentException("Parameter 'wheelSize' must be a power of two");
+		}
+		this.tickMillis = tickMillis;
+		this.mask = wheelSize - 1;
+		this.wheel = new ArrayList<List<Timeout>>(wheelSize);
+		for (int i = 0; i < wheelSize; i++) {
+			wheel.add(new LinkedList<Timeout>());
+		}
+		this.pendingTimeouts = new ConcurrentLinkedQueue<Timeout>();
+		this.started = new AtomicBoolean(false);
+		this.startTime = System.currentTimeMillis();
+		this.taskExecutor = taskExecutor;
+	}
+
+	/**
+	 * Schedules a task that will be run by the task executor after the given delay.
+	 * 
+	 * The timeout is accurate to one tick, the task will never be run before the delay elapsed.
+	 * 
+	 * @param task The task to run, must not be null
+	 * @param delayMillis The delay in millis
+	 * 
+	 * @return The timeout that can be used to cancel the task, never null
+	 */
+	Timeout schedule(final Runnable task, final long delayMillis) {
+		Assert.paramNotNull(task, "task");
+		final Timeout result = new Timeout(task, System.currentTimeMillis() + Math.max(0, delayMillis));
+		pendingTimeouts.add(result);
+		startIfNecessary();
+		return result;
+	}
+
+	private void startIfNecessary() {
+		if (started.compareAndSet(false, true)) {
+			executor = Executors.newSingleThreadScheduledExecutor(
+					DaemonThreadFactory.create(HashedWheelTimeoutScheduler.class.getName() + ".Ticker"));
+			executor.scheduleAtFixedRate(new TickRunner(), tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	private final class TickRunner implements Runnable {
+
+		@Override
+		public void run() {
+			final long currentTick = (System.currentTimeMillis() - startTime) / tickMillis;
+			while (tick <= currentTick) {
+				transferPendingTimeouts();
+				expireTimeouts(wheel.get((int) (tick & mask)));
+				tick++;
+			}
+		}
+
+		private void transferPendingTimeouts() {
+			Timeout timeout = pendingTimeouts.poll();
+			while (timeout != null) {
+				if (!timeout.isDone()) {
+					//round up, so the task will never be run too early
+					final long expirationTick = Math.max(tick, (timeout.deadline - startTime + tickMillis - 1) / tickMillis);
+					timeout.remainingRounds = (expirationTick - tick) / wheel.size();
+					wheel.get((int) (expirationTick & mask)).add(timeout);
+				}
+				timeout = pendingTimeouts.poll();
+			}
+		}
+
+		private void expireTimeouts(final List<Timeout> bucket) {
+			final Iterator<Timeout> iterator = bucket.iterator();
+			while (iterator.hasNext()) {
+				final Timeout timeout = iterator.next();
+				if (timeout.isDone()) {
+					iterator.remove();
+				}
+				else if (timeout.remainingRounds <= 0) {
+					iterator.remove();
+					expire(timeout);
+				}
+				else {
+					timeout.remainingRounds--;
+				}
+			}
+		}
+
+		private void expire(final Timeout timeout) {
+			try {
+				taskExecutor.execute(new Runnable() {
+					@Override
+					public void run() {
+						timeout.expire();
+					}
+				});
+			}
+			catch (final RejectedExecutionException e) {
+				LOGGER.error("Timeout task was rejected by the executor", e);
+			}
+		}
+	}
+
+	static final class Timeout {
+
+		private final Runnable task;
+		private final long deadline;
+		private final AtomicBoolean done;
+
+		//only accessed by tick thread
+		private long remainingRounds;
+
+		private Timeout(final Runnable task, final long deadline) {
+			this.task = task;
+			this.deadline = deadline;
+			this.done = new AtomicBoolean(false);
+		}
+
+		/**
+		 * Cancels the timeout, if the task was not already run, it will not be run anymore
+		 */
+		void cancel() {
+			done.set(true);
+		}
+
+		boolean isDone() {
+			return done.get();
+		}
+
+		private void expire() {
+			if (done.compareAndSet(false, true)) {
+				try {
+					task.run();
+				}
+				catch (final Throwable e) {
+					LOGGER.error("Error while running timeout task", e);
+				}
+			}
+		}
+	}
+
+}
@@ -28,39 +28,57 @@
 
 package org.jowidgets.invocation.service.client.impl;
 
-import java.util.Map;
-import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.jowidgets.invocation.client.api.IInvocationClient;
 import org.jowidgets.invocation.client.api.InvocationClientToolkit;
 import org.jowidgets.invocation.common.api.ICancelService;
 import org.jowidgets.invocation.common.api.IInvocationCallbackService;
+import org.jowidgets.invocation.service.client.api.IInvocationStatistics;
+import org.jowidgets.invocation.service.client.api.InvocationTimeoutException;
 import org.jowidgets.invocation.service.common.api.ICancelListener;
 import org.jowidgets.invocation.service.common.api.IInterimRequestCallback;
 import org.jowidgets.invocation.service.common.api.IInterimResponseCallback;
 import org.jowidgets.invocation.service.common.api.IInvocationCallback;
+import org.jowidgets.invocation.service.common.api.IInvocationIdGenerator;
 import org.jowidgets.logging.api.ILogger;
 import org.jowidgets.logging.api.LoggerProvider;
 import org.jowidgets.util.Assert;
 
-final class InvocationCallbackServiceImpl implements IInvocationCallbackService {
+final class InvocationCallbackServiceImpl implements IInvocationCallbackService, IInvocationStatistics {
 
 	private static final ILogger LOGGER = LoggerProvider.get(InvocationCallbackServiceImpl.class);
 	private static final int MAP_SIZE_WARN_THRESHOLD = 500;
+	private static final long[] AGE_HISTOGRAM_BOUNDS_MILLIS = {1000, 10000, 60000, 300000, 900000};
 
-	private final Map<Object, InvocationContext> invocationContexts;
+	private final ConcurrentMap<Object, InvocationContext> invocationContexts;
 	private final Object brokerId;
+	private final IInvocationIdGenerator defaultInvocationIdGenerator;
+	private final HashedWheelTimeoutScheduler timeoutScheduler;
+	private final AtomicLong expiredInvocationCount;
 
-	InvocationCallbackServiceImpl(final Object brokerId) {
+	InvocationCallbackServiceImpl(final Object brokerId, final HashedWheelTimeoutScheduler timeoutScheduler) {
 		Assert.paramNotNull(brokerId, "brokerId");
+		Assert.paramNotNull(timeoutScheduler, "timeoutScheduler");
 		this.brokerId = brokerId;
+		this.timeoutScheduler = timeoutScheduler;
 		this.invocationContexts = new ConcurrentHashMap<Object, InvocationContext>();
+		this.defaultInvocationIdGenerator = new SequenceInvocationIdGenerator();
+		this.expiredInvocationCount = new AtomicLong();
+	}
+
+	IInvocationIdGenerator getDefaultInvocationIdGenerator() {
+		return defaultInvocationIdGenerator;
 	}
 
 	@Override
 	public void interimResponse(final Object invocationId, final Object progress) {
 		final InvocationContext context = invocationContexts.get(invocationId);
+		if (context != null) {
+			context.touch();
+		}
 		if (context != null && context.getInterimResponseCallback() != null) {
 			context.getInterimResponseCallback().response(progress);
 		}
@@ -69,6 +87,9 @@ final class InvocationCallbackServiceImpl implements IInvocationCallbackService
 	@Override
 	public void interimRequest(final Object invocationId, final Object requestId, final Object request) {
 		final InvocationContext context = invocationContexts.get(invocationId);
+		if (context != null) {
+			context.touch();
+		}
 		if (context != null && context.getInterimRequestCallback() != null) {
 			final IInterimResponseCallback<Object> resultCallback = new IInterimResponseCallback<Object>() {
 				@Override
@@ -82,30 +103,60 @@ final class InvocationCallbackServiceImpl implements IInvocationCallbackService
 
 	@Override
 	public void finished(final Object invocationId, final Object result) {
-		final InvocationContext context = invocationContexts.get(invocationId);
+		final InvocationContext context = removeInvocation(invocationId);
 		if (context != null && context.getResultCallback() != null) {
 			context.getResultCallback().finished(result);
-			invocationContexts.remove(invocationId);
 		}
 	}
 
 	@Override
 	public void exeption(final Object invocationId, final Throwable exception) {
-		final InvocationContext context = invocationContexts.get(invocationId);
+		final InvocationContext context = removeInvocation(invocationId);
 		if (context != null && context.getResultCallback() != null) {
 			context.getResultCallback().exeption(exception);
-			invocationContexts.remove(invocationId);
 		}
 	}
 
+	@Override
+	public int getOutstandingInvocationCount() {
+		return invocationContexts.size();
+	}
+
+	@Override
+	public long getExpiredInvocationCount() {
+		return expiredInvocationCount.get();
+	}
+
+	@Override
+	public long[] getAgeHistogramBoundsMillis() {
+		return AGE_HISTOGRAM_BOUNDS_MILLIS.clone();
+	}
+
+	@Override
+	public int[] getAgeHistogram() {
+		final int[] result = new int[AGE_HISTOGRAM_BOUNDS_MILLIS.length + 1];
+		final long now = System.currentTimeMillis();
+		for (final InvocationContext context : invocationContexts.values()) {
+			final long age = now - context.getTimestamp();
+			int bucket = 0;
+			while (bucket < AGE_HISTOGRAM_BOUNDS_MILLIS.length && age >= AGE_HISTOGRAM_BOUNDS_MILLIS[bucket]) {
+				bucket++;
+			}
+			result[bucket]++;
+		}
+		return result;
+	}
+
 	Object registerInvocation(
 		final IInvocationCallback<?> invocationCallback,
 		final IInterimResponseCallback<?> interimResponseCallback,
 		final IInterimRequestCallback<?, ?> interimRequestCallback,
 		final long timeout,
-		final IInvocationClient invocationClient) {
+		final IInvocationClient invocationClient,
+		final IInvocationIdGenerator invocationIdGenerator) {
 
-		final Object invocationId = UUID.randomUUID();
+		final Object invocationId = invocationIdGenerator.createInvocationId();
+		Assert.paramNotNull(invocationId, "invocationIdGenerator.createInvocationId()");
 
 		final InvocationContext invocationContext = new InvocationContext(
 			invocationCallback,
@@ -120,7 +171,7 @@ final class InvocationCallbackServiceImpl implements IInvocationCallbackService
 					final ICancelService cancelService = invocationClient.getCancelService();
 					if (cancelService != null) {
 						cancelService.canceled(invocationId);
-						invocationContexts.remove(invocationId);
+						removeInvocation(invocationId);
 					}
 
 				}
@@ -130,9 +181,77 @@ final class InvocationCallbackServiceImpl implements IInvocationCallbackService
 		invocationContexts.put(invocationId, invocationContext);
 		checkMapSize();
 
+		if (timeout > 0) {
+			scheduleExpiration(invocationId, invocationContext, invocationClient, timeout);
+		}
+
 		return invocationId;
 	}
 
+	private void scheduleExpiration(
+		final Object invocationId,
+		final InvocationContext context,
+		final IInvocationClient invocationClient,
+		final long delay) {
+
+		context.setExpiration(timeoutScheduler.schedule(new Runnable() {
+			@Override
+			public void run() {
+				checkExpiration(invocationId, context, invocationClient);
+			}
+		}, delay));
+	}
+
+	/**
+	 * The timeout starts again with each interim response or request, so long running invocations
+	 * that report their progress will not expire. Instead of rescheduling on each interim message,
+	 * the expiration will be rescheduled here for the remaining time.
+	 */
+	private void checkExpiration(
+		final Object invocationId,
+		final InvocationContext context,
+		final IInvocationClient invocationClient) {
+
+		final long inactivity = System.currentTimeMillis() - context.getLastActivity();
+		if (inactivity < context.getTimeout()) {
+			if (invocationContexts.get(invocationId) == context) {
+				scheduleExpiration(invocationId, context, invocationClient, context.getTimeout() - inactivity);
+			}
+		}
+		else {
+			expire(invocationId, context, invocationClient);
+		}
+	}
+
+	private InvocationContext removeInvocation(final Object invocationId) {
+		final InvocationContext result = invocationContexts.remove(invocationId);
+		if (result != null) {
+			result.cancelExpiration();
+		}
+		return result;
+	}
+
+	private void expire(final Object invocationId, final InvocationContext context, final IInvocationClient invocationClient) {
+		if (!invocationContexts.remove(invocationId, context)) {
+			return;
+		}
+		expiredInvocationCount.incrementAndGet();
+		try {
+			final ICancelService cancelService = invocationClient.getCancelService();
+			if (cancelService != null) {
+				cancelService.canceled(invocationId);
+			}
+		}
+		catch (final Exception e) {
+			LOGGER.warn("Could not cancel expired invocation '" + invocationId + "' on server", e);
+		}
+		if (context.getResultCallback() != null) {
+			context.getResultCallback().exeption(
+					new InvocationTimeoutException(
+						"Timeout '" + context.getTimeout() + " ms' while waiting on result or interim message"));
+		}
+	}
+
 	/**
 	 * Added to observe issue #84:
 	 * 
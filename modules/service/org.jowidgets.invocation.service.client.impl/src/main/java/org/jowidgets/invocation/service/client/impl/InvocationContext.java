@@ -41,6 +41,9 @@ final class InvocationContext {
 	private final long timeout;
 	private final long timestamp;
 
+	private volatile long lastActivity;
+	private volatile HashedWheelTimeoutScheduler.Timeout expiration;
+
 	InvocationContext(
 		final IInvocationCallback<?> invocationCallback,
 		final IInterimResponseCallback<?> interimResponseCallback,
@@ -52,6 +55,7 @@ final class InvocationContext {
 		this.interimRequestCallback = interimRequestCalbback;
 		this.timeout = timeout;
 		this.timestamp = System.currentTimeMillis();
+		this.lastActivity = timestamp;
 	}
 
 	IInvocationCallback<Object> getResultCallback() {
@@ -74,4 +78,29 @@ final class InvocationContext {
 		return timestamp;
 	}
 
+	/**
+	 * @return The time of the registration or of the last interim response or request, whatever is later
+	 */
+	long getLastActivity() {
+		return lastActivity;
+	}
+
+	/**
+	 * Marks interim activity of the invocation, the timeout will start again
+	 */
+	void touch() {
+		lastActivity = System.currentTimeMillis();
+	}
+
+	void setExpiration(final HashedWheelTimeoutScheduler.Timeout expiration) {
+		this.expiration = expiration;
+	}
+
+	void cancelExpiration() {
+		final HashedWheelTimeoutScheduler.Timeout currentExpiration = expiration;
+		if (currentExpiration != null) {
+			currentExpiration.cancel();
+		}
+	}
+
 }
@@ -30,6 +30,7 @@ package org.jowidgets.invocation.service.client.impl;
 
 import org.jowidgets.invocation.service.client.api.IInvocationServiceClient;
 import org.jowidgets.invocation.service.client.api.IInvocationServiceClientBuilder;
+import org.jowidgets.invocation.service.common.api.IInvocationIdGenerator;
 import org.jowidgets.util.Assert;
 
 final class InvocationServiceClientBuilderImpl implements IInvocationServiceClientBuilder {
@@ -40,6 +41,7 @@ final class InvocationServiceClientBuilderImpl implements IInvocationServiceClie
 	private final InvocationCallbackServiceImpl invocationCallbackService;
 
 	private long defaulTimeout;
+	private IInvocationIdGenerator invocationIdGenerator;
 
 	InvocationServiceClientBuilderImpl(final Object brokerId, final InvocationCallbackServiceImpl invocationCallbackService) {
 		Assert.paramNotNull(brokerId, "brokerId");
@@ -47,6 +49,7 @@ final class InvocationServiceClientBuilderImpl implements IInvocationServiceClie
 		this.brokerId = brokerId;
 		this.invocationCallbackService = invocationCallbackService;
 		this.defaulTimeout = DEFAULT_TIMEOUT;
+		this.invocationIdGenerator = invocationCallbackService.getDefaultInvocationIdGenerator();
 	}
 
 	@Override
@@ -55,9 +58,16 @@ final class InvocationServiceClientBuilderImpl implements IInvocationServiceClie
 		return this;
 	}
 
+	@Override
+	public IInvocationServiceClientBuilder setInvocationIdGenerator(final IInvocationIdGenerator generator) {
+		Assert.paramNotNull(generator, "generator");
+		this.invocationIdGenerator = generator;
+		return this;
+	}
+
 	@Override
 	public IInvocationServiceClient build() {
-		return new InvocationServiceClientImpl(brokerId, invocationCallbackService, defaulTimeout);
+		return new InvocationServiceClientImpl(brokerId, invocationCallbackService, invocationIdGenerator, defaulTimeout);
 	}
 
 }
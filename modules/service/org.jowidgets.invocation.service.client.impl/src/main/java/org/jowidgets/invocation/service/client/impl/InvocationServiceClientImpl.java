@@ -34,6 +34,7 @@ import org.jowidgets.invocation.common.api.IMethod;
 import org.jowidgets.invocation.service.client.api.IInvocationServiceClient;
 import org.jowidgets.invocation.service.common.api.IInterimRequestCallback;
 import org.jowidgets.invocation.service.common.api.IInterimResponseCallback;
+import org.jowidgets.invocation.service.common.api.IInvocationIdGenerator;
 import org.jowidgets.invocation.service.common.api.IInvocationCallback;
 import org.jowidgets.invocation.service.common.api.IMethodInvocationService;
 import org.jowidgets.util.Assert;
@@ -43,13 +44,16 @@ final class InvocationServiceClientImpl implements IInvocationServiceClient {
 	private final long defaulTimeout;
 	private final IInvocationClient invocationClient;
 	private final InvocationCallbackServiceImpl invocationCallbackService;
+	private final IInvocationIdGenerator invocationIdGenerator;
 
 	InvocationServiceClientImpl(
 		final Object brokerId,
 		final InvocationCallbackServiceImpl invocationCallbackService,
+		final IInvocationIdGenerator invocationIdGenerator,
 		final long defaulTimeout) {
 		super();
 		this.defaulTimeout = defaulTimeout;
+		this.invocationIdGenerator = invocationIdGenerator;
 
 		this.invocationClient = InvocationClientToolkit.getClient(brokerId);
 		this.invocationCallbackService = invocationCallbackService;
@@ -86,7 +90,8 @@ final class InvocationServiceClientImpl implements IInvocationServiceClient {
 							interimResponseCallback,
 							interimRequestCallback,
 							timeout,
-							invocationClient);
+							invocationClient,
+							invocationIdGenerator);
 
 					method.invoke(invocationId, parameter);
 				}
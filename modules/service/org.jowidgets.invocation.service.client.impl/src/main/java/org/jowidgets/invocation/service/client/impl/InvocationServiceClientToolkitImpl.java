@@ -35,14 +35,17 @@ import org.jowidgets.invocation.client.api.InvocationClientToolkit;
 import org.jowidgets.invocation.service.client.api.IInvocationServiceClient;
 import org.jowidgets.invocation.service.client.api.IInvocationServiceClientBuilder;
 import org.jowidgets.invocation.service.client.api.IInvocationServiceClientToolkit;
+import org.jowidgets.invocation.service.client.api.IInvocationStatistics;
 import org.jowidgets.util.Assert;
 
 public final class InvocationServiceClientToolkitImpl implements IInvocationServiceClientToolkit {
 
 	private final Map<Object, InvocationCallbackServiceImpl> callbackServices;
+	private final HashedWheelTimeoutScheduler timeoutScheduler;
 
 	public InvocationServiceClientToolkitImpl() {
 		this.callbackServices = new HashMap<Object, InvocationCallbackServiceImpl>();
+		this.timeoutScheduler = new HashedWheelTimeoutScheduler();
 	}
 
 	@Override
@@ -55,6 +58,11 @@ public final class InvocationServiceClientToolkitImpl implements IInvocationServ
 		return new InvocationServiceClientBuilderImpl(brokerId, getInvocationCallbackService(brokerId));
 	}
 
+	@Override
+	public IInvocationStatistics getStatistics(final Object brokerId) {
+		return getInvocationCallbackService(brokerId);
+	}
+
 	private InvocationCallbackServiceImpl getInvocationCallbackService(final Object brokerId) {
 		Assert.paramNotNull(brokerId, "brokerId");
 		InvocationCallbackServiceImpl result = callbackServices.get(brokerId);
@@ -67,7 +75,7 @@ public final class InvocationServiceClientToolkitImpl implements IInvocationServ
 	private synchronized InvocationCallbackServiceImpl createInvocationCallbackService(final Object brokerId) {
 		InvocationCallbackServiceImpl result = callbackServices.get(brokerId);
 		if (result == null) {
-			result = new InvocationCallbackServiceImpl(brokerId);
+			result = new InvocationCallbackServiceImpl(brokerId, timeoutScheduler);
 			InvocationClientToolkit.getRegistry(brokerId).register(result);
 			callbackServices.put(brokerId, result);
 		}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.message.api;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Hand written encoder and decoder for a specific message type, used by the binary message codec.
+ * 
+ * @param <TYPE> The type that will be encoded and decoded
+ */
+public interface ITypeCodec<TYPE> {
+
+	/**
+	 * @return The type this codec is made for, only instances of exactly this class will be encoded by this codec
+	 */
+	Class<TYPE> getType();
+
+	/**
+	 * @return The id of the type that will be written to the stream. The id must be unique for all
+	 *         type codecs used by a message codec, ids below 100 are reserved.
+	 */
+	int getTypeId();
+
+	/**
+	 * Encodes the value
+	 * 
+	 * @param value The value to encode, never null
+	 * @param output The output to write to
+	 * @param codec The codec that can be used to encode nested values
+	 * 
+	 * @throws IOException
+	 */
+	void encode(TYPE value, DataOutput output, IMessageCodec codec) throws IOException;
+
+	/**
+	 * Decodes a value
+	 * 
+	 * @param input The input to read from
+	 * @param codec The codec that can be used to decode nested values
+	 * 
+	 * @return The decoded value, never null
+	 * 
+	 * @throws IOException
+	 * @throws ClassNotFoundException
+	 */
+	TYPE decode(DataInput input, IMessageCodec codec) throws IOException, ClassNotFoundException;
+
+}
@@ -0,0 +1,396 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.message.impl.codec;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jowidgets.classloading.api.SharedClassLoader;
+import org.jowidgets.message.api.IMessageCodec;
+import org.jowidgets.message.api.ISharedTypeCodec;
+import org.jowidgets.message.api.ITypeCodec;
+
+/**
+ * Codec that writes a one byte tag for each value followed by a compact binary representation of the value.
+ * 
+ * Values of types that are neither built in nor have a type codec will be written with java serialization.
+ * Values of types with a {@link ISharedTypeCodec} will be written only once per message, all further
+ * occurrences of the same instance will be written as a reference.
+ */
+final class BinaryMessageCodec implements IMessageCodec {
+
+	private static final byte NULL = 0;
+	private static final byte STRING = 1;
+	private static final byte LONG_STRING = 2;
+	private static final byte INTEGER = 3;
+	private static final byte LONG = 4;
+	private static final byte TRUE = 5;
+	private static final byte FALSE = 6;
+	private static final byte DOUBLE = 7;
+	private static final byte DATE = 8;
+	private static final byte ENUM = 9;
+	private static final byte ARRAY_LIST = 10;
+	private static final byte LINKED_LIST = 11;
+	private static final byte OBJECT_ARRAY = 12;
+	private static final byte TYPE = 13;
+	private static final byte SERIALIZED = 14;
+	private static final byte SHARED = 15;
+	private static final byte SHARED_REFERENCE = 16;
+
+	//writeUTF is limited to 65535 bytes, a char needs up to 3 bytes in modified utf-8
+	private static final int MAX_UTF_STRING_LENGTH = 65535 / 3;
+
+	//the sizes are read from the wire, so the buffers will grow with the read content beyond this capacity
+	private static final int MAX_INITIAL_CAPACITY = 1024;
+
+	private final Map<Class<?>, ITypeCodec<?>> codecsByType;
+	private final Map<Integer, ITypeCodec<?>> codecsById;
+	private final Map<String, Class<?>> enumClasses;
+
+	BinaryMessageCodec(final Collection<? extends ITypeCodec<?>> typeCodecs) {
+		this.codecsByType = new HashMap<Class<?>, ITypeCodec<?>>();
+		this.codecsById = new HashMap<Integer, ITypeCodec<?>>();
+		for (final ITypeCodec<?> typeCodec : typeCodecs) {
+			final int typeId = typeCodec.getTypeId();
+			if (typeId < 100) {
+				throw new IllegalArgumentException(
+					"The type id '" + typeId + "' of the codec '" + typeCodec + "' is reserved, use ids >= 100");
+			}
+			if (codecsById.containsKey(Integer.valueOf(typeId))) {
+				throw new IllegalArgumentException(
+					"The type id '" + typeId + "' of the codec '" + typeCodec + "' is not unique");
+			}
+			codecsById.put(Integer.valueOf(typeId), typeCodec);
+			codecsByType.put(typeCodec.getType(), typeCodec);
+		}
+		this.enumClasses = new ConcurrentHashMap<String, Class<?>>();
+	}
+
+	@Override
+	public void encode(final Object message, final DataOutput output) throws IOException {
+		encode(message, output, new MessageContext());
+	}
+
+	@Override
+	public Object decode(final DataInput input) throws IOException, ClassNotFoundException {
+		return decode(input, new MessageContext());
+	}
+
+	@SuppressWarnings("unchecked")
+	private void encode(final Object message, final DataOutput output, final MessageContext context) throws IOException {
+		if (message == null) {
+			output.writeByte(NULL);
+			return;
+		}
+		final Class<?> type = message.getClass();
+		if (type == String.class) {
+			encodeString((String) message, output);
+		}
+		else if (type == Integer.class) {
+			output.writeByte(INTEGER);
+			output.writeInt(((Integer) message).intValue());
+		}
+		else if (type == Long.class) {
+			output.writeByte(LONG);
+			output.writeLong(((Long) message).longValue());
+		}
+		else if (type == Boolean.class) {
+			output.writeByte(((Boolean) message).booleanValue() ? TRUE : FALSE);
+		}
+		else if (type == Double.class) {
+			output.writeByte(DOUBLE);
+			output.writeDouble(((Double) message).doubleValue());
+		}
+		else if (type == Date.class) {
+			output.writeByte(DATE);
+			output.writeLong(((Date) message).getTime());
+		}
+		else if (type.isEnum()) {
+			output.writeByte(ENUM);
+			output.writeUTF(type.getName());
+			output.writeUTF(((Enum<?>) message).name());
+		}
+		else if (type == ArrayList.class) {
+			output.writeByte(ARRAY_LIST);
+			encodeElements((List<?>) message, output, context);
+		}
+		else if (type == LinkedList.class) {
+			output.writeByte(LINKED_LIST);
+			encodeElements((List<?>) message, output, context);
+		}
+		else if (type == Object[].class) {
+			final Object[] array = (Object[]) message;
+			output.writeByte(OBJECT_ARRAY);
+			output.writeInt(array.length);
+			for (final Object element : array) {
+				encode(element, output, context);
+			}
+		}
+		else {
+			final ITypeCodec<Object> typeCodec = (ITypeCodec<Object>) codecsByType.get(type);
+			if (typeCodec instanceof ISharedTypeCodec<?>) {
+				encodeShared(message, typeCodec, output, context);
+			}
+			else if (typeCodec != null) {
+				output.writeByte(TYPE);
+				output.writeInt(typeCodec.getTypeId());
+				typeCodec.encode(message, output, context);
+			}
+			else {
+				final byte[] bytes = SerializationMessageCodec.serialize(message);
+				output.writeByte(SERIALIZED);
+				output.writeInt(bytes.length);
+				output.write(bytes);
+			}
+		}
+	}
+
+	private void encodeShared(
+		final Object message,
+		final ITypeCodec<Object> typeCodec,
+		final DataOutput output,
+		final MessageContext context) throws IOException {
+		final Integer index = context.getSharedIndex(message);
+		if (index != null) {
+			output.writeByte(SHARED_REFERENCE);
+			output.writeInt(index.intValue());
+		}
+		else {
+			output.writeByte(SHARED);
+			output.writeInt(typeCodec.getTypeId());
+			typeCodec.encode(message, output, context);
+			//register after encoding, so nested shared values get the same index on decode
+			context.addEncodedShared(message);
+		}
+	}
+
+	private Object decode(final DataInput input, final MessageContext context) throws IOException, ClassNotFoundException {
+		final byte tag = input.readByte();
+		switch (tag) {
+			case NULL:
+				return null;
+			case STRING:
+				return input.readUTF();
+			case LONG_STRING:
+				return decodeLongString(input);
+			case INTEGER:
+				return Integer.valueOf(input.readInt());
+			case LONG:
+				return Long.valueOf(input.readLong());
+			case TRUE:
+				return Boolean.TRUE;
+			case FALSE:
+				return Boolean.FALSE;
+			case DOUBLE:
+				return Double.valueOf(input.readDouble());
+			case DATE:
+				return new Date(input.readLong());
+			case ENUM:
+				return decodeEnum(input);
+			case ARRAY_LIST:
+				final int arrayListSize = readSize(input);
+				return decodeElements(new ArrayList<Object>(getInitialCapacity(arrayListSize)), arrayListSize, input, context);
+			case LINKED_LIST:
+				return decodeElements(new LinkedList<Object>(), readSize(input), input, context);
+			case OBJECT_ARRAY:
+				final int arraySize = readSize(input);
+				return decodeElements(new ArrayList<Object>(getInitialCapacity(arraySize)), arraySize, input, context).toArray();
+			case TYPE:
+				return getTypeCodec(input.readInt()).decode(input, context);
+			case SHARED:
+				final Object shared = getTypeCodec(input.readInt()).decode(input, context);
+				context.addDecodedShared(shared);
+				return shared;
+			case SHARED_REFERENCE:
+				return context.getDecodedShared(input.readInt());
+			case SERIALIZED:
+				return SerializationMessageCodec.deserialize(readBytes(input, readSize(input)));
+			default:
+				throw new IOException("Unknown tag '" + tag + "'");
+		}
+	}
+
+	private ITypeCodec<?> getTypeCodec(final int typeId) throws IOException {
+		final ITypeCodec<?> result = codecsById.get(Integer.valueOf(typeId));
+		if (result == null) {
+			throw new IOException("No type codec found for type id '" + typeId + "'");
+		}
+		return result;
+	}
+
+	private void encodeString(final String string, final DataOutput output) throws IOException {
+		final int length = string.length();
+		if (length <= MAX_UTF_STRING_LENGTH) {
+			output.writeByte(STRING);
+			output.writeUTF(string);
+		}
+		else {
+			output.writeByte(LONG_STRING);
+			output.writeInt(length);
+			output.writeChars(string);
+		}
+	}
+
+	private String decodeLongString(final DataInput input) throws IOException {
+		final int length = readSize(input);
+		final StringBuilder result = new StringBuilder(getInitialCapacity(length));
+		for (int i = 0; i < length; i++) {
+			result.append(input.readChar());
+		}
+		return result.toString();
+	}
+
+	private static byte[] readBytes(final DataInput input, final int length) throws IOException {
+		byte[] result = new byte[getInitialCapacity(length)];
+		int offset = 0;
+		while (offset < length) {
+			if (offset == result.length) {
+				result = Arrays.copyOf(result, (int) Math.min(length, 2L * result.length));
+			}
+			input.readFully(result, offset, result.length - offset);
+			offset = result.length;
+		}
+		return result;
+	}
+
+	private static int readSize(final DataInput input) throws IOException {
+		final int result = input.readInt();
+		if (result < 0) {
+			throw new IOException("Invalid size '" + result + "'");
+		}
+		return result;
+	}
+
+	private static int getInitialCapacity(final int size) {
+		return Math.min(size, MAX_INITIAL_CAPACITY);
+	}
+
+	private void encodeElements(final List<?> list, final DataOutput output, final MessageContext context) throws IOException {
+		output.writeInt(list.size());
+		for (final Object element : list) {
+			encode(element, output, context);
+		}
+	}
+
+	private List<Object> decodeElements(
+		final List<Object> result,
+		final int size,
+		final DataInput input,
+		final MessageContext context) throws IOException, ClassNotFoundException {
+		for (int i = 0; i < size; i++) {
+			result.add(decode(input, context));
+		}
+		return result;
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private Object decodeEnum(final DataInput input) throws IOException, ClassNotFoundException {
+		final Class enumClass = getEnumClass(input.readUTF());
+		final String name = input.readUTF();
+		try {
+			return Enum.valueOf(enumClass, name);
+		}
+		catch (final IllegalArgumentException e) {
+			throw new IOException("The enum '" + enumClass.getName() + "' has no constant '" + name + "'", e);
+		}
+	}
+
+	private Class<?> getEnumClass(final String className) throws IOException, ClassNotFoundException {
+		Class<?> result = enumClasses.get(className);
+		if (result == null) {
+			try {
+				result = Class.forName(className, false, BinaryMessageCodec.class.getClassLoader());
+			}
+			catch (final ClassNotFoundException e) {
+				result = Class.forName(className, false, SharedClassLoader.getCompositeClassLoader());
+			}
+			if (!result.isEnum()) {
+				throw new IOException("The class '" + className + "' is not an enum");
+			}
+			enumClasses.put(className, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Holds the shared values of one message, will be passed as codec to the type codecs
+	 */
+	private final class MessageContext implements IMessageCodec {
+
+		private Map<Object, Integer> encodedShared;
+		private List<Object> decodedShared;
+
+		@Override
+		public void encode(final Object message, final DataOutput output) throws IOException {
+			BinaryMessageCodec.this.encode(message, output, this);
+		}
+
+		@Override
+		public Object decode(final DataInput input) throws IOException, ClassNotFoundException {
+			return BinaryMessageCodec.this.decode(input, this);
+		}
+
+		Integer getSharedIndex(final Object value) {
+			return encodedShared != null ? encodedShared.get(value) : null;
+		}
+
+		void addEncodedShared(final Object value) {
+			if (encodedShared == null) {
+				encodedShared = new IdentityHashMap<Object, Integer>();
+			}
+			encodedShared.put(value, Integer.valueOf(encodedShared.size()));
+		}
+
+		void addDecodedShared(final Object value) {
+			if (decodedShared == null) {
+				decodedShared = new ArrayList<Object>();
+			}
+			decodedShared.add(value);
+		}
+
+		Object getDecodedShared(final int index) throws IOException {
+			if (decodedShared == null || index < 0 || index >= decodedShared.size()) {
+				throw new IOException("Unknown shared value reference '" + index + "'");
+			}
+			return decodedShared.get(index);
+		}
+	}
+
+}
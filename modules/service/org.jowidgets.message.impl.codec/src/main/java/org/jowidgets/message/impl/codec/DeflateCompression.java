@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.message.impl.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Deflate (zlib) compression of message payloads, negotiated with the http headers
+ * Accept-Encoding and Content-Encoding. Used by the http message client and the message servlet.
+ */
+public final class DeflateCompression {
+
+	public static final String ACCEPT_ENCODING_HEADER = "Accept-Encoding";
+	public static final String CONTENT_ENCODING_HEADER = "Content-Encoding";
+	public static final String DEFLATE_ENCODING = "deflate";
+
+	private DeflateCompression() {}
+
+	/**
+	 * Checks if an Accept-Encoding header value accepts the deflate encoding
+	 * 
+	 * @param acceptEncodingHeader The header value, may be null
+	 * 
+	 * @return True if deflate is accepted with a quality greater than zero, false otherwise
+	 */
+	public static boolean isDeflateAccepted(final String acceptEncodingHeader) {
+		if (acceptEncodingHeader == null) {
+			return false;
+		}
+		for (final String encoding : acceptEncodingHeader.split(",")) {
+			final String trimmedEncoding = encoding.trim();
+			if (DEFLATE_ENCODING.equalsIgnoreCase(trimmedEncoding)
+				|| trimmedEncoding.toLowerCase().startsWith(DEFLATE_ENCODING + ";")) {
+				return !trimmedEncoding.replace(" ", "").endsWith(";q=0");
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Checks if a Content-Encoding header value denotes the deflate encoding
+	 * 
+	 * @param contentEncodingHeader The header value, may be null
+	 * 
+	 * @return True if the content is deflate encoded, false otherwise
+	 */
+	public static boolean isDeflateEncoded(final String contentEncodingHeader) {
+		return contentEncodingHeader != null && DEFLATE_ENCODING.equalsIgnoreCase(contentEncodingHeader.trim());
+	}
+
+	/**
+	 * Compresses data with the deflate encoding
+	 * 
+	 * @param data The data to compress, must not be null
+	 * 
+	 * @return The compressed data
+	 * 
+	 * @throws IOException
+	 */
+	public static byte[] compress(final byte[] data) throws IOException {
+		final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		try {
+			final ByteArrayOutputStream result = new ByteArrayOutputStream(Math.max(data.length / 2, 64));
+			final DeflaterOutputStream deflaterOutputStream = new DeflaterOutputStream(result, deflater);
+			deflaterOutputStream.write(data);
+			deflaterOutputStream.finish();
+			return result.toByteArray();
+		}
+		finally {
+			deflater.end();
+		}
+	}
+
+	/**
+	 * Decorates a deflate encoded input stream with a stream that decompresses the data
+	 * 
+	 * @param inputStream The deflate encoded stream, must not be null
+	 * 
+	 * @return The decompressing stream
+	 */
+	public static InputStream decompress(final InputStream inputStream) {
+		return new InflaterInputStream(inputStream);
+	}
+
+}
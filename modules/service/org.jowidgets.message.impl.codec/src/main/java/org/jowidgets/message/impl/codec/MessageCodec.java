@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.message.impl.codec;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.ServiceLoader;
+
+import org.jowidgets.classloading.api.SharedClassLoader;
+import org.jowidgets.message.api.IMessageCodec;
+import org.jowidgets.message.api.ITypeCodec;
+import org.jowidgets.message.api.ITypeCodecProvider;
+import org.jowidgets.util.Assert;
+
+public final class MessageCodec {
+
+	private static final IMessageCodec SERIALIZATION_CODEC = new SerializationMessageCodec();
+
+	private static IMessageCodec binaryCodec;
+
+	private MessageCodec() {}
+
+	/**
+	 * @return A codec that uses java serialization for all messages
+	 */
+	public static IMessageCodec getSerializationCodec() {
+		return SERIALIZATION_CODEC;
+	}
+
+	/**
+	 * Gets the binary codec. The binary codec encodes null, strings, primitive wrappers, dates, enums, array lists,
+	 * linked lists and object arrays itself, uses the {@link ITypeCodec}'s of all {@link ITypeCodecProvider}'s
+	 * found by the service loader and falls back to java serialization for all other types.
+	 * 
+	 * @return The binary codec
+	 */
+	public static synchronized IMessageCodec getBinaryCodec() {
+		if (binaryCodec == null) {
+			binaryCodec = createBinaryCodec(loadTypeCodecs());
+		}
+		return binaryCodec;
+	}
+
+	/**
+	 * Creates a binary codec with explicit given type codecs
+	 * 
+	 * @param typeCodecs The type codecs to use, must not be null
+	 * 
+	 * @return A new binary codec
+	 */
+	public static IMessageCodec createBinaryCodec(final Collection<? extends ITypeCodec<?>> typeCodecs) {
+		Assert.paramNotNull(typeCodecs, "typeCodecs");
+		return new BinaryMessageCodec(typeCodecs);
+	}
+
+	private static Collection<ITypeCodec<?>> loadTypeCodecs() {
+		final Collection<ITypeCodec<?>> result = new LinkedList<ITypeCodec<?>>();
+		final ServiceLoader<ITypeCodecProvider> serviceLoader = ServiceLoader.load(
+				ITypeCodecProvider.class,
+				SharedClassLoader.getCompositeClassLoader());
+		final Iterator<ITypeCodecProvider> iterator = serviceLoader.iterator();
+		while (iterator.hasNext()) {
+			result.addAll(iterator.next().getTypeCodecs());
+		}
+		return result;
+	}
+
+}
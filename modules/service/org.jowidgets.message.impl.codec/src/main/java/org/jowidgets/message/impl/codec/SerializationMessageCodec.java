@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.message.impl.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.jowidgets.classloading.tools.SharedClassLoadingObjectInputStream;
+import org.jowidgets.message.api.IMessageCodec;
+
+/**
+ * Codec that writes each message as a length prefixed java serialization stream
+ */
+final class SerializationMessageCodec implements IMessageCodec {
+
+	@Override
+	public void encode(final Object message, final DataOutput output) throws IOException {
+		final byte[] bytes = serialize(message);
+		output.writeInt(bytes.length);
+		output.write(bytes);
+	}
+
+	@Override
+	public Object decode(final DataInput input) throws IOException, ClassNotFoundException {
+		final byte[] bytes = new byte[input.readInt()];
+		input.readFully(bytes);
+		return deserialize(bytes);
+	}
+
+	static byte[] serialize(final Object object) throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final ObjectOutputStream oos = new ObjectOutputStream(bytes);
+		oos.writeObject(object);
+		oos.close();
+		return bytes.toByteArray();
+	}
+
+	static Object deserialize(final byte[] bytes) throws IOException, ClassNotFoundException {
+		final ObjectInputStream ois = new SharedClassLoadingObjectInputStream(new ByteArrayInputStream(bytes));
+		try {
+			return ois.readObject();
+		}
+		finally {
+			ois.close();
+		}
+	}
+
+}
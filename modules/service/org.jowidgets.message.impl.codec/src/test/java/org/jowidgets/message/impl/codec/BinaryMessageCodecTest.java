@@ -0,0 +1,363 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.message.impl.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.jowidgets.message.api.IMessageCodec;
+import org.jowidgets.message.api.ISharedTypeCodec;
+import org.jowidgets.message.api.ITypeCodec;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BinaryMessageCodecTest {
+
+	private static final IMessageCodec CODEC = MessageCodec.createBinaryCodec(
+			Arrays.<ITypeCodec<?>> asList(new PointCodec(), new SharedPointCodec()));
+
+	@Test
+	public void testNull() throws IOException, ClassNotFoundException {
+		assertRoundTrip(null);
+	}
+
+	@Test
+	public void testStrings() throws IOException, ClassNotFoundException {
+		assertRoundTrip("");
+		assertRoundTrip("Hello \u00e4\u00f6\u00fc \u20ac");
+
+		final char[] chars = new char[100000];
+		Arrays.fill(chars, '\u20ac');
+		assertRoundTrip(new String(chars));
+	}
+
+	@Test
+	public void testPrimitiveWrappers() throws IOException, ClassNotFoundException {
+		assertRoundTrip(Integer.valueOf(Integer.MIN_VALUE));
+		assertRoundTrip(Integer.valueOf(42));
+		assertRoundTrip(Long.valueOf(Long.MAX_VALUE));
+		assertRoundTrip(Boolean.TRUE);
+		assertRoundTrip(Boolean.FALSE);
+		assertRoundTrip(Double.valueOf(-1.5d));
+		assertRoundTrip(Double.valueOf(Double.NaN));
+	}
+
+	@Test
+	public void testDate() throws IOException, ClassNotFoundException {
+		assertRoundTrip(new Date(1234567890123L));
+	}
+
+	@Test
+	public void testEnum() throws IOException, ClassNotFoundException {
+		for (final Color color : Color.values()) {
+			Assert.assertSame(color, roundTrip(color));
+		}
+	}
+
+	@Test
+	public void testLists() throws IOException, ClassNotFoundException {
+		assertRoundTrip(new ArrayList<Object>());
+		assertRoundTrip(new ArrayList<Object>(Arrays.asList("a", null, Integer.valueOf(1), Color.RED)));
+		assertRoundTrip(new LinkedList<Object>(Arrays.asList(Long.valueOf(1), Boolean.FALSE)));
+
+		Assert.assertEquals(ArrayList.class, roundTrip(new ArrayList<Object>()).getClass());
+		Assert.assertEquals(LinkedList.class, roundTrip(new LinkedList<Object>()).getClass());
+	}
+
+	@Test
+	public void testObjectArray() throws IOException, ClassNotFoundException {
+		final Object[] array = new Object[] {"a", null, Integer.valueOf(2), new Object[] {Color.GREEN}};
+		Assert.assertTrue(Arrays.deepEquals(array, (Object[]) roundTrip(array)));
+		Assert.assertArrayEquals(new Object[0], (Object[]) roundTrip(new Object[0]));
+	}
+
+	@Test
+	public void testNestedCollections() throws IOException, ClassNotFoundException {
+		final List<Object> inner = new LinkedList<Object>(Arrays.asList("inner", null, new Date(0)));
+		final List<Object> middle = new ArrayList<Object>(Arrays.asList(inner, new ArrayList<Object>(), Color.BLUE));
+		final List<Object> outer = new ArrayList<Object>(Arrays.asList(middle, null, new Point(1, 2)));
+		assertRoundTrip(outer);
+	}
+
+	@Test
+	public void testTypeCodec() throws IOException, ClassNotFoundException {
+		assertRoundTrip(new Point(3, -4));
+	}
+
+	@Test
+	public void testSharedTypeCodec() throws IOException, ClassNotFoundException {
+		final SharedPoint shared = new SharedPoint(5, 6);
+		final List<Object> message = new ArrayList<Object>(Arrays.asList(shared, shared, new SharedPoint(5, 6)));
+
+		@SuppressWarnings("unchecked")
+		final List<Object> result = (List<Object>) roundTrip(message);
+
+		Assert.assertEquals(message, result);
+		Assert.assertSame(result.get(0), result.get(1));
+		Assert.assertNotSame(result.get(0), result.get(2));
+	}
+
+	@Test
+	public void testSerializationFallback() throws IOException, ClassNotFoundException {
+		final Map<String, Object> map = new HashMap<String, Object>();
+		map.put("key", new BigDecimal("1.25"));
+		assertRoundTrip(map);
+		assertRoundTrip(Collections.singletonList("unmodifiable"));
+	}
+
+	@Test
+	public void testSerializationCodec() throws IOException, ClassNotFoundException {
+		final List<Object> message = new ArrayList<Object>(Arrays.asList("a", null, Color.RED, new Date(1)));
+		Assert.assertEquals(message, roundTrip(MessageCodec.getSerializationCodec(), message));
+		Assert.assertNull(roundTrip(MessageCodec.getSerializationCodec(), null));
+	}
+
+	@Test(expected = IOException.class)
+	public void testDecodeEnumOfNoEnumClass() throws IOException, ClassNotFoundException {
+		final byte[] bytes = encode(CODEC, Color.RED);
+		final byte[] className = Color.class.getName().getBytes("UTF-8");
+		final byte[] noEnumClassName = String.class.getName().getBytes("UTF-8");
+		decode(CODEC, replace(bytes, className, noEnumClassName));
+	}
+
+	@Test(expected = IOException.class)
+	public void testDecodeUnknownEnumConstant() throws IOException, ClassNotFoundException {
+		decode(CODEC, replace(encode(CODEC, Color.RED), "RED".getBytes("UTF-8"), "REX".getBytes("UTF-8")));
+	}
+
+	@Test(expected = IOException.class)
+	public void testDecodeUnknownTag() throws IOException, ClassNotFoundException {
+		decode(CODEC, new byte[] {(byte) 99});
+	}
+
+	@Test
+	public void testValuesBeyondInitialCapacity() throws IOException, ClassNotFoundException {
+		final List<Object> list = new ArrayList<Object>();
+		final Map<Integer, String> map = new HashMap<Integer, String>();
+		for (int i = 0; i < 5000; i++) {
+			list.add(Integer.valueOf(i));
+			map.put(Integer.valueOf(i), "value " + i);
+		}
+		assertRoundTrip(list);
+		assertRoundTrip(map);
+		Assert.assertArrayEquals(list.toArray(), (Object[]) roundTrip(list.toArray()));
+	}
+
+	@Test(expected = IOException.class)
+	public void testDecodeNegativeSize() throws IOException, ClassNotFoundException {
+		decode(CODEC, new byte[] {(byte) 10, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF});
+	}
+
+	@Test
+	public void testDecodeTruncatedHugeSizes() throws ClassNotFoundException {
+		//array list, object array, serialized and long string with a size of Integer.MAX_VALUE and no content
+		for (final byte tag : new byte[] {10, 12, 14, 2}) {
+			try {
+				decode(CODEC, new byte[] {tag, (byte) 0x7F, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0});
+				Assert.fail("IOException expected for tag " + tag);
+			}
+			catch (final IOException e) {
+				//expected
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testReservedTypeId() {
+		MessageCodec.createBinaryCodec(Collections.singletonList(new PointCodec(99)));
+	}
+
+	private static void assertRoundTrip(final Object message) throws IOException, ClassNotFoundException {
+		Assert.assertEquals(message, roundTrip(message));
+	}
+
+	private static Object roundTrip(final Object message) throws IOException, ClassNotFoundException {
+		return roundTrip(CODEC, message);
+	}
+
+	private static Object roundTrip(final IMessageCodec codec, final Object message) throws IOException, ClassNotFoundException {
+		return decode(codec, encode(codec, message));
+	}
+
+	private static byte[] encode(final IMessageCodec codec, final Object message) throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final DataOutputStream output = new DataOutputStream(bytes);
+		codec.encode(message, output);
+		output.close();
+		return bytes.toByteArray();
+	}
+
+	private static Object decode(final IMessageCodec codec, final byte[] bytes) throws IOException, ClassNotFoundException {
+		final DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes));
+		final Object result = codec.decode(input);
+		Assert.assertEquals("All bytes must be read", -1, input.read());
+		return result;
+	}
+
+	/**
+	 * Replaces the first occurrence of a modified utf-8 string (with its length prefix) in the bytes
+	 */
+	private static byte[] replace(final byte[] bytes, final byte[] search, final byte[] replacement) {
+		for (int index = 2; index + search.length <= bytes.length; index++) {
+			if (Arrays.equals(search, Arrays.copyOfRange(bytes, index, index + search.length))) {
+				final ByteArrayOutputStream result = new ByteArrayOutputStream();
+				result.write(bytes, 0, index - 2);
+				result.write((replacement.length >> 8) & 0xFF);
+				result.write(replacement.length & 0xFF);
+				result.write(replacement, 0, replacement.length);
+				result.write(bytes, index + search.length, bytes.length - index - search.length);
+				return result.toByteArray();
+			}
+		}
+		throw new IllegalArgumentException("Bytes not found");
+	}
+
+	private enum Color {
+		RED,
+		GREEN,
+		BLUE;
+	}
+
+	private static class Point {
+
+		private final int x;
+		private final int y;
+
+		Point(final int x, final int y) {
+			this.x = x;
+			this.y = y;
+		}
+
+		int getX() {
+			return x;
+		}
+
+		int getY() {
+			return y;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * x + y;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (obj == null || obj.getClass() != getClass()) {
+				return false;
+			}
+			final Point other = (Point) obj;
+			return x == other.x && y == other.y;
+		}
+
+	}
+
+	private static final class SharedPoint extends Point {
+
+		SharedPoint(final int x, final int y) {
+			super(x, y);
+		}
+
+	}
+
+	private static class PointCodec implements ITypeCodec<Point> {
+
+		private final int typeId;
+
+		PointCodec() {
+			this(100);
+		}
+
+		PointCodec(final int typeId) {
+			this.typeId = typeId;
+		}
+
+		@Override
+		public Class<Point> getType() {
+			return Point.class;
+		}
+
+		@Override
+		public int getTypeId() {
+			return typeId;
+		}
+
+		@Override
+		public void encode(final Point value, final DataOutput output, final IMessageCodec codec) throws IOException {
+			output.writeInt(value.getX());
+			output.writeInt(value.getY());
+		}
+
+		@Override
+		public Point decode(final DataInput input, final IMessageCodec codec) throws IOException {
+			return new Point(input.readInt(), input.readInt());
+		}
+
+	}
+
+	private static final class SharedPointCodec implements ISharedTypeCodec<SharedPoint> {
+
+		@Override
+		public Class<SharedPoint> getType() {
+			return SharedPoint.class;
+		}
+
+		@Override
+		public int getTypeId() {
+			return 101;
+		}
+
+		@Override
+		public void encode(final SharedPoint value, final DataOutput output, final IMessageCodec codec) throws IOException {
+			output.writeInt(value.getX());
+			output.writeInt(value.getY());
+		}
+
+		@Override
+		public SharedPoint decode(final DataInput input, final IMessageCodec codec) throws IOException {
+			return new SharedPoint(input.readInt(), input.readInt());
+		}
+
+	}
+
+}
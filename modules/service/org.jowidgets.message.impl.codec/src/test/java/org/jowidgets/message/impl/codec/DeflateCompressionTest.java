@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.message.impl.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DeflateCompressionTest {
+
+	@Test
+	public void testCompressAndDecompress() throws IOException {
+		assertRoundTrip(new byte[0]);
+		assertRoundTrip("a".getBytes("UTF-8"));
+
+		final byte[] repetitive = new byte[100000];
+		for (int i = 0; i < repetitive.length; i++) {
+			repetitive[i] = (byte) (i % 16);
+		}
+		final byte[] compressed = assertRoundTrip(repetitive);
+		Assert.assertTrue(compressed.length < repetitive.length / 10);
+
+		final byte[] random = new byte[100000];
+		new Random(42).nextBytes(random);
+		assertRoundTrip(random);
+	}
+
+	@Test
+	public void testDeflateAccepted() {
+		Assert.assertFalse(DeflateCompression.isDeflateAccepted(null));
+		Assert.assertFalse(DeflateCompression.isDeflateAccepted(""));
+		Assert.assertFalse(DeflateCompression.isDeflateAccepted("gzip"));
+		Assert.assertFalse(DeflateCompression.isDeflateAccepted("deflatex"));
+		Assert.assertFalse(DeflateCompression.isDeflateAccepted("deflate;q=0"));
+		Assert.assertFalse(DeflateCompression.isDeflateAccepted("gzip, deflate; q=0"));
+
+		Assert.assertTrue(DeflateCompression.isDeflateAccepted("deflate"));
+		Assert.assertTrue(DeflateCompression.isDeflateAccepted("DEFLATE"));
+		Assert.assertTrue(DeflateCompression.isDeflateAccepted("gzip, deflate"));
+		Assert.assertTrue(DeflateCompression.isDeflateAccepted("gzip,deflate;q=0.5"));
+	}
+
+	@Test
+	public void testDeflateEncoded() {
+		Assert.assertFalse(DeflateCompression.isDeflateEncoded(null));
+		Assert.assertFalse(DeflateCompression.isDeflateEncoded("gzip"));
+
+		Assert.assertTrue(DeflateCompression.isDeflateEncoded("deflate"));
+		Assert.assertTrue(DeflateCompression.isDeflateEncoded(" Deflate "));
+	}
+
+	private static byte[] assertRoundTrip(final byte[] data) throws IOException {
+		final byte[] compressed = DeflateCompression.compress(data);
+		Assert.assertArrayEquals(data, readAll(DeflateCompression.decompress(new ByteArrayInputStream(compressed))));
+		return compressed;
+	}
+
+	private static byte[] readAll(final InputStream inputStream) throws IOException {
+		final ByteArrayOutputStream result = new ByteArrayOutputStream();
+		final byte[] buffer = new byte[1024];
+		int read = inputStream.read(buffer);
+		while (read != -1) {
+			result.write(buffer, 0, read);
+			read = inputStream.read(buffer);
+		}
+		return result.toByteArray();
+	}
+
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.message.impl.socket;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds a fixed number of persistent frame connections for each peer. The connections
+ * of a peer will be used round robin.
+ * 
+ * The connections of a peer that was not used for the idle timeout will be closed and removed,
+ * so peers that have gone away (e.g. reply peers of clients) do not hold connections forever.
+ */
+final class ConnectionPool {
+
+	private final int connectionsPerPeer;
+	private final long idleTimeout;
+	private final ConcurrentMap<Peer, PeerConnections> connections;
+
+	private volatile long lastEviction;
+
+	ConnectionPool(final int connectionsPerPeer, final long idleTimeout) {
+		if (connectionsPerPeer < 1) {
+			throw new IllegalArgumentException("The parameter 'connectionsPerPeer' must be greater than zero");
+		}
+		if (idleTimeout < 1) {
+			throw new IllegalArgumentException("The parameter 'idleTimeout' must be greater than zero");
+		}
+		this.connectionsPerPeer = connectionsPerPeer;
+		this.idleTimeout = idleTimeout;
+		this.connections = new ConcurrentHashMap<Peer, PeerConnections>();
+		this.lastEviction = System.currentTimeMillis();
+	}
+
+	void send(final Peer peer, final byte[] frame) throws IOException {
+		final long now = System.currentTimeMillis();
+		evictIdleConnections(now);
+		PeerConnections peerConnections = getConnections(peer);
+		while (!peerConnections.acquire(now)) {
+			//the connections were evicted meanwhile
+			connections.remove(peer, peerConnections);
+			peerConnections = getConnections(peer);
+		}
+		try {
+			peerConnections.next().write(frame);
+		}
+		finally {
+			peerConnections.release();
+		}
+	}
+
+	private void evictIdleConnections(final long now) {
+		if (now - lastEviction < idleTimeout / 2) {
+			return;
+		}
+		lastEviction = now;
+		final Iterator<PeerConnections> iterator = connections.values().iterator();
+		while (iterator.hasNext()) {
+			final PeerConnections peerConnections = iterator.next();
+			if (peerConnections.evictIfIdle(now, idleTimeout)) {
+				iterator.remove();
+			}
+		}
+	}
+
+	private PeerConnections getConnections(final Peer peer) {
+		PeerConnections result = connections.get(peer);
+		if (result == null) {
+			final PeerConnections newConnections = new PeerConnections(peer, connectionsPerPeer);
+			result = connections.putIfAbsent(peer, newConnections);
+			if (result == null) {
+				result = newConnections;
+			}
+		}
+		return result;
+	}
+
+	private static final class PeerConnections {
+
+		private final FrameConnection[] connections;
+		private final AtomicInteger counter;
+
+		private long lastUsed;
+		private int activeWrites;
+		private boolean evicted;
+
+		PeerConnections(final Peer peer, final int size) {
+			this.connections = new FrameConnection[size];
+			for (int i = 0; i < size; i++) {
+				connections[i] = new FrameConnection(peer);
+			}
+			this.counter = new AtomicInteger();
+			this.lastUsed = System.currentTimeMillis();
+		}
+
+		synchronized boolean acquire(final long now) {
+			if (evicted) {
+				return false;
+			}
+			activeWrites++;
+			lastUsed = now;
+			return true;
+		}
+
+		synchronized void release() {
+			activeWrites--;
+		}
+
+		synchronized boolean evictIfIdle(final long now, final long idleTimeout) {
+			if (!evicted && activeWrites == 0 && now - lastUsed >= idleTimeout) {
+				evicted = true;
+				for (final FrameConnection connection : connections) {
+					connection.close();
+				}
+			}
+			return evicted;
+		}
+
+		FrameConnection next() {
+			final int index = (counter.getAndIncrement() & Integer.MAX_VALUE) % connections.length;
+			return connections[index];
+		}
+	}
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.message.impl.socket;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+
+import org.jowidgets.util.Assert;
+
+/**
+ * A persistent connection to a peer that writes length prefixed frames.
+ * 
+ * If writing fails, the connection will be closed and the exception will be thrown. The frame will not be
+ * written again, because the peer may have received it already. The next write reestablishes the connection.
+ */
+final class FrameConnection {
+
+	private final Peer peer;
+
+	private Socket socket;
+	private DataOutputStream output;
+
+	FrameConnection(final Peer peer) {
+		Assert.paramNotNull(peer, "peer");
+		this.peer = peer;
+	}
+
+	synchronized void write(final byte[] frame) throws IOException {
+		ensureConnected();
+		try {
+			Frames.write(output, frame);
+		}
+		catch (final IOException e) {
+			//messages are not idempotent, so the frame must not be written again
+			close();
+			throw e;
+		}
+	}
+
+	synchronized void close() {
+		try {
+			if (output != null) {
+				output.close();
+			}
+		}
+		catch (final Exception e) {
+		}
+		try {
+			if (socket != null) {
+				socket.close();
+			}
+		}
+		catch (final Exception e) {
+		}
+		output = null;
+		socket = null;
+	}
+
+	private void ensureConnected() throws IOException {
+		if (socket == null || socket.isClosed()) {
+			final Socket newSocket = new Socket(peer.getHost(), peer.getPort());
+			try {
+				newSocket.setTcpNoDelay(true);
+				newSocket.setKeepAlive(true);
+				output = new DataOutputStream(new BufferedOutputStream(newSocket.getOutputStream()));
+			}
+			catch (final IOException e) {
+				newSocket.close();
+				throw e;
+			}
+			socket = newSocket;
+		}
+	}
+
+}
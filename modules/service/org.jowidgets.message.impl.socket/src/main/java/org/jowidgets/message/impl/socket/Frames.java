@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.message.impl.socket;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+
+import org.jowidgets.message.api.IMessageCodec;
+
+/**
+ * Length prefixed framing used by the multiplexed connection mode.
+ * 
+ * Each frame consists of a four byte length followed by the encoded message. If no codec is given,
+ * the message will be encoded with java serialization, otherwise the reply port will be written
+ * followed by the content encoded with the codec.
+ */
+final class Frames {
+
+	static final int MAX_FRAME_SIZE = 64 * 1024 * 1024;
+
+	private static final int INITIAL_FRAME_BUFFER_SIZE = 64 * 1024;
+
+	private Frames() {}
+
+	static byte[] encode(final Message message, final IMessageCodec codec) throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+		if (codec != null) {
+			final DataOutputStream output = new DataOutputStream(bytes);
+			output.writeInt(message.getReplyPort());
+			codec.encode(message.getContent(), output);
+			output.close();
+		}
+		else {
+			final ObjectOutputStream oos = new ObjectOutputStream(bytes);
+			oos.writeObject(message);
+			oos.close();
+		}
+		return bytes.toByteArray();
+	}
+
+	static Object decode(final byte[] frame, final IMessageCodec codec) throws IOException, ClassNotFoundException {
+		if (codec != null) {
+			final DataInputStream input = new DataInputStream(new ByteArrayInputStream(frame));
+			final int replyPort = input.readInt();
+			return new Message(codec.decode(input), replyPort);
+		}
+		final ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(frame));
+		try {
+			return ois.readObject();
+		}
+		finally {
+			ois.close();
+		}
+	}
+
+	static byte[] readAll(final InputStream input) throws IOException {
+		final ByteArrayOutputStream result = new ByteArrayOutputStream(1024);
+		final byte[] buffer = new byte[4096];
+		int read = input.read(buffer);
+		while (read != -1) {
+			result.write(buffer, 0, read);
+			read = input.read(buffer);
+		}
+		return result.toByteArray();
+	}
+
+	static void write(final DataOutputStream output, final byte[] frame) throws IOException {
+		output.writeInt(frame.length);
+		output.write(frame);
+		output.flush();
+	}
+
+	/**
+	 * Reads the next frame from the input.
+	 * 
+	 * The buffer grows while the frame will be read, so a peer can not allocate
+	 * the maximal frame size by sending the length only.
+	 * 
+	 * @param input The input to read from
+	 * 
+	 * @return The frame or null, if the stream was closed by the peer
+	 * 
+	 * @throws IOException
+	 */
+	static byte[] read(final DataInputStream input) throws IOException {
+		final int length;
+		try {
+			length = input.readInt();
+		}
+		catch (final EOFException e) {
+			return null;
+		}
+		if (length < 0 || length > MAX_FRAME_SIZE) {
+			throw new IOException("Invalid frame length: " + length);
+		}
+		byte[] result = new byte[Math.min(length, INITIAL_FRAME_BUFFER_SIZE)];
+		int offset = 0;
+		while (offset < length) {
+			if (offset == result.length) {
+				result = Arrays.copyOf(result, (int) Math.min(length, 2L * result.length));
+			}
+			final int read = input.read(result, offset, result.length - offset);
+			if (read == -1) {
+				throw new EOFException("Frame ended after " + offset + " of " + length + " bytes");
+			}
+			offset = offset + read;
+		}
+		return result;
+	}
+
+}
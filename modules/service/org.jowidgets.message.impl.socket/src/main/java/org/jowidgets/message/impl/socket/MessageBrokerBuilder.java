@@ -33,7 +33,9 @@ import java.util.Set;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 
+import org.jowidgets.message.api.IMessageChannel;
 import org.jowidgets.message.api.IMessageChannelBroker;
+import org.jowidgets.message.api.IMessageCodec;
 import org.jowidgets.message.api.IMessageReceiverBroker;
 import org.jowidgets.util.Assert;
 
@@ -49,6 +51,11 @@ public final class MessageBrokerBuilder {
 	private int receiverPort;
 	private Executor sendExecutor;
 	private Executor receiveExecutor;
+	private boolean multiplexed;
+	private int connectionsPerPeer;
+	private long connectionIdleTimeout;
+	private boolean nonBlockingReceiver;
+	private IMessageCodec codec;
 
 	public MessageBrokerBuilder(final Object brokerId) {
 		Assert.paramNotNull(brokerId, "brokerId");
@@ -57,6 +64,10 @@ public final class MessageBrokerBuilder {
 		this.receiverPort = -1;
 		this.sendExecutor = Executors.newFixedThreadPool(50);
 		this.receiveExecutor = Executors.newFixedThreadPool(50);
+		this.multiplexed = false;
+		this.connectionsPerPeer = 4;
+		this.connectionIdleTimeout = 300000;
+		this.nonBlockingReceiver = false;
 	}
 
 	public MessageBrokerBuilder setHost(final String host) {
@@ -95,13 +106,96 @@ public final class MessageBrokerBuilder {
 		return this;
 	}
 
+	/**
+	 * Sets the multiplexed mode. If multiplexed, messages will be sent as length prefixed frames
+	 * over a few persistent connections per peer instead of opening a new connection for each message.
+	 * Connections that was closed will be reestablished on the next send.
+	 * 
+	 * Remark: The channel and the receiver side must use the same mode
+	 * 
+	 * @param multiplexed True if multiplexed, false otherwise. Default is false
+	 * 
+	 * @return This builder
+	 */
+	public MessageBrokerBuilder setMultiplexed(final boolean multiplexed) {
+		this.multiplexed = multiplexed;
+		return this;
+	}
+
+	/**
+	 * Sets the number of persistent connections that will be used for each peer in multiplexed mode
+	 * 
+	 * @param connectionsPerPeer The number of connections, must be greater than zero. Default is 4
+	 * 
+	 * @return This builder
+	 */
+	public MessageBrokerBuilder setConnectionsPerPeer(final int connectionsPerPeer) {
+		if (connectionsPerPeer < 1) {
+			throw new IllegalArgumentException("The parameter 'connectionsPerPeer' must be greater than zero");
+		}
+		this.connectionsPerPeer = connectionsPerPeer;
+		return this;
+	}
+
+	/**
+	 * Sets the time in millis after that the connections of an unused peer will be closed in multiplexed mode
+	 * 
+	 * @param idleTimeout The timeout, must be greater than zero. Default is 300000 (5 minutes)
+	 * 
+	 * @return This builder
+	 */
+	public MessageBrokerBuilder setConnectionIdleTimeout(final long idleTimeout) {
+		if (idleTimeout < 1) {
+			throw new IllegalArgumentException("The parameter 'idleTimeout' must be greater than zero");
+		}
+		this.connectionIdleTimeout = idleTimeout;
+		return this;
+	}
+
+	/**
+	 * Sets the non blocking receiver mode. If set, all incoming connections will be served by one
+	 * selector thread, so the number of connected peers is not limited by the threads of the receive executor.
+	 * The receive executor will only be used to decode and dispatch the received messages then.
+	 * 
+	 * @param nonBlocking True if the receiver should be non blocking, false otherwise. Default is false
+	 * 
+	 * @return This builder
+	 */
+	public MessageBrokerBuilder setNonBlockingReceiver(final boolean nonBlocking) {
+		this.nonBlockingReceiver = nonBlocking;
+		return this;
+	}
+
+	/**
+	 * Sets the codec that will be used to encode and decode the message content, e.g.
+	 * org.jowidgets.message.impl.codec.MessageCodec.getBinaryCodec()
+	 * 
+	 * Remark: The channel and the receiver side must use the same codec
+	 * 
+	 * @param codec The codec to use, may be null. If null (default), java serialization will be used
+	 * 
+	 * @return This builder
+	 */
+	public MessageBrokerBuilder setCodec(final IMessageCodec codec) {
+		this.codec = codec;
+		return this;
+	}
+
 	public IMessageChannelBroker buildChannel() {
+		final Peer peer = new Peer(host, port);
+		final Peer receiverPeer = new Peer(receiverHost, receiverPort);
+		final ConnectionPool connectionPool = multiplexed ? new ConnectionPool(connectionsPerPeer, connectionIdleTimeout) : null;
+		final IMessageChannel channel;
+		if (connectionPool != null) {
+			channel = new MultiplexedMessageChannel(peer, receiverPeer, sendExecutor, connectionPool, codec);
+		}
+		else {
+			channel = new MessageChannel(peer, receiverPeer, sendExecutor, codec);
+		}
 		return new MessageChannelBroker(
 			brokerId,
-			new Peer(host, port),
-			new Peer(receiverHost, receiverPort),
-			sendExecutor,
-			new MessageReceiverBroker(brokerId, new Peer(host, port), sendExecutor, receiveExecutor));
+			channel,
+			new MessageReceiverBroker(brokerId, peer, sendExecutor, receiveExecutor, connectionPool, nonBlockingReceiver, codec));
 	}
 
 	public synchronized IMessageReceiverBroker buildReceiver() {
@@ -112,7 +206,10 @@ public final class MessageBrokerBuilder {
 			brokerId,
 			new Peer(host, port),
 			sendExecutor,
-			receiveExecutor);
+			receiveExecutor,
+			multiplexed ? new ConnectionPool(connectionsPerPeer, connectionIdleTimeout) : null,
+			nonBlockingReceiver,
+			codec);
 		KNOWN_RECEIVER_BROKERS.add(brokerId);
 		return result;
 	}
@@ -34,6 +34,7 @@ import java.util.concurrent.Executor;
 
 import org.jowidgets.message.api.IExceptionCallback;
 import org.jowidgets.message.api.IMessageChannel;
+import org.jowidgets.message.api.IMessageCodec;
 import org.jowidgets.util.Assert;
 
 final class MessageChannel implements IMessageChannel {
@@ -41,8 +42,9 @@ final class MessageChannel implements IMessageChannel {
 	private final Peer peer;
 	private final Peer receiverPeer;
 	private final Executor sendExecutor;
+	private final IMessageCodec codec;
 
-	MessageChannel(final Peer peer, final Peer receiverPeer, final Executor sendExecutor) {
+	MessageChannel(final Peer peer, final Peer receiverPeer, final Executor sendExecutor, final IMessageCodec codec) {
 		Assert.paramNotNull(receiverPeer, "receiverPeer");
 		Assert.paramNotNull(sendExecutor, "sendExecutor");
 		Assert.paramNotNull(receiverPeer.getHost(), "receiverPeer.getHost()");
@@ -52,6 +54,7 @@ final class MessageChannel implements IMessageChannel {
 		this.peer = peer;
 		this.receiverPeer = receiverPeer;
 		this.sendExecutor = sendExecutor;
+		this.codec = codec;
 	}
 
 	@Override
@@ -63,8 +66,14 @@ final class MessageChannel implements IMessageChannel {
 				ObjectOutputStream oos = null;
 				try {
 					socket = new Socket(receiverPeer.getHost(), receiverPeer.getPort());
-					oos = new ObjectOutputStream(socket.getOutputStream());
-					oos.writeObject(new Message(message, peer.getPort()));
+					if (codec != null) {
+						socket.getOutputStream().write(Frames.encode(new Message(message, peer.getPort()), codec));
+						socket.getOutputStream().flush();
+					}
+					else {
+						oos = new ObjectOutputStream(socket.getOutputStream());
+						oos.writeObject(new Message(message, peer.getPort()));
+					}
 				}
 				catch (final Exception e) {
 					if (exceptionCallback != null) {
@@ -28,8 +28,6 @@
 
 package org.jowidgets.message.impl.socket;
 
-import java.util.concurrent.Executor;
-
 import org.jowidgets.message.api.IMessageChannel;
 import org.jowidgets.message.api.IMessageChannelBroker;
 import org.jowidgets.message.api.IMessageReceiver;
@@ -44,15 +42,13 @@ final class MessageChannelBroker implements IMessageChannelBroker {
 
 	MessageChannelBroker(
 		final Object brokerId,
-		final Peer peer,
-		final Peer receiverPeer,
-		final Executor executor,
+		final IMessageChannel messageProducer,
 		final IMessageReceiverBroker messageReceiverBroker) {
 		Assert.paramNotNull(brokerId, "brokerId");
-		Assert.paramNotNull(executor, "executor");
+		Assert.paramNotNull(messageProducer, "messageProducer");
 		Assert.paramNotNull(messageReceiverBroker, "messageReceiverBroker");
 		this.brokerId = brokerId;
-		this.messageProducer = new MessageChannel(peer, receiverPeer, executor);
+		this.messageProducer = messageProducer;
 		this.messageReceiverBroker = messageReceiverBroker;
 	}
 
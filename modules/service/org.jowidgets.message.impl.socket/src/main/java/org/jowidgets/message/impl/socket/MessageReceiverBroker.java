@@ -28,6 +28,8 @@
 
 package org.jowidgets.message.impl.socket;
 
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.net.InetAddress;
@@ -37,6 +39,8 @@ import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Executor;
 import java.util.concurrent.LinkedBlockingQueue;
 
+import org.jowidgets.message.api.IMessageChannel;
+import org.jowidgets.message.api.IMessageCodec;
 import org.jowidgets.message.api.IMessageReceiver;
 import org.jowidgets.message.api.IMessageReceiverBroker;
 import org.jowidgets.message.api.MessageToolkit;
@@ -47,16 +51,48 @@ public class MessageReceiverBroker implements IMessageReceiverBroker {
 	private final Peer peer;
 	private final Executor receiveExecutor;
 	private final Executor sendExecutor;
+	private final ConnectionPool connectionPool;
+	private final boolean nonBlocking;
+	private final IMessageCodec codec;
 	private final BlockingQueue<QueuedMessage> messages;
 
 	private IMessageReceiver receiver;
 
 	MessageReceiverBroker(final Object brokerId, final Peer peer, final Executor sendExecutor, final Executor receiveExecutor) {
+		this(brokerId, peer, sendExecutor, receiveExecutor, null, false, null);
+	}
+
+	/**
+	 * Creates a new receiver broker
+	 * 
+	 * @param brokerId The id of the broker
+	 * @param peer The peer to listen on
+	 * @param sendExecutor The executor used to send replies
+	 * @param receiveExecutor The executor used to receive and dispatch messages
+	 * @param connectionPool The pool for persistent multiplexed connections, may be null. If null, each message
+	 *            will be received on its own connection, otherwise each accepted connection will be kept open and
+	 *            all frames of the connection will be read
+	 * @param nonBlocking If true, all connections will be served by one selector thread, otherwise each
+	 *            persistent connection will be read with a blocking stream on its own thread
+	 * @param codec The codec used to encode and decode the message content, may be null. If null,
+	 *            the messages will be encoded with java serialization
+	 */
+	MessageReceiverBroker(
+		final Object brokerId,
+		final Peer peer,
+		final Executor sendExecutor,
+		final Executor receiveExecutor,
+		final ConnectionPool connectionPool,
+		final boolean nonBlocking,
+		final IMessageCodec codec) {
 		super();
 		this.brokerId = brokerId;
 		this.peer = peer;
 		this.sendExecutor = sendExecutor;
 		this.receiveExecutor = receiveExecutor;
+		this.connectionPool = connectionPool;
+		this.nonBlocking = nonBlocking;
+		this.codec = codec;
 		this.messages = new LinkedBlockingQueue<QueuedMessage>();
 		start();
 	}
@@ -72,7 +108,12 @@ public class MessageReceiverBroker implements IMessageReceiverBroker {
 	}
 
 	private void start() {
-		receiveExecutor.execute(createCommunicationRunnable());
+		if (nonBlocking) {
+			receiveExecutor.execute(new SelectorReceiver(brokerId, peer.getPort(), connectionPool != null, new FrameHandler()));
+		}
+		else {
+			receiveExecutor.execute(createCommunicationRunnable());
+		}
 		receiveExecutor.execute(createMessageDispatcherRunnable());
 	}
 
@@ -109,36 +150,11 @@ public class MessageReceiverBroker implements IMessageReceiverBroker {
 				try {
 					serverSocket = new ServerSocket(peer.getPort());
 					while (true) {
-						Socket client = null;
-						ObjectInputStream ooi = null;
-						try {
-							client = serverSocket.accept();
-							ooi = new ObjectInputStream(client.getInputStream());
-							final Object object = ooi.readObject();
-
-							if (object instanceof Message) {
-								final Message message = (Message) object;
-								final InetAddress inetAddress = client.getInetAddress();
-								final Peer replyPeer = new Peer(inetAddress.getHostName(), message.getReplyPort());
-								final MessageChannel replyChannel = new MessageChannel(peer, replyPeer, sendExecutor);
-								messages.add(new QueuedMessage(message.getContent(), replyChannel));
-							}
-
+						if (connectionPool != null) {
+							acceptConnection(serverSocket);
 						}
-						catch (final Exception e) {
-							MessageToolkit.handleExceptions(brokerId, e);
-						}
-						finally {
-							try {
-								client.close();
-							}
-							catch (final Exception exception) {
-							}
-							try {
-								ooi.close();
-							}
-							catch (final Exception exception) {
-							}
+						else {
+							receiveMessage(serverSocket);
 						}
 					}
 				}
@@ -155,4 +171,126 @@ public class MessageReceiverBroker implements IMessageReceiverBroker {
 			}
 		};
 	}
+
+	private void receiveMessage(final ServerSocket serverSocket) {
+		Socket client = null;
+		ObjectInputStream ooi = null;
+		try {
+			client = serverSocket.accept();
+			final Object object;
+			if (codec != null) {
+				object = Frames.decode(Frames.readAll(client.getInputStream()), codec);
+			}
+			else {
+				ooi = new ObjectInputStream(client.getInputStream());
+				object = ooi.readObject();
+			}
+
+			if (object instanceof Message) {
+				final Message message = (Message) object;
+				final InetAddress inetAddress = client.getInetAddress();
+				final Peer replyPeer = new Peer(inetAddress.getHostName(), message.getReplyPort());
+				messages.add(new QueuedMessage(message.getContent(), createReplyChannel(replyPeer)));
+			}
+
+		}
+		catch (final Exception e) {
+			MessageToolkit.handleExceptions(brokerId, e);
+		}
+		finally {
+			try {
+				client.close();
+			}
+			catch (final Exception exception) {
+			}
+			try {
+				ooi.close();
+			}
+			catch (final Exception exception) {
+			}
+		}
+	}
+
+	private void acceptConnection(final ServerSocket serverSocket) {
+		try {
+			final Socket client = serverSocket.accept();
+			//a persistent connection blocks its reader for its whole lifetime, so it must not use a thread of
+			//the receive executor, otherwise a few connections could starve the message dispatching
+			final Thread readerThread = new Thread(
+				createConnectionReaderRunnable(client),
+				"MessageReceiverBroker-" + brokerId + "-" + client.getRemoteSocketAddress());
+			readerThread.setDaemon(true);
+			readerThread.start();
+		}
+		catch (final Exception e) {
+			MessageToolkit.handleExceptions(brokerId, e);
+		}
+	}
+
+	private Runnable createConnectionReaderRunnable(final Socket client) {
+		return new Runnable() {
+			@Override
+			public void run() {
+				try {
+					client.setTcpNoDelay(true);
+					final DataInputStream input = new DataInputStream(new BufferedInputStream(client.getInputStream()));
+					final String replyHost = client.getInetAddress().getHostName();
+					byte[] frame = Frames.read(input);
+					while (frame != null) {
+						final Object object = Frames.decode(frame, codec);
+						if (object instanceof Message) {
+							final Message message = (Message) object;
+							final Peer replyPeer = new Peer(replyHost, message.getReplyPort());
+							messages.add(new QueuedMessage(message.getContent(), createReplyChannel(replyPeer)));
+						}
+						frame = Frames.read(input);
+					}
+				}
+				catch (final Exception e) {
+					MessageToolkit.handleExceptions(brokerId, e);
+				}
+				finally {
+					try {
+						client.close();
+					}
+					catch (final Exception exception) {
+					}
+				}
+			}
+		};
+	}
+
+	private IMessageChannel createReplyChannel(final Peer replyPeer) {
+		if (connectionPool != null) {
+			return new MultiplexedMessageChannel(peer, replyPeer, sendExecutor, connectionPool, codec);
+		}
+		else {
+			return new MessageChannel(peer, replyPeer, sendExecutor, codec);
+		}
+	}
+
+	private final class FrameHandler implements SelectorReceiver.IFrameHandler {
+
+		@Override
+		public void onFrame(final byte[] frame, final String replyHost) {
+			//decode on the receive executor, a large or slow decode must not block the selector thread
+			receiveExecutor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						final Object object = Frames.decode(frame, codec);
+						if (object instanceof Message) {
+							final Message message = (Message) object;
+							final Peer replyPeer = new Peer(replyHost, message.getReplyPort());
+							messages.add(new QueuedMessage(message.getContent(), createReplyChannel(replyPeer)));
+						}
+					}
+					catch (final Exception e) {
+						MessageToolkit.handleExceptions(brokerId, e);
+					}
+				}
+			});
+		}
+
+	}
 }
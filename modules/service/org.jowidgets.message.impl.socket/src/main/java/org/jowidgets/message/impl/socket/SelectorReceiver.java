@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 2018, grossmann
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ * * Neither the name of the jo-widgets.org nor the
+ *   names of its contributors may be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL jo-widgets.org BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+
+package org.jowidgets.message.impl.socket;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import org.jowidgets.message.api.MessageToolkit;
+import org.jowidgets.util.Assert;
+
+/**
+ * Non blocking receiver that serves all connections of a port with one selector thread.
+ * 
+ * In framed mode, each connection may transport many length prefixed frames (see {@link Frames}),
+ * otherwise all bytes received until the peer closes the connection will be treated as one frame.
+ * 
+ * The buffer of a frame grows with the received bytes, so an announced frame length does not allocate memory
+ * in advance. Frames and unframed messages must not exceed {@link Frames#MAX_FRAME_SIZE}.
+ */
+final class SelectorReceiver implements Runnable {
+
+	private static final int READ_BUFFER_SIZE = 64 * 1024;
+	private static final int INITIAL_FRAME_BUFFER_SIZE = 8 * 1024;
+
+	interface IFrameHandler {
+
+		/**
+		 * Will be invoked on the selector thread for each received frame.
+		 * 
+		 * The selector thread serves all connections of the port, so implementors must not decode or
+		 * process the frame on the invoking thread, but hand it over to another thread.
+		 * 
+		 * @param frame The received frame, never null
+		 * @param replyHost The address of the host the frame was received from
+		 */
+		void onFrame(byte[] frame, String replyHost);
+
+	}
+
+	private final Object brokerId;
+	private final int port;
+	private final boolean framed;
+	private final IFrameHandler frameHandler;
+	private final ByteBuffer readBuffer;
+
+	SelectorReceiver(final Object brokerId, final int port, final boolean framed, final IFrameHandler frameHandler) {
+		Assert.paramNotNull(brokerId, "brokerId");
+		Assert.paramNotNull(frameHandler, "frameHandler");
+		this.brokerId = brokerId;
+		this.port = port;
+		this.framed = framed;
+		this.frameHandler = frameHandler;
+		this.readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+	}
+
+	@Override
+	public void run() {
+		Selector selector = null;
+		ServerSocketChannel serverChannel = null;
+		try {
+			selector = Selector.open();
+			serverChannel = ServerSocketChannel.open();
+			serverChannel.configureBlocking(false);
+			serverChannel.socket().bind(new InetSocketAddress(port));
+			serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+			while (!Thread.currentThread().isInterrupted()) {
+				selector.select();
+				final Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+				while (keys.hasNext()) {
+					final SelectionKey key = keys.next();
+					keys.remove();
+					try {
+						if (!key.isValid()) {
+							continue;
+						}
+						if (key.isAcceptable()) {
+							accept(selector, serverChannel);
+						}
+						else if (key.isReadable()) {
+							read(key);
+						}
+					}
+					catch (final Exception e) {
+						close(key);
+						MessageToolkit.handleExceptions(brokerId, e);
+					}
+				}
+			}
+		}
+		catch (final IOException e) {
+			throw new RuntimeException(e);
+		}
+		finally {
+			try {
+				if (selector != null) {
+					for (final SelectionKey key : selector.keys()) {
+						close(key);
+					}
+					selector.close();
+				}
+			}
+			catch (final Exception exception) {
+			}
+			try {
+				if (serverChannel != null) {
+					serverChannel.close();
+				}
+			}
+			catch (final Exception exception) {
+			}
+		}
+	}
+
+	private void accept(final Selector selector, final ServerSocketChannel serverChannel) throws IOException {
+		final SocketChannel channel = serverChannel.accept();
+		if (channel == null) {
+			return;
+		}
+		try {
+			channel.configureBlocking(false);
+			channel.socket().setTcpNoDelay(true);
+			channel.register(selector, SelectionKey.OP_READ, new ConnectionState(channel.socket().getInetAddress()));
+		}
+		catch (final IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	private void read(final SelectionKey key) throws IOException {
+		final SocketChannel channel = (SocketChannel) key.channel();
+		final ConnectionState state = (ConnectionState) key.attachment();
+		readBuffer.clear();
+		final int count = channel.read(readBuffer);
+		if (count == -1) {
+			close(key);
+			state.endOfStream();
+		}
+		else if (count > 0) {
+			readBuffer.flip();
+			state.consume(readBuffer);
+		}
+	}
+
+	private void close(final SelectionKey key) {
+		key.cancel();
+		try {
+			key.channel().close();
+		}
+		catch (final Exception exception) {
+		}
+	}
+
+	private final class ConnectionState {
+
+		private final InetAddress address;
+		private final ByteBuffer lengthBuffer;
+
+		private String replyHost;
+		private byte[] frame;
+		private int frameLength;
+		private int framePosition;
+		private ByteArrayOutputStream unframedBytes;
+
+		ConnectionState(final InetAddress address) {
+			this.address = address;
+			this.lengthBuffer = ByteBuffer.allocate(4);
+		}
+
+		void consume(final ByteBuffer buffer) throws IOException {
+			if (!framed) {
+				if (unframedBytes == null) {
+					unframedBytes = new ByteArrayOutputStream(1024);
+				}
+				if (unframedBytes.size() + buffer.remaining() > Frames.MAX_FRAME_SIZE) {
+					throw new IOException("Message exceeds the max frame size: " + Frames.MAX_FRAME_SIZE);
+				}
+				unframedBytes.write(buffer.array(), buffer.position(), buffer.remaining());
+				buffer.position(buffer.limit());
+				return;
+			}
+			while (buffer.hasRemaining()) {
+				if (frame == null) {
+					while (lengthBuffer.hasRemaining() && buffer.hasRemaining()) {
+						lengthBuffer.put(buffer.get());
+					}
+					if (lengthBuffer.hasRemaining()) {
+						return;
+					}
+					lengthBuffer.flip();
+					final int length = lengthBuffer.getInt();
+					lengthBuffer.clear();
+					if (length < 0 || length > Frames.MAX_FRAME_SIZE) {
+						throw new IOException("Invalid frame length: " + length);
+					}
+					frame = new byte[Math.min(length, INITIAL_FRAME_BUFFER_SIZE)];
+					frameLength = length;
+					framePosition = 0;
+				}
+				final int count = Math.min(frameLength - framePosition, buffer.remaining());
+				ensureFrameCapacity(framePosition + count);
+				buffer.get(frame, framePosition, count);
+				framePosition = framePosition + count;
+				if (framePosition == frameLength) {
+					final byte[] completeFrame = frame;
+					frame = null;
+					frameHandler.onFrame(completeFrame, getReplyHost());
+				}
+			}
+		}
+
+		private void ensureFrameCapacity(final int capacity) {
+			if (capacity > frame.length) {
+				//grow exponentially, but never beyond the announced frame length
+				final int newCapacity = (int) Math.min(frameLength, Math.max(capacity, 2L * frame.length));
+				frame = Arrays.copyOf(frame, newCapacity);
+			}
+		}
+
+		void endOfStream() {
+			if (unframedBytes != null) {
+				frameHandler.onFrame(unframedBytes.toByteArray(), getReplyHost());
+				unframedBytes = null;
+			}
+		}
+
+		private String getReplyHost() {
+			if (replyHost == null) {
+				//avoid reverse name lookups on the selector thread
+				replyHost = address.getHostAddress();
+			}
+			return replyHost;
+		}
+	}
+
+}
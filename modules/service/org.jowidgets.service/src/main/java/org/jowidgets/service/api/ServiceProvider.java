@@ -49,6 +49,8 @@ public final class ServiceProvider {
 	private static CompositeServiceProviderHolder compositeServiceProviderHolder;
 	private static List<IServiceProviderDecoratorHolder> serviceProviderDecorators;
 	private static Map<IServiceId<?>, IRedundantServiceResolver<?>> redundantServiceResolvers;
+	private static boolean frozen;
+	private static volatile IServiceProvider frozenInstance;
 
 	private ServiceProvider() {}
 
@@ -63,11 +65,29 @@ public final class ServiceProvider {
 		compositeServiceProviderHolder = null;
 		serviceProviderDecorators = null;
 		redundantServiceResolvers = null;
+		frozen = false;
+		frozenInstance = null;
+	}
+
+	/**
+	 * Freezes the service provider, e.g. after the startup of a server.
+	 * 
+	 * After freezing, the services of all registered holders will be resolved once into an immutable lookup table
+	 * and the decorators will be applied once to this table, so getting a service will not resolve the services
+	 * of all holders and decorate the provider for each invocation. Services that are not contained in the table
+	 * will still be resolved by the holders.
+	 * 
+	 * If holders, decorators or resolvers will be registered after freezing, the table will be rebuilt.
+	 */
+	public static synchronized void freeze() {
+		frozen = true;
+		frozenInstance = createFrozenInstance();
 	}
 
 	public static synchronized void registerServiceProviderHolder(final IServiceProviderHolder serviceProviderHolder) {
 		Assert.paramNotNull(serviceProviderHolder, "serviceProviderHolder");
 		getCompositeServiceProviderHolder().add(serviceProviderHolder);
+		refreezeIfNeeded();
 	}
 
 	public static synchronized void registerServiceProviderDecorator(final IServiceProviderDecoratorHolder decorator) {
@@ -75,6 +95,7 @@ public final class ServiceProvider {
 		final List<IServiceProviderDecoratorHolder> decorators = getServiceProviderDecorators();
 		decorators.add(decorator);
 		sortDecorators(decorators);
+		refreezeIfNeeded();
 	}
 
 	public static synchronized void registerRedundantServiceResolver(final IRedundantServiceResolver<?> resolver) {
@@ -88,6 +109,13 @@ public final class ServiceProvider {
 		else {
 			throw new IllegalStateException("There is already a service resolver registred for the id '" + serviceId + "'");
 		}
+		refreezeIfNeeded();
+	}
+
+	private static void refreezeIfNeeded() {
+		if (frozen) {
+			frozenInstance = createFrozenInstance();
+		}
 	}
 
 	private static synchronized CompositeServiceProviderHolder getCompositeServiceProviderHolder() {
@@ -105,6 +133,10 @@ public final class ServiceProvider {
 	}
 
 	public static IServiceProvider getInstance() {
+		final IServiceProvider result = frozenInstance;
+		if (result != null) {
+			return result;
+		}
 		return getDecoratedInstance();
 	}
 
@@ -117,7 +149,15 @@ public final class ServiceProvider {
 	}
 
 	private static IServiceProvider getDecoratedInstance() {
-		IServiceProvider result = getUndecoratedInstance();
+		return decorate(getUndecoratedInstance());
+	}
+
+	private static IServiceProvider createFrozenInstance() {
+		return decorate(new FrozenServiceProvider(getUndecoratedInstance()));
+	}
+
+	private static IServiceProvider decorate(final IServiceProvider serviceProvider) {
+		IServiceProvider result = serviceProvider;
 		for (final IServiceProviderDecoratorHolder decorator : getServiceProviderDecorators()) {
 			result = decorator.getDecorator().decorate(result);
 			if (result == null) {
@@ -208,6 +248,39 @@ public final class ServiceProvider {
 		});
 	}
 
+	private static final class FrozenServiceProvider implements IServiceProvider {
+
+		private final IServiceProvider original;
+		private final Map<IServiceId<?>, Object> services;
+
+		FrozenServiceProvider(final IServiceProvider original) {
+			this.original = original;
+			final Map<IServiceId<?>, Object> servicesMap = new HashMap<IServiceId<?>, Object>();
+			for (final IServiceId<?> id : original.getAvailableServices()) {
+				final Object service = original.get(id);
+				if (service != null) {
+					servicesMap.put(id, service);
+				}
+			}
+			this.services = Collections.unmodifiableMap(servicesMap);
+		}
+
+		@Override
+		public Set<IServiceId<?>> getAvailableServices() {
+			return original.getAvailableServices();
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public <SERVICE_TYPE> SERVICE_TYPE get(final IServiceId<SERVICE_TYPE> id) {
+			final Object result = services.get(id);
+			if (result != null) {
+				return (SERVICE_TYPE) result;
+			}
+			return original.get(id);
+		}
+	}
+
 	private static class CompositeServiceProviderHolder implements IServiceProviderHolder {
 
 		private final Set<IServiceProviderHolder> serviceProviderHolders;
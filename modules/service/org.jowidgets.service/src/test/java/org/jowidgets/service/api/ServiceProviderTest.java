@@ -35,6 +35,7 @@ import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 
 import org.jowidgets.service.tools.ServiceId;
+import org.jowidgets.util.IDecorator;
 import org.jowidgets.util.ValueHolder;
 import org.junit.Before;
 import org.junit.Test;
@@ -83,6 +84,34 @@ public class ServiceProviderTest {
 		Assert.assertEquals(SERVICE_3, ServiceProvider.getService(SERVICE_ID_3));
 	}
 
+	@Test
+	public void testFrozenServiceProvider() {
+		ServiceProvider.registerServiceProviderHolder(SERVICE_PROVIDER_HOLDER_1);
+		ServiceProvider.freeze();
+
+		Assert.assertEquals(SERVICE_1, ServiceProvider.getService(SERVICE_ID_1));
+		Assert.assertEquals(SERVICE_2, ServiceProvider.getService(SERVICE_ID_2));
+		Assert.assertNull(ServiceProvider.getService(SERVICE_ID_3));
+
+		ServiceProvider.registerServiceProviderHolder(SERVICE_PROVIDER_HOLDER_2);
+
+		Assert.assertEquals(SERVICE_1, ServiceProvider.getService(SERVICE_ID_1));
+		Assert.assertEquals(SERVICE_3, ServiceProvider.getService(SERVICE_ID_3));
+	}
+
+	@Test
+	public void testFrozenServiceProviderDecoration() {
+		final DecoratorHolderMock decoratorHolder = new DecoratorHolderMock();
+		ServiceProvider.registerServiceProviderHolder(SERVICE_PROVIDER_HOLDER_1);
+		ServiceProvider.registerServiceProviderDecorator(decoratorHolder);
+		ServiceProvider.freeze();
+		final int decorations = decoratorHolder.getDecorations();
+
+		Assert.assertEquals(SERVICE_1, ServiceProvider.getService(SERVICE_ID_1));
+		Assert.assertEquals(SERVICE_2, ServiceProvider.getService(SERVICE_ID_2));
+		Assert.assertEquals(decorations, decoratorHolder.getDecorations());
+	}
+
 	@Test
 	public void testConcurrentServiceRegistration() {
 		ServiceProvider.registerServiceProviderHolder(SERVICE_PROVIDER_HOLDER_1);
@@ -133,6 +162,31 @@ public class ServiceProviderTest {
 		Assert.assertNull(exceptionHolder.get());
 	}
 
+	private static final class DecoratorHolderMock implements IServiceProviderDecoratorHolder, IDecorator<IServiceProvider> {
+
+		private int decorations;
+
+		int getDecorations() {
+			return decorations;
+		}
+
+		@Override
+		public IDecorator<IServiceProvider> getDecorator() {
+			return this;
+		}
+
+		@Override
+		public int getOrder() {
+			return 0;
+		}
+
+		@Override
+		public IServiceProvider decorate(final IServiceProvider original) {
+			decorations++;
+			return original;
+		}
+	}
+
 	private static final class ServiceProviderMock implements IServiceProviderHolder, IServiceProvider {
 
 		private final Map<IServiceId<?>, Object> services;